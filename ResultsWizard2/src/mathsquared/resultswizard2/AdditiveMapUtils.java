@@ -3,6 +3,7 @@
  */
 package mathsquared.resultswizard2;
 
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -24,11 +25,8 @@ public class AdditiveMapUtils {
      * @param val the value to add to <code>toAdd</code>'s mapping to <code>key</code>
      */
     public static <K> void addNumber (Map<? super K, Integer> toAdd, K key, int val) {
-        if (toAdd.get(key) == null) {
-            toAdd.put(key, val);
-        } else {
-            toAdd.put(key, toAdd.get(key) + val);
-        }
+        Integer old = toAdd.get(key); // one lookup to read and one to write; an ObjectIntAccumulatorMap needs only one in all
+        toAdd.put(key, (old == null) ? val : old + val);
     }
 
     /**
@@ -43,13 +41,44 @@ public class AdditiveMapUtils {
      * @param val the value to add to <code>toAdd</code>'s mapping to <code>key</code>
      */
     public static <K> void addNumber (Map<? super K, Fraction> toAdd, K key, Fraction val) {
-        if (toAdd.get(key) == null) {
-            toAdd.put(key, val);
+        Fraction old = toAdd.get(key);
+        toAdd.put(key, (old == null) ? val : old.add(val));
+    }
+
+    /**
+     * Adds a number to the running sum stored in a map under a given key.
+     * 
+     * <p>
+     * Specifically, {@linkplain FractionAccumulator#add(Fraction) adds} <code>val</code> in place to the {@link FractionAccumulator} mapped to <code>key</code> in <code>toAdd</code>. If <code>toAdd.get(key) == null</code>, a new FractionAccumulator starting at <code>val</code> is put into the map first. Unlike {@link #addNumber(Map, Object, Fraction)}, this takes only one lookup for keys already present and allocates nothing.
+     * </p>
+     * 
+     * @param toAdd the Map on which this operation is taking place
+     * @param key the key under consideration
+     * @param val the value to add to <code>toAdd</code>'s mapping to <code>key</code>
+     */
+    public static <K> void accumulateNumber (Map<? super K, FractionAccumulator> toAdd, K key, Fraction val) {
+        FractionAccumulator acc = toAdd.get(key);
+        if (acc == null) {
+            toAdd.put(key, new FractionAccumulator(val));
         } else {
-            toAdd.put(key, toAdd.get(key).add(val));
+            acc.add(val);
         }
     }
 
+    /**
+     * Converts a map of running sums into a map of their final values. Specifically, returns a new Map with the same keys as <code>sums</code>, where each key is mapped to the {@linkplain FractionAccumulator#toFraction() value} of its running sum.
+     * 
+     * @param sums the Map of running sums to convert
+     * @return a new Map from each key in <code>sums</code> to its running sum as a {@link Fraction}
+     */
+    public static <K> Map<K, Fraction> toFractionMap (Map<K, FractionAccumulator> sums) {
+        Map<K, Fraction> ret = new HashMap<K, Fraction>(sums.size() * 2);
+        for (Map.Entry<K, FractionAccumulator> x : sums.entrySet()) {
+            ret.put(x.getKey(), x.getValue().toFraction());
+        }
+        return ret;
+    }
+
     /**
      * Numerically adds two maps together. Specifically, for each key in <code>src</code>, {@linkplain #addNumber(Map, Object, int) numerically adds} its value to that stored under that key in <code>dest</code>.
      * 
@@ -74,4 +103,28 @@ public class AdditiveMapUtils {
             addNumber(dest, x, src.get(x));
         }
     }
+
+    /**
+     * Numerically adds a map into an {@link ObjectIntAccumulatorMap}. Specifically, for each key in <code>src</code>, {@linkplain ObjectIntAccumulatorMap#addTo(Object, int) adds} its value to the sum stored under that key in <code>dest</code>.
+     * 
+     * @param dest the ObjectIntAccumulatorMap to which to add values
+     * @param src the Map from which to add values
+     */
+    public static <K> void addAllNumbers (ObjectIntAccumulatorMap<? super K> dest, Map<K, Integer> src) {
+        for (Map.Entry<K, Integer> x : src.entrySet()) {
+            dest.addTo(x.getKey(), x.getValue());
+        }
+    }
+
+    /**
+     * Numerically adds a map into an {@link ObjectFractionAccumulatorMap}. Specifically, for each key in <code>src</code>, {@linkplain ObjectFractionAccumulatorMap#addTo(Object, Fraction) adds} its value to the sum stored under that key in <code>dest</code>.
+     * 
+     * @param dest the ObjectFractionAccumulatorMap to which to add values
+     * @param src the Map from which to add values
+     */
+    public static <K> void addAllNumbers (ObjectFractionAccumulatorMap<? super K> dest, Map<K, Fraction> src) {
+        for (Map.Entry<K, Fraction> x : src.entrySet()) {
+            dest.addTo(x.getKey(), x.getValue());
+        }
+    }
 }
@@ -2,18 +2,30 @@ package mathsquared.resultswizard2;
 
 import java.awt.BorderLayout;
 import java.awt.Component;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.HashMap;
 
 import javax.swing.Box;
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
+import javax.swing.JLabel;
 import javax.swing.JList;
+import javax.swing.JMenuItem;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JPopupMenu;
 import javax.swing.JTabbedPane;
+import javax.swing.JTextField;
 import javax.swing.border.BevelBorder;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
 /**
  * Runs the GUI by which an event administrator can input results.
@@ -28,6 +40,10 @@ public class AdminGuiFrame extends JFrame {
 
     private JPanel contentPane;
 
+    private EventCatalog catalog = new EventCatalog(new HashMap<String, Event>()); // replaced when an event configuration is selected
+
+    public static final int MAX_SUGGESTIONS = 8; // events suggested at once as an event name is typed
+
     /**
      * Create the frame.
      */
@@ -59,6 +75,21 @@ public class AdminGuiFrame extends JFrame {
         JButton configBtnSelectEventConfiguration = new JButton("Select Event Configuration...");
         configBtnSelectEventConfiguration.setAlignmentX(Component.CENTER_ALIGNMENT);
         configPanel.add(configBtnSelectEventConfiguration);
+        configBtnSelectEventConfiguration.addActionListener(new ActionListener() {
+            public void actionPerformed (ActionEvent e) {
+                JFileChooser chooser = new JFileChooser();
+                if (chooser.showOpenDialog(AdminGuiFrame.this) != JFileChooser.APPROVE_OPTION) {
+                    return;
+                }
+                try {
+                    catalog = new EventCatalog(EventConfigParser.loadCompiled(chooser.getSelectedFile()));
+                } catch (IOException e1) {
+                    JOptionPane.showMessageDialog(AdminGuiFrame.this, "An I/O error occurred: " + e1.getMessage());
+                } catch (IllegalArgumentException e1) { // includes NumberFormatException
+                    JOptionPane.showMessageDialog(AdminGuiFrame.this, "Error in event configuration: " + e1.getMessage());
+                }
+            }
+        });
 
         Component configSecondVerticalStrut = Box.createVerticalStrut(10);
         configPanel.add(configSecondVerticalStrut);
@@ -92,6 +123,56 @@ public class AdminGuiFrame extends JFrame {
         inputPanel.add(inputInteriorPanel, BorderLayout.CENTER);
         inputInteriorPanel.setLayout(new BorderLayout(10, 0));
 
+        // Finds an event by any of its names, suggesting events as the name is typed
+        JPanel inputEventPanel = new JPanel();
+        inputInteriorPanel.add(inputEventPanel, BorderLayout.NORTH);
+        inputEventPanel.setLayout(new BorderLayout(5, 0));
+
+        JLabel inputEventLabel = new JLabel("Event:");
+        inputEventPanel.add(inputEventLabel, BorderLayout.WEST);
+
+        final JTextField inputEventField = new JTextField();
+        inputEventPanel.add(inputEventField, BorderLayout.CENTER);
+
+        final JPopupMenu inputEventSuggestions = new JPopupMenu();
+        inputEventSuggestions.setFocusable(false); // keep typing in the field while suggestions are shown
+        inputEventField.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate (DocumentEvent e) {
+                suggest();
+            }
+
+            public void removeUpdate (DocumentEvent e) {
+                suggest();
+            }
+
+            public void changedUpdate (DocumentEvent e) {
+                // attributes only; the text is unchanged
+            }
+
+            private void suggest () {
+                String typed = inputEventField.getText();
+                inputEventSuggestions.setVisible(false);
+                inputEventSuggestions.removeAll();
+
+                Event exact = catalog.resolve(typed);
+                if (typed.trim().length() == 0 || (exact != null && exact.getPrimaryName().equals(typed))) {
+                    return; // nothing typed, or a suggestion was just chosen
+                }
+                for (final String x : EventCatalog.primaryNames(catalog.complete(typed, MAX_SUGGESTIONS))) {
+                    JMenuItem item = new JMenuItem(x);
+                    item.addActionListener(new ActionListener() {
+                        public void actionPerformed (ActionEvent e) {
+                            inputEventField.setText(x);
+                        }
+                    });
+                    inputEventSuggestions.add(item);
+                }
+                if (inputEventSuggestions.getComponentCount() > 0) {
+                    inputEventSuggestions.show(inputEventField, 0, inputEventField.getHeight());
+                }
+            }
+        });
+
         // Contains buttons for manipulating inputList below
         JPanel inputButtonPanel = new JPanel();
         inputInteriorPanel.add(inputButtonPanel, BorderLayout.EAST);
@@ -190,6 +190,34 @@ public class ArrayUtils {
         return condensedLengthArray(lengthArray(arr));
     }
 
+    /**
+     * Returns a length array for a two-dimensional <code>int</code> array, such as the {@linkplain NameDictionary interned} form of a results array. This behaves identically to {@link #lengthArray(Object[][])}.
+     * 
+     * @param arr a two-dimensional array
+     * @return a length array, or null if <code>arr</code> is null
+     */
+    public static int[] lengthArray (int[][] arr) {
+        if (arr == null) {
+            return null;
+        }
+        int[] ret = new int[arr.length];
+        for (int i = 0; i < arr.length; i++) {
+            ret[i] = (arr[i] != null) ? arr[i].length : 0; // null array has 0 length
+        }
+        return ret;
+    }
+
+    /**
+     * Returns a condensed length array for a two-dimensional <code>int</code> array. This behaves identically to {@link #condensedLengthArray(Object[][])}.
+     * 
+     * @param arr the input array
+     * @return a condensed length array for <code>arr</code>
+     * @throws IllegalArgumentException if <code>arr</code> does not correctly {@linkplain #checkTies(Object[][]) skip places for ties}
+     */
+    public static int[] condensedLengthArray (int[][] arr) {
+        return condensedLengthArray(lengthArray(arr)); // rejects the same malformed ties that checkTies does
+    }
+
     /**
      * Condenses a {@linkplain #lengthArray(Object[][]) length array}.
      * 
@@ -218,7 +246,8 @@ public class ArrayUtils {
         if (lengthArray == null) {
             return null;
         }
-        ArrayList<Integer> ret = new ArrayList<Integer>();
+        int[] ret = new int[lengthArray.length]; // at most one entry per place; trimmed below
+        int count = 0;
         for (int i = 0; i < lengthArray.length;) { // incremented by final loop
             int x = lengthArray[i];
             if (x == 0) { // there should be no zeroes except to skip places
@@ -227,7 +256,7 @@ public class ArrayUtils {
             if (x < 0) {
                 throw new IllegalArgumentException("Invalid length array: negative at " + i);
             }
-            ret.add(x);
+            ret[count++] = x;
             int initI = i;
 
             i++; // prevents complaining about the current entry (which SHOULD be nonzero) by skipping it from loop below
@@ -244,13 +273,7 @@ public class ArrayUtils {
             }
         }
 
-        // Unbox the ArrayList (it would be easier if it was automatic, but I understand the performance hit array autounboxing would cause)
-        Integer[] pending = ret.toArray(new Integer[0]);
-        int[] retArr = new int[pending.length];
-        for (int i = 0; i < pending.length; i++) {
-            retArr[i] = pending[i];
-        }
-        return retArr;
+        return (count == ret.length) ? ret : Arrays.copyOf(ret, count);
     }
 
     /**
@@ -0,0 +1,270 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Memoizes {@link Sweepstakes#assignPoints(int[], int[], TiePlaceAssignment, SweepstakesAssignment)}.
+ * 
+ * <p>
+ * <code>assignPoints</code> depends only on its arguments, and many events in a tournament share both a points specification and a tie layout (most commonly, no ties at all). This cache remembers the points for the most recently used combinations of quantities, specification, {@link TiePlaceAssignment}, and {@link SweepstakesAssignment}, evicting the least recently used combination once it holds {@linkplain #getCapacity() its capacity}. It counts hits and misses so that its effectiveness can be checked.
+ * </p>
+ * 
+ * <p>
+ * Since {@link PointsTable} makes each tie take constant time, a lookup (which hashes the whole key and takes one lock) costs about as much as computing the points, so the sweepstakes computations in {@link EventResults}, {@link PrimitiveSweepstakes}, and {@link WhatIfSweepstakes} call {@link Sweepstakes} directly rather than going through this cache. It remains useful for callers whose specifications are expensive to build, or to measure how often tie layouts repeat.
+ * </p>
+ * 
+ * <p>
+ * This class is thread-safe. Points are computed outside of the lock, so two threads missing on the same key at once may both compute it; since the computation is pure, either result may be kept.
+ * </p>
+ * 
+ * @author MathSquared
+ * 
+ */
+public class AssignPointsCache {
+    /**
+     * The capacity of the {@linkplain #getShared() shared cache}.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private static final AssignPointsCache SHARED = new AssignPointsCache(DEFAULT_CAPACITY);
+
+    private final int capacity;
+    private final Map<Key, Points> cache; // guarded by itself
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Creates an empty cache.
+     * 
+     * @param capacity the greatest number of combinations to remember
+     * @throws IllegalArgumentException if <code>capacity</code> is not positive
+     */
+    public AssignPointsCache (final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive; was " + capacity);
+        }
+        this.capacity = capacity;
+        cache = new LinkedHashMap<Key, Points>(capacity * 2, 0.75f, true) { // access order, so the eldest entry is the least recently used
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry (Map.Entry<Key, Points> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns a cache shared by any callers that do not need one of their own.
+     * 
+     * @return the shared cache, with a capacity of {@link #DEFAULT_CAPACITY}
+     */
+    public static AssignPointsCache getShared () {
+        return SHARED;
+    }
+
+    /**
+     * Returns the same points as {@link Sweepstakes#assignPoints(int[], int[], TiePlaceAssignment, SweepstakesAssignment)}, computing them only if this combination of arguments is not already cached.
+     * 
+     * @param quantities the number of competitors tied for each place
+     * @param spec the number of sweepstakes points assigned to competitors in each place
+     * @param tiePlaceM the {@link TiePlaceAssignment} handling assigning one place to each competitor
+     * @param sweepsM the {@link SweepstakesAssignment} dictating the sweepstakes points that should be assigned to each competitor
+     * @return a new array where each entry is the number of points to assign to the tie in the corresponding index of <code>quantities</code>
+     * @throws ArithmeticException if a tie's points are averaged over no places
+     */
+    public Fraction[] assignPoints (int[] quantities, int[] spec, TiePlaceAssignment tiePlaceM, SweepstakesAssignment sweepsM) {
+        return toFractions(lookup(quantities, spec, null, tiePlaceM, sweepsM));
+    }
+
+    /**
+     * Returns the same points as {@link #assignPoints(int[], int[], TiePlaceAssignment, SweepstakesAssignment)} for the specification in a {@link PointsTable}. Combinations are shared with that method, but a miss uses the table's prefix sums and does not need to copy the specification.
+     * 
+     * @param quantities the number of competitors tied for each place
+     * @param table the number of sweepstakes points assigned to competitors in each place
+     * @param tiePlaceM the {@link TiePlaceAssignment} handling assigning one place to each competitor
+     * @param sweepsM the {@link SweepstakesAssignment} dictating the sweepstakes points that should be assigned to each competitor
+     * @return a new array where each entry is the number of points to assign to the tie in the corresponding index of <code>quantities</code>
+     * @throws ArithmeticException if a tie's points are averaged over no places
+     */
+    public Fraction[] assignPoints (int[] quantities, PointsTable table, TiePlaceAssignment tiePlaceM, SweepstakesAssignment sweepsM) {
+        return toFractions(lookup(quantities, table.spec(), table, tiePlaceM, sweepsM));
+    }
+
+    private static Fraction[] toFractions (Points p) {
+        Fraction[] ret = new Fraction[p.totals.length];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = Fraction.valueOf(p.totals[i], p.counts[i]);
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the same points as {@link Sweepstakes#assignPoints(int[], int[], TiePlaceAssignment, SweepstakesAssignment, int[], int[])}, computing them only if this combination of arguments is not already cached.
+     * 
+     * @param quantities the number of competitors tied for each place
+     * @param spec the number of sweepstakes points assigned to competitors in each place
+     * @param tiePlaceM the {@link TiePlaceAssignment} handling assigning one place to each competitor
+     * @param sweepsM the {@link SweepstakesAssignment} dictating the sweepstakes points that should be assigned to each competitor
+     * @param totals an array at least as long as <code>quantities</code>, which receives the numerator of each tie's points
+     * @param counts an array at least as long as <code>quantities</code>, which receives the denominator of each tie's points
+     */
+    void assignPoints (int[] quantities, int[] spec, TiePlaceAssignment tiePlaceM, SweepstakesAssignment sweepsM, int[] totals, int[] counts) {
+        copyOut(lookup(quantities, spec, null, tiePlaceM, sweepsM), totals, counts);
+    }
+
+    /**
+     * Returns the same points as {@link #assignPoints(int[], int[], TiePlaceAssignment, SweepstakesAssignment, int[], int[])} for the specification in a {@link PointsTable}.
+     * 
+     * @param quantities the number of competitors tied for each place
+     * @param table the number of sweepstakes points assigned to competitors in each place
+     * @param tiePlaceM the {@link TiePlaceAssignment} handling assigning one place to each competitor
+     * @param sweepsM the {@link SweepstakesAssignment} dictating the sweepstakes points that should be assigned to each competitor
+     * @param totals an array at least as long as <code>quantities</code>, which receives the numerator of each tie's points
+     * @param counts an array at least as long as <code>quantities</code>, which receives the denominator of each tie's points
+     */
+    void assignPoints (int[] quantities, PointsTable table, TiePlaceAssignment tiePlaceM, SweepstakesAssignment sweepsM, int[] totals, int[] counts) {
+        copyOut(lookup(quantities, table.spec(), table, tiePlaceM, sweepsM), totals, counts);
+    }
+
+    private static void copyOut (Points p, int[] totals, int[] counts) {
+        System.arraycopy(p.totals, 0, totals, 0, p.totals.length);
+        System.arraycopy(p.counts, 0, counts, 0, p.counts.length);
+    }
+
+    /**
+     * Returns the greatest number of combinations this cache remembers.
+     * 
+     * @return the capacity
+     */
+    public int getCapacity () {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of combinations currently cached.
+     * 
+     * @return the size of this cache
+     */
+    public int size () {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * Returns the number of calls that found their points already cached.
+     * 
+     * @return the number of hits
+     */
+    public long getHits () {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of calls that had to compute their points.
+     * 
+     * @return the number of misses
+     */
+    public long getMisses () {
+        return misses.get();
+    }
+
+    /**
+     * Forgets every cached combination and resets the hit and miss counters.
+     */
+    public void clear () {
+        synchronized (cache) {
+            cache.clear();
+        }
+        hits.set(0);
+        misses.set(0);
+    }
+
+    /**
+     * Finds or computes the points for one combination of arguments.
+     * 
+     * @param table the table for <code>spec</code>, or null to build one on a miss
+     */
+    private Points lookup (int[] quantities, int[] spec, PointsTable table, TiePlaceAssignment tiePlaceM, SweepstakesAssignment sweepsM) {
+        Key probe = new Key(quantities, spec, tiePlaceM, sweepsM); // wraps the caller's arrays; copied below before it is stored
+        Points p;
+        synchronized (cache) {
+            p = cache.get(probe);
+        }
+        if (p != null) {
+            hits.incrementAndGet();
+            return p;
+        }
+
+        misses.incrementAndGet();
+        int[] totals = new int[quantities.length];
+        int[] counts = new int[quantities.length];
+        if (table == null) {
+            table = new PointsTable(spec); // copies spec, so the key below can share the table's array
+        }
+        Sweepstakes.assignPoints(quantities, table, tiePlaceM, sweepsM, totals, counts);
+        p = new Points(totals, counts);
+        Key stored = new Key(Arrays.copyOf(quantities, quantities.length), table.spec(), tiePlaceM, sweepsM);
+        synchronized (cache) {
+            cache.put(stored, p);
+        }
+        return p;
+    }
+
+    /**
+     * The arguments to <code>assignPoints</code>, compared by the contents of the arrays.
+     */
+    private static final class Key {
+        private final int[] quantities;
+        private final int[] spec;
+        private final TiePlaceAssignment tiePlaceM;
+        private final SweepstakesAssignment sweepsM;
+        private final int hash;
+
+        Key (int[] quantities, int[] spec, TiePlaceAssignment tiePlaceM, SweepstakesAssignment sweepsM) {
+            this.quantities = quantities;
+            this.spec = spec;
+            this.tiePlaceM = tiePlaceM;
+            this.sweepsM = sweepsM;
+
+            int h = Arrays.hashCode(quantities);
+            h = 31 * h + Arrays.hashCode(spec);
+            h = 31 * h + tiePlaceM.hashCode();
+            hash = 31 * h + sweepsM.hashCode();
+        }
+
+        @Override
+        public int hashCode () {
+            return hash;
+        }
+
+        @Override
+        public boolean equals (Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            return hash == k.hash && tiePlaceM == k.tiePlaceM && sweepsM == k.sweepsM && Arrays.equals(quantities, k.quantities) && Arrays.equals(spec, k.spec);
+        }
+    }
+
+    /**
+     * The points for one combination of arguments, as filled in by the <code>assignPoints</code> kernel. Never modified once cached.
+     */
+    private static final class Points {
+        private final int[] totals;
+        private final int[] counts;
+
+        Points (int[] totals, int[] counts) {
+            this.totals = totals;
+            this.counts = counts;
+        }
+    }
+}
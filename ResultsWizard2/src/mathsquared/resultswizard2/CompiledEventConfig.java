@@ -0,0 +1,231 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads and writes compiled event files: binary snapshots of the events in an event file, which can be decoded much faster than the text can be parsed.
+ * 
+ * <p>
+ * A compiled file is kept next to the event file it was compiled from (see {@link #compiledFileFor(File)}) and records the SHA-256 hash of that file's contents, so it is only used while the event file is unchanged. {@link EventConfigParser#loadCompiled(File)} uses compiled files automatically.
+ * </p>
+ * 
+ * <p>
+ * The format is the four bytes <code>RW2E</code>, a {@linkplain VarIntUtils variable-length} format version, the 32-byte hash, and the number of events, followed by each event's fields in the order of the {@linkplain Event#Event(String, String[], int, int, Map, int[], int[], Map, TiePlaceAssignment, SweepstakesAssignment, int) Event constructor}. Counts and lengths are variable-length integers, sweepstakes points and the point cap are signed ones, strings are length-prefixed UTF-8, and tie assignments are their ordinals.
+ * </p>
+ * 
+ * @author MathSquared
+ * 
+ */
+public class CompiledEventConfig {
+    private static final byte[] MAGIC = {'R', 'W', '2', 'E'};
+    private static final int FORMAT_VERSION = 1; // bump whenever the layout below changes
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Returns the compiled file kept for an event file.
+     * 
+     * @param source the event file
+     * @return a file in the same directory, named after <code>source</code> with <code>.compiled</code> appended
+     */
+    public static File compiledFileFor (File source) {
+        return new File(source.getPath() + ".compiled");
+    }
+
+    /**
+     * Computes the hash that identifies the contents of an event file.
+     * 
+     * @param source the contents of the event file; read from its position to its limit, which are left unchanged
+     * @return the SHA-256 hash of the contents
+     */
+    public static byte[] hash (ByteBuffer source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256"); // required to be supported by the JVM
+            digest.update(source.duplicate());
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Writes events in compiled form.
+     * 
+     * @param out the DataOutput to write to
+     * @param events the events, as returned by {@link EventConfigParser#load(java.io.Reader)}
+     * @param hash the {@linkplain #hash(ByteBuffer) hash} of the event file the events came from
+     * @throws IOException if <code>out</code> throws an IOException
+     */
+    public static void write (DataOutput out, Map<String, Event> events, byte[] hash) throws IOException {
+        out.write(MAGIC);
+        VarIntUtils.writeVarInt(out, FORMAT_VERSION);
+        out.write(hash);
+        VarIntUtils.writeVarInt(out, events.size());
+        for (Event x : events.values()) {
+            writeString(out, x.getPrimaryName());
+            String[] otherNames = x.getOtherNames();
+            VarIntUtils.writeVarInt(out, otherNames.length);
+            for (String y : otherNames) {
+                writeString(out, y);
+            }
+            VarIntUtils.writeVarInt(out, x.getIndivPlaces());
+            VarIntUtils.writeVarInt(out, x.getTeamPlaces());
+            writeInts(out, x.getIndivSweeps());
+            writeInts(out, x.getTeamSweeps());
+
+            // The Event constructor only needs the special honors' names to match their sweepstakes, so each honor is written with its sweepstakes
+            Map<String, Integer> specialHonors = x.getSpecialHonors();
+            Map<String, int[]> specialSweeps = x.getSpecialSweeps();
+            VarIntUtils.writeVarInt(out, specialSweeps.size());
+            for (Map.Entry<String, int[]> y : specialSweeps.entrySet()) {
+                writeString(out, y.getKey());
+                Integer places = specialHonors.get(y.getKey());
+                VarIntUtils.writeVarInt(out, (places != null) ? places : Math.max(y.getValue().length, 1));
+                writeInts(out, y.getValue());
+            }
+
+            VarIntUtils.writeVarInt(out, x.getTieAssign().ordinal());
+            VarIntUtils.writeVarInt(out, x.getSweepsAssign().ordinal());
+            VarIntUtils.writeSignedVarLong(out, x.getMaxPoints());
+        }
+    }
+
+    /**
+     * Reads events in compiled form, if they were compiled from an event file with a given hash.
+     * 
+     * @param in the compiled events, from their position to their limit; the position is advanced past the data read
+     * @param hash the {@linkplain #hash(ByteBuffer) hash} of the event file the events should have come from
+     * @return a <code>Map</code> from events' primary names to event objects; null if the events were compiled from a different file, or in a different format version
+     * @throws IOException if the compiled events are truncated or otherwise corrupt
+     */
+    public static Map<String, Event> read (ByteBuffer in, byte[] hash) throws IOException {
+        DataInput data = new DataInputStream(new BufferInputStream(in));
+
+        byte[] magic = new byte[MAGIC.length];
+        data.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new StreamCorruptedException("Not a compiled event file");
+        }
+        if (VarIntUtils.readVarInt(data) != FORMAT_VERSION) {
+            return null;
+        }
+        byte[] storedHash = new byte[hash.length];
+        data.readFully(storedHash);
+        if (!Arrays.equals(storedHash, hash)) {
+            return null;
+        }
+
+        TiePlaceAssignment[] ties = TiePlaceAssignment.values();
+        SweepstakesAssignment[] sweeps = SweepstakesAssignment.values();
+        int count = VarIntUtils.readVarInt(data);
+        Map<String, Event> ret = new HashMap<String, Event>(count * 2);
+        for (int i = 0; i < count; i++) {
+            String primaryName = readString(data);
+            String[] otherNames = new String[VarIntUtils.readVarInt(data)];
+            for (int j = 0; j < otherNames.length; j++) {
+                otherNames[j] = readString(data);
+            }
+            int indivPlaces = VarIntUtils.readVarInt(data);
+            int teamPlaces = VarIntUtils.readVarInt(data);
+            int[] indivSweeps = readInts(data);
+            int[] teamSweeps = readInts(data);
+
+            int specialCount = VarIntUtils.readVarInt(data);
+            Map<String, Integer> specialHonors = new HashMap<String, Integer>(specialCount * 2);
+            Map<String, int[]> specialSweeps = new HashMap<String, int[]>(specialCount * 2);
+            for (int j = 0; j < specialCount; j++) {
+                String honor = readString(data);
+                specialHonors.put(honor, VarIntUtils.readVarInt(data));
+                specialSweeps.put(honor, readInts(data));
+            }
+
+            int tieAssign = VarIntUtils.readVarInt(data);
+            int sweepsAssign = VarIntUtils.readVarInt(data);
+            if (tieAssign >= ties.length || sweepsAssign >= sweeps.length) {
+                throw new StreamCorruptedException("Unknown tie assignment in event " + primaryName);
+            }
+            long maxPoints = VarIntUtils.readSignedVarLong(data);
+            if (maxPoints < Integer.MIN_VALUE || maxPoints > Integer.MAX_VALUE) {
+                throw new StreamCorruptedException("Point cap out of range in event " + primaryName);
+            }
+
+            ret.put(primaryName, new Event(primaryName, otherNames, indivPlaces, teamPlaces, specialHonors, indivSweeps, teamSweeps, specialSweeps, ties[tieAssign], sweeps[sweepsAssign], (int) maxPoints));
+        }
+        return ret;
+    }
+
+    private static void writeString (DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(UTF_8);
+        VarIntUtils.writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString (DataInput in) throws IOException {
+        byte[] bytes = new byte[VarIntUtils.readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static void writeInts (DataOutput out, int[] values) throws IOException {
+        VarIntUtils.writeVarInt(out, values.length);
+        for (int x : values) {
+            VarIntUtils.writeSignedVarLong(out, x);
+        }
+    }
+
+    private static int[] readInts (DataInput in) throws IOException {
+        int[] ret = new int[VarIntUtils.readVarInt(in)];
+        for (int i = 0; i < ret.length; i++) {
+            long x = VarIntUtils.readSignedVarLong(in);
+            if (x < Integer.MIN_VALUE || x > Integer.MAX_VALUE) {
+                throw new StreamCorruptedException("Sweepstakes points out of range: " + x);
+            }
+            ret[i] = (int) x;
+        }
+        return ret;
+    }
+
+    /**
+     * Reads the bytes of a buffer as a stream, so a file read into memory can be decoded through a {@link DataInputStream} without copying it.
+     */
+    private static class BufferInputStream extends InputStream {
+        private final ByteBuffer buf;
+
+        BufferInputStream (ByteBuffer buf) {
+            this.buf = buf;
+        }
+
+        @Override
+        public int read () {
+            return buf.hasRemaining() ? (buf.get() & 0xFF) : -1;
+        }
+
+        @Override
+        public int read (byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buf.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buf.remaining());
+            buf.get(b, off, n);
+            return n;
+        }
+    }
+}
@@ -45,8 +45,9 @@ public class DefaultEventResultsSlideList implements EventResultsSlideList {
     private int height;
     private ColorScheme color;
     private int baseFont; // the base font size
-    private EventResults evr;
+    private EventResultsSnapshot snapshot; // immutable, so it is never copied; serialized with only the names it uses
 
+    private transient EventResults working; // shares the snapshot's results and memoizes their sweeps across renders; never given out, so never changed
     private transient ArrayList<Slide> slides; // holds the slides
 
     // Layout constants
@@ -95,14 +96,14 @@ public class DefaultEventResultsSlideList implements EventResultsSlideList {
      * @param height the height of the slides, in pixels
      * @param color a {@link ColorScheme} with the colors to use (see the class description for which keys are used)
      * @param baseFont the base font size, in points (this is the size of normal text; some fonts multiply this base size by fixed constants)
-     * @param evr the {@link EventResults} that this DefaultEventResultsSlideList should represent
+     * @param evr the {@link EventResults} that this DefaultEventResultsSlideList should represent; a {@linkplain EventResults#snapshot() snapshot} is kept, so later changes to <code>evr</code> are not reflected
      */
     public DefaultEventResultsSlideList (int width, int height, ColorScheme color, int baseFont, EventResults evr) {
         this.width = width;
         this.height = height;
         this.color = color;
         this.baseFont = baseFont;
-        this.evr = new EventResults(evr);
+        this.snapshot = evr.snapshot();
 
         initializeComputedData();
     }
@@ -116,12 +117,14 @@ public class DefaultEventResultsSlideList implements EventResultsSlideList {
      * Initializes data that can be computed from other fields. This includes:
      * 
      * <ul>
+     * <li>the working copy of the results,</li>
      * <li>the list of slides,</li>
      * <li>the font variables, and</li>
      * <li>the date string.</li>
      * </ul>
      */
     private void initializeComputedData () {
+        working = snapshot.toEventResults();
         slides = new ArrayList<Slide>();
 
         // Initialize the fonts
@@ -176,6 +179,9 @@ public class DefaultEventResultsSlideList implements EventResultsSlideList {
         this.width = width;
         this.height = height;
 
+        // Made once per snapshot, so re-rendering reuses its sweeps maps and their formatted points
+        EventResults evr = working;
+
         // Discard old slides
         slides.clear();
 
@@ -272,7 +278,11 @@ public class DefaultEventResultsSlideList implements EventResultsSlideList {
     }
 
     public EventResults getEventResults () {
-        return new EventResults(evr);
+        return snapshot.toEventResults();
+    }
+
+    public EventResultsSnapshot getSnapshot () {
+        return snapshot;
     }
 
     // SLIDE GENERATION METHODS //
@@ -291,7 +301,7 @@ public class DefaultEventResultsSlideList implements EventResultsSlideList {
         ret.addSpacer(TOP_MARGIN);
 
         Color evtTitleColor = (color.containsKey("evtTitle")) ? color.get("evtTitle") : Color.black;
-        ret.addText(evr.getEvent().getPrimaryName().toUpperCase(), head, evtTitleColor, false);
+        ret.addText(snapshot.getEvent().getPrimaryName().toUpperCase(), head, evtTitleColor, false);
 
         Color timestampColor = (color.containsKey("timestamp")) ? color.get("timestamp") : new Color(0x666666);
         ret.addText("partial event results", smalltext, timestampColor, false);
@@ -390,10 +400,7 @@ public class DefaultEventResultsSlideList implements EventResultsSlideList {
 
         for (int i = 0; i < tiedHonorees.length; i++) {
             // Generate a sweeps string for this competitor
-            String swStr = String.format("%.2f", sweeps.get(sortedHonorees[i]).toDouble()); // Two decimals
-            if (swStr.endsWith(".00")) { // Chop off the last two digits if they're .00
-                swStr = swStr.substring(0, swStr.length() - ".00".length());
-            }
+            String swStr = sweeps.get(sortedHonorees[i]).toDisplayString(2); // Two decimals, or none if they're .00
 
             boolean addSucceeded = false;
             if (threeCol) {
@@ -468,10 +475,7 @@ public class DefaultEventResultsSlideList implements EventResultsSlideList {
 
         for (int i = 0; i < tiedHonorees.length; i++) {
             // Generate a sweeps string for this competitor
-            String swStr = String.format("%.2f", sweeps.get(sortedHonorees[i]).toDouble()); // Two decimals
-            if (swStr.endsWith(".00")) { // Chop off the last two digits if they're .00
-                swStr = swStr.substring(0, swStr.length() - ".00".length());
-            }
+            String swStr = sweeps.get(sortedHonorees[i]).toDisplayString(2); // Two decimals, or none if they're .00
 
             boolean addSucceeded = false;
             if (threeCol) {
@@ -555,7 +559,7 @@ public class DefaultEventResultsSlideList implements EventResultsSlideList {
             if (honorees[i] != null && honorees[i].length != 0) { // null or empty is a place skipped for ties
                 int placeOne = i + 1;
                 int placeTwo = i + honorees[i].length;
-                int placeAssign = evr.getEvent().getTieAssign().assignPlace(placeOne, placeTwo);
+                int placeAssign = snapshot.getEvent().getTieAssign().assignPlace(placeOne, placeTwo);
                 boolean addSucceeded = tryAddTie(sl, placeAssign, honorees[i], schools[i], sweeps);
                 if (!addSucceeded) {
                     sl.revert();
@@ -613,7 +617,7 @@ public class DefaultEventResultsSlideList implements EventResultsSlideList {
             if (honorees[i] != null && honorees[i].length != 0) { // null or empty is a place skipped for ties
                 int placeOne = i + 1;
                 int placeTwo = i + honorees[i].length;
-                int placeAssign = evr.getEvent().getTieAssign().assignPlace(placeOne, placeTwo);
+                int placeAssign = snapshot.getEvent().getTieAssign().assignPlace(placeOne, placeTwo);
                 boolean addSucceeded = tryAddTie(sl, placeAssign, honorees[i], schools[i], sweeps);
                 if (!addSucceeded) {
                     // The tryAddTie method leaves no trace if it fails, so we start a new slide
@@ -631,7 +635,7 @@ public class DefaultEventResultsSlideList implements EventResultsSlideList {
                     // Force the add this time
                     int placeOneAgain = i + 1;
                     int placeTwoAgain = i + honorees[i].length;
-                    int placeAssignAgain = evr.getEvent().getTieAssign().assignPlace(placeOneAgain, placeTwoAgain);
+                    int placeAssignAgain = snapshot.getEvent().getTieAssign().assignPlace(placeOneAgain, placeTwoAgain);
                     List<BuildableStackedSlide> forced = forceAddTie(sl, newSlideResType, newSlideHonorName, placeAssignAgain, honorees[i], schools[i], sweeps);
 
                     // Mess with sl so that it represents the most recent slide
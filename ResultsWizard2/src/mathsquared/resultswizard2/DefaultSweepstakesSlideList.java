@@ -15,7 +15,6 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
@@ -169,8 +168,8 @@ public class DefaultSweepstakesSlideList implements SweepstakesSlideList {
         this.width = width;
         this.height = height;
 
-        // Sort the sweepstakes
-        Map<String, Fraction> sorted = MapSortingUtils.sortValue(sweeps, true, true);
+        // Rank the sweepstakes; only the schools that will be displayed are sorted
+        Standings<String, Fraction> sorted = MapSortingUtils.topValues(sweeps, displayCap, true, true);
 
         // Discard old slides
         slides.clear();
@@ -247,15 +246,15 @@ public class DefaultSweepstakesSlideList implements SweepstakesSlideList {
      * </p>
      * 
      * <p>
-     * The results are displayed in the iteration order of the given Map.
+     * The results are displayed in rank order.
      * </p>
      * 
      * @param sl the {@link BuildableStackedSlide} to which the text should be added
-     * @param toAdd the sweepstakes that should be displayed, in a mapping from school names to amounts of points
-     * @param index the index in the iteration order marking the beginning of a given tie; the place number used is <code>index + 1</code>
+     * @param toAdd the ranked sweepstakes that should be displayed
+     * @param index the index in <code>toAdd</code> marking the beginning of a given tie
      * @return false if the operation failed
      */
-    private boolean tryAddTie (BuildableStackedSlide sl, Map<String, Fraction> toAdd, int index) {
+    private boolean tryAddTie (BuildableStackedSlide sl, Standings<String, Fraction> toAdd, int index) {
         // this holds a list of all slides used
         ArrayList<BuildableStackedSlide> ret = new ArrayList<BuildableStackedSlide>();
         ret.add(sl);
@@ -264,27 +263,19 @@ public class DefaultSweepstakesSlideList implements SweepstakesSlideList {
         Color honoreeColor = (color.containsKey("honoree")) ? color.get("honoree") : new Color(0x222222);
         Color sweepsColor = (color.containsKey("sweeps")) ? color.get("sweeps") : new Color(0x666666);
 
-        String plStr = Integer.toString(index + 1);
+        String plStr = Integer.toString(toAdd.getPlace(index));
 
         // Find the length of this tie
-        int tieLength = checkTieLength(toAdd, index);
+        int tieLength = toAdd.tieLength(index);
         if (tieLength == 0) { // nothing to add; adding nothing is always successful
             return true;
         }
 
-        List<Map.Entry<String, Fraction>> entries = new LinkedList<Map.Entry<String, Fraction>>(toAdd.entrySet());
-        ListIterator<Map.Entry<String, Fraction>> iter = entries.listIterator(index);
-
-        for (int i = 0; i < tieLength; i++) {
-            Map.Entry<String, Fraction> cur = iter.next();
-
+        for (int i = index; i < index + tieLength; i++) {
             // Generate a sweeps string for this school
-            String swStr = String.format("%.2f", cur.getValue().toDouble()); // Two decimals
-            if (swStr.endsWith(".00")) { // Chop off the last two digits if they're .00
-                swStr = swStr.substring(0, swStr.length() - ".00".length());
-            }
+            String swStr = toAdd.getValue(i).toDisplayString(2); // Two decimals, or none if they're .00
 
-            boolean addSucceeded = sl.addThreeText(plStr, number, placeNumColor, cur.getKey(), base, honoreeColor, swStr, number, sweepsColor);
+            boolean addSucceeded = sl.addThreeText(plStr, number, placeNumColor, toAdd.getKey(i), base, honoreeColor, swStr, number, sweepsColor);
 
             if (!addSucceeded) {
                 sl.reset();
@@ -309,15 +300,15 @@ public class DefaultSweepstakesSlideList implements SweepstakesSlideList {
      * </p>
      * 
      * <p>
-     * The results are displayed in the iteration order of the given Map.
+     * The results are displayed in rank order.
      * </p>
      * 
      * @param sl the first {@link BuildableStackedSlide} to which the text should be added
-     * @param toAdd the sweepstakes that should be displayed, in a mapping from school names to amounts of points
-     * @param index the index in the iteration order marking the beginning of a given tie; the place number used is <code>index + 1</code>
+     * @param toAdd the ranked sweepstakes that should be displayed
+     * @param index the index in <code>toAdd</code> marking the beginning of a given tie
      * @return a list of all slides to which content was added, including <code>sl</code>
      */
-    private List<BuildableStackedSlide> forceAddTie (BuildableStackedSlide sl, Map<String, Fraction> toAdd, int index) {
+    private List<BuildableStackedSlide> forceAddTie (BuildableStackedSlide sl, Standings<String, Fraction> toAdd, int index) {
         // this holds a list of all slides used
         ArrayList<BuildableStackedSlide> ret = new ArrayList<BuildableStackedSlide>();
         ret.add(sl);
@@ -326,30 +317,22 @@ public class DefaultSweepstakesSlideList implements SweepstakesSlideList {
         Color honoreeColor = (color.containsKey("honoree")) ? color.get("honoree") : new Color(0x222222);
         Color sweepsColor = (color.containsKey("sweeps")) ? color.get("sweeps") : new Color(0x666666);
 
-        String plStr = Integer.toString(index + 1);
+        String plStr = Integer.toString(toAdd.getPlace(index));
 
         Color placeNumColorCur = placeNumColor; // assigned to transparent if we want the place num. to be invisible on a certain line
         // we don't simply overwrite placeNumColor as in tryAddTie because we might need to reenable the place number if we start a new slide
 
         // Find the length of this tie
-        int tieLength = checkTieLength(toAdd, index);
+        int tieLength = toAdd.tieLength(index);
         if (tieLength == 0) { // nothing to add
             return ret;
         }
 
-        List<Map.Entry<String, Fraction>> entries = new LinkedList<Map.Entry<String, Fraction>>(toAdd.entrySet());
-        ListIterator<Map.Entry<String, Fraction>> iter = entries.listIterator(index);
-
-        for (int i = 0; i < tieLength; i++) {
-            Map.Entry<String, Fraction> cur = iter.next();
-
+        for (int i = index; i < index + tieLength; i++) {
             // Generate a sweeps string for this school
-            String swStr = String.format("%.2f", cur.getValue().toDouble()); // Two decimals
-            if (swStr.endsWith(".00")) { // Chop off the last two digits if they're .00
-                swStr = swStr.substring(0, swStr.length() - ".00".length());
-            }
+            String swStr = toAdd.getValue(i).toDisplayString(2); // Two decimals, or none if they're .00
 
-            boolean addSucceeded = sl.addThreeText(plStr, number, placeNumColorCur, cur.getKey(), base, honoreeColor, swStr, number, sweepsColor);
+            boolean addSucceeded = sl.addThreeText(plStr, number, placeNumColorCur, toAdd.getKey(i), base, honoreeColor, swStr, number, sweepsColor);
 
             if (!addSucceeded) {
                 // Undo and restart on a new slide
@@ -360,7 +343,7 @@ public class DefaultSweepstakesSlideList implements SweepstakesSlideList {
                 ret.add(sl);
 
                 // Add it again (placeNumColor instead of placeNumColorCur because this is the first row of the new slide)
-                sl.addThreeText(plStr, number, placeNumColor, cur.getKey(), base, honoreeColor, swStr, number, sweepsColor);
+                sl.addThreeText(plStr, number, placeNumColor, toAdd.getKey(i), base, honoreeColor, swStr, number, sweepsColor);
             }
 
             // Only add the place number once; overwrite the color for subsequent iterations (transparent so that subsequent entries still line up)
@@ -383,19 +366,19 @@ public class DefaultSweepstakesSlideList implements SweepstakesSlideList {
      * </p>
      * 
      * <p>
-     * The results are displayed in the iteration order of the given Map.
+     * The results are displayed in rank order.
      * </p>
      * 
      * @param sl the first {@link BuildableStackedSlide} to which the text should be added
-     * @param toAdd the sweepstakes that should be displayed, in a mapping from school names to amounts of points
+     * @param toAdd the ranked sweepstakes that should be displayed
      * @return a list of all slides to which content was added, including <code>sl</code>
      */
-    private List<BuildableStackedSlide> forceAddList (BuildableStackedSlide sl, Map<String, Fraction> toAdd) {
+    private List<BuildableStackedSlide> forceAddList (BuildableStackedSlide sl, Standings<String, Fraction> toAdd) {
         List<BuildableStackedSlide> ret = new ArrayList<BuildableStackedSlide>();
         ret.add(sl);
 
         int index = 0;
-        index = checkTieLength(toAdd, index);
+        index = toAdd.tieLength(index);
         List<BuildableStackedSlide> surplus = forceAddTie(sl, toAdd, 0);
 
         // Add the surplus
@@ -404,9 +387,8 @@ public class DefaultSweepstakesSlideList implements SweepstakesSlideList {
             sl = surplus.get(surplus.size() - 1);
         }
 
-        // Compare to displayCap to enforce display limit
-        // we test here in order to ensure ties are displayed in full
-        while (index < displayCap && checkTieLength(toAdd, index) > 0) {
+        // The standings already hold only the first displayCap schools and anyone tied with the last of them
+        while (index < toAdd.size()) {
             boolean addSucceeded = tryAddTie(sl, toAdd, index);
 
             if (!addSucceeded) {
@@ -425,7 +407,7 @@ public class DefaultSweepstakesSlideList implements SweepstakesSlideList {
                 }
             }
 
-            index += checkTieLength(toAdd, index);
+            index += toAdd.tieLength(index);
         }
 
         // All is well in the universe
@@ -434,34 +416,6 @@ public class DefaultSweepstakesSlideList implements SweepstakesSlideList {
         return ret;
     }
 
-    /**
-     * Finds the length of a run of identical map values arranged sequentially in iteration order. This checks the Map in iteration order and returns the number of entries, starting at <code>index</code>, with the same value as the entry at <code>index</code>.
-     * 
-     * <p>
-     * The entry at a given index <code>i</code> is defined as the entry found by obtaining the iterator into the map's entry set and calling <code>next</code> <code>i + 1</code> times, saving the result of the last call.
-     * </p>
-     * 
-     * @param toCheck the Map to check for ties
-     * @param index the index at which to start looking for ties
-     * @return the number of elements at or after <code>index</code> whose values compare as equal; 0 if we have reached the end of the entry set
-     * @throws IndexOutOfBoundsException if <code>index</code> is less than 0 or greater than <code>toCheck.size()</code>
-     */
-    private int checkTieLength (Map<String, Fraction> toCheck, int index) {
-        List<Map.Entry<String, Fraction>> entries = new LinkedList<Map.Entry<String, Fraction>>(toCheck.entrySet());
-        ListIterator<Map.Entry<String, Fraction>> iter = entries.listIterator(index);
-        if (!iter.hasNext()) {
-            return 0; // no next elements -> no ties
-        }
-
-        int currentLength = 1;
-        Fraction firstMember = iter.next().getValue();
-        while (iter.hasNext() && iter.next().equals(firstMember)) {
-            currentLength++;
-        }
-
-        return currentLength;
-    }
-
     // IMPLEMENT LIST //
 
     // These methods make this an immutable List<Slide> backed by slides.
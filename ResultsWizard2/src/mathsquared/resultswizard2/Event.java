@@ -3,6 +3,8 @@
  */
 package mathsquared.resultswizard2;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -28,6 +30,11 @@ public class Event implements Serializable {
     private SweepstakesAssignment sweepsAssign; // How this event assigns sweepstakes points in the event of ties
     private int maxPoints; // Maximum amount of points a school can earn in this event (Integer.MAX_VALUE if no maximum)
 
+    // Prefix sums over the sweepstakes arrays above; derived, so rebuilt rather than serialized
+    private transient PointsTable indivTable;
+    private transient PointsTable teamTable;
+    private transient HashMap<String, PointsTable> specialTables;
+
     /**
      * Creates an object representing a new competition event. All objects passed in have their data copied into the class; in this way, the Event object maintains no references to passed-in data.
      * 
@@ -155,6 +162,25 @@ public class Event implements Serializable {
             int[] v = x.getValue();
             this.specialSweeps.put(k, Arrays.copyOf(v, v.length));
         }
+
+        buildPointsTables();
+    }
+
+    /**
+     * Precomputes the {@link PointsTable}s for this event's sweepstakes specifications.
+     */
+    private void buildPointsTables () {
+        indivTable = new PointsTable(indivSweeps);
+        teamTable = new PointsTable(teamSweeps);
+        specialTables = new HashMap<String, PointsTable>(specialSweeps.size() * 2);
+        for (Map.Entry<String, int[]> x : specialSweeps.entrySet()) {
+            specialTables.put(x.getKey(), new PointsTable(x.getValue()));
+        }
+    }
+
+    private void readObject (ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        buildPointsTables();
     }
 
     /**
@@ -241,6 +267,34 @@ public class Event implements Serializable {
         return ret;
     }
 
+    /**
+     * Returns the individual sweepstakes points as a {@link PointsTable}. Unlike {@link #getIndivSweeps()}, this does not copy anything, since PointsTables are immutable.
+     * 
+     * @return the indivSweeps, with prefix sums
+     */
+    public PointsTable getIndivPointsTable () {
+        return indivTable;
+    }
+
+    /**
+     * Returns the team sweepstakes points as a {@link PointsTable}. Unlike {@link #getTeamSweeps()}, this does not copy anything, since PointsTables are immutable.
+     * 
+     * @return the teamSweeps, with prefix sums
+     */
+    public PointsTable getTeamPointsTable () {
+        return teamTable;
+    }
+
+    /**
+     * Returns the sweepstakes points for a special honor as a {@link PointsTable}. Unlike {@link #getSpecialSweeps()}, this does not copy anything, since PointsTables are immutable.
+     * 
+     * @param honorName the name of the special honor
+     * @return the points for <code>honorName</code>, with prefix sums, or null if this event does not award that honor
+     */
+    public PointsTable getSpecialPointsTable (String honorName) {
+        return specialTables.get(honorName);
+    }
+
     /**
      * @return the tieAssign
      */
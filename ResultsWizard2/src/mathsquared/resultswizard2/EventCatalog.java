@@ -0,0 +1,174 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds events by any of their names, as typed by an operator or given in an imported file.
+ * 
+ * <p>
+ * Every event's {@linkplain Event#getPrimaryName() primary name} and {@linkplain Event#getOtherNames() other names} are {@linkplain #normalize(String) normalized}, so names differing only in case, spacing, or Unicode form find the same event. The normalized names are kept in a hash table, so {@link #resolve(String)} takes constant time however many events and names there are, and in a sorted array, so {@link #complete(String, int)} can list the events whose names start with what has been typed so far.
+ * </p>
+ * 
+ * <p>
+ * A catalog is immutable; build a new one when the events change.
+ * </p>
+ * 
+ * @author MathSquared
+ * 
+ */
+public class EventCatalog {
+    private final Map<String, Event> events; // primary name -> event; unmodifiable
+    private final HashMap<String, Event> index; // normalized name -> event
+    private final String[] sortedNames; // every key of index, in order
+    private final Event[] sortedEvents; // parallel to sortedNames
+
+    /**
+     * Creates a catalog of a set of events.
+     * 
+     * @param events a <code>Map</code> from events' primary names to event objects, as returned by {@link EventConfigParser#load(java.io.Reader)}
+     * @throws IllegalArgumentException if two different events have names that normalize to the same string, so that name would not identify one event
+     */
+    public EventCatalog (Map<String, Event> events) {
+        this.events = Collections.unmodifiableMap(new HashMap<String, Event>(events));
+
+        index = new HashMap<String, Event>(events.size() * 4); // most events have a name or two besides the primary one
+        for (Event x : events.values()) {
+            add(x.getPrimaryName(), x);
+            for (String y : x.getOtherNames()) {
+                add(y, x);
+            }
+        }
+
+        sortedNames = index.keySet().toArray(new String[index.size()]);
+        Arrays.sort(sortedNames);
+        sortedEvents = new Event[sortedNames.length];
+        for (int i = 0; i < sortedNames.length; i++) {
+            sortedEvents[i] = index.get(sortedNames[i]);
+        }
+    }
+
+    /**
+     * Indexes one name of an event.
+     * 
+     * @param name the name, before normalization
+     * @param evt the event
+     * @throws IllegalArgumentException if the name already identifies a different event
+     */
+    private void add (String name, Event evt) {
+        String key = normalize(name);
+        Event old = index.put(key, evt);
+        if (old != null && old != evt) {
+            throw new IllegalArgumentException("Name \"" + name + "\" is ambiguous; it identifies both " + old.getPrimaryName() + " and " + evt.getPrimaryName());
+        }
+    }
+
+    /**
+     * Converts a name to the form under which it is indexed. Names are compared in this form, so two names that normalize to the same string are considered the same name.
+     * 
+     * <p>
+     * The name is put into Unicode compatibility composition ({@linkplain Normalizer.Form#NFKC NFKC}), leading and trailing whitespace is removed, runs of whitespace within the name are replaced with a single space, and letters are converted to lower case.
+     * </p>
+     * 
+     * @param name the name
+     * @return the normalized name
+     */
+    public static String normalize (String name) {
+        String composed = Normalizer.normalize(name, Normalizer.Form.NFKC);
+        StringBuilder ret = new StringBuilder(composed.length());
+        boolean space = false; // whether whitespace was skipped since the last character kept
+        for (int i = 0; i < composed.length(); i++) {
+            char c = composed.charAt(i);
+            if (Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+                space = true;
+                continue;
+            }
+            if (space && ret.length() > 0) {
+                ret.append(' ');
+            }
+            space = false;
+            ret.append(c);
+        }
+        return ret.toString().toLowerCase(Locale.ROOT); // not the default locale, in which I and i might not match
+    }
+
+    /**
+     * Finds the event with a given name.
+     * 
+     * @param name the primary name or one of the other names of an event, in any case and spacing
+     * @return the event, or null if no event has that name
+     */
+    public Event resolve (String name) {
+        return index.get(normalize(name));
+    }
+
+    /**
+     * Finds the events with a name starting with a given prefix, for suggesting events as a name is typed.
+     * 
+     * <p>
+     * The prefix is {@linkplain #normalize(String) normalized} as a name would be, except that trailing whitespace is kept, so "Chem" matches "Chemistry" but "Chem " only matches names with a word after "Chem". This takes time logarithmic in the number of names, plus time proportional to the number of names matched.
+     * </p>
+     * 
+     * @param prefix the start of a name
+     * @param limit the most events to return
+     * @return a new List of distinct events having a name starting with <code>prefix</code>, in order of the first such name
+     * @throws IllegalArgumentException if <code>limit &lt; 0</code>
+     */
+    public List<Event> complete (String prefix, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must be >= 0 (" + limit + " given)");
+        }
+
+        String key = normalize(prefix);
+        if (key.length() > 0 && prefix.length() > 0 && Character.isWhitespace(prefix.charAt(prefix.length() - 1))) {
+            key += ' ';
+        }
+
+        // Every name starting with key sorts at or after it, and before any name not starting with it
+        int i = Arrays.binarySearch(sortedNames, key);
+        if (i < 0) {
+            i = -i - 1;
+        }
+        Set<Event> ret = new LinkedHashSet<Event>();
+        for (; i < sortedNames.length && ret.size() < limit && sortedNames[i].startsWith(key); i++) {
+            ret.add(sortedEvents[i]);
+        }
+        return new ArrayList<Event>(ret);
+    }
+
+    /**
+     * Returns the events in this catalog.
+     * 
+     * @return an unmodifiable Map from events' primary names to event objects
+     */
+    public Map<String, Event> getEvents () {
+        return events;
+    }
+
+    /**
+     * Returns the primary names of events, as shown to an operator.
+     * 
+     * @param evts events, such as those returned by {@link #complete(String, int)}
+     * @return a new array of the events' primary names, in the same order
+     */
+    public static String[] primaryNames (Collection<Event> evts) {
+        String[] ret = new String[evts.size()];
+        int i = 0;
+        for (Event x : evts) {
+            ret[i++] = x.getPrimaryName();
+        }
+        return ret;
+    }
+}
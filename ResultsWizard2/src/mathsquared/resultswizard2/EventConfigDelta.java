@@ -0,0 +1,111 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The events that changed between two loads of an event file, as published by an {@link EventConfigWatcher}.
+ * 
+ * <p>
+ * Events are identified by their {@linkplain Event#getPrimaryName() primary names}. An event is changed if any of its fields has a different value in the file; events whose fields are untouched are not listed, so results and slides need only be recomputed for the events listed here. {@link #update(EventResults)} rebuilds the results of a changed event against its new definition.
+ * </p>
+ * 
+ * @author MathSquared
+ * 
+ */
+public final class EventConfigDelta {
+    private final Map<String, Event> added; // all unmodifiable
+    private final Map<String, Event> changed;
+    private final Set<String> removed;
+
+    /**
+     * Creates a delta. The collections are wrapped, not copied.
+     * 
+     * @param added the events new to the file, by primary name
+     * @param changed the new definitions of events whose fields changed, by primary name
+     * @param removed the primary names of events no longer in the file
+     */
+    EventConfigDelta (Map<String, Event> added, Map<String, Event> changed, Set<String> removed) {
+        this.added = Collections.unmodifiableMap(added);
+        this.changed = Collections.unmodifiableMap(changed);
+        this.removed = Collections.unmodifiableSet(removed);
+    }
+
+    /**
+     * Returns the events that were added to the file.
+     * 
+     * @return an unmodifiable Map from primary names to the new events
+     */
+    public Map<String, Event> getAdded () {
+        return added;
+    }
+
+    /**
+     * Returns the events whose fields changed.
+     * 
+     * @return an unmodifiable Map from primary names to the events' new definitions
+     */
+    public Map<String, Event> getChanged () {
+        return changed;
+    }
+
+    /**
+     * Returns the events that were removed from the file.
+     * 
+     * @return an unmodifiable Set of primary names
+     */
+    public Set<String> getRemoved () {
+        return removed;
+    }
+
+    /**
+     * Returns whether any events were added, changed, or removed.
+     * 
+     * @return true if the two loads produced the same events
+     */
+    public boolean isEmpty () {
+        return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+    }
+
+    /**
+     * Returns whether an event was added, changed, or removed.
+     * 
+     * @param eventName the {@linkplain Event#getPrimaryName() primary name} of the event
+     * @return true if results depending on the event must be recomputed
+     */
+    public boolean affects (String eventName) {
+        return added.containsKey(eventName) || changed.containsKey(eventName) || removed.contains(eventName);
+    }
+
+    /**
+     * Brings the results of an event up to date with this delta.
+     * 
+     * <p>
+     * If the event changed, the results are entered again, with the same names and {@link NameDictionary}, into a new EventResults for the event's new definition, so their sweepstakes are computed from the new points. Sweepstakes entered by hand are not carried over, since they were entered for the old points. The new results have a higher {@linkplain EventResults#getVersion() version} than <code>results</code>.
+     * </p>
+     * 
+     * @param results the results of an event as it was before this delta
+     * @return a new EventResults for the event's new definition if the event changed; null if the event was removed; otherwise <code>results</code> itself
+     * @throws UnsupportedOperationException if the event no longer awards a kind of result that <code>results</code> holds
+     * @throws NullPointerException if the event now awards a kind of result that <code>results</code> does not hold
+     * @throws IllegalArgumentException if the results no longer fit the event, for instance because it now recognizes fewer places; see {@link EventResults#EventResults(Event, String[][], String[][], String[][], Map, Map, NameDictionary)}
+     */
+    public EventResults update (EventResults results) {
+        String eventName = results.getEvent().getPrimaryName();
+        if (removed.contains(eventName)) {
+            return null;
+        }
+        Event evt = changed.get(eventName);
+        if (evt == null) {
+            return results;
+        }
+
+        EventResults ret = new EventResults(evt, results.getIndivHonorees(), results.getIndivSchools(), results.getTeamHonorees(), results.getSpecialHonorees(), results.getSpecialSchools(), results.getNameDictionary());
+        ret.setVersion(results.getVersion() + 1);
+        return ret;
+    }
+}
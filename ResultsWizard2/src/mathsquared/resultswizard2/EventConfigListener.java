@@ -0,0 +1,19 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+/**
+ * Receives the changes to an event file found by an {@link EventConfigWatcher}.
+ * 
+ * @author MathSquared
+ * 
+ */
+public interface EventConfigListener {
+    /**
+     * Called when the events in a watched file change. This is called on the thread reloading the file, so it should return quickly.
+     * 
+     * @param delta the events that were added, changed, or removed; never {@linkplain EventConfigDelta#isEmpty() empty}
+     */
+    public void eventsChanged (EventConfigDelta delta);
+}
@@ -3,14 +3,22 @@
  */
 package mathsquared.resultswizard2;
 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
@@ -22,6 +30,18 @@ import java.util.Set;
  * 
  */
 public class EventConfigParser {
+    // The fields of each event, in the order they are checked; the constants below index this array
+    private static final String[] FIELDS = {"otherNames", "indivPlaces", "teamPlaces", "specialHonors", "indivSweeps", "teamSweeps", "specialSweeps", "tieAssign", "sweepsAssign", "maxPoints"};
+    private static final int OTHER_NAMES = 0;
+    private static final int INDIV_PLACES = 1;
+    private static final int TEAM_PLACES = 2;
+    private static final int SPECIAL_HONORS = 3;
+    private static final int INDIV_SWEEPS = 4;
+    private static final int TEAM_SWEEPS = 5;
+    private static final int SPECIAL_SWEEPS = 6;
+    private static final int TIE_ASSIGN = 7;
+    private static final int SWEEPS_ASSIGN = 8;
+    private static final int MAX_POINTS = 9;
 
     /**
      * Loads an event file into a {@link Map} from the event's primary name to its {@linkplain Event event object}.
@@ -31,6 +51,10 @@ public class EventConfigParser {
      * </p>
      * 
      * <p>
+     * The file is read in a single pass, and each event's fields are grouped as they are read, so loading takes time linear in the size of the file. Keys that do not name an event or one of its fields are ignored.
+     * </p>
+     * 
+     * <p>
      * The file must contain specific keys and no others. For an event named <code>evt</code>, the respective keys are:
      * </p>
      * 
@@ -69,68 +93,226 @@ public class EventConfigParser {
      * @throws IllegalArgumentException if an invalid value is given for a field; see {@linkplain Event#Event(String, String[], int, int, Map, int[], int[], Map, TiePlaceAssignment, SweepstakesAssignment, int) the <code>Event</code> constructor}
      */
     public static Map<String, Event> load (Reader read) throws IOException {
-        Properties loaded = new Properties();
-        loaded.load(read);
-        Iterator<String> props = loaded.stringPropertyNames().iterator();
-
-        // Make list of only those properties representing event names (i.e. those that don't contain grave characters)
-        Set<String> events = new HashSet<String>();
-        while (props.hasNext()) {
-            String x = props.next();
-            if (x.indexOf('`') < 0) {
-                events.add(x);
+        Map<String, String[]> fields = scan(read);
+        Map<String, Event> ret = new HashMap<String, Event>(fields.size() * 2);
+        for (Map.Entry<String, String[]> x : fields.entrySet()) {
+            ret.put(x.getKey(), toEvent(x.getKey(), x.getValue()));
+        }
+
+        // All events processed
+        return ret;
+    }
+
+    /**
+     * Reads the raw values of every event's fields from an event file, without converting them into events.
+     * 
+     * @param read the {@link Reader} representing the property file
+     * @return a <code>Map</code> from events' primary names, in the order they were declared, to the values of their fields, indexed as {@link #FIELDS} (null for fields not given); an event with no fields maps to null
+     * @throws IOException if an I/O error occurs when reading the data file
+     */
+    static Map<String, String[]> scan (Reader read) throws IOException {
+        // Group the fields of each event as they are read, so each pair is looked at once and no table of every key is kept
+        Set<String> events = new LinkedHashSet<String>();
+        Map<String, String[]> fields = new HashMap<String, String[]>(); // event name -> values, indexed as FIELDS
+        PropertiesScanner scan = new PropertiesScanner(read);
+        while (scan.next()) {
+            String key = scan.key();
+            int grave = key.indexOf('`');
+            if (grave < 0) { // properties representing event names don't contain grave characters
+                events.add(key);
+                continue;
+            }
+
+            int field = fieldIndex(key, grave + 1);
+            if (field < 0) {
+                continue; // not a field we use
+            }
+            String event = key.substring(0, grave);
+            String[] values = fields.get(event);
+            if (values == null) {
+                values = new String[FIELDS.length];
+                fields.put(event, values);
             }
+            values[field] = scan.value(); // later values replace earlier ones, as in Properties
         }
 
-        Map<String, Event> ret = new HashMap<String, Event>();
+        // Fields of undeclared events are dropped
+        Map<String, String[]> ret = new LinkedHashMap<String, String[]>(events.size() * 2);
         for (String x : events) {
-            // Check that the property table contains all data fields
-            String[] propertyNames = {"otherNames", "indivPlaces", "teamPlaces", "specialHonors", "indivSweeps", "teamSweeps", "specialSweeps", "tieAssign", "sweepsAssign", "maxPoints"};
-            for (String p : propertyNames) {
-                String propertyToCheck = x + "`" + p;
-                if (!loaded.containsKey(propertyToCheck)) {
-                    throw new IllegalArgumentException("File format error: key \"" + propertyToCheck + "\" missing");
+            ret.put(x, fields.get(x));
+        }
+        return ret;
+    }
+
+    /**
+     * Loads an event file into a {@link Map} from the event's primary name to its {@linkplain Event event object}, reading the whole file into memory at once rather than through a stream.
+     * 
+     * @param file the data file; assumed to represent characters in ISO-8859-1 (ISO-Latin-1), and to be no larger than 2 GiB
+     * @return a <code>Map</code> from events' primary names to event objects
+     * @throws IOException if an I/O error occurs when reading the data file
+     * @throws NumberFormatException if a number in the data file does not parse correctly when one was expected
+     * @throws IllegalArgumentException if an invalid value is given for a field; see {@linkplain Event#Event(String, String[], int, int, Map, int[], int[], Map, TiePlaceAssignment, SweepstakesAssignment, int) the <code>Event</code> constructor}
+     * @see {@link #load(Reader)}
+     */
+    public static Map<String, Event> load (File file) throws IOException {
+        return load(new Latin1BufferReader(readFully(file)));
+    }
+
+    /**
+     * Reads the raw values of every event's fields from an event file. The file is read through an ordinary stream and closed before this returns, since it may be a file being edited (see {@link EventConfigWatcher}) and could be truncated or replaced while it is read.
+     * 
+     * @param file the data file; assumed to represent characters in ISO-8859-1 (ISO-Latin-1)
+     * @return the fields, as from {@link #scan(Reader)}
+     * @throws IOException if an I/O error occurs when reading the data file
+     */
+    static Map<String, String[]> scan (File file) throws IOException {
+        Reader read = new InputStreamReader(new FileInputStream(file), Charset.forName("ISO-8859-1"));
+        try {
+            return scan(read);
+        } finally {
+            read.close();
+        }
+    }
+
+    /**
+     * Loads an event file into a {@link Map} from the event's primary name to its {@linkplain Event event object}, using a {@linkplain CompiledEventConfig compiled} copy of the file when one is available.
+     * 
+     * <p>
+     * If the {@linkplain CompiledEventConfig#compiledFileFor(File) compiled file} next to <code>file</code> was compiled from the current contents of <code>file</code>, the events are decoded from it. Otherwise, <code>file</code> is parsed as by {@link #load(File)}, and the compiled file is rewritten so that the next load can use it. A compiled file that cannot be read or written is ignored, since it only saves time.
+     * </p>
+     * 
+     * @param file the data file; assumed to represent characters in ISO-8859-1 (ISO-Latin-1), and to be no larger than 2 GiB
+     * @return a <code>Map</code> from events' primary names to event objects
+     * @throws IOException if an I/O error occurs when reading the data file
+     * @throws NumberFormatException if a number in the data file does not parse correctly when one was expected
+     * @throws IllegalArgumentException if an invalid value is given for a field; see {@linkplain Event#Event(String, String[], int, int, Map, int[], int[], Map, TiePlaceAssignment, SweepstakesAssignment, int) the <code>Event</code> constructor}
+     */
+    public static Map<String, Event> loadCompiled (File file) throws IOException {
+        ByteBuffer source = readFully(file);
+        byte[] hash = CompiledEventConfig.hash(source);
+        File compiled = CompiledEventConfig.compiledFileFor(file);
+
+        if (compiled.isFile()) {
+            try {
+                Map<String, Event> ret = CompiledEventConfig.read(readFully(compiled), hash);
+                if (ret != null) {
+                    return ret;
                 }
+            } catch (IOException e) {
+                // Unreadable or corrupt; recompile it below
+            } catch (IllegalArgumentException e) {
+                // Decoded into an invalid Event, so it is corrupt; recompile it below
             }
+        }
+
+        Map<String, Event> ret = load(new Latin1BufferReader(source));
+        try {
+            writeCompiled(compiled, ret, hash);
+        } catch (IOException e) {
+            // The directory may be read-only; the text will simply be parsed again next time
+        }
+        return ret;
+    }
 
-            // Begin to retrieve all of the items to instantiate Event
-            String[] otherNames = SyntaxParser.parseQuotedSyntax(loaded.getProperty(x + "`otherNames"));
-            int indivPlaces = Integer.parseInt(loaded.getProperty(x + "`indivPlaces"));
-            int teamPlaces = Integer.parseInt(loaded.getProperty(x + "`teamPlaces"));
-            // Special processing for specialHonors done below
-            int[] indivSweeps = SyntaxParser.parseIntegerList(loaded.getProperty(x + "`indivSweeps"));
-            int[] teamSweeps = SyntaxParser.parseIntegerList(loaded.getProperty(x + "`teamSweeps"));
-            // Special processing for specialSweeps done below
-            TiePlaceAssignment tieAssign = TiePlaceAssignment.forChar(loaded.getProperty(x + "`tieAssign").charAt(0));
-            SweepstakesAssignment sweepsAssign = SweepstakesAssignment.forChar(loaded.getProperty(x + "`sweepsAssign").charAt(0));
-            int maxPoints; // We need to parse the user input
-            String maxPointsRaw = loaded.getProperty(x + "`maxPoints");
-            if (maxPointsRaw.equalsIgnoreCase("oo") || maxPointsRaw.equalsIgnoreCase("infinity") || maxPointsRaw.equalsIgnoreCase("unlimited")) {
-                maxPoints = Integer.MAX_VALUE;
-            } else {
-                maxPoints = Integer.parseInt(maxPointsRaw);
+    /**
+     * Writes a compiled file, replacing any old one only once the new one is complete.
+     * 
+     * @param compiled the compiled file
+     * @param events the events to compile
+     * @param hash the hash of the event file the events came from
+     * @throws IOException if an I/O error occurs when writing the file
+     */
+    private static void writeCompiled (File compiled, Map<String, Event> events, byte[] hash) throws IOException {
+        File temp = File.createTempFile(compiled.getName(), ".tmp", compiled.getAbsoluteFile().getParentFile());
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            try {
+                CompiledEventConfig.write(out, events, hash);
+            } finally {
+                out.close();
             }
+            Files.move(temp.toPath(), compiled.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            temp.delete(); // no-op once moved
+        }
+    }
+
+    /**
+     * Reads a file into memory. The file is closed before this returns, so unlike a memory mapping, nothing holds it open afterwards and it can be replaced or rewritten at once.
+     * 
+     * @param file the file; must be no larger than 2 GiB
+     * @return a buffer of the file's contents
+     * @throws IOException if an I/O error occurs when reading the file
+     */
+    private static ByteBuffer readFully (File file) throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+    }
 
-            Map<String, String> specialHonorsRaw = SyntaxParser.createPairwiseMap(SyntaxParser.parseQuotedSyntax(loaded.getProperty(x + "`specialHonors")));
-            // We multiply size by 2 since default load factor is 0.75, so no more than 3/4 of the capacity can be taken; with capacity equal to twice the size, this passes with flying colors
-            Map<String, Integer> specialHonors = new HashMap<String, Integer>(specialHonorsRaw.size() * 2);
-            for (Map.Entry<String, String> entry : specialHonorsRaw.entrySet()) {
-                specialHonors.put(entry.getKey(), Integer.parseInt(entry.getValue()));
+    /**
+     * Finds the index in {@link #FIELDS} of the field named in a key, without copying the name out of the key.
+     * 
+     * @param key the key
+     * @param start the index in <code>key</code> at which the field name starts
+     * @return the index of the field, or -1 if the key names no field
+     */
+    private static int fieldIndex (String key, int start) {
+        int length = key.length() - start;
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (FIELDS[i].length() == length && key.regionMatches(start, FIELDS[i], 0, length)) {
+                return i;
             }
+        }
+        return -1;
+    }
 
-            Map<String, String> specialSweepsRaw = SyntaxParser.createPairwiseMap(SyntaxParser.parseQuotedSyntax(loaded.getProperty(x + "`specialSweeps")));
-            // We multiply size by 2 since default load factor is 0.75, so no more than 3/4 of the capacity can be taken; with capacity equal to twice the size, this passes with flying colors
-            Map<String, int[]> specialSweeps = new HashMap<String, int[]>(specialSweepsRaw.size() * 2);
-            for (Map.Entry<String, String> entry : specialSweepsRaw.entrySet()) {
-                specialSweeps.put(entry.getKey(), SyntaxParser.parseIntegerList(entry.getValue()));
+    /**
+     * Builds an event from the values of its fields.
+     * 
+     * @param x the primary name of the event
+     * @param values the values of the fields, indexed as {@link #FIELDS}; may be null if the event has no fields
+     * @return the event
+     */
+    static Event toEvent (String x, String[] values) {
+        // Check that the property table contains all data fields
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (values == null || values[i] == null) {
+                throw new IllegalArgumentException("File format error: key \"" + x + "`" + FIELDS[i] + "\" missing");
             }
+        }
 
-            // Finally, add to the Map
-            ret.put(x, new Event(x, otherNames, indivPlaces, teamPlaces, specialHonors, indivSweeps, teamSweeps, specialSweeps, tieAssign, sweepsAssign, maxPoints));
+        // Begin to retrieve all of the items to instantiate Event
+        String[] otherNames = SyntaxParser.parseQuotedSyntax(values[OTHER_NAMES]);
+        int indivPlaces = Integer.parseInt(values[INDIV_PLACES]);
+        int teamPlaces = Integer.parseInt(values[TEAM_PLACES]);
+        // Special processing for specialHonors done below
+        int[] indivSweeps = SyntaxParser.parseIntegerList(values[INDIV_SWEEPS]);
+        int[] teamSweeps = SyntaxParser.parseIntegerList(values[TEAM_SWEEPS]);
+        // Special processing for specialSweeps done below
+        TiePlaceAssignment tieAssign = TiePlaceAssignment.forChar(values[TIE_ASSIGN].charAt(0));
+        SweepstakesAssignment sweepsAssign = SweepstakesAssignment.forChar(values[SWEEPS_ASSIGN].charAt(0));
+        int maxPoints; // We need to parse the user input
+        String maxPointsRaw = values[MAX_POINTS];
+        if (maxPointsRaw.equalsIgnoreCase("oo") || maxPointsRaw.equalsIgnoreCase("infinity") || maxPointsRaw.equalsIgnoreCase("unlimited")) {
+            maxPoints = Integer.MAX_VALUE;
+        } else {
+            maxPoints = Integer.parseInt(maxPointsRaw);
         }
 
-        // All events processed
-        return ret;
+        Map<String, String> specialHonorsRaw = SyntaxParser.createPairwiseMap(SyntaxParser.parseQuotedSyntax(values[SPECIAL_HONORS]));
+        // We multiply size by 2 since default load factor is 0.75, so no more than 3/4 of the capacity can be taken; with capacity equal to twice the size, this passes with flying colors
+        Map<String, Integer> specialHonors = new HashMap<String, Integer>(specialHonorsRaw.size() * 2);
+        for (Map.Entry<String, String> entry : specialHonorsRaw.entrySet()) {
+            specialHonors.put(entry.getKey(), Integer.parseInt(entry.getValue()));
+        }
+
+        Map<String, String> specialSweepsRaw = SyntaxParser.createPairwiseMap(SyntaxParser.parseQuotedSyntax(values[SPECIAL_SWEEPS]));
+        // We multiply size by 2 since default load factor is 0.75, so no more than 3/4 of the capacity can be taken; with capacity equal to twice the size, this passes with flying colors
+        Map<String, int[]> specialSweeps = new HashMap<String, int[]>(specialSweepsRaw.size() * 2);
+        for (Map.Entry<String, String> entry : specialSweepsRaw.entrySet()) {
+            specialSweeps.put(entry.getKey(), SyntaxParser.parseIntegerList(entry.getValue()));
+        }
+
+        return new Event(x, otherNames, indivPlaces, teamPlaces, specialHonors, indivSweeps, teamSweeps, specialSweeps, tieAssign, sweepsAssign, maxPoints);
     }
 
     /**
@@ -163,4 +345,32 @@ public class EventConfigParser {
         Reader read = new InputStreamReader(is, cset);
         return load(read);
     }
+
+    /**
+     * Reads the bytes of a buffer as ISO-8859-1 characters, in which each byte is the character with the same value. Used for files read whole, so the file is never copied into a String or char array.
+     */
+    private static class Latin1BufferReader extends Reader {
+        private final ByteBuffer buf;
+
+        Latin1BufferReader (ByteBuffer buf) {
+            this.buf = buf;
+        }
+
+        @Override
+        public int read (char[] cbuf, int off, int len) {
+            if (!buf.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buf.remaining());
+            for (int i = 0; i < n; i++) {
+                cbuf[off + i] = (char) (buf.get() & 0xFF);
+            }
+            return n;
+        }
+
+        @Override
+        public void close () {
+            // nothing to release
+        }
+    }
 }
@@ -0,0 +1,240 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches an event file for edits, reloading only the events whose fields changed and publishing an {@link EventConfigDelta} to each {@linkplain EventConfigListener listener}.
+ * 
+ * <p>
+ * The watcher remembers the raw text of every event's fields. When the file changes, it is scanned again in a single pass, but only events whose fields have different text are converted into new {@link Event} objects, and only those events are reported; saving the file without changes, or with changes to one event, does not disturb the rest of the tournament. If the file cannot be read or contains an invalid event (for instance because it is being written), the events from the last good load are kept.
+ * </p>
+ * 
+ * <p>
+ * The watcher must be {@linkplain #run() run}, usually on a thread of its own, to notice edits; {@link #reload()} may also be called directly. This class is thread-safe.
+ * </p>
+ * 
+ * @author MathSquared
+ * 
+ */
+public class EventConfigWatcher implements Runnable, Closeable {
+    public static final long SETTLE_TIME = 100; // ms without further edits before the file is read
+
+    private final File file;
+    private final WatchService watcher;
+    private final List<EventConfigListener> listeners = new CopyOnWriteArrayList<EventConfigListener>();
+    private final Object reloading = new Object(); // held through each reload, including telling the listeners, so deltas arrive in the order they were found
+
+    private Map<String, String[]> fields; // raw field values from the last good load, as from EventConfigParser.scan; guarded by reloading
+    private Map<String, Event> events; // unmodifiable; replaced, never modified; guarded by this
+
+    /**
+     * Loads an event file and begins watching its directory for edits.
+     * 
+     * @param file the event file; assumed to represent characters in ISO-8859-1 (ISO-Latin-1)
+     * @throws IOException if an I/O error occurs when reading the file or registering the watch
+     * @throws NumberFormatException if a number in the file does not parse correctly when one was expected
+     * @throws IllegalArgumentException if an invalid value is given for a field; see {@link EventConfigParser#load(java.io.Reader)}
+     */
+    public EventConfigWatcher (File file) throws IOException {
+        this.file = file.getAbsoluteFile();
+        fields = EventConfigParser.scan(this.file);
+        Map<String, Event> loaded = new HashMap<String, Event>(fields.size() * 2);
+        for (Map.Entry<String, String[]> x : fields.entrySet()) {
+            loaded.put(x.getKey(), EventConfigParser.toEvent(x.getKey(), x.getValue()));
+        }
+        events = Collections.unmodifiableMap(loaded);
+
+        // Editors often save by replacing the file, so creation is watched as well as modification
+        watcher = FileSystems.getDefault().newWatchService();
+        this.file.getParentFile().toPath().register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    /**
+     * Returns the event file being watched.
+     * 
+     * @return the absolute path of the file
+     */
+    public File getFile () {
+        return file;
+    }
+
+    /**
+     * Returns the events from the last good load of the file.
+     * 
+     * @return an unmodifiable <code>Map</code> from events' primary names to event objects
+     */
+    public synchronized Map<String, Event> getEvents () {
+        return events;
+    }
+
+    /**
+     * Adds a listener to be told of changes to the events.
+     * 
+     * @param listener the listener
+     */
+    public void addListener (EventConfigListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener added with {@link #addListener(EventConfigListener)}.
+     * 
+     * @param listener the listener
+     */
+    public void removeListener (EventConfigListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Reads the file again, reparsing only the events whose fields changed. If any events were added, changed, or removed, the delta is sent to every listener before this method returns, in the order the deltas were found.
+     * 
+     * <p>
+     * Listeners are told after the new events are in place, without holding the lock that guards {@link #getEvents()}, so they may look up events from any thread. An exception thrown by a listener is printed and does not stop the other listeners from being told.
+     * </p>
+     * 
+     * @return the changes since the last good load; {@linkplain EventConfigDelta#isEmpty() empty} if there were none
+     * @throws IOException if an I/O error occurs when reading the file; the events are left unchanged
+     * @throws NumberFormatException if a number in a changed event does not parse correctly; the events are left unchanged
+     * @throws IllegalArgumentException if an invalid value is given for a field of a changed event; the events are left unchanged
+     */
+    public EventConfigDelta reload () throws IOException {
+        synchronized (reloading) {
+            EventConfigDelta delta = update();
+            if (!delta.isEmpty()) {
+                for (EventConfigListener x : listeners) {
+                    try {
+                        x.eventsChanged(delta);
+                    } catch (RuntimeException e) {
+                        e.printStackTrace(System.out); // one broken listener must not keep the others (or the watcher thread) from hearing of later edits
+                    }
+                }
+            }
+            return delta;
+        }
+    }
+
+    /**
+     * Scans the file and replaces the events that changed, as described in {@link #reload()}, without telling the listeners. Must be called while holding <code>reloading</code>.
+     * 
+     * @return the changes since the last good load
+     * @throws IOException if an I/O error occurs when reading the file; the events are left unchanged
+     * @throws IllegalArgumentException if a changed event is invalid; the events are left unchanged
+     */
+    private EventConfigDelta update () throws IOException {
+        Map<String, String[]> newFields = EventConfigParser.scan(file);
+
+        Map<String, Event> added = new HashMap<String, Event>();
+        Map<String, Event> changed = new HashMap<String, Event>();
+        for (Map.Entry<String, String[]> x : newFields.entrySet()) {
+            String name = x.getKey();
+            if (!fields.containsKey(name)) {
+                added.put(name, EventConfigParser.toEvent(name, x.getValue()));
+            } else if (!Arrays.equals(fields.get(name), x.getValue())) {
+                changed.put(name, EventConfigParser.toEvent(name, x.getValue()));
+            }
+        }
+        Set<String> removed = new HashSet<String>();
+        for (String x : fields.keySet()) {
+            if (!newFields.containsKey(x)) {
+                removed.add(x);
+            }
+        }
+
+        // Every changed event parsed, so the load is good
+        EventConfigDelta delta = new EventConfigDelta(added, changed, removed);
+        fields = newFields;
+        if (!delta.isEmpty()) {
+            synchronized (this) {
+                Map<String, Event> newEvents = new HashMap<String, Event>(events);
+                newEvents.putAll(added);
+                newEvents.putAll(changed);
+                newEvents.keySet().removeAll(removed);
+                events = Collections.unmodifiableMap(newEvents);
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * Waits for edits to the file, {@linkplain #reload() reloading} it once each burst of edits has settled for {@link #SETTLE_TIME} milliseconds, until this watcher is {@linkplain #close() closed} or the running thread is interrupted. Loads that fail are skipped; the file is tried again when it is next edited.
+     */
+    public void run () {
+        Path name = file.toPath().getFileName();
+        while (true) {
+            // Saving a file takes several writes (the first usually truncating it), so wait until the writes stop before reading it
+            boolean edited = false;
+            try {
+                WatchKey key = watcher.take();
+                while (key != null) {
+                    edited |= touches(key, name);
+                    key = watcher.poll(SETTLE_TIME, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (ClosedWatchServiceException e) {
+                return;
+            }
+
+            if (edited) {
+                try {
+                    reload();
+                } catch (IOException e) {
+                    // The file may be briefly missing while it is replaced; the replacement triggers another reload
+                } catch (IllegalArgumentException e) {
+                    // Includes NumberFormatException; the file may be half-written, or the edit is not finished
+                } catch (RuntimeException e) {
+                    e.printStackTrace(System.out); // keep watching; a later edit may load cleanly
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether the events signaled by a key include an edit to the watched file, and resets the key.
+     * 
+     * @param key a signaled key
+     * @param name the name of the watched file
+     * @return true if the file may have been edited
+     */
+    private static boolean touches (WatchKey key, Path name) {
+        // The whole directory is watched, so skip edits to other files (such as the compiled copy of this one)
+        boolean ret = false;
+        for (WatchEvent<?> x : key.pollEvents()) {
+            if (x.kind() == StandardWatchEventKinds.OVERFLOW || name.equals(x.context())) {
+                ret = true;
+            }
+        }
+        key.reset();
+        return ret;
+    }
+
+    /**
+     * Stops watching the file. A thread {@linkplain #run() running} this watcher returns soon afterwards.
+     * 
+     * @throws IOException if an I/O error occurs when closing the watch
+     */
+    public void close () throws IOException {
+        watcher.close();
+    }
+}
@@ -4,7 +4,11 @@
 package mathsquared.resultswizard2;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -22,18 +26,34 @@ import java.util.Set;
  */
 public class EventResults implements Serializable {
     private Event ev;
+    private NameDictionary names; // interns every honoree and school below; may be shared with other events
 
-    // May be null if there are zero honorees in the corresponding category
-    private String[][] indivHonorees;
-    private String[][] indivSchools;
-    private String[][] teamHonorees;
-    private HashMap<String, String[][]> specialHonorees;
-    private HashMap<String, String[][]> specialSchools;
+    // Null until set, or if the event does not award the corresponding category; names are stored as IDs in the dictionary
+    // Tables are immutable and setters replace them, so they can be shared with EventResultsSnapshots
+    private ResultsTable indiv; // honorees and their schools
+    private ResultsTable team;
+    private HashMap<String, ResultsTable> special;
 
     // Cached raw sweeps results
     private Fraction[][] indivSweeps;
     private Fraction[][] teamSweeps;
     private HashMap<String, Fraction[][]> specialSweeps;
+    // Whether each facet's raw sweeps were entered by hand (set only by the set*Sweeps methods); the arrays above may otherwise hold points computed from the event
+    private boolean customIndivSweeps;
+    private boolean customTeamSweeps;
+    private HashSet<String> customSpecialSweeps = new HashSet<String>();
+
+    private long version; // bumped whenever any results or sweeps change; never decreases, and travels with the results
+
+    // Memoized sweepstakes maps, each tagged with the version of the results it was computed from
+    private transient long indivVersion; // the version at which each facet last changed
+    private transient long teamVersion;
+    private transient long specialVersion;
+    private transient Memo[] indivMemo; // indexed by studentNames ? 1 : 0
+    private transient Memo teamMemo;
+    private transient HashMap<String, Memo[]> specialMemo; // indexed as indivMemo
+    private transient Memo totalMemo;
+    private transient Memo cappedMemo;
 
     /**
      * Constructs a new object representing results in the given event.
@@ -47,34 +67,14 @@ public class EventResults implements Serializable {
      * </p>
      * 
      * @param evt the Event object represented
+     * @param names the dictionary in which to intern names
      */
-    private EventResults (Event evt) {
-        ev = evt;
-
-        // Set up the data structures based on the event spec
-        if (ev.getIndivPlaces() > 0) {
-            indivHonorees = new String[ev.getIndivPlaces()][];
-            indivSchools = new String[ev.getIndivPlaces()][];
-        }
-        if (ev.getTeamPlaces() > 0) {
-            teamHonorees = new String[ev.getTeamPlaces()][];
-        }
-        if (ev.getSpecialHonors().size() > 0) {
-            specialHonorees = new HashMap<String, String[][]>();
-
-            // Initialize each array in the Map to the proper length
-            for (String x : ev.getSpecialHonors().keySet()) {
-                specialHonorees.put(x, new String[ev.getSpecialHonors().get(x)][]);
-            }
-
-            // Now, the schools
-            specialSchools = new HashMap<String, String[][]>();
-
-            // Initialize each array in the Map to the proper length
-            for (String x : ev.getSpecialHonors().keySet()) {
-                specialSchools.put(x, new String[ev.getSpecialHonors().get(x)][]);
-            }
+    private EventResults (Event evt, NameDictionary names) {
+        if (names == null) {
+            throw new NullPointerException("names must not be null");
         }
+        ev = evt;
+        this.names = names;
     }
 
     /**
@@ -99,10 +99,32 @@ public class EventResults implements Serializable {
      * @throws IllegalArgumentException if a parameter is inconsistent with the Event specification or is otherwise formatted incorrectly; see {@link #setIndivResults(String[][], String[][])}, {@link #setTeamHonorees(String[][])}, and {@link #setSpecialResults(Map, Map)} for details on correct and incorrect formatting
      */
     public EventResults (Event evt, String[][] indivHonorees, String[][] indivSchools, String[][] teamHonorees, Map<String, String[][]> specialHonorees, Map<String, String[][]> specialSchools) {
-        this(evt); // Initializes data structures, so we can work with their lengths when deciding whether or not to throw UOE or NPE
+        this(evt, indivHonorees, indivSchools, teamHonorees, specialHonorees, specialSchools, new NameDictionary());
+    }
+
+    /**
+     * Constructs a new object representing results in the given event, and initializes it with data about these results, interning names in the given {@link NameDictionary}.
+     * 
+     * <p>
+     * This behaves identically to {@link #EventResults(Event, String[][], String[][], String[][], Map, Map)}, except that names are interned in <code>names</code> rather than in a dictionary private to this object. Passing the same dictionary to every event in a tournament stores each name only once, and lets the events' sweepstakes be totaled by ID.
+     * </p>
+     * 
+     * @param evt the Event object represented
+     * @param indivHonorees an array of those placing individually, in rank order where index 0 is first place
+     * @param indivSchools the schools of those with the same index in indivHonorees
+     * @param teamHonorees an array of those placing as teams, in rank order where index 0 is first place
+     * @param specialHonorees a mapping from names of special honors to arrays of the names of those placing in them, in rank order where index 0 is first place
+     * @param specialSchools a mapping from names of special honors to arrays of the schools of those placing in them, in rank order
+     * @param names the dictionary in which to intern names
+     * @throws UnsupportedOperationException if this Event does not support a particular result type, and the corresponding parameter(s) was/were not null
+     * @throws NullPointerException if this Event supports a particular result type, and the corresponding parameter(s) was/were null, or if <code>names</code> is null
+     * @throws IllegalArgumentException if a parameter is inconsistent with the Event specification or is otherwise formatted incorrectly; see {@link #setIndivResults(String[][], String[][])}, {@link #setTeamHonorees(String[][])}, and {@link #setSpecialResults(Map, Map)} for details on correct and incorrect formatting
+     */
+    public EventResults (Event evt, String[][] indivHonorees, String[][] indivSchools, String[][] teamHonorees, Map<String, String[][]> specialHonorees, Map<String, String[][]> specialSchools, NameDictionary names) {
+        this(evt, names);
 
         // Only call these methods if the event is supported; if not, UOE if the parameter was not null
-        if (this.indivHonorees != null) { // event supported, since we bothered to instantiate a data structure in the constructor
+        if (supportsIndiv()) {
             setIndivResults(indivHonorees, indivSchools); // will NPE if parameter was null
         } else { // unsupported
             if (indivHonorees != null) { // unsupported, but passed in an object anyway
@@ -112,14 +134,14 @@ public class EventResults implements Serializable {
                 throw new UnsupportedOperationException("Event " + evt.getPrimaryName() + " does not support individual places; schools parameter must be null");
             }
         }
-        if (this.teamHonorees != null) { // event supported, since we bothered to instantiate a data structure in the constructor
+        if (supportsTeam()) {
             setTeamHonorees(teamHonorees); // will NPE if parameter was null
         } else { // unsupported
             if (teamHonorees != null) { // unsupported, but passed in an object anyway
                 throw new UnsupportedOperationException("Event " + evt.getPrimaryName() + " does not support team places; parameter must be null");
             }
         }
-        if (this.specialHonorees != null) { // event supported, since we bothered to instantiate a data structure in the constructor
+        if (supportsSpecial()) {
             setSpecialResults(specialHonorees, specialSchools); // will NPE if parameter was null
         } else { // unsupported
             if (specialHonorees != null) { // unsupported, but passed in an object anyway
@@ -137,37 +159,198 @@ public class EventResults implements Serializable {
      * @param cp the EventResults whose data to copy
      */
     public EventResults (EventResults cp) {
-        this(cp.getEvent(), cp.getIndivHonorees(), cp.getIndivSchools(), cp.getTeamHonorees(), cp.getSpecialHonorees(), cp.getSpecialSchools());
+        this(cp.snapshot()); // cp's results were validated when set, and are replaced rather than modified, so they can be shared
+    }
+
+    /**
+     * Constructs a new object holding the results in a snapshot. The snapshot's arrays are shared rather than copied, and are not validated again.
+     * 
+     * @param snap the snapshot whose results to hold
+     */
+    EventResults (EventResultsSnapshot snap) {
+        ev = snap.getEvent();
+        names = snap.getNameDictionary();
+        version = snap.getVersion();
+
+        indiv = snap.getIndivResults();
+        if (indiv != null) {
+            indivSweeps = indiv.sweeps();
+            customIndivSweeps = indiv.hasCustomSweeps();
+        }
+        team = snap.getTeamResults();
+        if (team != null) {
+            teamSweeps = team.sweeps();
+            customTeamSweeps = team.hasCustomSweeps();
+        }
+        if (supportsSpecial()) {
+            special = new HashMap<String, ResultsTable>();
+            specialSweeps = new HashMap<String, Fraction[][]>();
+            for (String x : snap.getSpecialHonors()) {
+                ResultsTable results = snap.getSpecialResults(x);
+                special.put(x, results);
+                if (results.hasCustomSweeps()) {
+                    specialSweeps.put(x, results.sweeps());
+                    customSpecialSweeps.add(x);
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes an immutable snapshot of the results currently held by this object. The results are shared rather than copied, so this is cheap; later changes to this object do not affect the snapshot.
+     * 
+     * @return a new {@link EventResultsSnapshot}
+     */
+    public EventResultsSnapshot snapshot () {
+        ResultsTable indivSnap = null;
+        if (indiv != null) {
+            indivSnap = indiv.withSweeps(customIndivSweeps ? indivSweeps : null);
+        }
+        ResultsTable teamSnap = null;
+        if (team != null) {
+            teamSnap = team.withSweeps(customTeamSweeps ? teamSweeps : null);
+        }
+        Map<String, ResultsTable> specialSnap = null;
+        if (special != null) {
+            specialSnap = new HashMap<String, ResultsTable>();
+            for (Map.Entry<String, ResultsTable> x : special.entrySet()) {
+                specialSnap.put(x.getKey(), x.getValue().withSweeps(customSpecialSweeps.contains(x.getKey()) ? specialSweeps.get(x.getKey()) : null));
+            }
+        }
+        return new EventResultsSnapshot(ev, names, version, indivSnap, teamSnap, specialSnap);
+    }
+
+    /**
+     * Serializes a copy of this object holding its own dictionary of only the names it uses, rather than the dictionary it may share with other events. Each EventResults written is then self-contained, and does not depend on a shared dictionary having been written earlier in the same stream.
+     * 
+     * @return the copy to serialize
+     */
+    private Object writeReplace () {
+        return new EventResults(snapshot().compact());
+    }
+
+    /**
+     * Returns the version of the results held by this object. The version increases every time any results or sweepstakes are set, and is carried by copies, snapshots, and serialized forms of this object, so two EventResults descended from the same results can be {@linkplain #diff(EventResults) compared}. Versions are only unique along one line of edits; copies changed separately may reach the same version with different results.
+     * 
+     * @return the current version
+     */
+    public long getVersion () {
+        return version;
+    }
+
+    /**
+     * Finds the changes needed to turn an older version of these results into this one.
+     * 
+     * <p>
+     * Facets that were not set between the two versions are skipped without being compared, since setters replace the stored results rather than modifying them. Within a facet that was set, only places whose honorees or schools differ are recorded.
+     * </p>
+     * 
+     * @param older the older results, for the same event
+     * @return an {@link EventResultsDelta} that {@linkplain EventResultsDelta#apply(EventResults) turns} <code>older</code> into these results
+     * @throws IllegalArgumentException if <code>older</code> represents a different event, or holds results under a different definition of it (with other facets, special honors, or numbers of places)
+     */
+    public EventResultsDelta diff (EventResults older) {
+        return EventResultsDelta.between(older.snapshot(), snapshot());
+    }
+
+    /**
+     * Sets the version of this object. Used when a delta is applied, so that the result carries the version it reconstructs.
+     * 
+     * @param newVersion the new version
+     */
+    void setVersion (long newVersion) {
+        version = newVersion;
+
+        // The memoized maps are tagged with versions that may now recur, so drop them
+        indivVersion = teamVersion = specialVersion = newVersion;
+        indivMemo = null;
+        teamMemo = null;
+        specialMemo = null;
+        totalMemo = null;
+        cappedMemo = null;
+    }
+
+    /**
+     * Returns whether the event awards individual results.
+     */
+    private boolean supportsIndiv () {
+        return ev.getIndivPlaces() > 0;
+    }
+
+    /**
+     * Returns whether the event awards team results.
+     */
+    private boolean supportsTeam () {
+        return ev.getTeamPlaces() > 0;
+    }
+
+    /**
+     * Returns whether the event awards any special honors.
+     */
+    private boolean supportsSpecial () {
+        return ev.getSpecialHonors().size() > 0;
+    }
+
+    /**
+     * Returns the dictionary in which this object interns the names of honorees and schools. An EventResults read from a stream has a dictionary of its own, since it is serialized with only the names it uses.
+     * 
+     * @return the {@link NameDictionary} used by this EventResults
+     */
+    public NameDictionary getNameDictionary () {
+        return names;
     }
 
     /**
      * Returns the sweepstakes points for individual winners in this event. Specifically, returns a Map from names of honorees to amount of sweeps points received.
      * 
      * @param studentNames if true, the returned Map has student names as keys; if false, school names are used as keys
-     * @return a Map from student or school names to amount of points earned (entries earning 0 points may or may not be included)
+     * @return an unmodifiable Map from student or school names to amount of points earned (entries earning 0 points may or may not be included); the same Map is returned until the individual results or sweepstakes change
      */
     public Map<String, Fraction> computeIndivSweeps (boolean studentNames) {
-        String[][] workingArray = studentNames ? indivHonorees : indivSchools;
-        int[] workingLengths = ArrayUtils.condensedLengthArray(workingArray);
+        if (indivMemo == null) {
+            indivMemo = new Memo[2];
+        }
+        int i = studentNames ? 1 : 0;
+        if (indivMemo[i] == null || indivMemo[i].version != indivVersion) {
+            indivMemo[i] = new Memo(indivVersion, linkIndivSweeps(studentNames));
+        }
+        return indivMemo[i].value;
+    }
+
+    /**
+     * Computes the Map returned by {@link #computeIndivSweeps(boolean)}.
+     */
+    private Map<String, Fraction> linkIndivSweeps (boolean studentNames) {
+        int[] workingLengths = indiv.condensedLengths();
         if (indivSweeps == null) { // sweeps not yet initialized
-            Fraction[] indivSweepsUnexpanded = Sweepstakes.assignPoints(workingLengths, ev.getIndivSweeps(), ev.getTieAssign(), ev.getSweepsAssign());
+            Fraction[] indivSweepsUnexpanded = Sweepstakes.assignPoints(workingLengths, ev.getIndivPointsTable(), ev.getTieAssign(), ev.getSweepsAssign());
             indivSweeps = ArrayUtils.expandToLengths(indivSweepsUnexpanded, workingLengths);
         }
-        return Sweepstakes.linkSweepstakes(workingArray, indivSweeps);
+        return Sweepstakes.linkSweepstakes(studentNames ? indiv.honoreeIds() : indiv.schoolIds(), indiv.offsets(), indivSweeps, names);
     }
 
     /**
      * Returns the sweepstakes points for team winners in this event. Specifically, returns a Map from names of honored schools to amount of sweeps points received.
      * 
-     * @return a Map from school names to amount of points earned (entries earning 0 points may or may not be included)
+     * @return an unmodifiable Map from school names to amount of points earned (entries earning 0 points may or may not be included); the same Map is returned until the team results or sweepstakes change
      */
     public Map<String, Fraction> computeTeamSweeps () {
-        int[] workingLengths = ArrayUtils.condensedLengthArray(teamHonorees);
+        if (teamMemo == null || teamMemo.version != teamVersion) {
+            teamMemo = new Memo(teamVersion, linkTeamSweeps());
+        }
+        return teamMemo.value;
+    }
+
+    /**
+     * Computes the Map returned by {@link #computeTeamSweeps()}.
+     */
+    private Map<String, Fraction> linkTeamSweeps () {
+        int[] workingLengths = team.condensedLengths();
         if (teamSweeps == null) {
-            Fraction[] teamSweepsUnexpanded = Sweepstakes.assignPoints(workingLengths, ev.getTeamSweeps(), ev.getTieAssign(), ev.getSweepsAssign());
+            Fraction[] teamSweepsUnexpanded = Sweepstakes.assignPoints(workingLengths, ev.getTeamPointsTable(), ev.getTieAssign(), ev.getSweepsAssign());
             teamSweeps = ArrayUtils.expandToLengths(teamSweepsUnexpanded, workingLengths);
         }
-        return Sweepstakes.linkSweepstakes(teamHonorees, teamSweeps);
+        return Sweepstakes.linkSweepstakes(team.honoreeIds(), team.offsets(), teamSweeps, names);
     }
 
     /**
@@ -175,20 +358,39 @@ public class EventResults implements Serializable {
      * 
      * @param honorName the name of the special honor for which to compute sweeps
      * @param studentNames if true, the returned Map has student names as keys; if false, school names are used as keys
-     * @return a Map from student or school names to amount of points earned in the honor given by <code>honorName</code> (entries earning 0 points may or may not be included)
-     * @throws NullPointerException if no results are available for <code>honorName</code> (equivalently, if <code>(studentNames ? specialHonorees : specialSchools).get(honorName) == null</code>)
+     * @return an unmodifiable Map from student or school names to amount of points earned in the honor given by <code>honorName</code> (entries earning 0 points may or may not be included); the same Map is returned until the special results or sweepstakes change
+     * @throws NullPointerException if no results are available for <code>honorName</code> (equivalently, if <code>(studentNames ? getSpecialHonorees() : getSpecialSchools()).get(honorName) == null</code>)
      */
     public Map<String, Fraction> computeSpecialSweeps (String honorName, boolean studentNames) {
-        String[][] results = (studentNames ? specialHonorees : specialSchools).get(honorName);
+        if (specialMemo == null) {
+            specialMemo = new HashMap<String, Memo[]>();
+        }
+        Memo[] memos = specialMemo.get(honorName);
+        if (memos == null) {
+            memos = new Memo[2];
+            specialMemo.put(honorName, memos);
+        }
+        int i = studentNames ? 1 : 0;
+        if (memos[i] == null || memos[i].version != specialVersion) {
+            memos[i] = new Memo(specialVersion, linkSpecialSweeps(honorName, studentNames));
+        }
+        return memos[i].value;
+    }
+
+    /**
+     * Computes the Map returned by {@link #computeSpecialSweeps(String, boolean)}.
+     */
+    private Map<String, Fraction> linkSpecialSweeps (String honorName, boolean studentNames) {
+        ResultsTable results = (special == null) ? null : special.get(honorName);
         if (results == null) {
             throw new NullPointerException("No results for honor " + honorName);
         }
-        int[] workingLengths = ArrayUtils.condensedLengthArray(results);
+        int[] workingLengths = results.condensedLengths();
         if (specialSweeps.get(honorName) == null) {
-            Fraction[] specialSweepsUnexpanded = Sweepstakes.assignPoints(workingLengths, ev.getSpecialSweeps().get(honorName), ev.getTieAssign(), ev.getSweepsAssign());
+            Fraction[] specialSweepsUnexpanded = Sweepstakes.assignPoints(workingLengths, ev.getSpecialPointsTable(honorName), ev.getTieAssign(), ev.getSweepsAssign());
             specialSweeps.put(honorName, ArrayUtils.expandToLengths(specialSweepsUnexpanded, workingLengths));
         }
-        return Sweepstakes.linkSweepstakes(results, specialSweeps.get(honorName));
+        return Sweepstakes.linkSweepstakes(studentNames ? results.honoreeIds() : results.schoolIds(), results.offsets(), specialSweeps.get(honorName), names);
     }
 
     /**
@@ -198,15 +400,83 @@ public class EventResults implements Serializable {
      * This is equivalent to {@linkplain AdditiveMapUtils#addAllNumbers(Map, Map, boolean) numerically adding} the results of {@link #computeIndivSweeps(boolean) computeIndivSweeps(false)}, {@link #computeTeamSweeps()}, and {@link #computeSpecialSweeps(String, boolean) computeSpecialSweeps(x, false)} where <code>x</code> takes on all of the values of <code>getSpecialHonorees().keySet()</code> (equivalently, the names of all of the special honors in this event).
      * </p>
      * 
-     * @return a Map from school names to amount of points earned in this event (entries earning 0 points may or may not be included)
+     * <p>
+     * Result types that this event does not award are skipped.
+     * </p>
+     * 
+     * @return an unmodifiable Map from school names to amount of points earned in this event (entries earning 0 points may or may not be included); the same Map is returned until any results or sweepstakes change
      */
     public Map<String, Fraction> computeTotalSweeps () {
-        Map<String, Fraction> ret = computeIndivSweeps(false); // must use schools because of team sweeps
-        AdditiveMapUtils.addAllNumbers(ret, computeTeamSweeps(), false);
+        if (totalMemo == null || totalMemo.version != version) {
+            totalMemo = new Memo(version, totalSweeps());
+        }
+        return totalMemo.value;
+    }
 
-        // Add all special honors
-        for (String x : specialHonorees.keySet()) {
-            AdditiveMapUtils.addAllNumbers(ret, computeSpecialSweeps(x, false), false);
+    /**
+     * Computes the Map returned by {@link #computeTotalSweeps()}.
+     */
+    private Map<String, Fraction> totalSweeps () {
+        if (customIndivSweeps || customTeamSweeps || !customSpecialSweeps.isEmpty()) {
+            return computeTotalSweepsExact(); // hand-entered sweeps live only in the cached Fraction arrays
+        }
+
+        // Total every facet over one shared denominator in primitive arithmetic, falling back to Fractions if that overflows
+        PrimitiveSweepstakes totals = new PrimitiveSweepstakes(names);
+        try {
+            if (indiv != null) {
+                totals.add(indiv.schoolIds(), indiv.offsets(), ev.getIndivPointsTable(), ev.getTieAssign(), ev.getSweepsAssign()); // must use schools because of team sweeps
+            }
+            if (team != null) {
+                totals.add(team.honoreeIds(), team.offsets(), ev.getTeamPointsTable(), ev.getTieAssign(), ev.getSweepsAssign());
+            }
+            if (special != null) {
+                for (Map.Entry<String, ResultsTable> x : special.entrySet()) {
+                    totals.add(x.getValue().schoolIds(), x.getValue().offsets(), ev.getSpecialPointsTable(x.getKey()), ev.getTieAssign(), ev.getSweepsAssign());
+                }
+            }
+            return totals.toMap();
+        } catch (ArithmeticException e) {
+            return computeTotalSweepsExact();
+        }
+    }
+
+    /**
+     * Computes the same result as {@link #computeTotalSweeps()} using {@link Fraction} arithmetic throughout, which cannot overflow.
+     * 
+     * @return a Map from school names to amount of points earned in this event (entries earning 0 points may or may not be included)
+     */
+    private Map<String, Fraction> computeTotalSweepsExact () {
+        List<Map<String, Fraction>> facets = new ArrayList<Map<String, Fraction>>();
+        if (indiv != null) {
+            facets.add(computeIndivSweeps(false)); // must use schools because of team sweeps
+        }
+        if (team != null) {
+            facets.add(computeTeamSweeps());
+        }
+        if (special != null) {
+            for (String x : special.keySet()) {
+                facets.add(computeSpecialSweeps(x, false));
+            }
+        }
+
+        Set<String> schools = new HashSet<String>();
+        for (Map<String, Fraction> x : facets) {
+            schools.addAll(x.keySet());
+        }
+
+        // Gather each school's points from every facet and total them in one pass, rather than adding one facet at a time
+        Map<String, Fraction> ret = new HashMap<String, Fraction>(schools.size() * 2);
+        Fraction[] points = new Fraction[facets.size()];
+        for (String school : schools) {
+            int count = 0;
+            for (Map<String, Fraction> x : facets) {
+                Fraction facetPoints = x.get(school);
+                if (facetPoints != null) {
+                    points[count++] = facetPoints;
+                }
+            }
+            ret.put(school, Fraction.sum(points, 0, count));
         }
 
         return ret;
@@ -223,23 +493,34 @@ public class EventResults implements Serializable {
      * Note that unlike <code>computeTotalSweeps()</code>, maps returned from this method will not include keys for which <code>computeTotalSweeps</code> would return a value of 0.
      * </p>
      * 
-     * @return a Map from school names to amount of points earned in this event (entries earning 0 points are excluded)
+     * @return an unmodifiable Map from school names to amount of points earned in this event (entries earning 0 points are excluded); the same Map is returned until any results or sweepstakes change
      */
     public Map<String, Fraction> computeTotalSweepsCapped () {
+        if (cappedMemo == null || cappedMemo.version != version) {
+            cappedMemo = new Memo(version, totalSweepsCapped());
+        }
+        return cappedMemo.value;
+    }
+
+    /**
+     * Computes the Map returned by {@link #computeTotalSweepsCapped()}.
+     */
+    private Map<String, Fraction> totalSweepsCapped () {
         Map<String, Fraction> uncapped = computeTotalSweeps();
         Map<String, Fraction> ret = new HashMap<String, Fraction>();
 
-        Fraction cap = new Fraction(ev.getMaxPoints());
+        Fraction cap = Fraction.valueOf(ev.getMaxPoints());
+        Fraction zero = Fraction.valueOf(0);
 
         for (String x : uncapped.keySet()) {
             Fraction rawSweeps = uncapped.get(x);
             // Ignore values equal to 0
-            if (!rawSweeps.equals(new Fraction(0))) {
+            if (!rawSweeps.equals(zero)) {
                 Fraction cappedSweeps = rawSweeps;
                 if (cappedSweeps.compareTo(cap) > 0) {
-                    cappedSweeps = new Fraction(cap);
+                    cappedSweeps = cap; // Fractions are never modified, so they can be shared
                 }
-                ret.put(x, rawSweeps);
+                ret.put(x, cappedSweeps);
             }
         }
 
@@ -261,22 +542,22 @@ public class EventResults implements Serializable {
      * @return the indivHonorees, or null if this {@linkplain Event event} does not award individual results
      */
     public String[][] getIndivHonorees () {
-        if (indivHonorees == null) {
+        if (indiv == null) {
             return null;
         }
-        return ArrayUtils.deepCopyOf(indivHonorees);
+        return indiv.toHonoreeArray();
     }
 
     /**
-     * Sets the names of those placing individually, in rank order where index 0 is first place.
+     * Checks the names of those placing individually before they are set.
      * 
-     * @param indivHonorees the indivHonorees to set
+     * @param indivHonorees the indivHonorees to check
      * @throws UnsupportedOperationException if this Event does not support individual results (equivalently, if {@link #getIndivHonorees()} returns null)
      * @throws NullPointerException if the parameter is null
      * @throws IllegalArgumentException if the length of <code>indivHonorees</code> does not match the {@linkplain Event#getIndivPlaces() amount of individual places} specified by the Event, or <code>indivHonorees</code> does not properly {@linkplain ArrayUtils#checkTies(String[][]) skip places for ties}
      */
-    private void setIndivHonorees (String[][] indivHonorees) {
-        if (this.indivHonorees == null) {
+    private void checkIndivHonorees (String[][] indivHonorees) {
+        if (!supportsIndiv()) {
             throw new UnsupportedOperationException("Event " + ev.getPrimaryName() + " does not support individual results");
         }
         if (indivHonorees == null) {
@@ -288,7 +569,6 @@ public class EventResults implements Serializable {
         if (!ArrayUtils.checkTies(indivHonorees)) {
             throw new IllegalArgumentException("indivHonorees must correctly skip places for ties and must not contain extraneous nulls");
         }
-        this.indivHonorees = ArrayUtils.deepCopyOf(indivHonorees);
     }
 
     /**
@@ -297,22 +577,22 @@ public class EventResults implements Serializable {
      * @return the indivSchools, or null if this {@linkplain Event event} does not award individual results
      */
     public String[][] getIndivSchools () {
-        if (indivSchools == null) {
+        if (indiv == null) {
             return null;
         }
-        return ArrayUtils.deepCopyOf(indivSchools);
+        return indiv.toSchoolArray();
     }
 
     /**
-     * Sets the schools of those placing individually, in rank order where index 0 is first place.
+     * Checks the schools of those placing individually before they are set.
      * 
-     * @param indivSchools the indivSchools to set
+     * @param indivSchools the indivSchools to check
      * @throws UnsupportedOperationException if this Event does not support individual results (equivalently, if {@link #getIndivHonorees()} returns null)
      * @throws NullPointerException if the parameter is null
      * @throws IllegalArgumentException if the length of <code>indivSchools</code> does not match the {@linkplain Event#getIndivPlaces() amount of individual places} specified by the Event, or <code>indivSchools</code> does not properly {@linkplain ArrayUtils#checkTies(String[][]) skip places for ties}
      */
-    private void setIndivSchools (String[][] indivSchools) {
-        if (this.indivSchools == null) {
+    private void checkIndivSchools (String[][] indivSchools) {
+        if (!supportsIndiv()) {
             throw new UnsupportedOperationException("Event " + ev.getPrimaryName() + " does not support individual results");
         }
         if (indivSchools == null) {
@@ -324,7 +604,6 @@ public class EventResults implements Serializable {
         if (!ArrayUtils.checkTies(indivSchools)) {
             throw new IllegalArgumentException("indivSchools must correctly skip places for ties and must not contain extraneous nulls");
         }
-        this.indivSchools = ArrayUtils.deepCopyOf(indivSchools);
     }
 
     /**
@@ -341,11 +620,15 @@ public class EventResults implements Serializable {
             throw new IllegalArgumentException("Structure of honorees and schools must match");
         }
 
+        checkIndivHonorees(indivHonorees);
+        checkIndivSchools(indivSchools);
+
         // Reset sweeps
         indivSweeps = null;
+        customIndivSweeps = false;
+        indivVersion = ++version;
 
-        setIndivHonorees(indivHonorees);
-        setIndivSchools(indivSchools);
+        indiv = ResultsTable.flatten(names, indivHonorees, indivSchools);
     }
 
     /**
@@ -354,10 +637,10 @@ public class EventResults implements Serializable {
      * @return the teamHonorees, or null if this {@linkplain Event event} does not award team results
      */
     public String[][] getTeamHonorees () {
-        if (teamHonorees == null) {
+        if (team == null) {
             return null;
         }
-        return ArrayUtils.deepCopyOf(teamHonorees);
+        return team.toHonoreeArray();
     }
 
     /**
@@ -369,7 +652,7 @@ public class EventResults implements Serializable {
      * @throws IllegalArgumentException if the length of <code>teamHonorees</code> does not match the {@linkplain Event#getTeamPlaces() amount of team places} specified by the Event, or <code>teamHonorees</code> does not properly {@linkplain ArrayUtils#checkTies(String[][]) skip places for ties}
      */
     public void setTeamHonorees (String[][] teamHonorees) {
-        if (this.teamHonorees == null) {
+        if (!supportsTeam()) {
             throw new UnsupportedOperationException("Event " + ev.getPrimaryName() + " does not support team results");
         }
         if (teamHonorees == null) {
@@ -384,8 +667,10 @@ public class EventResults implements Serializable {
 
         // Reset sweeps
         teamSweeps = null;
+        customTeamSweeps = false;
+        teamVersion = ++version;
 
-        this.teamHonorees = ArrayUtils.deepCopyOf(teamHonorees);
+        team = ResultsTable.flatten(names, teamHonorees, null);
     }
 
     /**
@@ -394,73 +679,33 @@ public class EventResults implements Serializable {
      * @return the specialHonorees, or null if this {@linkplain Event event} does not award special honors
      */
     public Map<String, String[][]> getSpecialHonorees () {
-        if (specialHonorees == null) {
+        if (special == null) {
             return null;
         }
 
-        // Copy everything
+        // Look up everything
         Map<String, String[][]> ret = new HashMap<String, String[][]>();
-        for (Map.Entry<String, String[][]> x : specialHonorees.entrySet()) {
-            String k = x.getKey();
-            String[][] v = x.getValue();
-            ret.put(k, ArrayUtils.deepCopyOf(v));
+        for (Map.Entry<String, ResultsTable> x : special.entrySet()) {
+            ret.put(x.getKey(), x.getValue().toHonoreeArray());
         }
 
         return ret;
     }
 
     /**
-     * Sets the names of those placing in special honors.
+     * Checks the names of those placing in special honors before they are set.
      * 
      * <p>
      * The parameter is a mapping from names of special honors to arrays of the names of those placing in them, in rank order where index 0 is first place.
      * </p>
      * 
-     * @param specialHonorees the specialHonorees to set
+     * @param specialHonorees the specialHonorees to check
      * @throws UnsupportedOperationException if this Event does not support special honors (equivalently, if {@link #getSpecialHonorees()} returns null)
      * @throws NullPointerException if the parameter is null
      * @throws IllegalArgumentException if the keys in <code>specialHonorees</code> do not match the {@linkplain Event#getSpecialHonors() special honors} specified by the Event, the length of one of the arrays does not match the amount of places specified for that special honor, or one of the arrays does not properly {@linkplain ArrayUtils#checkTies(String[][]) skip places for ties}
      */
-    private void setSpecialHonorees (Map<String, String[][]> specialHonorees) {
-        if (this.specialHonorees == null) {
-            throw new UnsupportedOperationException("Event " + ev.getPrimaryName() + " does not support special honors");
-        }
-        if (specialHonorees == null) {
-            throw new NullPointerException("specialHonorees must not be null");
-        }
-
-        // Check that the passed-in Map has same honors and same places in each and skips places correctly
-        if (!specialHonorees.keySet().equals(ev.getSpecialHonors().keySet())) {
-            throw new IllegalArgumentException("Keys in specialHonorees must match those specified in the Event");
-        }
-        for (String x : specialHonorees.keySet()) {
-            // Check amount of places
-
-            // How many places there should be for this special honor
-            int expected = ev.getSpecialHonors().get(x);
-
-            // How many there actually are
-            int observed = specialHonorees.get(x).length;
-
-            if (expected != observed) {
-                throw new IllegalArgumentException("Places passed in for honor " + x + " in event " + ev.getPrimaryName() + " must match those specified in the Event (expected: " + expected + "; observed: " + observed + ")");
-            }
-
-            // Check place skips
-            if (!ArrayUtils.checkTies(specialHonorees.get(x))) {
-                throw new IllegalArgumentException("Places passed in for honor " + x + " do not properly skip places for ties");
-            }
-        }
-
-        // Copy everything
-        HashMap<String, String[][]> ret = new HashMap<String, String[][]>();
-        for (Map.Entry<String, String[][]> x : specialHonorees.entrySet()) {
-            String k = x.getKey();
-            String[][] v = x.getValue();
-            ret.put(k, ArrayUtils.deepCopyOf(v));
-        }
-
-        this.specialHonorees = ret;
+    private void checkSpecialHonorees (Map<String, String[][]> specialHonorees) {
+        checkSpecial(specialHonorees, "specialHonorees");
     }
 
     /**
@@ -469,73 +714,71 @@ public class EventResults implements Serializable {
      * @return the specialSchools, or null if this {@linkplain Event event} does not award special honors
      */
     public Map<String, String[][]> getSpecialSchools () {
-        if (specialSchools == null) {
+        if (special == null) {
             return null;
         }
 
-        // Copy everything
+        // Look up everything
         Map<String, String[][]> ret = new HashMap<String, String[][]>();
-        for (Map.Entry<String, String[][]> x : specialSchools.entrySet()) {
-            String k = x.getKey();
-            String[][] v = x.getValue();
-            ret.put(k, ArrayUtils.deepCopyOf(v));
+        for (Map.Entry<String, ResultsTable> x : special.entrySet()) {
+            ret.put(x.getKey(), x.getValue().toSchoolArray());
         }
 
         return ret;
     }
 
     /**
-     * Sets the schools of those competitors placing in special honors.
+     * Checks the schools of those competitors placing in special honors before they are set.
      * 
      * <p>
      * The parameter is a mapping from names of special honors to arrays of the schools of those placing in them, in rank order where index 0 is first place.
      * </p>
      * 
-     * @param specialSchools the specialSchools to set
+     * @param specialSchools the specialSchools to check
      * @throws UnsupportedOperationException if this Event does not support special honors (equivalently, if {@link #getSpecialHonorees()} returns null)
      * @throws NullPointerException if the parameter is null
      * @throws IllegalArgumentException if the keys in <code>specialSchools</code> do not match the {@linkplain Event#getSpecialHonors() special honors} specified by the Event, the length of one of the arrays does not match the amount of places specified for that special honor, or one of the arrays does not properly {@linkplain ArrayUtils#checkTies(String[][]) skip places for ties}
      */
-    private void setSpecialSchools (Map<String, String[][]> specialSchools) {
-        if (this.specialSchools == null) {
+    private void checkSpecialSchools (Map<String, String[][]> specialSchools) {
+        checkSpecial(specialSchools, "specialSchools");
+    }
+
+    /**
+     * Performs the checks of {@link #checkSpecialHonorees(Map)} and {@link #checkSpecialSchools(Map)}.
+     * 
+     * @param results the honorees or schools to check
+     * @param paramName the name of the parameter, for exception messages
+     */
+    private void checkSpecial (Map<String, String[][]> results, String paramName) {
+        if (!supportsSpecial()) {
             throw new UnsupportedOperationException("Event " + ev.getPrimaryName() + " does not support special honors");
         }
-        if (specialSchools == null) {
-            throw new NullPointerException("specialSchools must not be null");
+        if (results == null) {
+            throw new NullPointerException(paramName + " must not be null");
         }
 
-        // Check that the passed-in Map has same honors and same places in each
-        if (!specialSchools.keySet().equals(ev.getSpecialHonors().keySet())) {
-            throw new IllegalArgumentException("Keys in specialSchools must match those specified in the Event");
+        // Check that the passed-in Map has same honors and same places in each and skips places correctly
+        if (!results.keySet().equals(ev.getSpecialHonors().keySet())) {
+            throw new IllegalArgumentException("Keys in " + paramName + " must match those specified in the Event");
         }
-        for (String x : specialSchools.keySet()) {
+        for (String x : results.keySet()) {
             // Check amount of places
 
             // How many places there should be for this special honor
             int expected = ev.getSpecialHonors().get(x);
 
             // How many there actually are
-            int observed = specialSchools.get(x).length;
+            int observed = results.get(x).length;
 
             if (expected != observed) {
                 throw new IllegalArgumentException("Places passed in for honor " + x + " in event " + ev.getPrimaryName() + " must match those specified in the Event (expected: " + expected + "; observed: " + observed + ")");
             }
 
             // Check place skips
-            if (!ArrayUtils.checkTies(specialSchools.get(x))) {
+            if (!ArrayUtils.checkTies(results.get(x))) {
                 throw new IllegalArgumentException("Places passed in for honor " + x + " do not properly skip places for ties");
             }
         }
-
-        // Copy everything
-        HashMap<String, String[][]> ret = new HashMap<String, String[][]>();
-        for (Map.Entry<String, String[][]> x : specialSchools.entrySet()) {
-            String k = x.getKey();
-            String[][] v = x.getValue();
-            ret.put(k, ArrayUtils.deepCopyOf(v));
-        }
-
-        this.specialSchools = ret;
     }
 
     /**
@@ -563,11 +806,20 @@ public class EventResults implements Serializable {
             }
         }
 
+        checkSpecialHonorees(specialHonorees);
+        checkSpecialSchools(specialSchools);
+
         // Reset sweeps
         specialSweeps = new HashMap<String, Fraction[][]>();
+        customSpecialSweeps.clear();
+        specialVersion = ++version;
 
-        setSpecialHonorees(specialHonorees);
-        setSpecialSchools(specialSchools);
+        // Intern everything
+        HashMap<String, ResultsTable> ret = new HashMap<String, ResultsTable>();
+        for (String x : specialHonorees.keySet()) {
+            ret.put(x, ResultsTable.flatten(names, specialHonorees.get(x), specialSchools.get(x)));
+        }
+        special = ret;
     }
 
     /**
@@ -605,11 +857,13 @@ public class EventResults implements Serializable {
         }
 
         // Sanity check: structure
-        if (!ArrayUtils.checkStructureSame(indivHonorees, indivSweeps)) {
+        if (!ArrayUtils.checkStructureSame(getIndivHonorees(), indivSweeps)) {
             throw new IllegalArgumentException("indivSweeps and array returned from getIndivHonorees() must have same structure");
         }
 
         this.indivSweeps = ArrayUtils.deepCopyOf(indivSweeps);
+        customIndivSweeps = true;
+        indivVersion = ++version;
     }
 
     /**
@@ -647,11 +901,13 @@ public class EventResults implements Serializable {
         }
 
         // Sanity check: structure
-        if (!ArrayUtils.checkStructureSame(teamHonorees, teamSweeps)) {
+        if (!ArrayUtils.checkStructureSame(getTeamHonorees(), teamSweeps)) {
             throw new IllegalArgumentException("teamSweeps and array returned from getTeamHonorees() must have same structure");
         }
 
         this.teamSweeps = ArrayUtils.deepCopyOf(teamSweeps);
+        customTeamSweeps = true;
+        teamVersion = ++version;
     }
 
     /**
@@ -695,10 +951,25 @@ public class EventResults implements Serializable {
         }
 
         // Sanity check: structure
-        if (!ArrayUtils.checkStructureSame(specialHonorees.get(honorName), specialSweeps)) {
+        if (!ArrayUtils.checkStructureSame(special.get(honorName).toHonoreeArray(), specialSweeps)) {
             throw new IllegalArgumentException("specialSweeps and array returned from getSpecialHonorees().get(honorName) must have same structure");
         }
 
         this.specialSweeps.put(honorName, ArrayUtils.deepCopyOf(specialSweeps));
+        customSpecialSweeps.add(honorName);
+        specialVersion = ++version;
+    }
+
+    /**
+     * A memoized sweepstakes map, along with the version of the results it was computed from.
+     */
+    private static final class Memo {
+        private final long version;
+        private final Map<String, Fraction> value;
+
+        Memo (long version, Map<String, Fraction> value) {
+            this.version = version;
+            this.value = Collections.unmodifiableMap(value);
+        }
     }
 }
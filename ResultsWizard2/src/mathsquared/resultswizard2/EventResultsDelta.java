@@ -0,0 +1,417 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The changes between two versions of the results of an event, as found by {@link EventResults#diff(EventResults)}.
+ * 
+ * <p>
+ * A delta lists each {@linkplain Facet facet} that changed, and within it only the places whose honorees or schools changed, so a correction to one name in a large event is sent and redrawn as one place rather than the whole event. A delta can be {@linkplain #apply(EventResults) applied} to the older results to reconstruct the newer ones.
+ * </p>
+ * 
+ * @author MathSquared
+ * 
+ */
+public final class EventResultsDelta implements Serializable {
+    private static final long serialVersionUID = 2L;
+
+    /**
+     * How a place changed between two versions of a facet.
+     * 
+     * @author MathSquared
+     * 
+     */
+    public enum Kind {
+        /** The place was empty (or skipped for a tie) and now has honorees. */
+        INSERTED,
+        /** The place had honorees and is now empty (or skipped for a tie). */
+        REMOVED,
+        /** The place had honorees and still does, but they or their schools are different. */
+        RENAMED;
+    }
+
+    /**
+     * The change to one place in a facet.
+     * 
+     * @author MathSquared
+     * 
+     */
+    public static final class PlaceChange implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final int place;
+        private final Kind kind;
+        private final String[] honorees;
+        private final String[] schools; // null for team results
+
+        PlaceChange (int place, Kind kind, String[] honorees, String[] schools) {
+            this.place = place;
+            this.kind = kind;
+            this.honorees = honorees;
+            this.schools = schools;
+        }
+
+        /**
+         * Returns the place that changed.
+         * 
+         * @return the place, where 0 is first place
+         */
+        public int getPlace () {
+            return place;
+        }
+
+        /**
+         * Returns how the place changed.
+         * 
+         * @return the {@link Kind} of change
+         */
+        public Kind getKind () {
+            return kind;
+        }
+
+        /**
+         * Returns the honorees now in the place.
+         * 
+         * @return a new array of the honorees' names; empty if the place was {@linkplain Kind#REMOVED removed}
+         */
+        public String[] getHonorees () {
+            return honorees.clone();
+        }
+
+        /**
+         * Returns the schools of the honorees now in the place.
+         * 
+         * @return a new array of the schools' names, parallel to {@link #getHonorees()}; null for team results
+         */
+        public String[] getSchools () {
+            return (schools == null) ? null : schools.clone();
+        }
+    }
+
+    /**
+     * The changes to one facet of an event.
+     * 
+     * @author MathSquared
+     * 
+     */
+    public static final class FacetChange implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final Facet facet;
+        private final String honor; // null unless facet is SPECIAL
+        private final List<PlaceChange> places; // unmodifiable
+        private final Fraction[][] sweeps; // null unless the newer results have sweepstakes entered by hand
+
+        FacetChange (Facet facet, String honor, List<PlaceChange> places, Fraction[][] sweeps) {
+            this.facet = facet;
+            this.honor = honor;
+            this.places = Collections.unmodifiableList(places);
+            this.sweeps = sweeps;
+        }
+
+        /**
+         * Returns the facet that changed.
+         * 
+         * @return the {@link Facet}
+         */
+        public Facet getFacet () {
+            return facet;
+        }
+
+        /**
+         * Returns the special honor that changed.
+         * 
+         * @return the name of the honor, or null if {@link #getFacet()} is not {@link Facet#SPECIAL}
+         */
+        public String getHonor () {
+            return honor;
+        }
+
+        /**
+         * Returns the places in the facet that changed, in rank order. This may be empty if only the sweepstakes changed.
+         * 
+         * @return an unmodifiable List of the changed places
+         */
+        public List<PlaceChange> getPlaces () {
+            return places;
+        }
+
+        /**
+         * Returns the sweepstakes points entered by hand for the facet in the newer results.
+         * 
+         * @return the points, in the format of {@link EventResults#getIndivSweeps()}; null if the points are computed from the {@link Event}
+         */
+        public Fraction[][] getSweeps () {
+            return ArrayUtils.deepCopyOf(sweeps);
+        }
+    }
+
+    private final String event; // primary name of the event
+    private final long fromVersion;
+    private final int fromHash; // content hash of the older results, since siblings can share a version
+    private final long toVersion;
+    private final List<FacetChange> changes; // unmodifiable
+
+    private EventResultsDelta (String event, long fromVersion, int fromHash, long toVersion, List<FacetChange> changes) {
+        this.event = event;
+        this.fromVersion = fromVersion;
+        this.fromHash = fromHash;
+        this.toVersion = toVersion;
+        this.changes = Collections.unmodifiableList(changes);
+    }
+
+    /**
+     * Finds the changes between two snapshots of the results of an event.
+     * 
+     * @param older the older results
+     * @param newer the newer results
+     * @return a delta turning <code>older</code> into <code>newer</code>
+     * @throws IllegalArgumentException if the snapshots represent different events, or the same event with different facets, special honors, or numbers of places
+     */
+    static EventResultsDelta between (EventResultsSnapshot older, EventResultsSnapshot newer) {
+        String event = newer.getEvent().getPrimaryName();
+        if (!older.getEvent().getPrimaryName().equals(event)) {
+            throw new IllegalArgumentException("Cannot diff results of " + older.getEvent().getPrimaryName() + " against results of " + event);
+        }
+        boolean sameShape = sameShape(older.getIndivResults(), newer.getIndivResults()) && sameShape(older.getTeamResults(), newer.getTeamResults()) && older.getSpecialHonors().equals(newer.getSpecialHonors());
+        for (String x : newer.getSpecialHonors()) {
+            sameShape = sameShape && sameShape(older.getSpecialResults(x), newer.getSpecialResults(x));
+        }
+        if (!sameShape) {
+            throw new IllegalArgumentException("Cannot diff results of " + event + " held under different definitions of the event");
+        }
+
+        List<FacetChange> changes = new ArrayList<FacetChange>();
+        addChange(changes, Facet.INDIVIDUAL, null, older.getIndivResults(), newer.getIndivResults());
+        addChange(changes, Facet.TEAM, null, older.getTeamResults(), newer.getTeamResults());
+        for (String x : newer.getSpecialHonors()) {
+            addChange(changes, Facet.SPECIAL, x, older.getSpecialResults(x), newer.getSpecialResults(x));
+        }
+        return new EventResultsDelta(event, older.getVersion(), contentHash(older), newer.getVersion(), changes);
+    }
+
+    /**
+     * Hashes the honorees, schools, and hand-entered sweepstakes of every facet in a snapshot, so that a delta can tell its own base from other results of the same version.
+     */
+    private static int contentHash (EventResultsSnapshot snap) {
+        int hash = 31 * tableHash(snap.getIndivResults()) + tableHash(snap.getTeamResults());
+        for (String x : snap.getSpecialHonors()) {
+            hash += x.hashCode() ^ tableHash(snap.getSpecialResults(x)); // summed, so the order of the honors does not matter
+        }
+        return hash;
+    }
+
+    /**
+     * Hashes the honorees, schools, and hand-entered sweepstakes of one table, or returns 0 if it is absent.
+     */
+    private static int tableHash (ResultsTable table) {
+        if (table == null) {
+            return 0;
+        }
+        int hash = 31 * table.getHonorees().hashCode() + table.getSchools().hashCode();
+        return 31 * hash + Arrays.deepHashCode(table.sweeps());
+    }
+
+    /**
+     * Returns whether two tables hold results for a facet with the same number of places, or are both absent.
+     */
+    private static boolean sameShape (ResultsTable older, ResultsTable newer) {
+        return (older == null) ? newer == null : (newer != null && older.getPlaces() == newer.getPlaces());
+    }
+
+    /**
+     * Compares one facet of two snapshots, adding a {@link FacetChange} if it differs.
+     */
+    private static void addChange (List<FacetChange> changes, Facet facet, String honor, ResultsTable older, ResultsTable newer) {
+        if (newer == null) {
+            return; // the event does not award this facet
+        }
+        boolean sweepsSame = Arrays.deepEquals(older.sweeps(), newer.sweeps());
+        if (newer.sharesResults(older) && sweepsSame) {
+            return; // not set since the older version
+        }
+
+        List<PlaceChange> places = new ArrayList<PlaceChange>();
+        List<List<String>> oldHonorees = older.getHonorees();
+        List<List<String>> oldSchools = older.getSchools();
+        List<List<String>> newHonorees = newer.getHonorees();
+        List<List<String>> newSchools = newer.getSchools();
+        for (int p = 0; p < newer.getPlaces(); p++) {
+            if (oldHonorees.get(p).equals(newHonorees.get(p)) && oldSchools.get(p).equals(newSchools.get(p))) {
+                continue;
+            }
+
+            Kind kind;
+            if (older.getTieSize(p) == 0) {
+                kind = Kind.INSERTED;
+            } else if (newer.getTieSize(p) == 0) {
+                kind = Kind.REMOVED;
+            } else {
+                kind = Kind.RENAMED;
+            }
+            String[] schools = newer.hasSchools() ? newSchools.get(p).toArray(new String[0]) : null;
+            places.add(new PlaceChange(p, kind, newHonorees.get(p).toArray(new String[0]), schools));
+        }
+
+        if (places.isEmpty() && sweepsSame) {
+            return; // set again to the same results
+        }
+        changes.add(new FacetChange(facet, honor, places, newer.sweeps()));
+    }
+
+    /**
+     * Returns the primary name of the event whose results changed.
+     * 
+     * @return the {@linkplain Event#getPrimaryName() primary name} of the event
+     */
+    public String getEvent () {
+        return event;
+    }
+
+    /**
+     * Returns the version of the older results.
+     * 
+     * @return the {@linkplain EventResults#getVersion() version} this delta applies to
+     */
+    public long getFromVersion () {
+        return fromVersion;
+    }
+
+    /**
+     * Returns the version of the newer results.
+     * 
+     * @return the {@linkplain EventResults#getVersion() version} this delta produces
+     */
+    public long getToVersion () {
+        return toVersion;
+    }
+
+    /**
+     * Returns the facets that changed.
+     * 
+     * @return an unmodifiable List of the changed facets; individual results first, then team results, then special honors
+     */
+    public List<FacetChange> getChanges () {
+        return changes;
+    }
+
+    /**
+     * Returns whether any results changed.
+     * 
+     * @return true if the two versions hold the same results and sweepstakes
+     */
+    public boolean isEmpty () {
+        return changes.isEmpty();
+    }
+
+    /**
+     * Applies this delta to the older results, producing the newer results. The older results are not modified.
+     * 
+     * <p>
+     * Each facet that changed is set again, with its changed places replaced, and any sweepstakes entered by hand are set afterwards. The returned results have the version {@link #getToVersion()}.
+     * </p>
+     * 
+     * <p>
+     * Versions are only unique along one line of edits: copies of the same results that are then changed separately can reach the same version with different contents. So besides the version, the delta checks that <code>older</code> holds the same results it was found against.
+     * </p>
+     * 
+     * @param older the results this delta was found against
+     * @return a new EventResults holding the newer results
+     * @throws IllegalArgumentException if <code>older</code> represents a different event, or different results than the ones this delta applies to
+     */
+    public EventResults apply (EventResults older) {
+        if (!older.getEvent().getPrimaryName().equals(event)) {
+            throw new IllegalArgumentException("Delta for " + event + " cannot be applied to results of " + older.getEvent().getPrimaryName());
+        }
+        if (older.getVersion() != fromVersion) {
+            throw new IllegalArgumentException("Delta applies to version " + fromVersion + ", not " + older.getVersion());
+        }
+        if (contentHash(older.snapshot()) != fromHash) {
+            throw new IllegalArgumentException("Delta applies to different results of version " + fromVersion);
+        }
+
+        EventResults ret = new EventResults(older);
+        Map<String, String[][]> specialHonorees = null;
+        Map<String, String[][]> specialSchools = null;
+        for (FacetChange x : changes) {
+            switch (x.facet) {
+                case INDIVIDUAL:
+                    ret.setIndivResults(patch(ret.getIndivHonorees(), x, false), patch(ret.getIndivSchools(), x, true));
+                    break;
+                case TEAM:
+                    ret.setTeamHonorees(patch(ret.getTeamHonorees(), x, false));
+                    break;
+                case SPECIAL:
+                    if (specialHonorees == null) {
+                        specialHonorees = ret.getSpecialHonorees();
+                        specialSchools = ret.getSpecialSchools();
+                    }
+                    specialHonorees.put(x.honor, patch(specialHonorees.get(x.honor), x, false));
+                    specialSchools.put(x.honor, patch(specialSchools.get(x.honor), x, true));
+                    break;
+            }
+        }
+        if (specialHonorees != null) {
+            // Special honors can only be set together, which resets every honor's sweeps; keep those of the honors that did not change
+            EventResultsSnapshot snap = older.snapshot();
+            Map<String, Fraction[][]> keptSweeps = new HashMap<String, Fraction[][]>();
+            for (String x : snap.getSpecialHonors()) {
+                keptSweeps.put(x, snap.getSpecialResults(x).sweeps());
+            }
+            ret.setSpecialResults(specialHonorees, specialSchools);
+            for (FacetChange x : changes) {
+                keptSweeps.remove(x.honor);
+            }
+            for (Map.Entry<String, Fraction[][]> x : keptSweeps.entrySet()) {
+                if (x.getValue() != null) {
+                    ret.setSpecialSweeps(x.getKey(), x.getValue());
+                }
+            }
+        }
+
+        // Sweeps are reset when results are set, so they go last
+        for (FacetChange x : changes) {
+            if (x.sweeps == null) {
+                continue;
+            }
+            switch (x.facet) {
+                case INDIVIDUAL:
+                    ret.setIndivSweeps(x.sweeps);
+                    break;
+                case TEAM:
+                    ret.setTeamSweeps(x.sweeps);
+                    break;
+                case SPECIAL:
+                    ret.setSpecialSweeps(x.honor, x.sweeps);
+                    break;
+            }
+        }
+
+        ret.setVersion(toVersion);
+        return ret;
+    }
+
+    /**
+     * Replaces the changed places in a copy of a facet's results.
+     * 
+     * @param results the results, which are modified and returned
+     * @param change the changes to the facet
+     * @param schools true to replace the schools rather than the honorees
+     * @return <code>results</code>
+     */
+    private static String[][] patch (String[][] results, FacetChange change, boolean schools) {
+        for (PlaceChange x : change.places) {
+            results[x.place] = (schools ? x.schools : x.honorees).clone();
+        }
+        return results;
+    }
+}
@@ -16,4 +16,11 @@ public interface EventResultsSlideList extends SlideList {
      * @return the full <code>EventResults</code> being represented by this SlideList
      */
     public EventResults getEventResults ();
+
+    /**
+     * Obtains an immutable snapshot of the results represented by this list of slides. Unlike {@link #getEventResults()}, this need not create a new object, and the snapshot may be shared freely between threads.
+     * 
+     * @return the {@link EventResultsSnapshot} being represented by this SlideList
+     */
+    public EventResultsSnapshot getSnapshot ();
 }
@@ -0,0 +1,232 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable snapshot of the results of an event.
+ * 
+ * <p>
+ * Each facet (individual, team, and each special honor) is held in its own immutable {@link ResultsTable}. Changing a facet with one of the <code>with</code> methods returns a new snapshot that shares every other facet with this one, so a change costs only as much as the facet it touches, and older snapshots stay valid. Since nothing in a snapshot is ever modified, snapshots can be passed between the admin, communication, and rendering threads without defensive copies.
+ * </p>
+ * 
+ * <p>
+ * Snapshots are taken with {@link EventResults#snapshot()}, and can be turned back into a mutable EventResults with {@link #toEventResults()}; neither copies the results.
+ * </p>
+ * 
+ * <p>
+ * A snapshot shares its {@link NameDictionary} with the EventResults it came from, but is serialized with a dictionary of only the names it uses, so any number of snapshots can be sent over one stream as the results change.
+ * </p>
+ * 
+ * @author MathSquared
+ * 
+ */
+public final class EventResultsSnapshot implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final Event ev;
+    private final NameDictionary names;
+    private final long version; // of the EventResults the snapshot came from
+    private final ResultsTable indiv; // null if the event does not award that result type
+    private final ResultsTable team;
+    private final Map<String, ResultsTable> special; // unmodifiable
+
+    /**
+     * Creates a snapshot from its facets, which are used directly.
+     * 
+     * @param ev the event whose results are represented
+     * @param names the dictionary from which the facets' IDs come
+     * @param version the version of the results
+     * @param indiv the individual results, or null if the event does not award them
+     * @param team the team results, or null if the event does not award them
+     * @param special the results of each special honor, or null if the event does not award any; must not be modified afterwards
+     */
+    EventResultsSnapshot (Event ev, NameDictionary names, long version, ResultsTable indiv, ResultsTable team, Map<String, ResultsTable> special) {
+        this.ev = ev;
+        this.names = names;
+        this.version = version;
+        this.indiv = indiv;
+        this.team = team;
+        this.special = (special == null) ? null : Collections.unmodifiableMap(special);
+    }
+
+    /**
+     * Returns the event whose results are represented by this snapshot.
+     * 
+     * @return the {@link Event}
+     */
+    public Event getEvent () {
+        return ev;
+    }
+
+    /**
+     * Returns the dictionary from which this snapshot's names come.
+     * 
+     * @return the {@link NameDictionary}
+     */
+    public NameDictionary getNameDictionary () {
+        return names;
+    }
+
+    /**
+     * Returns the version of the results in this snapshot. Snapshots made with the <code>with</code> methods are one version newer than the snapshot they came from.
+     * 
+     * @return the version, as in {@link EventResults#getVersion()}
+     */
+    public long getVersion () {
+        return version;
+    }
+
+    /**
+     * Returns the individual results.
+     * 
+     * @return the individual results, or null if the event does not award them
+     */
+    public ResultsTable getIndivResults () {
+        return indiv;
+    }
+
+    /**
+     * Returns the team results.
+     * 
+     * @return the team results, or null if the event does not award them
+     */
+    public ResultsTable getTeamResults () {
+        return team;
+    }
+
+    /**
+     * Returns the results of a special honor.
+     * 
+     * @param honorName the name of the special honor
+     * @return the results of the honor, or null if the event does not award it
+     */
+    public ResultsTable getSpecialResults (String honorName) {
+        return (special == null) ? null : special.get(honorName);
+    }
+
+    /**
+     * Returns the names of the special honors with results in this snapshot.
+     * 
+     * @return an unmodifiable Set of honor names; empty if the event does not award special honors
+     */
+    public Set<String> getSpecialHonors () {
+        return (special == null) ? Collections.<String> emptySet() : special.keySet();
+    }
+
+    /**
+     * Returns a snapshot with different individual results, sharing every other facet with this one.
+     * 
+     * @param indivHonorees the names of those placing individually, in rank order where index 0 is first place
+     * @param indivSchools the schools of those placing individually
+     * @return a new snapshot
+     * @throws UnsupportedOperationException if the event does not award individual results
+     * @throws NullPointerException if either parameter is null
+     * @throws IllegalArgumentException under the same conditions as {@link EventResults#setIndivResults(String[][], String[][])}
+     */
+    public EventResultsSnapshot withIndivResults (String[][] indivHonorees, String[][] indivSchools) {
+        if (indiv == null) {
+            throw new UnsupportedOperationException("Event " + ev.getPrimaryName() + " does not support individual results");
+        }
+        if (indivSchools == null) {
+            throw new NullPointerException("indivSchools must not be null");
+        }
+        return new EventResultsSnapshot(ev, names, version + 1, table(indivHonorees, indivSchools, ev.getIndivPlaces()), team, special);
+    }
+
+    /**
+     * Returns a snapshot with different team results, sharing every other facet with this one.
+     * 
+     * @param teamHonorees the names of those placing as teams, in rank order where index 0 is first place
+     * @return a new snapshot
+     * @throws UnsupportedOperationException if the event does not award team results
+     * @throws NullPointerException if the parameter is null
+     * @throws IllegalArgumentException under the same conditions as {@link EventResults#setTeamHonorees(String[][])}
+     */
+    public EventResultsSnapshot withTeamHonorees (String[][] teamHonorees) {
+        if (team == null) {
+            throw new UnsupportedOperationException("Event " + ev.getPrimaryName() + " does not support team results");
+        }
+        return new EventResultsSnapshot(ev, names, version + 1, indiv, table(teamHonorees, null, ev.getTeamPlaces()), special);
+    }
+
+    /**
+     * Returns a snapshot with different results for one special honor, sharing every other facet (including the other special honors) with this one.
+     * 
+     * @param honorName the name of the special honor
+     * @param honorees the names of those placing in the honor, in rank order where index 0 is first place
+     * @param schools the schools of those placing in the honor
+     * @return a new snapshot
+     * @throws UnsupportedOperationException if the event does not award the honor
+     * @throws NullPointerException if <code>honorees</code> or <code>schools</code> is null
+     * @throws IllegalArgumentException under the same conditions as {@link EventResults#setSpecialResults(Map, Map)}
+     */
+    public EventResultsSnapshot withSpecialResults (String honorName, String[][] honorees, String[][] schools) {
+        if (getSpecialResults(honorName) == null) {
+            throw new UnsupportedOperationException("Event " + ev.getPrimaryName() + " does not support special honor " + honorName);
+        }
+        if (schools == null) {
+            throw new NullPointerException("schools must not be null");
+        }
+        Map<String, ResultsTable> newSpecial = new HashMap<String, ResultsTable>(special);
+        newSpecial.put(honorName, table(honorees, schools, getSpecialResults(honorName).getPlaces()));
+        return new EventResultsSnapshot(ev, names, version + 1, indiv, team, newSpecial);
+    }
+
+    /**
+     * Creates a mutable EventResults holding the results in this snapshot, including any sweepstakes points entered by hand. The results are shared rather than copied; changes to the EventResults replace its arrays and never affect this snapshot.
+     * 
+     * @return a new EventResults
+     */
+    public EventResults toEventResults () {
+        return new EventResults(this);
+    }
+
+    /**
+     * Returns a snapshot with the same results as this one, with its names interned in a new dictionary holding only the names this snapshot uses. The result no longer shares a dictionary with any other results, so it can be serialized on its own.
+     * 
+     * @return a new snapshot with its own dictionary
+     */
+    EventResultsSnapshot compact () {
+        NameDictionary dict = new NameDictionary();
+        Map<String, ResultsTable> newSpecial = null;
+        if (special != null) {
+            newSpecial = new HashMap<String, ResultsTable>(special.size() * 2);
+            for (Map.Entry<String, ResultsTable> x : special.entrySet()) {
+                newSpecial.put(x.getKey(), x.getValue().withDictionary(dict));
+            }
+        }
+        return new EventResultsSnapshot(ev, dict, version, (indiv == null) ? null : indiv.withDictionary(dict), (team == null) ? null : team.withDictionary(dict), newSpecial);
+    }
+
+    /**
+     * Serializes a {@linkplain #compact() compact} copy of this snapshot, so each snapshot sent is self-contained and carries only the names it uses, not the dictionary it shares with its EventResults.
+     * 
+     * @return the copy to serialize
+     */
+    private Object writeReplace () {
+        return compact();
+    }
+
+    /**
+     * Validates and interns a replacement facet.
+     */
+    private ResultsTable table (String[][] honorees, String[][] schools, int places) {
+        if (honorees == null) {
+            throw new NullPointerException("honorees must not be null");
+        }
+        if (honorees.length != places) {
+            throw new IllegalArgumentException("Length of honorees must match specification in Event (here, " + places + " for " + ev.getPrimaryName());
+        }
+        if (schools != null && schools.length != places) {
+            throw new IllegalArgumentException("Length of schools must match specification in Event (here, " + places + " for " + ev.getPrimaryName());
+        }
+        return ResultsTable.of(names, honorees, schools);
+    }
+}
@@ -3,8 +3,19 @@
  */
 package mathsquared.resultswizard2;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
 import java.io.Serializable;
-import java.util.regex.Matcher;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.regex.Pattern;
 
 /**
@@ -15,21 +26,29 @@ import java.util.regex.Pattern;
  * </p>
  * 
  * <p>
- * Objects of this class may be marked as invalid at any time if they have zero denominators. If a Fraction is marked as invalid, subsequent operations will throw an {@link UnsupportedOperationException}. This is done on a best-effort basis; a Fraction with a zero denominator is not guaranteed to be marked invalid immediately. Note that the public constructors will disallow the creation of a Fraction with a zero denominator, so such Fractions should not be encountered in normal usage.
+ * Fractions are exact at any magnitude. A Fraction whose numerator and denominator (in lowest terms) fit in a <code>long</code> is stored as two <code>long</code>s, and arithmetic on such Fractions is done in 64-bit arithmetic with overflow checks. Only when a result overflows is it recomputed using {@link BigInteger}s, and a result that fits in a <code>long</code> again is stored as <code>long</code>s again. Note that the <code>int</code> accessors, such as {@link #getNumerator()}, throw an {@link ArithmeticException} if the quantity they return does not fit in an <code>int</code>; use {@link #getBigImproperNumerator()} and {@link #getBigDenominator()} to read Fractions of any size.
+ * </p>
+ * 
+ * <p>
+ * Fractions are immutable. Every Fraction is put into canonical form when it is constructed (or deserialized) and is never modified afterwards, so no method, including {@link #equals(Object)} and {@link #compareTo(Fraction)}, writes to a Fraction. Fractions may therefore be shared freely between threads without synchronization. A Fraction with a zero denominator cannot be created.
  * </p>
  * 
  * @author MathSquared
  * 
  */
-public class Fraction implements Comparable<Fraction>, Serializable { // TODO add validation for Fractions read from serialization
-    private int unit;
-    private int numerator;
-    private int denominator;
+public final class Fraction implements Comparable<Fraction>, Serializable {
+    // The value of the fraction as an improper fraction in lowest terms, with a positive denominator; only meaningful when bigNumerator == null
+    private final long numerator;
+    private final long denominator;
 
-    // If the denominator is detected as 0, this is false--prevents finalizer exploits from propagating 0 denominators
-    private boolean valid = true;
+    // The same, when the value cannot be stored in the long fields above (null otherwise); neither is ever Long.MIN_VALUE-sized or smaller
+    private final BigInteger bigNumerator;
+    private final BigInteger bigDenominator;
 
-    // parseFraction regex
+    // The last string returned by toDisplayString; not part of the value of the Fraction, so racing writes are harmless
+    private transient volatile DisplayString display;
+
+    // The syntax accepted by parseFraction, as a regex; to be matched against input that has been trimmed and has had underscores removed
     public static final Pattern PARSE_FRACTION = Pattern.compile("(0*([0-9]{0,10}\\.([0-9]{0,9}[1-9])?)0*)|((0*([0-9]{1,10}) *[uU+ ] *)?0*([0-9]{1,10})( *\\/ *_*0*([1-9][0-9]{0,9}))?)");
 
     // Capturing groups within PARSE_FRACTION
@@ -38,6 +57,15 @@ public class Fraction implements Comparable<Fraction>, Serializable { // TODO ad
     public static final int NUMERATOR_GROUP = 7; // the numerator of the fraction
     public static final int DENOMINATOR_GROUP = 9; // the denominator of the fraction
 
+    // Bounds of the long fast path; anything with a magnitude this large is stored as a BigInteger, which avoids the asymmetry of Long.MIN_VALUE
+    private static final BigInteger LONG_FAST_MAX = BigInteger.valueOf(Long.MAX_VALUE);
+    private static final BigInteger LONG_FAST_MIN = BigInteger.valueOf(-Long.MAX_VALUE);
+
+    // Bounds of the valueOf cache; values in [CACHE_LOW, CACHE_HIGH] with a denominator of at most CACHE_MAX_DENOMINATOR are shared
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 255;
+    private static final int CACHE_MAX_DENOMINATOR = 6; // covers averages of ties of up to six competitors
+
     /**
      * Constructs a Fraction representing the given whole number. This is equivalent to <code>Fraction(num, 1)</code> and is provided as a convenience method.
      * 
@@ -66,15 +94,82 @@ public class Fraction implements Comparable<Fraction>, Serializable { // TODO ad
      * @throws ArithmeticException if <code>den == 0</code>
      */
     public Fraction (int num, int den) {
+        this((long) num, (long) den);
+    }
+
+    /**
+     * Constructs a Fraction representing the quotient of two <code>long</code>s. The Fraction is canonicalized as described in {@link #Fraction(int, int)}.
+     * 
+     * @param num the numerator of the fraction
+     * @param den the denominator of the fraction
+     * @throws ArithmeticException if <code>den == 0</code>
+     */
+    public Fraction (long num, long den) {
         if (den == 0) {
-            valid = false;
             throw new ArithmeticException("Denominator must not be equal to 0");
         }
 
-        numerator = num;
-        denominator = den;
+        if (num == Long.MIN_VALUE || den == Long.MIN_VALUE) {
+            // Can't be negated in a long, so let BigInteger sort it out
+            Fraction big = new Fraction(BigInteger.valueOf(num), BigInteger.valueOf(den));
+            numerator = big.numerator;
+            denominator = big.denominator;
+            bigNumerator = big.bigNumerator;
+            bigDenominator = big.bigDenominator;
+            return;
+        }
+
+        // Make the denominator positive
+        if (den < 0) {
+            num = -num;
+            den = -den;
+        }
+
+        // Simplify to lowest terms; gcd(0, den) == den, so 0/den becomes 0/1
+        long gcd = GcdUtils.gcd(num, den);
+        numerator = num / gcd;
+        denominator = den / gcd;
+        bigNumerator = null;
+        bigDenominator = null;
+    }
+
+    /**
+     * Constructs a Fraction representing the quotient of two {@link BigInteger}s. The Fraction is canonicalized as described in {@link #Fraction(int, int)}.
+     * 
+     * @param num the numerator of the fraction
+     * @param den the denominator of the fraction
+     * @throws ArithmeticException if <code>den</code> is 0
+     */
+    public Fraction (BigInteger num, BigInteger den) {
+        if (den.signum() == 0) {
+            throw new ArithmeticException("Denominator must not be equal to 0");
+        }
+
+        // Make the denominator positive
+        if (den.signum() < 0) {
+            num = num.negate();
+            den = den.negate();
+        }
+
+        // Simplify to lowest terms; gcd(0, den) == den, so 0/den becomes 0/1
+        BigInteger gcd = num.gcd(den);
+        if (!gcd.equals(BigInteger.ONE)) {
+            num = num.divide(gcd);
+            den = den.divide(gcd);
+        }
 
-        canonicalize();
+        // Use the fast path if possible, so that every value has exactly one representation
+        if (fitsFastPath(num) && fitsFastPath(den)) {
+            numerator = num.longValue();
+            denominator = den.longValue();
+            bigNumerator = null;
+            bigDenominator = null;
+        } else {
+            numerator = 0;
+            denominator = 0;
+            bigNumerator = num;
+            bigDenominator = den;
+        }
     }
 
     /**
@@ -90,16 +185,95 @@ public class Fraction implements Comparable<Fraction>, Serializable { // TODO ad
      * @throws ArithmeticException if <code>den == 0</code>
      */
     public Fraction (int unit, int num, int den) {
-        this((unit * den) + num, den);
+        this(((long) unit * den) + num, den); // can't overflow a long, since each operand fits in an int
     }
 
     /**
-     * Constructs a copy of a given Fraction. This is equivalent to <code>new Fraction(cp.getImproperNumerator(), cp.getDenominator())</code> and is provided as a convenience method.
+     * Constructs a copy of a given Fraction. This is equivalent to <code>new Fraction(cp.getBigImproperNumerator(), cp.getBigDenominator())</code> and is provided as a convenience method.
      * 
      * @param cp the Fraction to copy
      */
     public Fraction (Fraction cp) {
-        this(cp.getImproperNumerator(), cp.getDenominator());
+        numerator = cp.numerator;
+        denominator = cp.denominator;
+        bigNumerator = cp.bigNumerator;
+        bigDenominator = cp.bigDenominator;
+    }
+
+    /**
+     * Returns a Fraction representing the given whole number. This is equivalent to <code>new Fraction(num)</code>, except that small values are cached, so repeated calls with the same small argument return the same instance.
+     * 
+     * @param num the whole number to represent
+     * @return a Fraction equal to <code>num</code>
+     */
+    public static Fraction valueOf (int num) {
+        if (num >= CACHE_LOW && num <= CACHE_HIGH) {
+            return FractionCache.INTEGERS[num - CACHE_LOW];
+        }
+        return new Fraction(num);
+    }
+
+    /**
+     * Returns a Fraction representing the quotient of two integers. This is equivalent to <code>new Fraction(num, den)</code>, except that small values with small denominators (such as the halves and thirds that come from averaging tied places) are cached, so repeated calls with equal arguments return the same instance.
+     * 
+     * @param num the numerator of the fraction
+     * @param den the denominator of the fraction
+     * @return a Fraction equal to <code>num / den</code>
+     * @throws ArithmeticException if <code>den == 0</code>
+     */
+    public static Fraction valueOf (int num, int den) {
+        if (den == 0) {
+            throw new ArithmeticException("Denominator must not be equal to 0");
+        }
+
+        // Reduce just enough to look up the canonical form; anything unusual goes to the constructor
+        if (num == Integer.MIN_VALUE || den == Integer.MIN_VALUE) {
+            return new Fraction(num, den);
+        }
+        if (den < 0) {
+            num = -num;
+            den = -den;
+        }
+        int gcd = (num == 0) ? den : GcdUtils.gcd(num, den);
+        num /= gcd;
+        den /= gcd;
+
+        if (den == 1) {
+            return valueOf(num);
+        }
+        if (den <= CACHE_MAX_DENOMINATOR && num >= CACHE_LOW * den && num <= CACHE_HIGH * den) {
+            AtomicReferenceArray<Fraction> cache = FractionCache.FRACTIONS[den];
+            int index = num - CACHE_LOW * den;
+            Fraction ret = cache.get(index);
+            if (ret == null) {
+                // If another thread gets here first, use its instance so that there is only ever one
+                cache.compareAndSet(index, null, new Fraction(num, den));
+                ret = cache.get(index);
+            }
+            return ret;
+        }
+        return new Fraction(num, den);
+    }
+
+    /**
+     * Holds the instances returned by {@link Fraction#valueOf(int)} and {@link Fraction#valueOf(int, int)}. Whole numbers are created eagerly; other fractions are created the first time they are requested.
+     * 
+     * @author MathSquared
+     * 
+     */
+    private static class FractionCache {
+        static final Fraction[] INTEGERS = new Fraction[CACHE_HIGH - CACHE_LOW + 1];
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        static final AtomicReferenceArray<Fraction>[] FRACTIONS = new AtomicReferenceArray[CACHE_MAX_DENOMINATOR + 1]; // indexed by denominator; 0 and 1 are unused
+
+        static {
+            for (int i = 0; i < INTEGERS.length; i++) {
+                INTEGERS[i] = new Fraction(i + CACHE_LOW);
+            }
+            for (int den = 2; den <= CACHE_MAX_DENOMINATOR; den++) {
+                FRACTIONS[den] = new AtomicReferenceArray<Fraction>((CACHE_HIGH - CACHE_LOW) * den + 1);
+            }
+        }
     }
 
     /**
@@ -149,187 +323,381 @@ public class Fraction implements Comparable<Fraction>, Serializable { // TODO ad
      * 
      * @param toParse a String adhering to the <code>fraction</code> production rule in the above EBNF
      * @return a Fraction representing the String, as detailed above
+     * @throws IllegalArgumentException if <code>toParse</code> does not adhere to the <code>fraction</code> production rule
+     * @throws NumberFormatException if a number in <code>toParse</code> is too large to be parsed
      */
     public static Fraction parseFraction (String toParse) {
-        // First, let's trim and remove underscores
-        String scrubbed = toParse.trim().replace("_", "");
+        return parseFraction(toParse, 0, toParse.length());
+    }
+
+    /**
+     * Parses part of a CharSequence into fraction form. This is equivalent to <code>parseFraction(toParse.subSequence(start, end).toString())</code>, except that no intermediate objects are created; see {@link #parseFraction(String)} for the accepted format.
+     * 
+     * <p>
+     * The input is read in a single pass, without regular expressions, so this method is suited to parsing many cells of a table. {@link #PARSE_FRACTION} describes the same syntax and may be used to validate input separately.
+     * </p>
+     * 
+     * @param toParse a CharSequence containing a fraction
+     * @param start the index of the first character to parse
+     * @param end the index after the last character to parse
+     * @return a Fraction representing the given part of the CharSequence
+     * @throws IllegalArgumentException if the given part of <code>toParse</code> does not adhere to the <code>fraction</code> production rule
+     * @throws NumberFormatException if a number in <code>toParse</code> is too large to be parsed
+     * @throws IndexOutOfBoundsException if <code>start</code> or <code>end</code> lies outside of <code>toParse</code>, or if <code>start &gt; end</code>
+     */
+    public static Fraction parseFraction (CharSequence toParse, int start, int end) {
+        if (start < 0 || end > toParse.length() || start > end) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + toParse.length());
+        }
+
+        // Trim as String.trim() would. Underscores are skipped everywhere below rather than removed up front, but trimming happens first, so they protect whitespace.
+        while (start < end && toParse.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && toParse.charAt(end - 1) <= ' ') {
+            end--;
+        }
 
         // Check for an initial hyphen
-        boolean negative = scrubbed.charAt(0) == '-';
+        int i = skipUnderscores(toParse, start, end);
+        if (i == end) {
+            throw new IllegalArgumentException("String does not match required syntax");
+        }
+        boolean negative = toParse.charAt(i) == '-';
         if (negative) {
-            scrubbed = scrubbed.substring(1).trim();
+            // Trim again; underscores have been "removed" by now, so they are trimmed too
+            i++;
+            while (i < end && (toParse.charAt(i) <= ' ' || toParse.charAt(i) == '_')) {
+                i++;
+            }
+            while (end > i && (toParse.charAt(end - 1) <= ' ' || toParse.charAt(end - 1) == '_')) {
+                end--;
+            }
         }
 
-        // Run through the regex
-        Matcher match = PARSE_FRACTION.matcher(scrubbed);
-        if (!match.matches()) {
-            throw new IllegalArgumentException("String does not match required syntax");
-        } else {
-            // Detect the input type (decimal or fractional)
-            if (match.group(DECIMAL_GROUP) == null) { // fractional
-                // Extract numbers from strings, adding a descriptor to any exceptions that occur
-                int u;
-                int n;
-                int d;
-                try {
-                    // Unit nulls default to 0 as the additive identity
-                    u = (match.group(UNIT_GROUP) == null) ? 0 : Integer.parseInt(match.group(UNIT_GROUP));
-                } catch (NumberFormatException e) {
-                    NumberFormatException thr = new NumberFormatException("[unit] " + e.getMessage());
-                    thr.initCause(e);
-                    throw thr;
-                }
-                try {
-                    n = Integer.parseInt(match.group(NUMERATOR_GROUP));
-                } catch (NumberFormatException e) {
-                    NumberFormatException thr = new NumberFormatException("[numerator] " + e.getMessage());
-                    thr.initCause(e);
-                    throw thr;
-                }
-                try {
-                    // Denominator nulls default to 1 as the multiplicative identity
-                    d = (match.group(DENOMINATOR_GROUP) == null) ? 1 : Integer.parseInt(match.group(DENOMINATOR_GROUP));
-                } catch (NumberFormatException e) {
-                    NumberFormatException thr = new NumberFormatException("[denominator] " + e.getMessage());
-                    thr.initCause(e);
-                    throw thr;
-                }
+        // Both forms start with a (possibly empty, for decimals) run of digits; runs of digits include any underscores within or after them
+        int firstEnd = skipDigits(toParse, i, end);
+        if (firstEnd < end && toParse.charAt(firstEnd) == '.') { // decimal
+            int fractionStart = firstEnd + 1;
+            int fractionEnd = skipDigits(toParse, fractionStart, end);
+            if (fractionEnd != end) {
+                throw new IllegalArgumentException("String does not match required syntax");
+            }
 
-                // Handle negatives
-                if (negative) {
-                    u *= -1;
-                    n *= -1;
-                    // No d, since -n/-d would cancel out
+            // Find the last nonzero digit after the decimal point; trailing zeroes are scrubbed
+            int significantEnd = fractionStart;
+            int digitsAfterDecimal = 0;
+            int digitsSeen = 0;
+            for (int j = fractionStart; j < fractionEnd; j++) {
+                char c = toParse.charAt(j);
+                if (c != '_') {
+                    digitsSeen++;
+                    if (c != '0') {
+                        significantEnd = j + 1;
+                        digitsAfterDecimal = digitsSeen;
+                    }
                 }
+            }
+            if (significantDigits(toParse, i, firstEnd) > 10 || digitsAfterDecimal > 10) {
+                throw new IllegalArgumentException("String does not match required syntax");
+            }
 
-                return new Fraction(u, n, d);
-            } else { // decimal
-                // Algorithm specified in documentation
-                String decimalRemoved = match.group(DECIMAL_GROUP).replace(".", "");
-                int digitsAfterDecimal = match.group(DECIMAL_GROUP).substring(match.group(DECIMAL_GROUP).indexOf(".") + 1).length();
+            // Algorithm specified in documentation
+            long numerator = accumulateDigits(accumulateDigits(0, toParse, i, firstEnd), toParse, fractionStart, significantEnd);
+            checkIntRange(numerator, "[decimal]", toParse, i, significantEnd);
 
-                // Parse decimalRemoved
-                int numerator;
-                if (decimalRemoved.equals("")) {
-                    numerator = 0;
-                } else {
-                    try {
-                        numerator = Integer.parseInt(decimalRemoved);
-                    } catch (NumberFormatException e) {
-                        NumberFormatException thr = new NumberFormatException("[decimal] " + e.getMessage());
-                        thr.initCause(e);
-                        throw thr;
-                    }
-                }
+            // Find the denominator, avoiding Math.pow due to floating-point roundoff; a long holds 10^10
+            long denominator = 1;
+            for (int j = 0; j < digitsAfterDecimal; j++, denominator *= 10);
 
-                // Handle negatives
-                if (negative) {
-                    numerator *= -1;
-                    // No denominator, since -numerator/-denominator would cancel out
-                }
+            return new Fraction(negative ? -numerator : numerator, denominator); // no need to negate the denominator, since -numerator/-denominator would cancel out
+        }
+
+        // Fractional: [unit unit-symbol] numerator [fraction-symbol denominator]
+        int unitStart = -1;
+        int unitEnd = -1;
+        int numStart = i;
+        int numEnd = firstEnd;
+        int denStart = -1;
+        int denEnd = -1;
+        if (numEnd == numStart) { // no digits at all
+            throw new IllegalArgumentException("String does not match required syntax");
+        }
 
-                // Find the denominator, avoiding Math.pow due to floating-point roundoff
-                int denominator = 1;
-                for (int i = 0; i < digitsAfterDecimal; i++, denominator *= 10);
+        int j = skipSpaces(toParse, numEnd, end);
+        if (j < end) {
+            char c = toParse.charAt(j);
+            boolean spaced = j > numEnd; // a lone space may act as the unit symbol
+            if (c == 'u' || c == 'U' || c == '+' || (spaced && isDigit(c))) {
+                unitStart = numStart;
+                unitEnd = numEnd;
+                numStart = isDigit(c) ? j : skipSpaces(toParse, j + 1, end);
+                numEnd = skipDigits(toParse, numStart, end);
+                if (numEnd == numStart) {
+                    throw new IllegalArgumentException("String does not match required syntax");
+                }
+                j = skipSpaces(toParse, numEnd, end);
+            }
+        }
+        if (j < end) {
+            if (toParse.charAt(j) != '/') {
+                throw new IllegalArgumentException("String does not match required syntax");
+            }
+            denStart = skipSpaces(toParse, j + 1, end);
+            denEnd = skipDigits(toParse, denStart, end);
+            if (denEnd != end || denStart == denEnd) {
+                throw new IllegalArgumentException("String does not match required syntax");
+            }
+        } else if (numEnd != end) { // trailing spaces, which are only allowed before a slash
+            throw new IllegalArgumentException("String does not match required syntax");
+        }
 
-                return new Fraction(numerator, denominator);
+        // Check lengths before parsing anything, so that syntax errors take precedence over overflow
+        if ((unitStart != -1 && significantDigits(toParse, unitStart, unitEnd) > 10) || significantDigits(toParse, numStart, numEnd) > 10) {
+            throw new IllegalArgumentException("String does not match required syntax");
+        }
+        if (denStart != -1) {
+            int denDigits = significantDigits(toParse, denStart, denEnd);
+            if (denDigits == 0 || denDigits > 10) {
+                throw new IllegalArgumentException("String does not match required syntax");
             }
         }
+
+        // Unit nulls default to 0 as the additive identity; denominator nulls default to 1 as the multiplicative identity
+        long u = (unitStart == -1) ? 0 : checkIntRange(accumulateDigits(0, toParse, unitStart, unitEnd), "[unit]", toParse, unitStart, unitEnd);
+        long n = checkIntRange(accumulateDigits(0, toParse, numStart, numEnd), "[numerator]", toParse, numStart, numEnd);
+        long d = (denStart == -1) ? 1 : checkIntRange(accumulateDigits(0, toParse, denStart, denEnd), "[denominator]", toParse, denStart, denEnd);
+
+        // Handle negatives
+        if (negative) {
+            u = -u;
+            n = -n;
+            // No d, since -n/-d would cancel out
+        }
+
+        return new Fraction((u * d) + n, d);
     }
 
     /**
-     * Canonicalizes this fraction according to the criteria {@linkplain #Fraction(int, int) noted above}. This method may be invoked at any time.
+     * Checks whether a character is an ASCII digit.
+     * 
+     * @param c the character to check
+     * @return true if <code>'0' &lt;= c &lt;= '9'</code>
      */
-    private void canonicalize () {
-        canonicalizeDenominator();
-        calculateUnit();
-        matchUnitNumeratorSign();
-        simplify();
+    private static boolean isDigit (char c) {
+        return c >= '0' && c <= '9';
     }
 
     /**
-     * Marks this fraction as invalid and throws an {@link UnsupportedOperationException} if the denominator is 0.
+     * Skips past any underscores in part of a CharSequence.
+     * 
+     * @return the index of the first character at or after <code>i</code> that is not an underscore, or <code>end</code> if there is none
      */
-    private void checkDenominatorNonzero () {
-        if (!valid || denominator == 0) {
-            valid = false;
-            throw new UnsupportedOperationException("Fraction invalid; denominator is 0");
+    private static int skipUnderscores (CharSequence cs, int i, int end) {
+        while (i < end && cs.charAt(i) == '_') {
+            i++;
         }
+        return i;
     }
 
     /**
-     * If either this fraction or another given fraction have a zero denominator, throws an UnsupportedOperationException and marks the invalid fraction(s) as such.
+     * Skips past any spaces or underscores in part of a CharSequence.
      * 
-     * @param secondOperand the other fraction to check
+     * @return the index of the first character at or after <code>i</code> that is neither, or <code>end</code> if there is none
      */
-    private void checkDenominatorNonzero (Fraction secondOperand) {
-        String exceptionMessage = null; // tracks exception messages in case both fractions are invalid
-        if (!valid || denominator == 0) {
-            valid = false;
-            exceptionMessage = "First operand invalid; denominator is 0";
-        }
-        if (!secondOperand.valid || secondOperand.getDenominator() == 0) {
-            secondOperand.valid = false;
-            exceptionMessage = (exceptionMessage == null ? "Second operand invalid; denominator is 0" : "Both fractions invalid; denominators are 0");
+    private static int skipSpaces (CharSequence cs, int i, int end) {
+        while (i < end && (cs.charAt(i) == ' ' || cs.charAt(i) == '_')) {
+            i++;
         }
+        return i;
+    }
 
-        if (exceptionMessage != null) {
-            throw new UnsupportedOperationException(exceptionMessage);
+    /**
+     * Skips past a run of digits and underscores in part of a CharSequence.
+     * 
+     * @return the index of the first character at or after <code>i</code> that is neither, or <code>end</code> if there is none
+     */
+    private static int skipDigits (CharSequence cs, int i, int end) {
+        while (i < end && (isDigit(cs.charAt(i)) || cs.charAt(i) == '_')) {
+            i++;
         }
+        return i;
     }
 
-    // Setup methods //
-    /*
-     * Setup methods; called in constructor Before these methods are called, the Fraction may be in a non-canonical state.
+    /**
+     * Counts the digits in part of a CharSequence, not counting leading zeroes or underscores.
+     * 
+     * @return the number of significant digits between <code>from</code> and <code>to</code>
      */
+    private static int significantDigits (CharSequence cs, int from, int to) {
+        int ret = 0;
+        for (int i = from; i < to; i++) {
+            char c = cs.charAt(i);
+            if (isDigit(c) && (ret > 0 || c != '0')) {
+                ret++;
+            }
+        }
+        return ret;
+    }
 
     /**
-     * If the denominator of a fraction is negative, switches the sign of both the numerator and denominator. This way, the denominator is always positive.
+     * Appends the digits in part of a CharSequence to a number, ignoring any other characters. Once the number exceeds {@link Integer#MAX_VALUE}, it stops growing, so this method never overflows.
+     * 
+     * @param acc the number to which to append the digits
+     * @return <code>acc</code> with the digits appended, or some number greater than <code>Integer.MAX_VALUE</code>
      */
-    private void canonicalizeDenominator () {
-        if (denominator < 0) {
-            numerator = -numerator;
-            denominator = -denominator;
+    private static long accumulateDigits (long acc, CharSequence cs, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = cs.charAt(i);
+            if (isDigit(c) && acc <= Integer.MAX_VALUE) {
+                acc = acc * 10 + (c - '0');
+            }
         }
+        return acc;
     }
 
     /**
-     * Calculates the unit of a fraction based on the numerator and denominator. This has the effect that the fraction represented by the numerator and denominator becomes proper.
+     * Throws a NumberFormatException like that of {@link Integer#parseInt(String)} if a parsed number does not fit in an <code>int</code>.
+     * 
+     * @param value the parsed number
+     * @param descriptor a label for the number, prepended to the exception message
+     * @param cs the CharSequence from which the number was parsed
+     * @param from the index at which the number starts
+     * @param to the index at which the number ends
+     * @return <code>value</code>
+     * @throws NumberFormatException if <code>value &gt; Integer.MAX_VALUE</code>
      */
-    private void calculateUnit () {
-        unit += numerator / denominator; // += in case there are already any other units that we want to remain valid--5u3/2 is 6u1/2
-        numerator %= denominator; // % picks sign based on numerator, so numerator keeps current sign
+    private static long checkIntRange (long value, String descriptor, CharSequence cs, int from, int to) {
+        if (value > Integer.MAX_VALUE) {
+            // Reconstruct the digits that were parsed, without leading zeroes, underscores, or decimal points
+            StringBuilder digits = new StringBuilder(to - from);
+            for (int i = from; i < to; i++) {
+                char c = cs.charAt(i);
+                if (isDigit(c) && (digits.length() > 0 || c != '0')) {
+                    digits.append(c);
+                }
+            }
+            throw new NumberFormatException(descriptor + " For input string: \"" + digits + "\"");
+        }
+        return value;
     }
 
+    // Serialization //
+
     /**
-     * Ensures that the sign of the unit and numerator match.
+     * Serializes this Fraction as a {@link SerializationProxy} rather than field by field.
+     * 
+     * @return a proxy for this Fraction
      */
-    private void matchUnitNumeratorSign () {
-        // If signs match, or if either quantity is 0 (which has no sign), we don't need to do anything
-        if ((unit > 0 && numerator > 0) || (unit < 0 && numerator < 0) || (unit == 0 || numerator == 0)) { // last || is intentionally different
-            return;
-        }
+    private Object writeReplace () {
+        return new SerializationProxy(this);
+    }
 
-        // Simply convert to improper and back
-        numerator = getImproperNumerator();
-        unit = 0;
-        calculateUnit();
+    /**
+     * Rejects attempts to deserialize a Fraction directly; a Fraction is only ever serialized as a {@link SerializationProxy}, so such a stream must have been forged.
+     * 
+     * @param in the stream from which to read the Fraction
+     * @throws InvalidObjectException always
+     */
+    private void readObject (ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("Fractions must be deserialized through their proxy");
     }
 
     /**
-     * Simplifies a fraction to its lowest terms.
+     * The serialized form of a {@link Fraction}.
+     * 
+     * <p>
+     * A Fraction that fits in <code>long</code>s is written as its improper numerator as a {@linkplain VarIntUtils#writeSignedVarLong(java.io.DataOutput, long) signed variable-length integer}, followed by its denominator as an {@linkplain VarIntUtils#writeVarLong(java.io.DataOutput, long) unsigned} one; small Fractions thus take as little as two bytes. Since denominators are never 0, a denominator of 0 marks a larger Fraction, whose numerator and denominator follow as a length-prefixed {@link BigInteger#toByteArray() two's-complement byte array} each.
+     * </p>
+     * 
+     * <p>
+     * On deserialization, the Fraction is rebuilt through its public constructors, so it is validated and canonicalized like any other.
+     * </p>
+     * 
+     * @author MathSquared
+     * 
      */
-    private void simplify () {
-        // Handle zero correctly to avoid BAD THINGS HAPPENING (like division by 0)
-        if (numerator == 0) {
-            denominator = 1; // 0/1 == 0/2 == 0/3.14159 == 0/-37 == ...
-            return;
+    private static final class SerializationProxy implements Externalizable {
+        private static final long serialVersionUID = 1L;
+
+        private Fraction value;
+
+        /**
+         * Constructs an empty SerializationProxy for deserialization.
+         */
+        public SerializationProxy () {
+            // value filled in by readExternal
+        }
+
+        SerializationProxy (Fraction value) {
+            this.value = value;
         }
 
-        int gcd = GcdUtils.gcd(numerator, denominator);
+        public void writeExternal (ObjectOutput out) throws IOException {
+            if (value.bigNumerator == null) {
+                VarIntUtils.writeSignedVarLong(out, value.numerator);
+                VarIntUtils.writeVarLong(out, value.denominator);
+            } else {
+                VarIntUtils.writeSignedVarLong(out, 0);
+                VarIntUtils.writeVarLong(out, 0); // marks the BigInteger form
+                writeBigInteger(out, value.bigNumerator);
+                writeBigInteger(out, value.bigDenominator);
+            }
+        }
 
-        numerator /= gcd;
-        denominator /= gcd;
+        public void readExternal (ObjectInput in) throws IOException {
+            long num = VarIntUtils.readSignedVarLong(in);
+            long den = VarIntUtils.readVarLong(in);
+            try {
+                if (den != 0) {
+                    if (den < 0) { // larger than Long.MAX_VALUE when read as unsigned; never written by writeExternal
+                        throw new InvalidObjectException("Denominator out of range");
+                    }
+                    value = (num >= Integer.MIN_VALUE && num <= Integer.MAX_VALUE && den <= Integer.MAX_VALUE) ? valueOf((int) num, (int) den) : new Fraction(num, den);
+                } else {
+                    value = new Fraction(readBigInteger(in), readBigInteger(in));
+                }
+            } catch (ArithmeticException e) { // zero denominator in the BigInteger form
+                InvalidObjectException thr = new InvalidObjectException("Invalid Fraction: " + e.getMessage());
+                thr.initCause(e);
+                throw thr;
+            }
+        }
+
+        /**
+         * Resolves this proxy to the Fraction that it carries.
+         * 
+         * @return the deserialized Fraction
+         */
+        private Object readResolve () {
+            return value;
+        }
+
+        private static void writeBigInteger (ObjectOutput out, BigInteger x) throws IOException {
+            byte[] bytes = x.toByteArray();
+            VarIntUtils.writeVarInt(out, bytes.length);
+            out.write(bytes);
+        }
+
+        private static BigInteger readBigInteger (ObjectInput in) throws IOException {
+            int length = VarIntUtils.readVarInt(in);
+            if (length == 0) { // toByteArray always returns at least one byte
+                throw new InvalidObjectException("Empty BigInteger");
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            return new BigInteger(bytes);
+        }
+    }
+
+    /**
+     * Checks whether a BigInteger can be stored in the <code>long</code> fields of a Fraction.
+     * 
+     * @param x the number to check
+     * @return true if <code>-Long.MAX_VALUE &lt;= x &lt;= Long.MAX_VALUE</code>
+     */
+    private static boolean fitsFastPath (BigInteger x) {
+        return x.compareTo(LONG_FAST_MAX) <= 0 && x.compareTo(LONG_FAST_MIN) >= 0;
     }
 
     // Accessors //
@@ -338,49 +706,115 @@ public class Fraction implements Comparable<Fraction>, Serializable { // TODO ad
      * Returns the unit currently associated with this fraction. If the fraction represents a negative quantity, the value returned by this method will be negative.
      * 
      * @return the unit of this fraction
+     * @throws ArithmeticException if the unit does not fit in an <code>int</code>
      */
     public int getUnit () {
-        return unit;
+        if (bigNumerator != null) {
+            return bigNumerator.divide(bigDenominator).intValueExact();
+        }
+        return Math.toIntExact(numerator / denominator);
     }
 
     /**
      * Returns the numerator of the proper portion of this fraction. If the fraction represents a negative quantity, the value returned by this method will be negative.
      * 
      * @return the numerator
+     * @throws ArithmeticException if the numerator does not fit in an <code>int</code>
      */
     public int getNumerator () {
-        return numerator;
+        if (bigNumerator != null) {
+            return bigNumerator.remainder(bigDenominator).intValueExact(); // remainder picks sign based on the dividend, like %
+        }
+        return Math.toIntExact(numerator % denominator); // % picks sign based on numerator, so numerator keeps current sign
     }
 
     /**
      * Returns the numerator of this fraction expressed as an improper fraction. Equivalent to <code>(numerator + unit*denominator)</code>.
      * 
      * @return the improper numerator
+     * @throws ArithmeticException if the improper numerator does not fit in an <code>int</code>
      */
-    // USE THIS METHOD FOR ARITHMETIC TO SUPPORT OPERATION CHAINING; DO NOT DIRECTLY EMPLOY numerator
     public int getImproperNumerator () {
-        return numerator + unit * denominator;
+        if (bigNumerator != null) {
+            return bigNumerator.intValueExact(); // always throws, since bigNumerator never fits in a long
+        }
+        return Math.toIntExact(numerator);
     }
 
     /**
      * Returns the denominator of this fraction. This method always returns a positive quantity; the sign is unambiguously determined by the {@linkplain #getNumerator() numerator}.
      * 
      * @return the denominator
+     * @throws ArithmeticException if the denominator does not fit in an <code>int</code>
      */
     public int getDenominator () {
+        if (bigNumerator != null) {
+            return bigDenominator.intValueExact();
+        }
+        return Math.toIntExact(denominator);
+    }
+
+    /**
+     * Returns the numerator of this fraction expressed as an improper fraction, no matter how large it is.
+     * 
+     * @return the improper numerator
+     */
+    public BigInteger getBigImproperNumerator () {
+        return (bigNumerator != null) ? bigNumerator : BigInteger.valueOf(numerator);
+    }
+
+    /**
+     * Returns the denominator of this fraction, no matter how large it is. The returned value is always positive.
+     * 
+     * @return the denominator
+     */
+    public BigInteger getBigDenominator () {
+        return (bigNumerator != null) ? bigDenominator : BigInteger.valueOf(denominator);
+    }
+
+    /**
+     * Returns true if this fraction's improper numerator and denominator are stored as <code>long</code>s, so that {@link #getLongImproperNumerator()} and {@link #getLongDenominator()} may be used.
+     * 
+     * @return whether this fraction is on the <code>long</code> fast path
+     */
+    boolean isLong () {
+        return bigNumerator == null;
+    }
+
+    /**
+     * Returns the improper numerator of a fraction on the {@linkplain #isLong() <code>long</code> fast path}.
+     * 
+     * @return the improper numerator; meaningless if <code>!isLong()</code>
+     */
+    long getLongImproperNumerator () {
+        return numerator;
+    }
+
+    /**
+     * Returns the denominator of a fraction on the {@linkplain #isLong() <code>long</code> fast path}.
+     * 
+     * @return the denominator; meaningless if <code>!isLong()</code>
+     */
+    long getLongDenominator () {
         return denominator;
     }
 
     // Arithmetic //
 
+    /*
+     * Each operation first tries exact 64-bit arithmetic (the Math.*Exact methods throw ArithmeticException on overflow), and redoes the operation with BigIntegers only if that fails or if an operand is already too big for a long.
+     */
+
     /**
      * Negates a Fraction (finds its additive inverse). This is equivalent to multiplication by -1.
      * 
      * @return a new Fraction representing the negative of this Fraction
      */
     public Fraction negative () {
-        checkDenominatorNonzero();
-        return new Fraction(-getImproperNumerator(), denominator);
+        if (bigNumerator == null) {
+            return new Fraction(-numerator, denominator); // numerator is never Long.MIN_VALUE
+        }
+        return new Fraction(bigNumerator.negate(), bigDenominator);
     }
 
     /**
@@ -390,8 +824,14 @@ public class Fraction implements Comparable<Fraction>, Serializable { // TODO ad
      * @return a new Fraction multiplied by the multiplier
      */
     public Fraction multiply (int multiplier) {
-        checkDenominatorNonzero();
-        return new Fraction(getImproperNumerator() * multiplier, denominator);
+        if (bigNumerator == null) {
+            try {
+                return new Fraction(Math.multiplyExact(numerator, multiplier), denominator);
+            } catch (ArithmeticException e) {
+                // overflowed; fall through to BigInteger
+            }
+        }
+        return new Fraction(getBigImproperNumerator().multiply(BigInteger.valueOf(multiplier)), getBigDenominator());
     }
 
     /**
@@ -401,8 +841,30 @@ public class Fraction implements Comparable<Fraction>, Serializable { // TODO ad
      * @return a new Fraction multiplied by the multiplier
      */
     public Fraction multiply (Fraction multiplier) {
-        checkDenominatorNonzero(multiplier);
-        return new Fraction(getImproperNumerator() * multiplier.getImproperNumerator(), denominator * multiplier.getDenominator());
+        if (bigNumerator == null && multiplier.bigNumerator == null) {
+            try {
+                return multiplyLong(numerator, denominator, multiplier.numerator, multiplier.denominator);
+            } catch (ArithmeticException e) {
+                // overflowed; fall through to BigInteger
+            }
+        }
+        return new Fraction(getBigImproperNumerator().multiply(multiplier.getBigImproperNumerator()), getBigDenominator().multiply(multiplier.getBigDenominator()));
+    }
+
+    /**
+     * Computes <code>(numA / denA) * (numB / denB)</code> using <code>long</code>s, given that both operands are in lowest terms.
+     * 
+     * <p>
+     * Common factors are divided out across the two fractions before multiplying, which keeps the intermediate products as small as possible.
+     * </p>
+     * 
+     * @return the product
+     * @throws ArithmeticException if the product overflows a <code>long</code>
+     */
+    private static Fraction multiplyLong (long numA, long denA, long numB, long denB) {
+        long gcdA = GcdUtils.gcd(numA, denB);
+        long gcdB = GcdUtils.gcd(numB, denA);
+        return new Fraction(Math.multiplyExact(numA / gcdA, numB / gcdB), Math.multiplyExact(denA / gcdB, denB / gcdA));
     }
 
     /**
@@ -413,11 +875,17 @@ public class Fraction implements Comparable<Fraction>, Serializable { // TODO ad
      * @throws ArithmeticException if the divisor is 0
      */
     public Fraction divide (int divisor) {
-        checkDenominatorNonzero();
         if (divisor == 0) {
             throw new ArithmeticException("divisor must not be 0");
         }
-        return new Fraction(getImproperNumerator(), denominator * divisor);
+        if (bigNumerator == null) {
+            try {
+                return new Fraction(numerator, Math.multiplyExact(denominator, divisor));
+            } catch (ArithmeticException e) {
+                // overflowed; fall through to BigInteger
+            }
+        }
+        return new Fraction(getBigImproperNumerator(), getBigDenominator().multiply(BigInteger.valueOf(divisor)));
     }
 
     /**
@@ -428,11 +896,10 @@ public class Fraction implements Comparable<Fraction>, Serializable { // TODO ad
      * @throws ArithmeticException if the numerator of the divisor is 0
      */
     public Fraction divide (Fraction divisor) {
-        checkDenominatorNonzero(divisor);
-        if (divisor.getImproperNumerator() == 0) {
+        if (divisor.signum() == 0) {
             throw new ArithmeticException("numerator of the divisor must not be 0");
         }
-        return new Fraction(getImproperNumerator() * divisor.getDenominator(), denominator * divisor.getImproperNumerator());
+        return multiply(divisor.reciprocal());
     }
 
     /**
@@ -445,7 +912,6 @@ public class Fraction implements Comparable<Fraction>, Serializable { // TODO ad
      * @return a new Fraction raised to the given power
      */
     public Fraction pow (int exponent) {
-        checkDenominatorNonzero();
         // Math.pow will return non-integer results for negative exponents, so we take the reciprocal here first
         if (exponent < 0) {
             return reciprocal().pow(-exponent);
@@ -454,8 +920,8 @@ public class Fraction implements Comparable<Fraction>, Serializable { // TODO ad
             return new Fraction(1, 1);
         }
 
-        // use integer power function for max precision (avoid floating-point round-off error)
-        return new Fraction(GcdUtils.pow(getImproperNumerator(), exponent), GcdUtils.pow(denominator, exponent));
+        // use integer power functions for max precision (avoid floating-point round-off error); a power of a fraction in lowest terms is still in lowest terms
+        return new Fraction(getBigImproperNumerator().pow(exponent), getBigDenominator().pow(exponent));
     }
 
     /**
@@ -465,11 +931,13 @@ public class Fraction implements Comparable<Fraction>, Serializable { // TODO ad
      * @throws ArithmeticException if the Fraction represents a zero quantity, i.e. if <code>(getImproperNumerator() == 0)</code>
      */
     public Fraction reciprocal () {
-        checkDenominatorNonzero();
-        if (getImproperNumerator() == 0) {
+        if (signum() == 0) {
             throw new ArithmeticException("Cannot take the reciprocal of a zero fraction");
         }
-        return new Fraction(denominator, getImproperNumerator());
+        if (bigNumerator == null) {
+            return new Fraction(denominator, numerator);
+        }
+        return new Fraction(bigDenominator, bigNumerator);
     }
 
     /**
@@ -479,8 +947,15 @@ public class Fraction implements Comparable<Fraction>, Serializable { // TODO ad
      * @return a new Fraction representing the result of <code>(this + augend)</code>
      */
     public Fraction add (int augend) {
-        checkDenominatorNonzero();
-        return new Fraction(getImproperNumerator() + augend * denominator, denominator);
+        if (bigNumerator == null) {
+            try {
+                return new Fraction(Math.addExact(numerator, Math.multiplyExact(augend, denominator)), denominator);
+            } catch (ArithmeticException e) {
+                // overflowed; fall through to BigInteger
+            }
+        }
+        BigInteger den = getBigDenominator();
+        return new Fraction(getBigImproperNumerator().add(BigInteger.valueOf(augend).multiply(den)), den);
     }
 
     /**
@@ -490,15 +965,22 @@ public class Fraction implements Comparable<Fraction>, Serializable { // TODO ad
      * @return a new Fraction representing the result of <code>(this + augend)</code>
      */
     public Fraction add (Fraction augend) {
-        checkDenominatorNonzero(augend);
-        int lcm = GcdUtils.lcm(denominator, augend.getDenominator());
-        int multiplyA = lcm / denominator;
-        int multiplyB = lcm / augend.getDenominator();
+        if (bigNumerator == null && augend.bigNumerator == null) {
+            try {
+                long gcd = GcdUtils.gcd(denominator, augend.denominator);
+                long multiplyA = augend.denominator / gcd;
+                long multiplyB = denominator / gcd;
+                long lcm = Math.multiplyExact(denominator, multiplyA);
 
-        int numA = getImproperNumerator();
-        int numB = augend.getImproperNumerator();
+                return new Fraction(Math.addExact(Math.multiplyExact(numerator, multiplyA), Math.multiplyExact(augend.numerator, multiplyB)), lcm);
+            } catch (ArithmeticException e) {
+                // overflowed; fall through to BigInteger
+            }
+        }
 
-        return new Fraction(numA * multiplyA + numB * multiplyB, lcm);
+        BigInteger denA = getBigDenominator();
+        BigInteger denB = augend.getBigDenominator();
+        return new Fraction(getBigImproperNumerator().multiply(denB).add(augend.getBigImproperNumerator().multiply(denA)), denA.multiply(denB));
     }
 
     /**
@@ -508,7 +990,9 @@ public class Fraction implements Comparable<Fraction>, Serializable { // TODO ad
      * @return a new Fraction representing the result of <code>(this - subtrahend)</code>
      */
     public Fraction subtract (int subtrahend) {
-        checkDenominatorNonzero();
+        if (subtrahend == Integer.MIN_VALUE) { // can't be negated as an int
+            return add(new Fraction(subtrahend).negative());
+        }
         return add(-subtrahend);
     }
 
@@ -519,17 +1003,202 @@ public class Fraction implements Comparable<Fraction>, Serializable { // TODO ad
      * @return a new Fraction representing the result of <code>(this - subtrahend)</code>
      */
     public Fraction subtract (Fraction subtrahend) {
-        checkDenominatorNonzero(subtrahend);
         return add(subtrahend.negative());
     }
 
+    /**
+     * Adds any number of Fractions together. This is equivalent to adding them one at a time with {@link #add(Fraction)}, but much faster for many Fractions.
+     * 
+     * @param addends the Fractions to add
+     * @return a new Fraction representing the sum of the addends, or 0 if there are none
+     */
+    public static Fraction sum (Fraction... addends) {
+        return sum(addends, 0, addends.length);
+    }
+
+    /**
+     * Adds a range of an array of Fractions together. This is equivalent to adding them one at a time with {@link #add(Fraction)}, but much faster for many Fractions.
+     * 
+     * <p>
+     * Rather than finding a common denominator and reducing the result for every addition, this method finds the least common denominator of all of the addends once, totals the numerators over it in a <code>long</code>, and reduces the sum only at the end. If any of that overflows, the addends are summed with a {@link FractionAccumulator} instead, so the result is always exact.
+     * </p>
+     * 
+     * @param addends the array containing the Fractions to add
+     * @param from the index of the first Fraction to add
+     * @param to the index after the last Fraction to add
+     * @return a new Fraction representing the sum of <code>addends[from]</code> through <code>addends[to - 1]</code>, or 0 if <code>from == to</code>
+     */
+    public static Fraction sum (Fraction[] addends, int from, int to) {
+        // Find the common denominator in one pass
+        long[] denominators = new long[to - from];
+        boolean allLong = true;
+        for (int i = from; i < to && allLong; i++) {
+            allLong = addends[i].bigNumerator == null;
+            denominators[i - from] = addends[i].denominator;
+        }
+
+        if (allLong) {
+            try {
+                long lcm = GcdUtils.lcm(denominators);
+                long sum = 0;
+                for (int i = from; i < to; i++) {
+                    sum = Math.addExact(sum, Math.multiplyExact(addends[i].numerator, lcm / addends[i].denominator));
+                }
+                return new Fraction(sum, lcm); // reduces once
+            } catch (ArithmeticException e) {
+                // overflowed; fall through to the slow path
+            }
+        }
+
+        FractionAccumulator acc = new FractionAccumulator();
+        for (int i = from; i < to; i++) {
+            acc.add(addends[i]);
+        }
+        return acc.toFraction();
+    }
+
+    /**
+     * Adds any number of Fractions together, as {@link #sum(Fraction...)} does.
+     * 
+     * @param addends the Fractions to add
+     * @return a new Fraction representing the sum of the addends, or 0 if there are none
+     */
+    public static Fraction sum (Iterable<Fraction> addends) {
+        List<Fraction> list = new ArrayList<Fraction>();
+        for (Fraction x : addends) {
+            list.add(x);
+        }
+        return sum(list.toArray(new Fraction[list.size()]));
+    }
+
+    /**
+     * Returns the signum function of this Fraction.
+     * 
+     * @return -1, 0, or 1 as the value of this Fraction is negative, zero, or positive
+     */
+    public int signum () {
+        return (bigNumerator == null) ? Long.signum(numerator) : bigNumerator.signum();
+    }
+
     /**
      * Converts a Fraction to the double it represents. This is done as if returning <code>((double) {@link #getImproperNumerator()} / denominator)</code>.
      * 
      * @return the double equivalent of this Fraction
      */
     public double toDouble () {
-        return (double) getImproperNumerator() / denominator;
+        if (bigNumerator == null) {
+            return (double) numerator / denominator;
+        }
+        return new BigDecimal(bigNumerator).divide(new BigDecimal(bigDenominator), MathContext.DECIMAL64).doubleValue();
+    }
+
+    /**
+     * Formats this Fraction as a decimal for display, for example on a slide.
+     * 
+     * <p>
+     * The value is rounded to <code>decimals</code> digits after the decimal point, with halves rounded away from zero, and always uses <code>.</code> as the decimal point. If every one of those digits is 0, they are omitted along with the decimal point, so that whole numbers display as such: <code>7/2</code> displays as <code>3.50</code> with two decimals, but <code>3</code> displays as <code>3</code>. A value that rounds to zero is never displayed with a minus sign.
+     * </p>
+     * 
+     * <p>
+     * The result is computed exactly, using integer arithmetic rather than {@link String#format(String, Object...)}, and the most recent result is remembered, so displaying the same Fraction repeatedly does no formatting work.
+     * </p>
+     * 
+     * @param decimals the number of digits to show after the decimal point
+     * @return a decimal representation of this Fraction
+     * @throws IllegalArgumentException if <code>decimals &lt; 0</code>
+     */
+    public String toDisplayString (int decimals) {
+        if (decimals < 0) {
+            throw new IllegalArgumentException("decimals must be non-negative");
+        }
+
+        DisplayString cached = display; // read once, since another thread may replace it
+        if (cached != null && cached.decimals == decimals) {
+            return cached.text;
+        }
+
+        String text = formatDecimal(decimals);
+        display = new DisplayString(decimals, text);
+        return text;
+    }
+
+    /**
+     * Formats this Fraction as described in {@link #toDisplayString(int)}, without consulting the cache.
+     * 
+     * @param decimals the number of digits to show after the decimal point
+     * @return a decimal representation of this Fraction
+     */
+    private String formatDecimal (int decimals) {
+        boolean negative = signum() < 0;
+
+        // Compute |this| * 10^decimals, rounded half up, then split it at the decimal point
+        if (bigNumerator == null && decimals <= 18) { // 10^18 is the largest power of 10 that fits in a long
+            long scale = 1;
+            for (int i = 0; i < decimals; i++, scale *= 10);
+            try {
+                long scaled = Math.multiplyExact(Math.abs(numerator), scale);
+                long rounded = scaled / denominator;
+                long remainder = scaled % denominator;
+                if (remainder >= denominator - remainder) { // 2 * remainder >= denominator, without overflowing
+                    rounded++;
+                }
+                return layoutDecimal(negative, Long.toString(rounded / scale), Long.toString(rounded % scale), decimals);
+            } catch (ArithmeticException e) {
+                // overflowed; fall through to BigInteger
+            }
+        }
+
+        BigInteger scale = BigInteger.TEN.pow(decimals);
+        BigInteger[] scaled = getBigImproperNumerator().abs().multiply(scale).divideAndRemainder(getBigDenominator());
+        BigInteger rounded = scaled[0];
+        if (scaled[1].shiftLeft(1).compareTo(getBigDenominator()) >= 0) {
+            rounded = rounded.add(BigInteger.ONE);
+        }
+        BigInteger[] parts = rounded.divideAndRemainder(scale);
+        return layoutDecimal(negative, parts[0].toString(), parts[1].toString(), decimals);
+    }
+
+    /**
+     * Assembles a decimal string from its parts.
+     * 
+     * @param negative whether the number is negative
+     * @param whole the digits before the decimal point
+     * @param fraction the digits after the decimal point, as an integer (without leading zeroes)
+     * @param decimals the number of digits to show after the decimal point
+     * @return the assembled string; the decimal point and fraction digits are omitted if <code>fraction</code> is 0, and the sign is omitted if the whole number is 0
+     */
+    private static String layoutDecimal (boolean negative, String whole, String fraction, int decimals) {
+        boolean fractionZero = fraction.equals("0");
+        StringBuilder ret = new StringBuilder(whole.length() + decimals + 2); // room for the sign and the decimal point
+
+        if (negative && !(fractionZero && whole.equals("0"))) {
+            ret.append('-');
+        }
+        ret.append(whole);
+        if (!fractionZero) {
+            ret.append('.');
+            for (int i = fraction.length(); i < decimals; i++) {
+                ret.append('0'); // pad to the right number of decimals
+            }
+            ret.append(fraction);
+        }
+        return ret.toString();
+    }
+
+    /**
+     * Pairs a string returned by {@link Fraction#toDisplayString(int)} with the number of decimals that it was formatted with, so that both can be cached atomically.
+     * 
+     * @author MathSquared
+     * 
+     */
+    private static class DisplayString {
+        final int decimals;
+        final String text;
+
+        DisplayString (int decimals, String text) {
+            this.decimals = decimals;
+            this.text = text;
+        }
     }
 
     /**
@@ -544,24 +1213,22 @@ public class Fraction implements Comparable<Fraction>, Serializable { // TODO ad
      * <li><code>other</code> is a <code>Float</code> or <code>Double</code> and <code>this.toDouble()</code> precisely equals the value represented by <code>other</code></li>
      * <li><code>other</code> is another <code>Fraction</code> and both fractions' {@linkplain #getImproperNumerator() improper numerators} and {@linkplain #getDenominator() denominators} are equal to each other when both fractions are in lowest terms</li>
      * </ul>
-     * 
-     * <p>
-     * This method {@linkplain #canonicalize() canonicalizes} this fraction, as well as <code>other</code> if it is itself a Fraction.
-     * </p>
      */
     public boolean equals (Object other) {
-        canonicalize();
-
         // Check some special cases
         if (other instanceof Byte || other instanceof Short || other instanceof Integer || other instanceof Long) {
-            // ensure number is correct && fraction is a whole number (entire denominator can be divided out)
-            return getImproperNumerator() / denominator == ((Number) other).intValue() && GcdUtils.gcd(getImproperNumerator(), denominator) == denominator;
+            // ensure fraction is a whole number (canonical, so the denominator is 1) && number is correct; a BigInteger-backed fraction is never a long
+            return bigNumerator == null && denominator == 1 && numerator == ((Number) other).longValue();
         } else if (other instanceof Float || other instanceof Double) {
             return toDouble() == ((Number) other).doubleValue();
         } else if (other instanceof Fraction) {
             Fraction fOther = (Fraction) other;
-            fOther.canonicalize();
-            return unit == fOther.getUnit() && numerator == fOther.getNumerator() && denominator == fOther.getDenominator();
+            // Canonical form is unique, so the representations must match exactly
+            if (bigNumerator == null) {
+                return fOther.bigNumerator == null && numerator == fOther.numerator && denominator == fOther.denominator;
+            } else {
+                return bigNumerator.equals(fOther.bigNumerator) && bigDenominator.equals(fOther.bigDenominator);
+            }
         } else {
             return false;
         }
@@ -571,15 +1238,23 @@ public class Fraction implements Comparable<Fraction>, Serializable { // TODO ad
      * {@inheritDoc}
      * 
      * <p>
-     * <code>Fraction</code> implements the <code>hashCode</code> method as returning:
+     * For a fraction stored as <code>long</code>s, <code>Fraction</code> implements the <code>hashCode</code> method by computing the following in <code>long</code> arithmetic and folding the result into an <code>int</code> as {@link Long#hashCode()} does:
      * </p>
      * 
-     * <code>31^3 + 31^2 * getUnit() + 31^1 * getNumerator() + 31^0 * getDenominator()</code>
+     * <code>31^3 + 31^2 * unit + 31^1 * numerator + 31^0 * denominator</code>
+     * 
+     * <p>
+     * For larger fractions, the hash is <code>31 * getBigImproperNumerator().hashCode() + getBigDenominator().hashCode()</code>.
+     * </p>
      */
     public int hashCode () {
-        int hash = 1;
-        hash = hash * 31 + unit;
-        hash = hash * 31 + numerator;
+        if (bigNumerator != null) {
+            return 31 * bigNumerator.hashCode() + bigDenominator.hashCode();
+        }
+
+        long hash = 1;
+        hash = hash * 31 + numerator / denominator; // unit
+        hash = hash * 31 + numerator % denominator; // numerator of the proper part
         hash = hash * 31 + denominator;
 
         // Algebra in the docs above:
@@ -587,11 +1262,11 @@ public class Fraction implements Comparable<Fraction>, Serializable { // TODO ad
         // = (31 * 31 + 31 * unit + numerator) * 31 + denominator
         // = 31^3 + 31^2 * unit + 31^1 * numerator + denominator
 
-        return hash;
+        return (int) (hash ^ (hash >>> 32));
     }
 
     /**
-     * Numerically compares this Fraction to another Fraction. This class is {@linkplain Comparable consistent with equals}, discounting the possibility of integer overflow errors; if <code>this.equals(other)</code>, it is guaranteed that <code>this.compareTo(other) == 0</code>; and if <code>!this.equals(other)</code>, it is theoretically guaranteed that <code>this.compareTo(other) != 0</code> (although rounding errors can cause inconsistency here).
+     * Numerically compares this Fraction to another Fraction. This class is {@linkplain Comparable consistent with equals}: <code>this.compareTo(other) == 0</code> if and only if <code>this.equals(other)</code>. The comparison is exact; it cannot overflow.
      * 
      * @param other the Fraction to which to compare this Fraction
      * @return a number <code>i</code> such that <code>i > 0</code> if this fraction is greater than <code>other</code>, <code>i &lt; 0</code> if this fraction is less than <code>other</code>, and <code>i == 0</code> if this fraction is equal to <code>other</code>
@@ -603,13 +1278,23 @@ public class Fraction implements Comparable<Fraction>, Serializable { // TODO ad
             throw new NullPointerException("other must not be null");
         }
 
-        // Ensure consistency with equals
-        if (this.equals(other)) {
-            return 0;
+        if (bigNumerator == null && other.bigNumerator == null) {
+            if (denominator == other.denominator) {
+                return Long.compare(numerator, other.numerator);
+            }
+
+            // Denominators are positive, so comparing the cross products compares the fractions; canonical forms are unique, so this is consistent with equals
+            try {
+                long myCrossMultiply = Math.multiplyExact(numerator, other.denominator);
+                long theirCrossMultiply = Math.multiplyExact(denominator, other.numerator);
+                return Long.compare(myCrossMultiply, theirCrossMultiply);
+            } catch (ArithmeticException e) {
+                // overflowed; fall through to BigInteger
+            }
         }
 
-        int myCrossMultiply = getImproperNumerator() * other.getDenominator();
-        int theirCrossMultiply = denominator * other.getImproperNumerator();
-        return myCrossMultiply - theirCrossMultiply;
+        BigInteger myCrossMultiply = getBigImproperNumerator().multiply(other.getBigDenominator());
+        BigInteger theirCrossMultiply = getBigDenominator().multiply(other.getBigImproperNumerator());
+        return myCrossMultiply.compareTo(theirCrossMultiply);
     }
 }
@@ -0,0 +1,187 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+/**
+ * A mutable running sum of {@link Fraction}s, backed by primitive <code>long</code>s.
+ * 
+ * <p>
+ * Adding to a FractionAccumulator does not allocate any objects, and the running sum is not reduced to lowest terms after every addition as it would be with {@link Fraction#add(Fraction)}. Instead, the sum is reduced only when an addition would otherwise overflow, or when the sum is {@linkplain #toFraction() converted} into an immutable Fraction. This makes the class suited to totaling many Fractions (such as the sweepstakes points earned by each school) when only the final total is needed.
+ * </p>
+ * 
+ * <p>
+ * If the sum still overflows a <code>long</code> in lowest terms, the part accumulated so far is moved into an overflow {@link Fraction} (which can hold arbitrarily large values) and accumulation starts over on the <code>long</code> path, so the total stays exact.
+ * </p>
+ * 
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ * 
+ * @author MathSquared
+ * 
+ */
+public class FractionAccumulator {
+    private long numerator; // improper; the sign of the sum is carried here
+    private long denominator = 1; // always positive, but not necessarily coprime with the numerator
+    private Fraction overflow; // null unless the sum has ever overflowed a long; the total is overflow + numerator/denominator
+
+    /**
+     * Constructs a new FractionAccumulator whose running sum is 0.
+     */
+    public FractionAccumulator () {
+        // sum starts at 0/1
+    }
+
+    /**
+     * Constructs a new FractionAccumulator whose running sum starts at the given value.
+     * 
+     * @param initial the initial value of the sum
+     */
+    public FractionAccumulator (Fraction initial) {
+        add(initial);
+    }
+
+    /**
+     * Adds a Fraction to the running sum.
+     * 
+     * @param augend the Fraction to add
+     * @return this FractionAccumulator, to allow chaining
+     */
+    public FractionAccumulator add (Fraction augend) {
+        if (augend.isLong()) {
+            add(augend.getLongImproperNumerator(), augend.getLongDenominator());
+        } else {
+            addOverflow(augend);
+        }
+        return this;
+    }
+
+    /**
+     * Adds an integer to the running sum.
+     * 
+     * @param augend the integer to add
+     * @return this FractionAccumulator, to allow chaining
+     */
+    public FractionAccumulator add (int augend) {
+        add(augend, 1);
+        return this;
+    }
+
+    /**
+     * Adds the running sum of another FractionAccumulator to this one. <code>augend</code> is not modified.
+     * 
+     * @param augend the FractionAccumulator whose sum to add
+     * @return this FractionAccumulator, to allow chaining
+     */
+    public FractionAccumulator add (FractionAccumulator augend) {
+        add(augend.numerator, augend.denominator);
+        if (augend.overflow != null) {
+            addOverflow(augend.overflow);
+        }
+        return this;
+    }
+
+    /**
+     * Resets the running sum to 0, so that this FractionAccumulator may be reused.
+     */
+    public void reset () {
+        numerator = 0;
+        denominator = 1;
+        overflow = null;
+    }
+
+    /**
+     * Returns the running sum as an immutable, canonicalized {@link Fraction}. The running sum is reduced to lowest terms as a side effect, but its value does not change.
+     * 
+     * <p>
+     * Small sums are returned through {@link Fraction#valueOf(int, int)}, so equal sums may share an instance (and its {@linkplain Fraction#toDisplayString(int) display string}).
+     * </p>
+     * 
+     * @return a Fraction equal to the running sum
+     */
+    public Fraction toFraction () {
+        reduce();
+        Fraction ret;
+        if (numerator >= Integer.MIN_VALUE && numerator <= Integer.MAX_VALUE && denominator <= Integer.MAX_VALUE) {
+            ret = Fraction.valueOf((int) numerator, (int) denominator);
+        } else {
+            ret = new Fraction(numerator, denominator);
+        }
+        return (overflow == null) ? ret : overflow.add(ret);
+    }
+
+    /**
+     * Adds <code>num/den</code> to the running sum, reducing the running sum first if the addition would overflow.
+     * 
+     * @param num the numerator of the quantity to add
+     * @param den the positive denominator of the quantity to add
+     */
+    private void add (long num, long den) {
+        try {
+            addUnreduced(num, den);
+        } catch (ArithmeticException e) {
+            // The sum in lowest terms may well fit even if the unreduced one doesn't
+            reduce();
+            try {
+                addUnreduced(num, den);
+            } catch (ArithmeticException e2) {
+                // The sum genuinely overflows; move what we have into the overflow Fraction and start over
+                addOverflow(new Fraction(numerator, denominator));
+                numerator = num;
+                denominator = den;
+            }
+        }
+    }
+
+    /**
+     * Adds a Fraction directly to the overflow portion of the sum. This is slower than the <code>long</code> path, but cannot overflow.
+     * 
+     * @param augend the Fraction to add
+     */
+    private void addOverflow (Fraction augend) {
+        overflow = (overflow == null) ? augend : overflow.add(augend);
+    }
+
+    /**
+     * Adds <code>num/den</code> to the running sum over the least common denominator, without reducing. If the addition overflows, the running sum is left unchanged.
+     * 
+     * @param num the numerator of the quantity to add
+     * @param den the positive denominator of the quantity to add
+     * @throws ArithmeticException if any intermediate quantity overflows a <code>long</code>
+     */
+    private void addUnreduced (long num, long den) {
+        // Fast path: adding quantities with the same denominator is extremely common when totaling sweepstakes
+        if (den == denominator) {
+            numerator = Math.addExact(numerator, num);
+            return;
+        }
+
+        long gcd = GcdUtils.gcd(denominator, den);
+        long multiplyA = den / gcd; // scales the running sum up to the LCM
+        long multiplyB = denominator / gcd; // scales the augend up to the LCM
+
+        // Compute everything before assigning, so an overflow leaves the sum intact
+        long newNumerator = Math.addExact(Math.multiplyExact(numerator, multiplyA), Math.multiplyExact(num, multiplyB));
+        long newDenominator = Math.multiplyExact(denominator, multiplyA);
+
+        numerator = newNumerator;
+        denominator = newDenominator;
+    }
+
+    /**
+     * Reduces the running sum to lowest terms.
+     */
+    private void reduce () {
+        // Handle zero correctly to avoid division by 0
+        if (numerator == 0) {
+            denominator = 1;
+            return;
+        }
+
+        long gcd = GcdUtils.gcd(numerator, denominator);
+        gcd = (gcd < 0 ? -gcd : gcd); // a numerator of Long.MIN_VALUE can't be negated inside gcd
+        numerator /= gcd;
+        denominator /= gcd;
+    }
+}
@@ -30,6 +30,161 @@ public class GcdUtils {
         return a;
     }
 
+    /**
+     * Returns the greatest common divisor of two <code>long</code>s. This method accepts negative arguments.
+     * 
+     * @param a the first integer
+     * @param b the second integer
+     * @return the GCD of a and b; always positive
+     */
+    public static long gcd (long a, long b) {
+        // Fix signs
+        a = (a < 0 ? -a : a);
+        b = (b < 0 ? -b : b);
+        long t = 0;
+        while (b != 0) {
+            t = b;
+            b = a % b;
+            a = t;
+        }
+        return a;
+    }
+
+    /**
+     * Returns the greatest common divisor of two integers using the binary GCD algorithm (Stein's algorithm), which uses shifts and subtraction instead of division. This method accepts negative arguments.
+     * 
+     * @param a the first integer
+     * @param b the second integer
+     * @return the GCD of a and b; always positive unless both are <code>Integer.MIN_VALUE</code> or 0
+     */
+    public static int binaryGcd (int a, int b) {
+        // Fix signs; Integer.MIN_VALUE stays negative, but the unsigned shifts below treat it as 2^31
+        a = (a < 0 ? -a : a);
+        b = (b < 0 ? -b : b);
+        if (a == 0) {
+            return b;
+        }
+        if (b == 0) {
+            return a;
+        }
+
+        int shift = Integer.numberOfTrailingZeros(a | b); // factors of 2 common to both
+        a >>>= Integer.numberOfTrailingZeros(a);
+        do {
+            b >>>= Integer.numberOfTrailingZeros(b);
+            // Both are odd now, so their difference is even and the smaller one stays a candidate
+            if (a > b) {
+                int t = b;
+                b = a;
+                a = t;
+            }
+            b -= a;
+        } while (b != 0);
+        return a << shift;
+    }
+
+    /**
+     * Returns the greatest common divisor of two <code>long</code>s using the binary GCD algorithm (Stein's algorithm), which uses shifts and subtraction instead of division. This method accepts negative arguments.
+     * 
+     * @param a the first integer
+     * @param b the second integer
+     * @return the GCD of a and b; always positive unless both are <code>Long.MIN_VALUE</code> or 0
+     */
+    public static long binaryGcd (long a, long b) {
+        // Fix signs; Long.MIN_VALUE stays negative, but the unsigned shifts below treat it as 2^63
+        a = (a < 0 ? -a : a);
+        b = (b < 0 ? -b : b);
+        if (a == 0) {
+            return b;
+        }
+        if (b == 0) {
+            return a;
+        }
+
+        int shift = Long.numberOfTrailingZeros(a | b); // factors of 2 common to both
+        a >>>= Long.numberOfTrailingZeros(a);
+        do {
+            b >>>= Long.numberOfTrailingZeros(b);
+            // Both are odd now, so their difference is even and the smaller one stays a candidate
+            if (a > b) {
+                long t = b;
+                b = a;
+                a = t;
+            }
+            b -= a;
+        } while (b != 0);
+        return a << shift;
+    }
+
+    /**
+     * Returns the greatest common divisor of an array of integers. This method accepts negative arguments.
+     * 
+     * @param nums the integers
+     * @return the GCD of all of the integers; 0 if <code>nums</code> is empty
+     */
+    public static int gcd (int[] nums) {
+        int ret = 0;
+        for (int i = 0; i < nums.length && ret != 1; i++) { // once the GCD is 1, it stays 1
+            ret = binaryGcd(ret, nums[i]);
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the greatest common divisor of an array of <code>long</code>s. This method accepts negative arguments.
+     * 
+     * @param nums the integers
+     * @return the GCD of all of the integers; 0 if <code>nums</code> is empty
+     */
+    public static long gcd (long[] nums) {
+        long ret = 0;
+        for (int i = 0; i < nums.length && ret != 1; i++) { // once the GCD is 1, it stays 1
+            ret = binaryGcd(ret, nums[i]);
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the least common multiple of an array of integers. This method accepts negative arguments.
+     * 
+     * @param nums the integers
+     * @return the LCM of all of the integers; always positive, or 0 if any of the integers is 0; 1 if <code>nums</code> is empty
+     * @throws ArithmeticException if the LCM does not fit in an <code>int</code>
+     */
+    public static int lcm (int[] nums) {
+        long ret = 1; // a long, so that intermediate LCMs can't overflow before the check below
+        for (int i = 0; i < nums.length; i++) {
+            if (nums[i] == 0) {
+                return 0;
+            }
+            long x = Math.abs((long) nums[i]);
+            ret = Math.toIntExact(ret / binaryGcd(ret, x) * x); // reordered to avoid overflow; correctly, ret*x / gcd(ret, x)
+        }
+        return (int) ret;
+    }
+
+    /**
+     * Returns the least common multiple of an array of <code>long</code>s. This method accepts negative arguments.
+     * 
+     * @param nums the integers
+     * @return the LCM of all of the integers; always positive, or 0 if any of the integers is 0; 1 if <code>nums</code> is empty
+     * @throws ArithmeticException if the LCM does not fit in a <code>long</code>
+     */
+    public static long lcm (long[] nums) {
+        long ret = 1;
+        for (int i = 0; i < nums.length; i++) {
+            if (nums[i] == 0) {
+                return 0;
+            }
+            long x = Math.abs(nums[i]);
+            if (x < 0) { // Long.MIN_VALUE
+                throw new ArithmeticException("LCM overflows a long");
+            }
+            ret = Math.multiplyExact(ret / binaryGcd(ret, x), x); // reordered to avoid overflow; correctly, ret*x / gcd(ret, x)
+        }
+        return ret;
+    }
+
     /**
      * Returns the least common multiple of two integers. This method accepts negative arguments.
      * 
@@ -3,12 +3,14 @@
  */
 package mathsquared.resultswizard2;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 
 /**
  * Contains methods for working with maps and sorting them.
@@ -33,13 +35,108 @@ public class MapSortingUtils {
      * @param thenByKey true if values that compare as equal should then be sorted by the values of their keys; keys are always sorted ascending, and will compare as equal if they do not implement Comparable
      * @return a new Map with its keys sorted in the natural order of their associated values
      */
-    public static <K, V extends Comparable<? super V>> Map<K, V> sortValue (Map<K, V> toSort, boolean descending, final boolean thenByKey) {
+    public static <K, V extends Comparable<? super V>> Map<K, V> sortValue (Map<K, V> toSort, boolean descending, boolean thenByKey) {
+        return sortValue(toSort, descending, thenByKey, false);
+    }
+
+    /**
+     * Returns a version of the given Map sorted by its values, optionally sorting on multiple threads.
+     * 
+     * <p>
+     * This method behaves exactly like {@link #sortValue(Map, boolean, boolean)}, but if <code>parallel</code> is true, the entries are sorted with {@link Arrays#parallelSort(Object[], Comparator)}. This requires that comparing keys and values have no side effects, which holds for {@link Fraction}s and Strings. The sort is stable either way, so the result is the same.
+     * </p>
+     * 
+     * @param toSort the map to sort
+     * @param descending true if the highest values should sort to the beginning
+     * @param thenByKey true if values that compare as equal should then be sorted by the values of their keys; keys are always sorted ascending, and will compare as equal if they do not implement Comparable
+     * @param parallel true if the sort may be split across multiple threads
+     * @return a new Map with its keys sorted in the natural order of their associated values
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <K, V extends Comparable<? super V>> Map<K, V> sortValue (Map<K, V> toSort, boolean descending, boolean thenByKey, boolean parallel) {
         // Set up ascending or descending.
         final int mult = (descending) ? -1 : 1; // if descending, multiply all comparisons by -1
 
-        // HEAVILY based on http://stackoverflow.com/a/2581754/1979005
-        List<Map.Entry<K, V>> entries = new LinkedList<Map.Entry<K, V>>(toSort.entrySet());
-        Collections.sort(entries, new Comparator<Map.Entry<K, V>>() {
+        // HEAVILY based on http://stackoverflow.com/a/2581754/1979005, but sorts an array rather than a LinkedList
+        Map.Entry<K, V>[] entries = toSort.entrySet().toArray(new Map.Entry[toSort.size()]);
+        Comparator<Map.Entry<K, V>> comparator = entryComparator(mult, thenByKey);
+        if (parallel) {
+            Arrays.parallelSort(entries, comparator);
+        } else {
+            Arrays.sort(entries, comparator);
+        }
+
+        Map<K, V> ret = new LinkedHashMap<K, V>(entries.length * 2); // preserve iteration order; twice the size avoids rehashing
+        for (Map.Entry<K, V> x : entries) {
+            ret.put(x.getKey(), x.getValue());
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the highest- or lowest-valued entries of the given Map, along with every entry tied with the last of them.
+     * 
+     * <p>
+     * The entries are ranked as by {@link #sortValue(Map, boolean, boolean)}, but only the first <code>k</code> entries, plus any entries whose values compare as equal to that of the <code>k</code>th, are kept. They are selected with a heap holding at most <code>k</code> entries, and only the selected entries are sorted, so ranking the top few of a large Map takes time roughly linear in the size of the Map rather than sorting all of it.
+     * </p>
+     * 
+     * @param toRank the map to rank
+     * @param k the number of entries to keep, not counting entries tied with the last of them; if this is at least the size of <code>toRank</code>, every entry is kept
+     * @param descending true if the highest values should rank first
+     * @param thenByKey true if values that compare as equal should then be ordered by their keys, as in <code>sortValue</code>; this affects only the order within a tie, not which entries are kept
+     * @return the ranked {@link Standings}; empty if <code>k</code> is not positive
+     */
+    public static <K, V extends Comparable<? super V>> Standings<K, V> topValues (Map<K, V> toRank, int k, boolean descending, boolean thenByKey) {
+        final int mult = (descending) ? -1 : 1;
+        if (k <= 0 || toRank.isEmpty()) {
+            return new Standings<K, V>(new Object[0], new Object[0]);
+        }
+
+        List<Map.Entry<K, V>> selected;
+        if (k >= toRank.size()) {
+            selected = new ArrayList<Map.Entry<K, V>>(toRank.entrySet());
+        } else {
+            // A heap of the k best values seen so far, with the worst of them on top to be evicted
+            Comparator<Map.Entry<K, V>> byValue = entryComparator(mult, false);
+            PriorityQueue<Map.Entry<K, V>> heap = new PriorityQueue<Map.Entry<K, V>>(k, Collections.reverseOrder(byValue));
+            for (Map.Entry<K, V> x : toRank.entrySet()) {
+                if (heap.size() < k) {
+                    heap.add(x);
+                } else if (byValue.compare(x, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.add(x);
+                }
+            }
+
+            // The heap may have evicted some of the entries tied with the kth, so make a second pass for anything at least as good
+            Map.Entry<K, V> cutoff = heap.peek();
+            selected = new ArrayList<Map.Entry<K, V>>(k * 2);
+            for (Map.Entry<K, V> x : toRank.entrySet()) {
+                if (byValue.compare(x, cutoff) <= 0) {
+                    selected.add(x);
+                }
+            }
+        }
+
+        Collections.sort(selected, entryComparator(mult, thenByKey));
+        Object[] keys = new Object[selected.size()];
+        Object[] values = new Object[selected.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = selected.get(i).getKey();
+            values[i] = selected.get(i).getValue();
+        }
+        return new Standings<K, V>(keys, values);
+    }
+
+    /**
+     * Creates the Comparator used to order entries by value.
+     * 
+     * @param mult -1 to reverse the ordering (for a descending sort), or 1 otherwise
+     * @param thenByKey true if entries with equal values should then be compared by key
+     * @return a Comparator implementing the ordering described in {@link #sortValue(Map, boolean, boolean)}
+     */
+    private static <K, V extends Comparable<? super V>> Comparator<Map.Entry<K, V>> entryComparator (final int mult, final boolean thenByKey) {
+        return new Comparator<Map.Entry<K, V>>() {
             // Horrid code to cope with sorting by key
             @SuppressWarnings("unchecked")
             public int compare (Map.Entry<K, V> one, Map.Entry<K, V> two) {
@@ -71,11 +168,6 @@ public class MapSortingUtils {
                     }
                 }
             }
-        });
-        Map<K, V> ret = new LinkedHashMap<K, V>(); // preserve iteration order
-        for (Map.Entry<K, V> x : entries) {
-            ret.put(x.getKey(), x.getValue());
-        }
-        return ret;
+        };
     }
 }
@@ -0,0 +1,146 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Interns the names of schools and competitors to dense <code>int</code> IDs.
+ * 
+ * <p>
+ * A dictionary is meant to be shared by every {@link EventResults} in a tournament. Each distinct name is then stored once no matter how many events it appears in, and results can be stored and totaled as arrays of IDs, indexing arrays by ID instead of hashing names. IDs are assigned in the order names are first interned, starting at 0, and never change. The null name (used for the schools of independent competitors) is interned like any other. Sharing does not survive serialization: each EventResults is written with a dictionary of only the names it uses, so results sent one at a time stay readable as names are added.
+ * </p>
+ * 
+ * <p>
+ * This class is thread-safe. Only interning takes a lock; looking up names does not, so totals computed in parallel from a shared dictionary do not contend with each other.
+ * </p>
+ * 
+ * @author MathSquared
+ * 
+ */
+public class NameDictionary implements Serializable {
+    private static final long serialVersionUID = 2L;
+
+    // Only the names are serialized, in ID order; the table of IDs is rebuilt from them
+    private transient HashMap<String, Integer> ids = new HashMap<String, Integer>();
+    // Names are written before size is increased, and the array is replaced rather than resized, so readers that check size first need no lock
+    private transient volatile String[] names = new String[16]; // indexed by ID
+    private volatile int size = 0;
+
+    /**
+     * Returns the ID of a name, assigning it the next unused ID if it has not been interned before.
+     * 
+     * @param name the name to intern; may be null
+     * @return the ID of <code>name</code>
+     */
+    public synchronized int intern (String name) {
+        Integer existing = ids.get(name);
+        if (existing != null) {
+            return existing;
+        }
+
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+        }
+        int id = size;
+        names[id] = name;
+        ids.put(name, id);
+        size = id + 1; // publishes the name
+        return id;
+    }
+
+    /**
+     * Interns every name in an array of results.
+     * 
+     * @param results the results, as if returned by {@link EventResults#getIndivHonorees()} or a similar method; may be null, and may contain null sub-arrays
+     * @return an array of the same structure as <code>results</code>, where each name is replaced with its ID; null if <code>results</code> is null
+     */
+    public synchronized int[][] intern (String[][] results) {
+        if (results == null) {
+            return null;
+        }
+        int[][] ret = new int[results.length][];
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != null) {
+                ret[i] = new int[results[i].length];
+                for (int j = 0; j < results[i].length; j++) {
+                    ret[i][j] = intern(results[i][j]); // already holding the lock, so reacquiring it is cheap
+                }
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the name with the given ID.
+     * 
+     * @param id the ID of the name
+     * @return the name; may be null if null was interned
+     * @throws IndexOutOfBoundsException if no name has been assigned <code>id</code>
+     */
+    public String nameOf (int id) {
+        if (id < 0 || id >= size) { // size is read before names, so names holds every ID below it
+            throw new IndexOutOfBoundsException("No name with ID " + id);
+        }
+        return names[id];
+    }
+
+    /**
+     * Looks up the names for an array of IDs. This is the inverse of {@link #intern(String[][])}.
+     * 
+     * @param ids the IDs, in the structure returned by <code>intern(String[][])</code>; may be null, and may contain null sub-arrays
+     * @return a new array of the same structure as <code>ids</code>, where each ID is replaced with its name; null if <code>ids</code> is null
+     * @throws IndexOutOfBoundsException if no name has been assigned one of the IDs
+     */
+    public String[][] nameOf (int[][] ids) {
+        if (ids == null) {
+            return null;
+        }
+        String[][] ret = new String[ids.length][];
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] != null) {
+                ret[i] = new String[ids[i].length];
+                for (int j = 0; j < ids[i].length; j++) {
+                    ret[i][j] = nameOf(ids[i][j]);
+                }
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the number of names interned so far. Valid IDs range from 0 inclusive to this value exclusive.
+     * 
+     * @return the number of names with IDs
+     */
+    public int size () {
+        return size;
+    }
+
+    private synchronized void writeObject (ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject(); // under the lock, so a concurrent intern can't tear the arrays
+        for (int i = 0; i < size; i++) {
+            out.writeObject(names[i]);
+        }
+    }
+
+    private void readObject (ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (size < 0) {
+            throw new InvalidObjectException("size must be >= 0 (" + size + " given)");
+        }
+        ids = new HashMap<String, Integer>(size * 2);
+        names = new String[Math.max(size, 16)];
+        for (int i = 0; i < size; i++) {
+            names[i] = (String) in.readObject();
+            ids.put(names[i], i);
+        }
+    }
+}
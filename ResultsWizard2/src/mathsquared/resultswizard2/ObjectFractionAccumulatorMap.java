@@ -0,0 +1,230 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A map from objects to running {@link Fraction} sums, for totaling many Fractions (such as sweepstakes points) by key.
+ * 
+ * <p>
+ * This is the Fraction counterpart of {@link ObjectIntAccumulatorMap}. {@link #addTo(Object, Fraction)} finds the key with a single probe of an open-addressed table and adds to a {@link FractionAccumulator} in place, so after a key's first addition, adding to it allocates nothing. Keys and running sums are kept in parallel arrays and iterated by slot, as in ObjectIntAccumulatorMap.
+ * </p>
+ * 
+ * <p>
+ * Keys may be null. This class is not thread-safe.
+ * </p>
+ * 
+ * @author MathSquared
+ * 
+ * @param <K> the type of the keys
+ */
+public class ObjectFractionAccumulatorMap<K> {
+    private static final int DEFAULT_EXPECTED_SIZE = 8;
+
+    private Object[] keys; // length is a power of 2; null in empty slots; keys are masked as in ObjectIntAccumulatorMap
+    private FractionAccumulator[] values; // parallel to keys
+    private int size = 0;
+    private int threshold; // size at which the table grows, keeping it at most half full
+
+    /**
+     * Constructs an empty map.
+     */
+    public ObjectFractionAccumulatorMap () {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Constructs an empty map with room for a given number of keys, so that it does not need to grow until more keys are added.
+     * 
+     * @param expectedSize the number of keys expected
+     * @throws IllegalArgumentException if <code>expectedSize &lt; 0</code>
+     */
+    public ObjectFractionAccumulatorMap (int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must be >= 0 (" + expectedSize + " given)");
+        }
+        allocate(ObjectIntAccumulatorMap.tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Adds a Fraction to the sum stored under a key. If the key is not yet present, it is added with a sum of <code>delta</code>.
+     * 
+     * @param key the key
+     * @param delta the Fraction to add
+     */
+    public void addTo (K key, Fraction delta) {
+        accumulator(key).add(delta);
+    }
+
+    /**
+     * Adds an integer to the sum stored under a key. If the key is not yet present, it is added with a sum of <code>delta</code>.
+     * 
+     * @param key the key
+     * @param delta the integer to add
+     */
+    public void addTo (K key, int delta) {
+        accumulator(key).add(delta);
+    }
+
+    /**
+     * Returns the sum stored under a key.
+     * 
+     * @param key the key
+     * @return the sum; 0 if nothing was added under <code>key</code>
+     */
+    public Fraction get (Object key) {
+        int i = probe(key);
+        return (keys[i] == null) ? Fraction.valueOf(0) : values[i].toFraction();
+    }
+
+    /**
+     * Returns whether anything was added under a key.
+     * 
+     * @param key the key
+     * @return true if <code>key</code> is present
+     */
+    public boolean containsKey (Object key) {
+        return keys[probe(key)] != null;
+    }
+
+    /**
+     * Returns the number of keys in this map.
+     * 
+     * @return the number of keys
+     */
+    public int size () {
+        return size;
+    }
+
+    /**
+     * Returns whether this map has no keys.
+     * 
+     * @return true if <code>size() == 0</code>
+     */
+    public boolean isEmpty () {
+        return size == 0;
+    }
+
+    /**
+     * Removes every key, keeping the table allocated so the map can be reused.
+     */
+    public void clear () {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Finds the first occupied slot at or after a given slot, for iterating over this map without entry objects.
+     * 
+     * @param from the slot at which to start looking; 0 to start iterating
+     * @return the index of the slot, to be passed to {@link #keyAt(int)} and {@link #valueAt(int)}; -1 if there are no more occupied slots
+     * @see ObjectIntAccumulatorMap#nextSlot(int)
+     */
+    public int nextSlot (int from) {
+        for (int i = from; i < keys.length; i++) {
+            if (keys[i] != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the key in an occupied slot.
+     * 
+     * @param slot a slot returned by {@link #nextSlot(int)}
+     * @return the key
+     */
+    @SuppressWarnings("unchecked")
+    public K keyAt (int slot) {
+        return (K) ObjectIntAccumulatorMap.unmask(keys[slot]);
+    }
+
+    /**
+     * Returns the sum in an occupied slot.
+     * 
+     * @param slot a slot returned by {@link #nextSlot(int)}
+     * @return the sum, as an immutable Fraction
+     */
+    public Fraction valueAt (int slot) {
+        return values[slot].toFraction();
+    }
+
+    /**
+     * Copies the sums in this map into a {@link Map}.
+     * 
+     * @return a new Map from each key to its sum
+     */
+    public Map<K, Fraction> toFractionMap () {
+        Map<K, Fraction> ret = new HashMap<K, Fraction>(size * 2);
+        for (int i = nextSlot(0); i >= 0; i = nextSlot(i + 1)) {
+            ret.put(keyAt(i), values[i].toFraction());
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the running sum for a key, adding the key with a sum of 0 if it is not yet present.
+     */
+    private FractionAccumulator accumulator (K key) {
+        int i = probe(key);
+        if (keys[i] != null) {
+            return values[i];
+        }
+
+        FractionAccumulator ret = new FractionAccumulator();
+        keys[i] = ObjectIntAccumulatorMap.mask(key);
+        values[i] = ret;
+        if (++size > threshold) {
+            grow();
+        }
+        return ret;
+    }
+
+    /**
+     * Finds the slot holding a key, or the empty slot where it would be inserted.
+     */
+    private int probe (Object key) {
+        Object k = ObjectIntAccumulatorMap.mask(key);
+        int m = keys.length - 1;
+        for (int i = ObjectIntAccumulatorMap.hash(k) & m;; i = (i + 1) & m) { // the table is never full, so this ends
+            Object x = keys[i];
+            if (x == null || x == k || x.equals(k)) {
+                return i;
+            }
+        }
+    }
+
+    /**
+     * Doubles the table, moving every key to its slot in the new table.
+     */
+    private void grow () {
+        Object[] oldKeys = keys;
+        FractionAccumulator[] oldValues = values;
+        allocate(keys.length * 2);
+        int m = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            Object k = oldKeys[j];
+            if (k == null) {
+                continue;
+            }
+            int i = ObjectIntAccumulatorMap.hash(k) & m;
+            while (keys[i] != null) { // keys are distinct, so only the empty slot needs finding
+                i = (i + 1) & m;
+            }
+            keys[i] = k;
+            values[i] = oldValues[j];
+        }
+    }
+
+    private void allocate (int capacity) {
+        keys = new Object[capacity];
+        values = new FractionAccumulator[capacity];
+        threshold = capacity / 2;
+    }
+}
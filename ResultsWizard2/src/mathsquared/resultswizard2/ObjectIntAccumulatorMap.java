@@ -0,0 +1,255 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A map from objects to running <code>int</code> sums, for totaling many numbers by key.
+ * 
+ * <p>
+ * Unlike a <code>Map&lt;K, Integer&gt;</code> updated with {@link AdditiveMapUtils#addNumber(Map, Object, int)}, {@link #addTo(Object, int)} finds the key with a single probe of an open-addressed table, adds to the sum in place, and never boxes. Keys are kept in one array and sums in a parallel <code>int</code> array, so there are no entry objects; to iterate, walk the occupied slots with {@link #nextSlot(int)}, {@link #keyAt(int)}, and {@link #valueAt(int)}:
+ * </p>
+ * 
+ * <pre>
+ * for (int i = map.nextSlot(0); i &gt;= 0; i = map.nextSlot(i + 1)) {
+ *     use(map.keyAt(i), map.valueAt(i));
+ * }
+ * </pre>
+ * 
+ * <p>
+ * Keys may be null. Keys cannot be removed, since sums are only ever added to; use {@link #clear()} to start over. This class is not thread-safe.
+ * </p>
+ * 
+ * @author MathSquared
+ * 
+ * @param <K> the type of the keys
+ */
+public class ObjectIntAccumulatorMap<K> {
+    private static final Object NULL_KEY = new Object(); // stored in place of a null key, since null marks an empty slot
+    private static final int DEFAULT_EXPECTED_SIZE = 8;
+
+    private Object[] keys; // length is a power of 2; null in empty slots
+    private int[] values; // parallel to keys
+    private int size = 0;
+    private int threshold; // size at which the table grows, keeping it at most half full so probe sequences stay short
+
+    /**
+     * Constructs an empty map.
+     */
+    public ObjectIntAccumulatorMap () {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Constructs an empty map with room for a given number of keys, so that it does not need to grow until more keys are added.
+     * 
+     * @param expectedSize the number of keys expected
+     * @throws IllegalArgumentException if <code>expectedSize &lt; 0</code>
+     */
+    public ObjectIntAccumulatorMap (int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must be >= 0 (" + expectedSize + " given)");
+        }
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Adds a number to the sum stored under a key. If the key is not yet present, it is added with a sum of <code>delta</code>.
+     * 
+     * @param key the key
+     * @param delta the number to add
+     * @return the new sum under <code>key</code>
+     */
+    public int addTo (K key, int delta) {
+        int i = probe(key);
+        if (keys[i] == null) {
+            keys[i] = mask(key);
+            values[i] = delta;
+            if (++size > threshold) {
+                grow();
+            }
+            return delta;
+        }
+        return values[i] += delta;
+    }
+
+    /**
+     * Returns the sum stored under a key.
+     * 
+     * @param key the key
+     * @return the sum; 0 if nothing was added under <code>key</code>
+     */
+    public int get (Object key) {
+        int i = probe(key);
+        return (keys[i] == null) ? 0 : values[i];
+    }
+
+    /**
+     * Returns whether anything was added under a key.
+     * 
+     * @param key the key
+     * @return true if <code>key</code> is present
+     */
+    public boolean containsKey (Object key) {
+        return keys[probe(key)] != null;
+    }
+
+    /**
+     * Returns the number of keys in this map.
+     * 
+     * @return the number of keys
+     */
+    public int size () {
+        return size;
+    }
+
+    /**
+     * Returns whether this map has no keys.
+     * 
+     * @return true if <code>size() == 0</code>
+     */
+    public boolean isEmpty () {
+        return size == 0;
+    }
+
+    /**
+     * Removes every key, keeping the table allocated so the map can be reused.
+     */
+    public void clear () {
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+
+    /**
+     * Finds the first occupied slot at or after a given slot, for iterating over this map without entry objects.
+     * 
+     * @param from the slot at which to start looking; 0 to start iterating
+     * @return the index of the slot, to be passed to {@link #keyAt(int)} and {@link #valueAt(int)}; -1 if there are no more occupied slots
+     */
+    public int nextSlot (int from) {
+        for (int i = from; i < keys.length; i++) {
+            if (keys[i] != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the key in an occupied slot.
+     * 
+     * @param slot a slot returned by {@link #nextSlot(int)}
+     * @return the key
+     */
+    @SuppressWarnings("unchecked")
+    public K keyAt (int slot) {
+        return (K) unmask(keys[slot]);
+    }
+
+    /**
+     * Returns the sum in an occupied slot.
+     * 
+     * @param slot a slot returned by {@link #nextSlot(int)}
+     * @return the sum
+     */
+    public int valueAt (int slot) {
+        return values[slot];
+    }
+
+    /**
+     * Copies the sums in this map into a {@link Map}.
+     * 
+     * @return a new Map from each key to its sum
+     */
+    public Map<K, Integer> toMap () {
+        Map<K, Integer> ret = new HashMap<K, Integer>(size * 2);
+        for (int i = nextSlot(0); i >= 0; i = nextSlot(i + 1)) {
+            ret.put(keyAt(i), values[i]);
+        }
+        return ret;
+    }
+
+    /**
+     * Finds the slot holding a key, or the empty slot where it would be inserted.
+     */
+    private int probe (Object key) {
+        Object k = mask(key);
+        int m = keys.length - 1;
+        for (int i = hash(k) & m;; i = (i + 1) & m) { // the table is never full, so this ends
+            Object x = keys[i];
+            if (x == null || x == k || x.equals(k)) {
+                return i;
+            }
+        }
+    }
+
+    /**
+     * Doubles the table, moving every key to its slot in the new table.
+     */
+    private void grow () {
+        Object[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(keys.length * 2);
+        int m = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            Object k = oldKeys[j];
+            if (k == null) {
+                continue;
+            }
+            int i = hash(k) & m;
+            while (keys[i] != null) { // keys are distinct, so only the empty slot needs finding
+                i = (i + 1) & m;
+            }
+            keys[i] = k;
+            values[i] = oldValues[j];
+        }
+    }
+
+    private void allocate (int capacity) {
+        keys = new Object[capacity];
+        values = new int[capacity];
+        threshold = capacity / 2;
+    }
+
+    /**
+     * Returns the table size holding a number of keys while at most half full.
+     * 
+     * @param expectedSize the number of keys
+     * @return a power of 2 greater than twice <code>expectedSize</code>
+     */
+    static int tableSizeFor (int expectedSize) {
+        if (expectedSize >= 1 << 29) {
+            return 1 << 30;
+        }
+        return Integer.highestOneBit(expectedSize * 2 + 1) << 1;
+    }
+
+    /**
+     * Spreads the bits of a key's hash code, since the table is indexed by its low bits.
+     * 
+     * @param key a masked key
+     * @return the spread hash
+     */
+    static int hash (Object key) {
+        int h = key.hashCode() * 0x9E3779B9; // multiplying by the golden ratio moves the high bits' entropy into the low bits
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Converts a key into the form stored in the table.
+     */
+    static Object mask (Object key) {
+        return (key == null) ? NULL_KEY : key;
+    }
+
+    /**
+     * Converts a key stored in the table back into the key given.
+     */
+    static Object unmask (Object key) {
+        return (key == NULL_KEY) ? null : key;
+    }
+}
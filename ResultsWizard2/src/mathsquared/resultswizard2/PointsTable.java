@@ -0,0 +1,85 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import java.util.Arrays;
+
+/**
+ * An immutable specification of the sweepstakes points awarded for each place, together with its prefix sums.
+ * 
+ * <p>
+ * With the prefix sums, the total points over any range of places can be found in constant time, so {@link Sweepstakes#assignPoints(int[], PointsTable, TiePlaceAssignment, SweepstakesAssignment, int[], int[])} resolves a tie of any size in constant time. Places beyond the end of the specification are worth 0 points, as they are everywhere else in {@link Sweepstakes}.
+ * </p>
+ * 
+ * @author MathSquared
+ * 
+ */
+public final class PointsTable {
+    private final int[] spec;
+    private final long[] prefix; // prefix[i] is the sum of spec[0] through spec[i - 1]; longs so that no sum overflows
+
+    /**
+     * Creates a table for the given specification. The specification is copied, so later changes to it do not affect this table.
+     * 
+     * @param spec the number of sweepstakes points assigned to competitors in each place, where index 0 represents first place
+     * @throws NullPointerException if <code>spec</code> is null
+     */
+    public PointsTable (int[] spec) {
+        this.spec = Arrays.copyOf(spec, spec.length);
+        prefix = new long[spec.length + 1];
+        for (int i = 0; i < spec.length; i++) {
+            prefix[i + 1] = prefix[i] + spec[i];
+        }
+    }
+
+    /**
+     * Returns the number of places in the specification.
+     * 
+     * @return the number of places that have points specified
+     */
+    public int length () {
+        return spec.length;
+    }
+
+    /**
+     * Returns the points awarded for a single place.
+     * 
+     * @param place the place, where 0 represents first place
+     * @return the points for <code>place</code>, or 0 if it is outside of the specification
+     */
+    public int pointsAt (int place) {
+        return (place >= spec.length || place < 0) ? 0 : spec[place];
+    }
+
+    /**
+     * Returns the total points awarded for a range of places.
+     * 
+     * @param from the first place in the range, inclusive, where 0 represents first place
+     * @param to the last place in the range, exclusive
+     * @return the sum of {@link #pointsAt(int) pointsAt(i)} for every <code>i</code> in the range; 0 if the range is empty
+     */
+    public long rangeSum (int from, int to) {
+        from = Math.max(from, 0);
+        to = Math.min(to, spec.length);
+        return (from >= to) ? 0 : prefix[to] - prefix[from];
+    }
+
+    /**
+     * Returns a copy of the specification backing this table.
+     * 
+     * @return the points for each place, where index 0 represents first place
+     */
+    public int[] getSpec () {
+        return Arrays.copyOf(spec, spec.length);
+    }
+
+    /**
+     * Returns the specification backing this table without copying it. Callers must not modify the returned array.
+     * 
+     * @return the points for each place
+     */
+    int[] spec () {
+        return spec;
+    }
+}
@@ -0,0 +1,347 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Totals sweepstakes points using only primitive arithmetic.
+ * 
+ * <p>
+ * Every school's running total is kept as a <code>long</code> numerator over a single denominator shared by all schools, which is the least common multiple of the sizes of every tie group averaged so far. Schools are addressed by their IDs in a {@link NameDictionary}, which may be shared with the {@link EventResults} being totaled, so adding a facet of results costs a probe of a small table of the schools seen and one array write per honoree instead of a {@link Fraction} allocation and a map lookup. {@link Fraction}s and names are only produced at the boundary, by {@link #toMap()} and {@link #getPoints(int)}.
+ * </p>
+ * 
+ * <p>
+ * Points added through {@link #add(String[][], int[], TiePlaceAssignment, SweepstakesAssignment) add} are the same as those computed by {@link Sweepstakes#computeSweeps(String[][], int[], TiePlaceAssignment, SweepstakesAssignment)}. If a total or the shared denominator would overflow a <code>long</code>, an {@link ArithmeticException} is thrown and the totals in this object are no longer meaningful; callers should discard it and fall back to the {@link Fraction} methods in {@link Sweepstakes}.
+ * </p>
+ * 
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ * 
+ * @author MathSquared
+ * 
+ */
+public class PrimitiveSweepstakes {
+    private NameDictionary dictionary;
+    // Schools are given dense slots in the order they are first seen, so these arrays grow with the schools in the totals rather than with a shared dictionary
+    private int[] order = new int[16]; // ID of the school in each slot
+    private long[] numerators = new long[16]; // indexed by slot; over denominator
+    private int[] slots = new int[32]; // open-addressed table from ID to slot + 1; 0 if empty; length a power of 2, at least twice size
+    private int size = 0;
+    private long denominator = 1;
+
+    /**
+     * Creates an empty set of totals with its own {@link NameDictionary}, so that schools are assigned IDs densely, starting at 0, in the order they are first seen.
+     */
+    public PrimitiveSweepstakes () {
+        this(new NameDictionary());
+    }
+
+    /**
+     * Creates an empty set of totals whose schools are identified by their IDs in the given dictionary.
+     * 
+     * @param dictionary the dictionary of school names
+     */
+    public PrimitiveSweepstakes (NameDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Returns the dictionary of school names used by these totals.
+     * 
+     * @return the dictionary
+     */
+    public NameDictionary getDictionary () {
+        return dictionary;
+    }
+
+    /**
+     * Returns the ID of a school, {@linkplain NameDictionary#intern(String) interning} it in the dictionary if necessary. The school is included in the totals from then on, even if it earns no points.
+     * 
+     * @param name the name of the school; may be null
+     * @return the ID of <code>name</code>
+     */
+    public int idOf (String name) {
+        int id = dictionary.intern(name);
+        see(id);
+        return id;
+    }
+
+    /**
+     * Returns the number of schools seen so far.
+     * 
+     * @return the number of schools with totals
+     */
+    public int size () {
+        return size;
+    }
+
+    /**
+     * Returns the name of the school with the given ID.
+     * 
+     * @param id the ID of the school
+     * @return the name of the school
+     * @throws IndexOutOfBoundsException if <code>id</code> has not been seen
+     */
+    public String nameOf (int id) {
+        slotOf(id);
+        return dictionary.nameOf(id);
+    }
+
+    /**
+     * Returns the numerator of the given school's total, over {@linkplain #getDenominator() the shared denominator}. The fraction formed is not necessarily in lowest terms.
+     * 
+     * @param id the ID of the school
+     * @return the numerator of the school's points
+     * @throws IndexOutOfBoundsException if <code>id</code> has not been seen
+     */
+    public long getNumerator (int id) {
+        return numerators[slotOf(id)];
+    }
+
+    /**
+     * Returns the denominator shared by every school's total.
+     * 
+     * @return the shared denominator; always positive
+     */
+    public long getDenominator () {
+        return denominator;
+    }
+
+    /**
+     * Returns the points earned so far by the given school.
+     * 
+     * @param id the ID of the school
+     * @return the school's points, in lowest terms
+     * @throws IndexOutOfBoundsException if <code>id</code> has not been seen
+     */
+    public Fraction getPoints (int id) {
+        return toFraction(numerators[slotOf(id)]);
+    }
+
+    /**
+     * Adds the sweepstakes points earned in one set of results to the running totals.
+     * 
+     * <p>
+     * Every string in <code>results</code> is {@linkplain #idOf(String) included in the totals}, even if it earns no points.
+     * </p>
+     * 
+     * @param results the results of the event, as if returned by {@link EventResults#getIndivHonorees()} or a similar method; must correctly {@linkplain ArrayUtils#checkTies(Object[][]) skip places for ties}
+     * @param spec the specification for sweepstakes points in the event, where index 0 represents the number of points to award for first place
+     * @param tieAssign the {@link TiePlaceAssignment} used to assign places in the event of a tie
+     * @param sweepsAssign the {@link SweepstakesAssignment} used to assign sweepstakes points in the event of a tie
+     * @return this PrimitiveSweepstakes
+     * @throws IllegalArgumentException if <code>results</code> does not properly skip places for ties
+     * @throws ArithmeticException if a total or the shared denominator would overflow a <code>long</code>, or a tie group's points are averaged over no places
+     */
+    public PrimitiveSweepstakes add (String[][] results, int[] spec, TiePlaceAssignment tieAssign, SweepstakesAssignment sweepsAssign) {
+        return add(results, new PointsTable(spec), tieAssign, sweepsAssign);
+    }
+
+    /**
+     * Adds the sweepstakes points earned in one set of results to the running totals, as {@link #add(String[][], int[], TiePlaceAssignment, SweepstakesAssignment)} does, for the specification in a {@link PointsTable}.
+     * 
+     * @param results the results of the event, as if returned by {@link EventResults#getIndivHonorees()} or a similar method; must correctly {@linkplain ArrayUtils#checkTies(Object[][]) skip places for ties}
+     * @param table the specification for sweepstakes points in the event, such as {@link Event#getIndivPointsTable()}
+     * @param tieAssign the {@link TiePlaceAssignment} used to assign places in the event of a tie
+     * @param sweepsAssign the {@link SweepstakesAssignment} used to assign sweepstakes points in the event of a tie
+     * @return this PrimitiveSweepstakes
+     * @throws IllegalArgumentException if <code>results</code> does not properly skip places for ties
+     * @throws ArithmeticException if a total or the shared denominator would overflow a <code>long</code>, or a tie group's points are averaged over no places
+     */
+    public PrimitiveSweepstakes add (String[][] results, PointsTable table, TiePlaceAssignment tieAssign, SweepstakesAssignment sweepsAssign) {
+        if (!ArrayUtils.checkTies(results)) { // before interning anything
+            throw new IllegalArgumentException("Ties in array are incorrectly formatted");
+        }
+        return add(dictionary.intern(results), table, tieAssign, sweepsAssign);
+    }
+
+    /**
+     * Adds the sweepstakes points earned in one set of results to the running totals, as {@link #add(String[][], PointsTable, TiePlaceAssignment, SweepstakesAssignment)} does, for results already {@linkplain NameDictionary#intern(String[][]) interned} in {@linkplain #getDictionary() this object's dictionary}.
+     * 
+     * @param results the results of the event, as IDs in this object's dictionary; must correctly {@linkplain ArrayUtils#checkTies(Object[][]) skip places for ties}
+     * @param table the specification for sweepstakes points in the event, such as {@link Event#getIndivPointsTable()}
+     * @param tieAssign the {@link TiePlaceAssignment} used to assign places in the event of a tie
+     * @param sweepsAssign the {@link SweepstakesAssignment} used to assign sweepstakes points in the event of a tie
+     * @return this PrimitiveSweepstakes
+     * @throws IllegalArgumentException if <code>results</code> does not properly skip places for ties
+     * @throws ArithmeticException if a total or the shared denominator would overflow a <code>long</code>, or a tie group's points are averaged over no places
+     */
+    public PrimitiveSweepstakes add (int[][] results, PointsTable table, TiePlaceAssignment tieAssign, SweepstakesAssignment sweepsAssign) {
+        long[] points = groupPoints(ArrayUtils.condensedLengthArray(results), table, tieAssign, sweepsAssign);
+
+        int g = 0; // ID of the current group, skipping empty sub-arrays as linkSweepstakes does
+        for (int r = 0; r < results.length && g < points.length; r++) {
+            if (results[r] == null || results[r].length == 0) {
+                continue;
+            }
+            for (int id : results[r]) {
+                int slot = see(id);
+                numerators[slot] = Math.addExact(numerators[slot], points[g]);
+            }
+            g++;
+        }
+
+        return this;
+    }
+
+    /**
+     * Adds the sweepstakes points earned in one set of results to the running totals, as {@link #add(int[][], PointsTable, TiePlaceAssignment, SweepstakesAssignment)} does, for results stored in columns as in a {@link ResultsTable}.
+     * 
+     * @param results the IDs of the honorees in rank order, in this object's dictionary
+     * @param offsets the index in <code>results</code> at which each tie group begins, followed by the length of <code>results</code>
+     * @param table the specification for sweepstakes points in the event, such as {@link Event#getIndivPointsTable()}
+     * @param tieAssign the {@link TiePlaceAssignment} used to assign places in the event of a tie
+     * @param sweepsAssign the {@link SweepstakesAssignment} used to assign sweepstakes points in the event of a tie
+     * @return this PrimitiveSweepstakes
+     * @throws ArithmeticException if a total or the shared denominator would overflow a <code>long</code>, or a tie group's points are averaged over no places
+     */
+    PrimitiveSweepstakes add (int[] results, int[] offsets, PointsTable table, TiePlaceAssignment tieAssign, SweepstakesAssignment sweepsAssign) {
+        int[] quantities = new int[offsets.length - 1];
+        for (int g = 0; g < quantities.length; g++) {
+            quantities[g] = offsets[g + 1] - offsets[g];
+        }
+        long[] points = groupPoints(quantities, table, tieAssign, sweepsAssign);
+
+        for (int g = 0; g < points.length; g++) {
+            for (int i = offsets[g]; i < offsets[g + 1]; i++) {
+                int slot = see(results[i]);
+                numerators[slot] = Math.addExact(numerators[slot], points[g]);
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Finds the points earned by each member of each tie group, over the shared denominator, widening the denominator as needed.
+     * 
+     * @param quantities the {@linkplain ArrayUtils#condensedLengthArray(int[]) condensed length array} of the results
+     * @param table the specification for sweepstakes points in the event
+     * @param tieAssign the {@link TiePlaceAssignment} used to assign places in the event of a tie
+     * @param sweepsAssign the {@link SweepstakesAssignment} used to assign sweepstakes points in the event of a tie
+     * @return the numerator of each group's points over the (new) shared denominator
+     * @throws ArithmeticException if the shared denominator would overflow a <code>long</code>, or a tie group's points are averaged over no places
+     */
+    private long[] groupPoints (int[] quantities, PointsTable table, TiePlaceAssignment tieAssign, SweepstakesAssignment sweepsAssign) {
+        int[] totals = new int[quantities.length];
+        int[] counts = new int[quantities.length];
+        Sweepstakes.assignPoints(quantities, table, tieAssign, sweepsAssign, totals, counts);
+
+        // Widen the shared denominator to cover every group's divisor
+        long newDenominator = denominator;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                throw new ArithmeticException("Denominator must not be equal to 0");
+            }
+            newDenominator = Math.multiplyExact(newDenominator / GcdUtils.gcd(newDenominator, counts[i]), counts[i]); // reordered to avoid overflow
+        }
+        rescale(newDenominator);
+
+        long[] points = new long[totals.length];
+        for (int g = 0; g < points.length; g++) {
+            points[g] = Math.multiplyExact((long) totals[g], denominator / counts[g]);
+        }
+        return points;
+    }
+
+    /**
+     * Returns the running totals as a Map from school names to points earned.
+     * 
+     * @return a new Map from the name of every school seen so far to its points, in lowest terms
+     */
+    public Map<String, Fraction> toMap () {
+        Map<String, Fraction> ret = new HashMap<String, Fraction>(size * 2);
+        for (int i = 0; i < size; i++) {
+            ret.put(dictionary.nameOf(order[i]), toFraction(numerators[i]));
+        }
+        return ret;
+    }
+
+    /**
+     * Switches every total over to a new shared denominator.
+     * 
+     * @param newDenominator the new denominator; must be a multiple of the current one
+     * @throws ArithmeticException if a rescaled numerator overflows a <code>long</code>
+     */
+    private void rescale (long newDenominator) {
+        if (newDenominator == denominator) {
+            return;
+        }
+        long factor = newDenominator / denominator;
+        for (int i = 0; i < size; i++) {
+            numerators[i] = Math.multiplyExact(numerators[i], factor);
+        }
+        denominator = newDenominator;
+    }
+
+    private Fraction toFraction (long numerator) {
+        if (denominator == 1 && numerator >= Integer.MIN_VALUE && numerator <= Integer.MAX_VALUE) {
+            return Fraction.valueOf((int) numerator); // common case; whole numbers are cached
+        }
+        return new Fraction(numerator, denominator);
+    }
+
+    /**
+     * Includes a school in the totals if it is not already included.
+     * 
+     * @param id the ID of the school
+     * @return the slot of the school
+     */
+    private int see (int id) {
+        int h = probe(id);
+        if (slots[h] != 0) {
+            return slots[h] - 1;
+        }
+
+        if (size == order.length) {
+            order = Arrays.copyOf(order, size * 2);
+            numerators = Arrays.copyOf(numerators, size * 2);
+        }
+        order[size] = id;
+        slots[h] = ++size;
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        return size - 1;
+    }
+
+    /**
+     * Returns the slot of a school already included in the totals.
+     * 
+     * @param id the ID of the school
+     * @return the slot of the school
+     * @throws IndexOutOfBoundsException if <code>id</code> has not been seen
+     */
+    private int slotOf (int id) {
+        int slot = slots[probe(id)];
+        if (slot == 0) {
+            throw new IndexOutOfBoundsException("No school with ID " + id);
+        }
+        return slot - 1;
+    }
+
+    /**
+     * Finds the entry in the slot table holding an ID, or the empty entry where it would be added.
+     */
+    private int probe (int id) {
+        int mask = slots.length - 1;
+        int h = id * 0x9E3779B9; // IDs are often consecutive, so mix them before masking
+        h = (h ^ (h >>> 16)) & mask;
+        while (slots[h] != 0 && order[slots[h] - 1] != id) {
+            h = (h + 1) & mask;
+        }
+        return h;
+    }
+
+    private void rehash (int newLength) {
+        slots = new int[newLength];
+        for (int i = 0; i < size; i++) {
+            slots[probe(order[i])] = i + 1;
+        }
+    }
+}
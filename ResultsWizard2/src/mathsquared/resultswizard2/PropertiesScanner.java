@@ -0,0 +1,190 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Properties;
+
+/**
+ * Reads key-value pairs in the format of {@link Properties#load(Reader)} one at a time, in a single pass over a {@link Reader}.
+ * 
+ * <p>
+ * Unlike <code>Properties</code>, a scanner does not build a table of every pair in the file; each pair is available only until {@link #next()} is called again, so a caller can group and convert pairs as they are read. Characters are read through an internal buffer, so the Reader need not be buffered.
+ * </p>
+ * 
+ * <p>
+ * Comments, blank lines, line continuations, and escape sequences (including <code>&#92;u</code><i>xxxx</i>) are handled as <code>Properties</code> handles them. If a key appears more than once, every occurrence is returned; a caller keeping the last one sees the same values as <code>Properties</code>.
+ * </p>
+ * 
+ * @author MathSquared
+ * 
+ */
+class PropertiesScanner {
+    private final Reader in;
+    private final char[] buf = new char[8192];
+    private int pos = 0;
+    private int limit = 0;
+
+    private final StringBuilder key = new StringBuilder();
+    private final StringBuilder value = new StringBuilder();
+
+    /**
+     * Creates a scanner reading from a given Reader.
+     * 
+     * @param in the Reader representing the property file
+     */
+    PropertiesScanner (Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads the next key-value pair.
+     * 
+     * @return true if a pair was read; false if the end of the input was reached
+     * @throws IOException if an I/O error occurs when reading the input
+     * @throws IllegalArgumentException if a malformed <code>&#92;u</code><i>xxxx</i> escape appears in the input
+     */
+    boolean next () throws IOException {
+        key.setLength(0);
+        value.setLength(0);
+
+        // Skip blank lines and comments
+        int c;
+        while (true) {
+            c = skipWhitespace(read());
+            if (c == -1) {
+                return false;
+            }
+            if (c == '\n' || c == '\r') {
+                continue;
+            }
+            if (c == '#' || c == '!') {
+                while (c != -1 && c != '\n' && c != '\r') { // comments don't continue onto the next line
+                    c = read();
+                }
+                continue;
+            }
+            break;
+        }
+
+        StringBuilder target = key;
+        while (c != -1 && c != '\n' && c != '\r') {
+            if (c == '\\') {
+                int d = read();
+                if (d == -1) {
+                    break;
+                }
+                if (d == '\r' || d == '\n') { // continuation; leading whitespace on the next line is dropped
+                    if (d == '\r' && peek() == '\n') {
+                        read();
+                    }
+                    c = skipWhitespace(read());
+                    continue;
+                }
+                target.append(unescape(d)); // escaped characters never end the key
+                c = read();
+                continue;
+            }
+
+            if (target == key && (c == '=' || c == ':' || isWhitespace(c))) {
+                // End of the key: whitespace, then at most one '=' or ':', then whitespace
+                c = skipWhitespace(c);
+                if (c == '=' || c == ':') {
+                    c = skipWhitespace(read());
+                }
+                target = value;
+                continue;
+            }
+
+            target.append((char) c);
+            c = read();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the key of the pair last read by {@link #next()}.
+     * 
+     * @return the key
+     */
+    String key () {
+        return key.toString();
+    }
+
+    /**
+     * Returns the value of the pair last read by {@link #next()}.
+     * 
+     * @return the value; empty if the key had none
+     */
+    String value () {
+        return value.toString();
+    }
+
+    /**
+     * Converts the character after a backslash into the character it stands for, reading the rest of a <code>&#92;u</code><i>xxxx</i> escape if necessary.
+     */
+    private char unescape (int c) throws IOException {
+        switch (c) {
+            case 't':
+                return '\t';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 'f':
+                return '\f';
+            case 'u':
+                int ret = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                    }
+                    ret = (ret << 4) | digit;
+                }
+                return (char) ret;
+            default:
+                return (char) c;
+        }
+    }
+
+    private int skipWhitespace (int c) throws IOException {
+        while (isWhitespace(c)) {
+            c = read();
+        }
+        return c;
+    }
+
+    private static boolean isWhitespace (int c) {
+        return c == ' ' || c == '\t' || c == '\f';
+    }
+
+    private int read () throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buf[pos++];
+    }
+
+    private int peek () throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buf[pos];
+    }
+
+    private boolean fill () throws IOException {
+        int n;
+        do {
+            n = in.read(buf, 0, buf.length);
+        } while (n == 0);
+        if (n < 0) {
+            return false;
+        }
+        pos = 0;
+        limit = n;
+        return true;
+    }
+}
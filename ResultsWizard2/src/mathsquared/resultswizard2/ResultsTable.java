@@ -0,0 +1,363 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable table of the results in one facet of an event: the honorees in each place, their schools, and any sweepstakes points entered by hand.
+ * 
+ * <p>
+ * The table is stored in columns rather than as a jagged array. The IDs of the honorees (and, separately, of their schools) are stored in one flat array in rank order, and an array of offsets marks where each tie group begins. Since every tie skips the places below it, the offset of a group is also the place of that group, so the places skipped for ties need no storage at all, and the {@linkplain ArrayUtils#condensedLengthArray(int[]) condensed length array} of the table is just the differences between consecutive offsets.
+ * </p>
+ * 
+ * <p>
+ * Names are stored as IDs in a {@link NameDictionary}, and the lists returned by {@link #getHonorees()} and {@link #getSchools()} are read-only views that look names up as they are read, so nothing is copied when a table is read or shared. The arrays backing a table are never modified, so a table can be shared by any number of {@link EventResultsSnapshot}s and passed between threads freely. A table serialized on its own is written with its whole dictionary; snapshots and EventResults instead write their tables against a dictionary of only the names they use.
+ * </p>
+ * 
+ * @author MathSquared
+ * 
+ */
+public final class ResultsTable implements Serializable {
+    private static final long serialVersionUID = 2L;
+
+    private final NameDictionary names;
+    private final int places; // including places skipped for ties
+    private final int[] offsets; // offsets[g] is the index (and place) of the first honoree in tie group g; offsets[groups] is the number of honorees
+    private final int[] honorees; // IDs, in rank order
+    private final int[] schools; // parallel to honorees; null if honorees are their own schools, as for team results
+    private final Fraction[][] sweeps; // null unless entered by hand
+
+    /**
+     * Creates a table backed by the given arrays, which must not be modified afterwards.
+     * 
+     * @param names the dictionary from which the IDs come
+     * @param places the number of places in the table, including those skipped for ties
+     * @param offsets the index in <code>honorees</code> at which each tie group begins, followed by the length of <code>honorees</code>
+     * @param honorees the IDs of the honorees, in rank order
+     * @param schools the IDs of the honorees' schools, parallel to <code>honorees</code>; may be null
+     * @param sweeps the sweepstakes points for each honoree, with one sub-array per tie group; may be null
+     */
+    ResultsTable (NameDictionary names, int places, int[] offsets, int[] honorees, int[] schools, Fraction[][] sweeps) {
+        this.names = names;
+        this.places = places;
+        this.offsets = offsets;
+        this.honorees = honorees;
+        this.schools = schools;
+        this.sweeps = sweeps;
+    }
+
+    /**
+     * Creates a table from arrays of names, interning them in a dictionary.
+     * 
+     * @param names the dictionary in which to intern the names
+     * @param honorees the names of the honorees, in rank order where index 0 is first place
+     * @param schools the schools of the honorees, in the same structure as <code>honorees</code>; null if the honorees are their own schools
+     * @return a new table holding the given results
+     * @throws NullPointerException if <code>names</code> or <code>honorees</code> is null
+     * @throws IllegalArgumentException if <code>honorees</code> does not properly {@linkplain ArrayUtils#checkTies(Object[][]) skip places for ties}, or <code>honorees</code> and <code>schools</code> do not have the same {@linkplain ArrayUtils#checkStructureSame(Object[], Object[]) tied structure}
+     */
+    public static ResultsTable of (NameDictionary names, String[][] honorees, String[][] schools) {
+        if (honorees == null) {
+            throw new NullPointerException("honorees must not be null");
+        }
+        if (!ArrayUtils.checkTies(honorees)) {
+            throw new IllegalArgumentException("honorees must correctly skip places for ties and must not contain extraneous nulls");
+        }
+        if (schools != null && !ArrayUtils.checkStructureSame(honorees, schools)) {
+            throw new IllegalArgumentException("Structure of honorees and schools must match");
+        }
+        return flatten(names, honorees, schools);
+    }
+
+    /**
+     * Creates a table from arrays of names that have already been validated as in {@link #of(NameDictionary, String[][], String[][])}.
+     * 
+     * @param names the dictionary in which to intern the names
+     * @param honorees the names of the honorees, which must properly skip places for ties
+     * @param schools the schools of the honorees, in the same structure as <code>honorees</code>; may be null
+     * @return a new table holding the given results
+     */
+    static ResultsTable flatten (NameDictionary names, String[][] honorees, String[][] schools) {
+        int groups = 0;
+        int count = 0;
+        for (String[] x : honorees) {
+            if (x != null && x.length > 0) {
+                groups++;
+                count += x.length;
+            }
+        }
+
+        int[] offsets = new int[groups + 1];
+        int[] honoreeIds = new int[count];
+        int[] schoolIds = (schools == null) ? null : new int[count];
+        int g = 0;
+        int k = 0;
+        for (int r = 0; r < honorees.length; r++) {
+            if (honorees[r] == null || honorees[r].length == 0) {
+                continue;
+            }
+            offsets[g++] = k;
+            for (int i = 0; i < honorees[r].length; i++, k++) {
+                honoreeIds[k] = names.intern(honorees[r][i]);
+                if (schoolIds != null) {
+                    schoolIds[k] = names.intern(schools[r][i]);
+                }
+            }
+        }
+        offsets[groups] = count;
+
+        return new ResultsTable(names, honorees.length, offsets, honoreeIds, schoolIds, null);
+    }
+
+    /**
+     * Returns a table with the same results as this one but different hand-entered sweepstakes. The results are shared, not copied.
+     * 
+     * @param sweeps the sweepstakes points for each honoree, with one sub-array per tie group; may be null; must not be modified afterwards
+     * @return a table with <code>sweeps</code>, or this table if it already has them
+     */
+    ResultsTable withSweeps (Fraction[][] sweeps) {
+        return (sweeps == this.sweeps) ? this : new ResultsTable(names, places, offsets, honorees, schools, sweeps);
+    }
+
+    /**
+     * Returns a table with the same results as this one, with its names interned in another dictionary. The offsets and sweepstakes are shared, not copied.
+     * 
+     * @param dict the dictionary in which to intern the names
+     * @return a table whose IDs come from <code>dict</code>, or this table if they already do
+     */
+    ResultsTable withDictionary (NameDictionary dict) {
+        if (dict == names) {
+            return this;
+        }
+        return new ResultsTable(dict, places, offsets, reintern(honorees, dict), (schools == null) ? null : reintern(schools, dict), sweeps);
+    }
+
+    /**
+     * Returns whether this table shares its results with another, as tables made by {@link #withSweeps(Fraction[][])} do. Tables that share results hold the same honorees and schools, though tables holding the same honorees and schools need not share them.
+     * 
+     * @param other the table to compare to; may be null
+     * @return true if both tables are backed by the same arrays of results
+     */
+    boolean sharesResults (ResultsTable other) {
+        return other != null && offsets == other.offsets && honorees == other.honorees && schools == other.schools;
+    }
+
+    /**
+     * Returns the number of places in this table, including those skipped for ties.
+     * 
+     * @return the number of places
+     */
+    public int getPlaces () {
+        return places;
+    }
+
+    /**
+     * Returns the number of tie groups in this table, which is the number of places not skipped for ties.
+     * 
+     * @return the number of groups
+     */
+    public int getGroups () {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Returns the number of honorees in a given place.
+     * 
+     * @param place the place, where 0 is first place
+     * @return the number of honorees tied for <code>place</code>; 0 if the place was skipped for a tie
+     * @throws IndexOutOfBoundsException if <code>place</code> is not between 0 inclusive and {@link #getPlaces()} exclusive
+     */
+    public int getTieSize (int place) {
+        int g = groupAt(place);
+        return (g < 0) ? 0 : offsets[g + 1] - offsets[g];
+    }
+
+    /**
+     * Returns the size of each tie group, in rank order. This is the {@linkplain ArrayUtils#condensedLengthArray(int[]) condensed length array} of the results.
+     * 
+     * @return a new array of the number of honorees in each group
+     */
+    public int[] condensedLengths () {
+        int[] ret = new int[offsets.length - 1];
+        for (int g = 0; g < ret.length; g++) {
+            ret[g] = offsets[g + 1] - offsets[g];
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the honorees in this table.
+     * 
+     * @return a read-only view of the honorees' names, where <code>getHonorees().get(i)</code> lists those in place <code>i</code> (index 0 is first place)
+     */
+    public List<List<String>> getHonorees () {
+        return new NameView(honorees);
+    }
+
+    /**
+     * Returns the schools of the honorees in this table.
+     * 
+     * @return a read-only view of the schools' names, in the same structure as {@link #getHonorees()}; if the honorees are their own schools, the same as <code>getHonorees()</code>
+     */
+    public List<List<String>> getSchools () {
+        return new NameView((schools == null) ? honorees : schools);
+    }
+
+    /**
+     * Returns whether the honorees in this table have schools separate from themselves.
+     * 
+     * @return false if the honorees are their own schools, as for team results
+     */
+    public boolean hasSchools () {
+        return schools != null;
+    }
+
+    /**
+     * Returns whether this table carries sweepstakes points entered by hand.
+     * 
+     * @return true if the points were entered by hand; false if they are computed from the {@link Event}
+     */
+    public boolean hasCustomSweeps () {
+        return sweeps != null;
+    }
+
+    /**
+     * Returns the honorees in this table as a new array.
+     * 
+     * @return the honorees' names, in the format returned by {@link EventResults#getIndivHonorees()}; places skipped for ties are null
+     */
+    public String[][] toHonoreeArray () {
+        return toArray(honorees);
+    }
+
+    /**
+     * Returns the schools in this table as a new array.
+     * 
+     * @return the schools' names, in the format returned by {@link EventResults#getIndivSchools()}; null if the honorees are their own schools
+     */
+    public String[][] toSchoolArray () {
+        return (schools == null) ? null : toArray(schools);
+    }
+
+    /**
+     * Returns the honorees' IDs in rank order. The array is shared and must not be modified.
+     * 
+     * @return the IDs of the honorees
+     */
+    int[] honoreeIds () {
+        return honorees;
+    }
+
+    /**
+     * Returns the schools' IDs in rank order. The array is shared and must not be modified.
+     * 
+     * @return the IDs of the schools, or null if the honorees are their own schools
+     */
+    int[] schoolIds () {
+        return schools;
+    }
+
+    /**
+     * Returns the offsets at which each tie group begins. The array is shared and must not be modified.
+     * 
+     * @return the offsets, followed by the number of honorees
+     */
+    int[] offsets () {
+        return offsets;
+    }
+
+    /**
+     * Returns the sweepstakes points entered by hand. The array is shared and must not be modified.
+     * 
+     * @return the points, or null if they were not entered by hand
+     */
+    Fraction[][] sweeps () {
+        return sweeps;
+    }
+
+    /**
+     * Finds the tie group beginning at a given place.
+     * 
+     * @param place the place
+     * @return the index of the group, or a negative number if the place was skipped for a tie
+     */
+    private int groupAt (int place) {
+        if (place < 0 || place >= places) {
+            throw new IndexOutOfBoundsException("Place " + place + " is not in the table");
+        }
+        if (place >= offsets[offsets.length - 1]) {
+            return -1; // past the last honoree; only offsets.length - 1 is allowed to equal the number of honorees
+        }
+        return Arrays.binarySearch(offsets, 0, offsets.length - 1, place);
+    }
+
+    /**
+     * Translates a column of IDs from this table's dictionary into another.
+     */
+    private int[] reintern (int[] ids, NameDictionary dict) {
+        int[] ret = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            ret[i] = dict.intern(names.nameOf(ids[i]));
+        }
+        return ret;
+    }
+
+    /**
+     * Expands a column of IDs into the jagged array format used by {@link EventResults}.
+     */
+    private String[][] toArray (int[] ids) {
+        String[][] ret = new String[places][]; // places skipped for ties stay null, as in the arrays given to EventResults
+        for (int g = 0; g < offsets.length - 1; g++) {
+            String[] row = new String[offsets[g + 1] - offsets[g]];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = names.nameOf(ids[offsets[g] + i]);
+            }
+            ret[offsets[g]] = row;
+        }
+        return ret;
+    }
+
+    /**
+     * A read-only view of a column of IDs as lists of names, one list per place.
+     */
+    private final class NameView extends AbstractList<List<String>> {
+        private final int[] ids;
+
+        NameView (int[] ids) {
+            this.ids = ids;
+        }
+
+        @Override
+        public List<String> get (int place) {
+            final int g = groupAt(place);
+            if (g < 0) {
+                return Collections.emptyList();
+            }
+            return new AbstractList<String>() {
+                @Override
+                public String get (int index) {
+                    if (index < 0 || index >= size()) {
+                        throw new IndexOutOfBoundsException("Index: " + index);
+                    }
+                    return names.nameOf(ids[offsets[g] + index]);
+                }
+
+                @Override
+                public int size () {
+                    return offsets[g + 1] - offsets[g];
+                }
+            };
+        }
+
+        @Override
+        public int size () {
+            return places;
+        }
+    }
+}
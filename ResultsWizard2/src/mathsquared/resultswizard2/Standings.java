@@ -0,0 +1,127 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An immutable, ranked list of keys and their values, with places already assigned.
+ * 
+ * <p>
+ * Entries are stored in rank order in parallel arrays, so any entry, its place, and the length of its tie can be found without iterating over a Map. Places follow standard competition ranking: entries whose values compare as equal share the place of the first of them, and the place after a tie skips the places the tie used up (1, 1, 3, and so on).
+ * </p>
+ * 
+ * <p>
+ * Standings are created by {@link MapSortingUtils#topValues(Map, int, boolean, boolean)}.
+ * </p>
+ * 
+ * @author MathSquared
+ * 
+ * @param <K> the type of the keys, such as school names
+ * @param <V> the type of the values, such as sweepstakes points
+ */
+public final class Standings<K, V extends Comparable<? super V>> {
+    private final Object[] keys;
+    private final Object[] values;
+    private final int[] places; // places[i] is the 1-based place of entry i
+
+    /**
+     * Creates standings from entries that are already in rank order. The arrays are used directly, not copied.
+     * 
+     * @param keys the keys, in rank order
+     * @param values the values of the keys, in the same order
+     */
+    Standings (Object[] keys, Object[] values) {
+        this.keys = keys;
+        this.values = values;
+        places = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0 && value(i).compareTo(value(i - 1)) == 0) {
+                places[i] = places[i - 1]; // tied with the entry above
+            } else {
+                places[i] = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of entries in these standings.
+     * 
+     * @return the number of ranked entries
+     */
+    public int size () {
+        return keys.length;
+    }
+
+    /**
+     * Returns the key at a given rank.
+     * 
+     * @param index the index of the entry, where 0 is the highest-ranked entry
+     * @return the key at <code>index</code>
+     * @throws ArrayIndexOutOfBoundsException if <code>index</code> is not between 0 inclusive and {@link #size()} exclusive
+     */
+    @SuppressWarnings("unchecked")
+    public K getKey (int index) {
+        return (K) keys[index];
+    }
+
+    /**
+     * Returns the value at a given rank.
+     * 
+     * @param index the index of the entry, where 0 is the highest-ranked entry
+     * @return the value at <code>index</code>
+     * @throws ArrayIndexOutOfBoundsException if <code>index</code> is not between 0 inclusive and {@link #size()} exclusive
+     */
+    public V getValue (int index) {
+        return value(index);
+    }
+
+    /**
+     * Returns the place of the entry at a given rank. This is <code>index + 1</code> unless the entry is tied with the entry above it, in which case it shares that entry's place.
+     * 
+     * @param index the index of the entry, where 0 is the highest-ranked entry
+     * @return the 1-based place of the entry at <code>index</code>
+     * @throws ArrayIndexOutOfBoundsException if <code>index</code> is not between 0 inclusive and {@link #size()} exclusive
+     */
+    public int getPlace (int index) {
+        return places[index];
+    }
+
+    /**
+     * Finds the number of entries, starting at <code>index</code>, that share the place of the entry at <code>index</code>.
+     * 
+     * @param index the index at which to start looking for ties
+     * @return the number of entries at or after <code>index</code> tied with the entry at <code>index</code>; 0 if <code>index</code> equals {@link #size()}
+     * @throws ArrayIndexOutOfBoundsException if <code>index</code> is less than 0 or greater than <code>size()</code>
+     */
+    public int tieLength (int index) {
+        if (index == places.length) {
+            return 0;
+        }
+        int end = index + 1;
+        while (end < places.length && places[end] == places[index]) {
+            end++;
+        }
+        return end - index;
+    }
+
+    /**
+     * Returns these standings as a Map whose iteration order is the rank order.
+     * 
+     * @return a new {@link LinkedHashMap} from keys to values
+     */
+    public Map<K, V> toMap () {
+        Map<K, V> ret = new LinkedHashMap<K, V>(keys.length * 2); // twice the size avoids rehashing
+        for (int i = 0; i < keys.length; i++) {
+            ret.put(getKey(i), value(i));
+        }
+        return ret;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value (int index) {
+        return (V) values[index];
+    }
+}
@@ -58,7 +58,9 @@ public class StreamQueueProxy implements Runnable {
             // Pop the output queue
             try { // Surround entire loop with try-catch so we don't get stuck trying to send one element
                 while (!outQ.isEmpty()) {
-                    outS.writeObject(outQ.peek());
+                    // Each element is sent whole, never as a reference to an object sent earlier, which the other end would see in its old state
+                    outS.writeUnshared(outQ.peek());
+                    outS.reset();
                     outQ.poll(); // separated into two calls so if a write fails, we don't simply lose the polled element
                 }
             } catch (IOException e) {
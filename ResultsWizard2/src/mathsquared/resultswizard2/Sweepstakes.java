@@ -3,7 +3,6 @@
  */
 package mathsquared.resultswizard2;
 
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -27,97 +26,115 @@ public class Sweepstakes {
      * @return an array where each entry is the number of points to assign to the tie in the corresponding index of <code>quantities</code>; the length of the returned array is equal to <code>quantities.length</code>
      */
     public static Fraction[] assignPoints (int[] quantities, int[] spec, TiePlaceAssignment tiePlaceM, SweepstakesAssignment sweepsM) {
+        return assignPoints(quantities, new PointsTable(spec), tiePlaceM, sweepsM);
+    }
+
+    /**
+     * Assigns sweepstakes points to all competitors in an event, as {@link #assignPoints(int[], int[], TiePlaceAssignment, SweepstakesAssignment)} does, using the prefix sums in a {@link PointsTable} so that every tie takes constant time regardless of its size.
+     * 
+     * @param quantities the number of competitors tied for each place, as in {@link #assignPoints(int[], int[], TiePlaceAssignment, SweepstakesAssignment)}
+     * @param table the number of sweepstakes points assigned to competitors in each place
+     * @param tiePlaceM the {@link TiePlaceAssignment} handling assigning one place to each competitor
+     * @param sweepsM the {@link SweepstakesAssignment} dictating the sweepstakes points that should be assigned to each competitor
+     * @return an array where each entry is the number of points to assign to the tie in the corresponding index of <code>quantities</code>; the length of the returned array is equal to <code>quantities.length</code>
+     */
+    public static Fraction[] assignPoints (int[] quantities, PointsTable table, TiePlaceAssignment tiePlaceM, SweepstakesAssignment sweepsM) {
+        int[] totals = new int[quantities.length];
+        int[] counts = new int[quantities.length];
+        assignPoints(quantities, table, tiePlaceM, sweepsM, totals, counts);
+
         Fraction[] ret = new Fraction[quantities.length];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = Fraction.valueOf(totals[i], counts[i]);
+        }
+        return ret;
+    }
+
+    /**
+     * Assigns sweepstakes points to all competitors in an event, as {@link #assignPoints(int[], int[], TiePlaceAssignment, SweepstakesAssignment)} does, but without creating any Fractions. Instead, the points for the tie at index <code>i</code> of <code>quantities</code> are stored as the quotient <code>totals[i] / counts[i]</code>, where <code>counts[i]</code> is the number of places averaged over (1 for those {@link SweepstakesAssignment}s that pick a single place).
+     * 
+     * @param quantities the number of competitors tied for each place, as in {@link #assignPoints(int[], int[], TiePlaceAssignment, SweepstakesAssignment)}
+     * @param spec the number of sweepstakes points assigned to competitors in each place
+     * @param tiePlaceM the {@link TiePlaceAssignment} handling assigning one place to each competitor
+     * @param sweepsM the {@link SweepstakesAssignment} dictating the sweepstakes points that should be assigned to each competitor
+     * @param totals an array at least as long as <code>quantities</code>, which receives the numerator of each tie's points
+     * @param counts an array at least as long as <code>quantities</code>, which receives the denominator of each tie's points; may receive 0 if {@link SweepstakesAssignment#AVERAGE_IGNORE} averages over no places
+     */
+    static void assignPoints (int[] quantities, int[] spec, TiePlaceAssignment tiePlaceM, SweepstakesAssignment sweepsM, int[] totals, int[] counts) {
+        assignPoints(quantities, new PointsTable(spec), tiePlaceM, sweepsM, totals, counts);
+    }
 
+    /**
+     * Assigns sweepstakes points to all competitors in an event, as {@link #assignPoints(int[], int[], TiePlaceAssignment, SweepstakesAssignment, int[], int[])} does, using the prefix sums in a {@link PointsTable} so that every tie takes constant time regardless of its size.
+     * 
+     * @param quantities the number of competitors tied for each place, as in {@link #assignPoints(int[], int[], TiePlaceAssignment, SweepstakesAssignment)}
+     * @param table the number of sweepstakes points assigned to competitors in each place
+     * @param tiePlaceM the {@link TiePlaceAssignment} handling assigning one place to each competitor
+     * @param sweepsM the {@link SweepstakesAssignment} dictating the sweepstakes points that should be assigned to each competitor
+     * @param totals an array at least as long as <code>quantities</code>, which receives the numerator of each tie's points
+     * @param counts an array at least as long as <code>quantities</code>, which receives the denominator of each tie's points; may receive 0 if {@link SweepstakesAssignment#AVERAGE_IGNORE} averages over no places
+     */
+    static void assignPoints (int[] quantities, PointsTable table, TiePlaceAssignment tiePlaceM, SweepstakesAssignment sweepsM, int[] totals, int[] counts) {
         // Start at 0 because indexing into spec is 0-based, not 1-based, and subtracting 1 all the time is too tedious
         int currPlace = 0; // tracks which place we're on, since multiple places are condensed into one entry in quantities
         for (int i = 0; i < quantities.length; i++) {
             int newPlace = currPlace + quantities[i] - 1; // fencepost; quantity of 1 is from place 1 to place 1, not 1 to 2
-            Fraction sweeps = new Fraction(0);
+            int divisor = 1; // most assignments pick one place, so there is nothing to average
+            // Sums are cast to int, which wraps exactly as adding up the places one at a time in an int would
             switch (sweepsM) {
             case TIE_PLACE:
-                sweeps = new Fraction(intIndexOrZero(spec, tiePlaceM.assignPlace(currPlace, newPlace)));
+                totals[i] = table.pointsAt(tiePlaceM.assignPlace(currPlace, newPlace));
                 break;
             case TOP:
-                sweeps = new Fraction(intIndexOrZero(spec, currPlace));
+                totals[i] = table.pointsAt(currPlace);
                 break;
             case BOTTOM:
-                sweeps = new Fraction(intIndexOrZero(spec, newPlace));
+                totals[i] = table.pointsAt(newPlace);
                 break;
             case MID_ROUND_BETTER:
-                sweeps = new Fraction(intIndexOrZero(spec, currPlace + (newPlace - currPlace) / 2)); // division truncates, so this rounds toward adding less
+                totals[i] = table.pointsAt(currPlace + (newPlace - currPlace) / 2); // division truncates, so this rounds toward adding less
                 break;
             case MID_ROUND_WORSE:
-                sweeps = new Fraction(intIndexOrZero(spec, newPlace - (newPlace - currPlace) / 2));
+                totals[i] = table.pointsAt(newPlace - (newPlace - currPlace) / 2);
                 break;
             case AVERAGE: // take the average of all teh things
-                int total = 0;
-                int count = 0;
-                for (int j = currPlace; j <= newPlace; j++) {
-                    total += (j < spec.length) ? spec[j] : 0; // we keep going in an overrun--we still need to add the other places
-                    count++;
-                }
-                sweeps = new Fraction(total, count);
+                totals[i] = (int) table.rangeSum(currPlace, newPlace + 1); // places past the end of the table count as 0, but still count
+                divisor = quantities[i];
                 break;
             case AVERAGE_IGNORE:
-                int total1 = 0; // Ignore the numbers after the variables--they're duplicated in scope from case AVERAGE above, so they need to be distinguished.
-                int count1 = 0;
-                for (int j = currPlace; j <= newPlace && j < spec.length; j++) { // here, we stop the loop early since we ignore all nonexistent specifications
-                    total1 += spec[j];
-                    count1++;
-                }
-                sweeps = new Fraction(total1, count1);
+                int end = Math.min(newPlace + 1, table.length()); // here, we stop early since we ignore all nonexistent specifications
+                totals[i] = (int) table.rangeSum(currPlace, end);
+                divisor = Math.max(end - currPlace, 0);
                 break;
             case AVERAGE_ADJUSTED:
-                int total2 = 0;
-                int count2 = 0;
                 if (quantities[i] <= 2) { // if there are only one or two places
                     // Run like AVERAGE to avoid zero denominators
-                    for (int j = currPlace; j <= newPlace; j++) {
-                        total2 += (j < spec.length) ? spec[j] : 0;
-                        count2++;
-                    }
+                    totals[i] = (int) table.rangeSum(currPlace, newPlace + 1);
+                    divisor = quantities[i];
                 } else {
                     // Omit first and last place only if there are enough places
-                    for (int j = currPlace + 1; j < newPlace; j++) { // less than in condition intentional to exclude last place
-                        total2 += (j < spec.length) ? spec[j] : 0;
-                        count2++;
-                    }
+                    totals[i] = (int) table.rangeSum(currPlace + 1, newPlace); // exclusive end intentional to exclude last place
+                    divisor = quantities[i] - 2;
                 }
-                sweeps = new Fraction(total2, count2);
                 break;
             case MEDIAN:
                 int placeDiff = quantities[i] - 1; // difference between currPlace and newPlace
                 int halfDiff = placeDiff / 2;
                 if (placeDiff % 2 != 0) { // even number of places, due to fenceposting (1 - 1 = 0, but is 1 place)
                     // average two middle ones
-                    sweeps = new Fraction(intIndexOrZero(spec, currPlace + halfDiff) + intIndexOrZero(spec, currPlace + halfDiff + 1), 2);
+                    totals[i] = table.pointsAt(currPlace + halfDiff) + table.pointsAt(currPlace + halfDiff + 1);
+                    divisor = 2;
                 } else { // odd number of places
-                    sweeps = new Fraction(intIndexOrZero(spec, currPlace + halfDiff));
+                    totals[i] = table.pointsAt(currPlace + halfDiff);
                 }
                 break;
             default:
-                sweeps = null;
+                throw new IllegalArgumentException("Unknown SweepstakesAssignment " + sweepsM);
             }
 
-            ret[i] = sweeps;
+            counts[i] = divisor;
             currPlace += quantities[i]; // next set of places; this time, we want to move past the range we're in
         }
-
-        return ret;
-    }
-
-    /**
-     * Indexes an array and returns the result, or 0 if the index is invalid.
-     * 
-     * This method returns a result equivalent to the expression <code>(index >= toInd.length || index &lt; 0) ? 0 : toInd[index]</code>.
-     * 
-     * @param toInd the array to index
-     * @param index the index into the array
-     * @return the element at <code>toInd[index]</code>, or 0 if <code>index</code> is greater than or equal to <code>toInd.length</code> or is less than 0
-     */
-    private static int intIndexOrZero (int[] toInd, int index) {
-        return (index >= toInd.length || index < 0) ? 0 : toInd[index];
     }
 
     /**
@@ -149,12 +166,12 @@ public class Sweepstakes {
      * @return a Map linking <code>sweeps</code> from <code>results</code>, as described above
      */
     public static Map<String, Fraction> linkSweepstakes (String[][] results, Fraction[] sweeps) {
-        Map<String, Fraction> ret = new HashMap<String, Fraction>();
+        ObjectFractionAccumulatorMap<String> ret = new ObjectFractionAccumulatorMap<String>(); // summed in place with one probe per add; materialized below
 
         int r = 0; // declaring outside the loop for clarity in skipping logic
         for (int s = 0; s < sweeps.length; s++) { // r is handled below
             for (String x : results[r]) { // each string in the sub-array gets this many points
-                AdditiveMapUtils.addNumber(ret, x, sweeps[s]);
+                ret.addTo(x, sweeps[s]);
             }
 
             // Skip places until I hit the next ones; do...while skips the current entry
@@ -168,7 +185,7 @@ public class Sweepstakes {
             }
         }
 
-        return ret;
+        return ret.toFractionMap();
     }
 
     /**
@@ -205,7 +222,7 @@ public class Sweepstakes {
      * @throws IllegalArgumentException if a sub-array of <code>results</code> does not have the same length as a sub-array of <code>sweeps</code> at the index corresponding to the <code>results</code> sub-array's ID (see above)
      */
     public static Map<String, Fraction> linkSweepstakes (String[][] results, Fraction[][] sweeps) {
-        Map<String, Fraction> ret = new HashMap<String, Fraction>();
+        ObjectFractionAccumulatorMap<String> ret = new ObjectFractionAccumulatorMap<String>(); // summed in place with one probe per add; materialized below
 
         int r = 0; // declaring outside the loop for clarity in skipping logic
         for (int s = 0; s < sweeps.length; s++) { // r is handled below
@@ -215,7 +232,7 @@ public class Sweepstakes {
             }
 
             for (int i = 0; i < results[r].length; i++) { // each string in the sub-array gets the corresponding amount of points
-                AdditiveMapUtils.addNumber(ret, results[r][i], sweeps[s][i]);
+                ret.addTo(results[r][i], sweeps[s][i]);
             }
 
             // Skip places until I hit the next ones; do...while skips the current entry
@@ -229,7 +246,79 @@ public class Sweepstakes {
             }
         }
 
-        return ret;
+        return ret.toFractionMap();
+    }
+
+    /**
+     * Links an array of sweepstakes points to corresponding results, where the results are given as IDs from a {@link NameDictionary}.
+     * 
+     * <p>
+     * This behaves identically to <code>{@link #linkSweepstakes(String[][], Fraction[][]) linkSweepstakes}(names.{@link NameDictionary#nameOf(int[][]) nameOf}(results), sweeps)</code>, but does not build the array of names.
+     * </p>
+     * 
+     * @param results the raw results of the event, as IDs interned in <code>names</code>
+     * @param sweeps the sweepstakes to assign to each competitor, as described in {@link #linkSweepstakes(String[][], Fraction[][])}
+     * @param names the dictionary from which the IDs in <code>results</code> come
+     * @return a Map linking <code>sweeps</code> from the names of <code>results</code>
+     * @throws IllegalArgumentException if a sub-array of <code>results</code> does not have the same length as the corresponding sub-array of <code>sweeps</code>
+     */
+    public static Map<String, Fraction> linkSweepstakes (int[][] results, Fraction[][] sweeps, NameDictionary names) {
+        ObjectFractionAccumulatorMap<String> ret = new ObjectFractionAccumulatorMap<String>(); // summed in place with one probe per add; materialized below
+
+        int r = 0; // declaring outside the loop for clarity in skipping logic
+        for (int s = 0; s < sweeps.length; s++) { // r is handled below
+            // Check that the lengths are the same
+            if (results[r].length != sweeps[s].length) {
+                throw new IllegalArgumentException("Length of results[" + r + "] must match length of sweeps[" + s + "]");
+            }
+
+            for (int i = 0; i < results[r].length; i++) { // each competitor in the sub-array gets the corresponding amount of points
+                ret.addTo(names.nameOf(results[r][i]), sweeps[s][i]); // interned Strings cache their hashes
+            }
+
+            // Skip places until I hit the next ones; do...while skips the current entry
+            do {
+                r++;
+            } while (r < results.length && (results[r] == null || results[r].length == 0));
+
+            // Check for overrunning results array
+            if (r >= results.length) {
+                break;
+            }
+        }
+
+        return ret.toFractionMap();
+    }
+
+    /**
+     * Links an array of sweepstakes points to corresponding results, where the results are stored in columns as in a {@link ResultsTable}.
+     * 
+     * <p>
+     * This behaves identically to {@link #linkSweepstakes(int[][], Fraction[][], NameDictionary)}, where tie group <code>g</code> of <code>results</code> (the IDs from <code>offsets[g]</code> inclusive to <code>offsets[g + 1]</code> exclusive) takes the place of the sub-array with ID <code>g</code>.
+     * </p>
+     * 
+     * @param results the IDs of the honorees in rank order, interned in <code>names</code>
+     * @param offsets the index in <code>results</code> at which each tie group begins, followed by the length of <code>results</code>
+     * @param sweeps the sweepstakes to assign to each competitor, with one sub-array per tie group
+     * @param names the dictionary from which the IDs in <code>results</code> come
+     * @return a Map linking <code>sweeps</code> from the names of <code>results</code>
+     * @throws IllegalArgumentException if a tie group does not have the same length as the corresponding sub-array of <code>sweeps</code>
+     */
+    public static Map<String, Fraction> linkSweepstakes (int[] results, int[] offsets, Fraction[][] sweeps, NameDictionary names) {
+        ObjectFractionAccumulatorMap<String> ret = new ObjectFractionAccumulatorMap<String>(results.length); // at most one key per honoree; summed in place with one probe per add
+
+        for (int g = 0; g < sweeps.length && g < offsets.length - 1; g++) {
+            // Check that the lengths are the same
+            if (offsets[g + 1] - offsets[g] != sweeps[g].length) {
+                throw new IllegalArgumentException("Length of tie group " + g + " must match length of sweeps[" + g + "]");
+            }
+
+            for (int i = 0; i < sweeps[g].length; i++) { // each competitor in the group gets the corresponding amount of points
+                ret.addTo(names.nameOf(results[offsets[g] + i]), sweeps[g][i]);
+            }
+        }
+
+        return ret.toFractionMap();
     }
 
     /**
@@ -255,6 +344,11 @@ public class Sweepstakes {
      * @throws IllegalArgumentException if <code>results</code> does not properly skip places for ties
      */
     public static Map<String, Fraction> computeSweeps (String[][] results, int[] spec, TiePlaceAssignment tieAssign, SweepstakesAssignment sweepsAssign) {
+        try {
+            return new PrimitiveSweepstakes().add(results, spec, tieAssign, sweepsAssign).toMap();
+        } catch (ArithmeticException e) {
+            // Overflowed a long (or averaged over no places); the Fraction path below is exact at any size and reports genuine errors itself
+        }
         int[] quantities = ArrayUtils.condensedLengthArray(results);
         Fraction[] sweeps = assignPoints(quantities, spec, tieAssign, sweepsAssign);
         return linkSweepstakes(results, sweeps);
@@ -0,0 +1,143 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps running sweepstakes totals for every school across a tournament.
+ * 
+ * <p>
+ * The ledger remembers each event's {@linkplain EventResults#computeTotalSweepsCapped() capped contribution}, keyed by the event's {@linkplain Event#getPrimaryName() primary name}. When an event's results are entered or corrected with {@link #put(EventResults)}, only that event's old contribution is subtracted and its new contribution added, so an update costs time proportional to the schools placing in that one event rather than recomputing every event in the tournament.
+ * </p>
+ * 
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ * 
+ * @author MathSquared
+ * 
+ */
+public class SweepstakesLedger {
+    private Map<String, Map<String, Fraction>> contributions = new HashMap<String, Map<String, Fraction>>(); // event name -> capped points by school
+    private Map<String, Total> totals = new HashMap<String, Total>(); // school -> running total
+
+    /**
+     * Records the sweepstakes points from an event, replacing any points previously recorded for an event with the same primary name.
+     * 
+     * @param results the results of the event
+     * @return the points previously recorded for the event, or null if there were none
+     */
+    public Map<String, Fraction> put (EventResults results) {
+        // Computed outside of the lock; this is the expensive part
+        Map<String, Fraction> capped = Collections.unmodifiableMap(results.computeTotalSweepsCapped());
+        String eventName = results.getEvent().getPrimaryName();
+
+        synchronized (this) {
+            Map<String, Fraction> old = contributions.put(eventName, capped);
+            if (old != null) {
+                subtract(old);
+            }
+            for (Map.Entry<String, Fraction> x : capped.entrySet()) {
+                Total t = totals.get(x.getKey());
+                if (t == null) {
+                    t = new Total();
+                    totals.put(x.getKey(), t);
+                }
+                t.sum.add(x.getValue());
+                t.events++;
+            }
+            return old;
+        }
+    }
+
+    /**
+     * Forgets the sweepstakes points recorded for an event.
+     * 
+     * @param eventName the {@linkplain Event#getPrimaryName() primary name} of the event
+     * @return the points recorded for the event, or null if there were none
+     */
+    public synchronized Map<String, Fraction> remove (String eventName) {
+        Map<String, Fraction> old = contributions.remove(eventName);
+        if (old != null) {
+            subtract(old);
+        }
+        return old;
+    }
+
+    /**
+     * Returns the capped sweepstakes points recorded for an event.
+     * 
+     * @param eventName the {@linkplain Event#getPrimaryName() primary name} of the event
+     * @return an unmodifiable Map from school names to points earned in the event (entries earning 0 points are excluded), or null if no points are recorded for the event
+     */
+    public synchronized Map<String, Fraction> getContribution (String eventName) {
+        return contributions.get(eventName);
+    }
+
+    /**
+     * Returns the names of every event with recorded points.
+     * 
+     * @return a new Set of event primary names
+     */
+    public synchronized Set<String> getEventNames () {
+        return new HashSet<String>(contributions.keySet());
+    }
+
+    /**
+     * Returns a school's total sweepstakes points across every recorded event.
+     * 
+     * @param school the name of the school
+     * @return the school's total; 0 if it has earned no points
+     */
+    public synchronized Fraction getTotal (String school) {
+        Total t = totals.get(school);
+        return (t == null) ? Fraction.valueOf(0) : t.sum.toFraction();
+    }
+
+    /**
+     * Returns every school's total sweepstakes points across every recorded event.
+     * 
+     * <p>
+     * This is equivalent to {@linkplain AdditiveMapUtils#addAllNumbers(Map, Map, boolean) numerically adding} the results of {@link EventResults#computeTotalSweepsCapped()} for every recorded event.
+     * </p>
+     * 
+     * @return a new Map from school names to total points (schools earning no points in any event are excluded)
+     */
+    public synchronized Map<String, Fraction> getTotals () {
+        Map<String, Fraction> ret = new HashMap<String, Fraction>(totals.size() * 2);
+        for (Map.Entry<String, Total> x : totals.entrySet()) {
+            ret.put(x.getKey(), x.getValue().sum.toFraction());
+        }
+        return ret;
+    }
+
+    /**
+     * Subtracts an event's contribution from the running totals, dropping schools that no longer have points in any event.
+     * 
+     * @param contribution the event's capped points by school
+     */
+    private void subtract (Map<String, Fraction> contribution) {
+        for (Map.Entry<String, Fraction> x : contribution.entrySet()) {
+            Total t = totals.get(x.getKey());
+            if (--t.events == 0) {
+                totals.remove(x.getKey()); // no events left, so the total is exactly 0
+            } else {
+                t.sum.add(x.getValue().negative());
+            }
+        }
+    }
+
+    /**
+     * A school's running total, along with the number of events contributing to it.
+     */
+    private static final class Total {
+        private final FractionAccumulator sum = new FractionAccumulator();
+        private int events = 0;
+    }
+}
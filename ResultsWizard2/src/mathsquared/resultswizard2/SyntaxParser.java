@@ -115,14 +115,48 @@ public class SyntaxParser {
      * @throws NumberFormatException if an integer in the list does not parse into a base-10 integer as the {@link Integer#parseInt(String)} method would parse it
      */
     public static int[] parseIntegerList (String raw) {
-        String[] numeralStrings = raw.split("\\D+"); // split on non-digits, discarding trailing strings
-        int[] ret = new int[numeralStrings.length];
+        int length = raw.length();
 
-        for (int i = 0; i < numeralStrings.length; i++) {
-            ret[i] = (numeralStrings[i].equals("")) ? 0 : Integer.parseInt(numeralStrings[i]); // parseInt() verifiably chokes on ""
+        // Count the runs of digits first, so the array can be allocated once; scanning by hand avoids a regex and a String per number
+        int runs = 0;
+        for (int i = 0; i < length; i++) {
+            if (isDigit(raw.charAt(i)) && (i == 0 || !isDigit(raw.charAt(i - 1)))) {
+                runs++;
+            }
+        }
+        if (length == 0) {
+            return new int[] {0}; // as "".split() gives one empty string
+        }
+        boolean leadingZero = runs > 0 && !isDigit(raw.charAt(0)); // leading separators stand for a 0, unless there are no numbers at all
+
+        int[] ret = new int[leadingZero ? runs + 1 : runs];
+        int r = leadingZero ? 1 : 0;
+        for (int i = 0; i < length;) {
+            if (!isDigit(raw.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            int value = 0;
+            for (; i < length && isDigit(raw.charAt(i)); i++) {
+                int digit = raw.charAt(i) - '0';
+                if (value > (Integer.MAX_VALUE - digit) / 10) { // overflow; report the whole numeral, as parseInt would
+                    int end = i;
+                    while (end < length && isDigit(raw.charAt(end))) {
+                        end++;
+                    }
+                    throw new NumberFormatException("For input string: \"" + raw.substring(start, end) + "\"");
+                }
+                value = value * 10 + digit;
+            }
+            ret[r++] = value;
         }
 
         return ret; // whether we maintain a reference is irrelevant
     }
 
+    private static boolean isDigit (char c) {
+        return c >= '0' && c <= '9'; // ASCII only; other Unicode digits count as separators
+    }
+
 }
@@ -0,0 +1,133 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Contains methods for totaling sweepstakes points across every event in a tournament.
+ * 
+ * <p>
+ * Each event's points are {@linkplain EventResults#computeTotalSweepsCapped() capped} on their own, and events do not depend on one another, so {@link #computeParallel(Collection, int)} computes them on a {@link ForkJoinPool}, merging partial totals pairwise up a tree. Since {@link Fraction} arithmetic is exact, the order of the additions does not matter, and the parallel totals are always equal to those from {@link #computeSerial(Collection)}.
+ * </p>
+ * 
+ * @author MathSquared
+ * 
+ */
+public class TournamentSweepstakes {
+    /**
+     * The number of events below which a task computes its events itself instead of splitting them further.
+     */
+    private static final int THRESHOLD = 2;
+
+    /**
+     * Totals the capped sweepstakes points from every event on the calling thread.
+     * 
+     * @param events the results of every event in the tournament
+     * @return a Map from school names to total points (schools earning no points in any event are excluded)
+     */
+    public static Map<String, Fraction> computeSerial (Collection<EventResults> events) {
+        Map<String, FractionAccumulator> totals = new HashMap<String, FractionAccumulator>();
+        for (EventResults x : events) {
+            accumulate(totals, x);
+        }
+        return AdditiveMapUtils.toFractionMap(totals);
+    }
+
+    /**
+     * Totals the capped sweepstakes points from every event in parallel, using one thread for each available processor.
+     * 
+     * @param events the results of every event in the tournament
+     * @return a Map from school names to total points (schools earning no points in any event are excluded), equal to that returned by {@link #computeSerial(Collection)}
+     */
+    public static Map<String, Fraction> computeParallel (Collection<EventResults> events) {
+        return computeParallel(events, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Totals the capped sweepstakes points from every event in parallel.
+     * 
+     * <p>
+     * A separate {@link ForkJoinPool} is created for each call and shut down before it returns. Each EventResults is only used by one thread at a time, but the same EventResults must not be passed in twice or modified while this method runs.
+     * </p>
+     * 
+     * @param events the results of every event in the tournament
+     * @param parallelism the number of threads to use
+     * @return a Map from school names to total points (schools earning no points in any event are excluded), equal to that returned by {@link #computeSerial(Collection)}
+     * @throws IllegalArgumentException if <code>parallelism</code> is not positive
+     */
+    public static Map<String, Fraction> computeParallel (Collection<EventResults> events, int parallelism) {
+        EventResults[] arr = events.toArray(new EventResults[events.size()]);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return AdditiveMapUtils.toFractionMap(pool.invoke(new TotalTask(arr, 0, arr.length)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void accumulate (Map<String, FractionAccumulator> totals, EventResults results) {
+        for (Map.Entry<String, Fraction> x : results.computeTotalSweepsCapped().entrySet()) {
+            AdditiveMapUtils.accumulateNumber(totals, x.getKey(), x.getValue());
+        }
+    }
+
+    /**
+     * Totals the points from a range of events, splitting the range in half until it is small.
+     */
+    private static final class TotalTask extends RecursiveTask<Map<String, FractionAccumulator>> {
+        private static final long serialVersionUID = 1L;
+
+        private final EventResults[] events;
+        private final int from; // inclusive
+        private final int to; // exclusive
+
+        TotalTask (EventResults[] events, int from, int to) {
+            this.events = events;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<String, FractionAccumulator> compute () {
+            if (to - from <= THRESHOLD) {
+                Map<String, FractionAccumulator> ret = new HashMap<String, FractionAccumulator>();
+                for (int i = from; i < to; i++) {
+                    accumulate(ret, events[i]);
+                }
+                return ret;
+            }
+
+            int mid = (from + to) >>> 1;
+            TotalTask left = new TotalTask(events, from, mid);
+            left.fork();
+            Map<String, FractionAccumulator> right = new TotalTask(events, mid, to).compute();
+            return merge(left.join(), right);
+        }
+
+        /**
+         * Adds the smaller of two partial totals into the larger, and returns the larger.
+         */
+        private static Map<String, FractionAccumulator> merge (Map<String, FractionAccumulator> a, Map<String, FractionAccumulator> b) {
+            if (a.size() < b.size()) {
+                Map<String, FractionAccumulator> t = a;
+                a = b;
+                b = t;
+            }
+            for (Map.Entry<String, FractionAccumulator> x : b.entrySet()) {
+                FractionAccumulator acc = a.get(x.getKey());
+                if (acc == null) {
+                    a.put(x.getKey(), x.getValue()); // b is discarded, so its accumulators can be moved rather than copied
+                } else {
+                    acc.add(x.getValue());
+                }
+            }
+            return a;
+        }
+    }
+}
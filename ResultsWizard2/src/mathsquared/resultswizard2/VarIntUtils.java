@@ -0,0 +1,111 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+
+/**
+ * Contains methods for reading and writing variable-length integers.
+ * 
+ * <p>
+ * A variable-length integer is written seven bits at a time, least significant bits first; the high bit of each byte is set if more bytes follow. Small numbers therefore take fewer bytes: 0 through 127 take one byte, and a <code>long</code> never takes more than ten. Signed numbers are first mapped to unsigned ones using ZigZag encoding (0, -1, 1, -2, 2, ... map to 0, 1, 2, 3, 4, ...), so that numbers of small magnitude stay short regardless of sign.
+ * </p>
+ * 
+ * @author MathSquared
+ * 
+ */
+public class VarIntUtils {
+    /**
+     * Writes a <code>long</code> as an unsigned variable-length integer. Negative numbers are treated as unsigned, and so always take ten bytes; use {@link #writeSignedVarLong(DataOutput, long)} for numbers that may be negative.
+     * 
+     * @param out the DataOutput to write to
+     * @param value the number to write
+     * @throws IOException if <code>out</code> throws an IOException
+     */
+    public static void writeVarLong (DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) { // more than seven bits left
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    /**
+     * Reads an unsigned variable-length integer written by {@link #writeVarLong(DataOutput, long)}.
+     * 
+     * @param in the DataInput to read from
+     * @return the number read
+     * @throws StreamCorruptedException if the variable-length integer is longer than ten bytes
+     * @throws IOException if <code>in</code> throws an IOException, including an EOFException if it ends in the middle of the number
+     */
+    public static long readVarLong (DataInput in) throws IOException {
+        long ret = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            ret |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return ret;
+            }
+        }
+        throw new StreamCorruptedException("Variable-length integer is too long");
+    }
+
+    /**
+     * Writes a signed <code>long</code> as a ZigZag-encoded variable-length integer.
+     * 
+     * @param out the DataOutput to write to
+     * @param value the number to write
+     * @throws IOException if <code>out</code> throws an IOException
+     */
+    public static void writeSignedVarLong (DataOutput out, long value) throws IOException {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Reads a signed variable-length integer written by {@link #writeSignedVarLong(DataOutput, long)}.
+     * 
+     * @param in the DataInput to read from
+     * @return the number read
+     * @throws StreamCorruptedException if the variable-length integer is longer than ten bytes
+     * @throws IOException if <code>in</code> throws an IOException, including an EOFException if it ends in the middle of the number
+     */
+    public static long readSignedVarLong (DataInput in) throws IOException {
+        long raw = readVarLong(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    /**
+     * Writes a non-negative <code>int</code> as an unsigned variable-length integer.
+     * 
+     * @param out the DataOutput to write to
+     * @param value the number to write
+     * @throws IOException if <code>out</code> throws an IOException
+     * @throws IllegalArgumentException if <code>value &lt; 0</code>
+     */
+    public static void writeVarInt (DataOutput out, int value) throws IOException {
+        if (value < 0) {
+            throw new IllegalArgumentException("value must be non-negative");
+        }
+        writeVarLong(out, value);
+    }
+
+    /**
+     * Reads a non-negative <code>int</code> written by {@link #writeVarInt(DataOutput, int)}.
+     * 
+     * @param in the DataInput to read from
+     * @return the number read
+     * @throws StreamCorruptedException if the number read does not fit in a non-negative <code>int</code>
+     * @throws IOException if <code>in</code> throws an IOException, including an EOFException if it ends in the middle of the number
+     */
+    public static int readVarInt (DataInput in) throws IOException {
+        long ret = readVarLong(in);
+        if (ret < 0 || ret > Integer.MAX_VALUE) {
+            throw new StreamCorruptedException("Variable-length integer is out of range: " + ret);
+        }
+        return (int) ret;
+    }
+}
@@ -0,0 +1,242 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Totals a tournament's sweepstakes under every combination of {@link TiePlaceAssignment} and {@link SweepstakesAssignment} at once, so that standings under each policy can be compared.
+ * 
+ * <p>
+ * Every event's results are read once. For each facet, the tie structure (its {@linkplain ArrayUtils#condensedLengthArray(int[]) condensed length array}) and {@link PointsTable} are found once and shared by all of the policies, and each school's accumulators for every policy are looked up with a single hash. Since a TiePlaceAssignment only matters for {@link SweepstakesAssignment#TIE_PLACE}, only the distinct policies are computed; combinations that differ only in an unused TiePlaceAssignment share their totals.
+ * </p>
+ * 
+ * <p>
+ * The totals for a policy are those {@link TournamentSweepstakes#computeSerial(Collection)} would return if every event were configured with that policy, with each event {@linkplain EventResults#computeTotalSweepsCapped() capped} on its own. The events' own policies and any hand-entered sweepstakes are ignored.
+ * </p>
+ * 
+ * @author MathSquared
+ * 
+ */
+public class WhatIfSweepstakes {
+    // The distinct policies, in parallel arrays: each TiePlaceAssignment with TIE_PLACE, then every other SweepstakesAssignment alone
+    private static final TiePlaceAssignment[] POLICY_TIES;
+    private static final SweepstakesAssignment[] POLICY_SWEEPS;
+    private static final int[][] POLICY_INDEX; // [tie ordinal][sweeps ordinal] -> index into the arrays above
+
+    static {
+        TiePlaceAssignment[] ties = TiePlaceAssignment.values();
+        SweepstakesAssignment[] sweeps = SweepstakesAssignment.values();
+        int count = ties.length + sweeps.length - 1;
+        POLICY_TIES = new TiePlaceAssignment[count];
+        POLICY_SWEEPS = new SweepstakesAssignment[count];
+        POLICY_INDEX = new int[ties.length][sweeps.length];
+
+        int p = 0;
+        for (TiePlaceAssignment t : ties) {
+            POLICY_TIES[p] = t;
+            POLICY_SWEEPS[p] = SweepstakesAssignment.TIE_PLACE;
+            POLICY_INDEX[t.ordinal()][SweepstakesAssignment.TIE_PLACE.ordinal()] = p;
+            p++;
+        }
+        for (SweepstakesAssignment s : sweeps) {
+            if (s == SweepstakesAssignment.TIE_PLACE) {
+                continue;
+            }
+            POLICY_TIES[p] = TiePlaceAssignment.TOP; // unused by s
+            POLICY_SWEEPS[p] = s;
+            for (TiePlaceAssignment t : ties) {
+                POLICY_INDEX[t.ordinal()][s.ordinal()] = p;
+            }
+            p++;
+        }
+    }
+
+    private List<Map<String, Fraction>> totals; // indexed by policy
+
+    /**
+     * Computes the sweepstakes totals of every policy for the given events.
+     * 
+     * @param events the results of every event in the tournament
+     * @throws NullPointerException if an event is missing the school results for one of its special honors
+     * @throws IllegalArgumentException if an event's results do not properly skip places for ties
+     */
+    public WhatIfSweepstakes (Collection<EventResults> events) {
+        int policies = POLICY_SWEEPS.length;
+        Map<String, FractionAccumulator[]> tournament = new HashMap<String, FractionAccumulator[]>();
+
+        for (EventResults x : events) {
+            Map<String, FractionAccumulator[]> event = new HashMap<String, FractionAccumulator[]>();
+            Event ev = x.getEvent();
+            if (ev.getIndivPlaces() > 0) {
+                addFacet(event, x.getIndivSchools(), ev.getIndivPointsTable()); // must use schools because of team sweeps
+            }
+            if (ev.getTeamPlaces() > 0) {
+                addFacet(event, x.getTeamHonorees(), ev.getTeamPointsTable());
+            }
+            if (ev.getSpecialHonors().size() > 0) {
+                Map<String, String[][]> special = x.getSpecialSchools();
+                for (String honor : ev.getSpecialHonors().keySet()) {
+                    String[][] results = special.get(honor);
+                    if (results == null) {
+                        throw new NullPointerException("No results for honor " + honor);
+                    }
+                    addFacet(event, results, ev.getSpecialPointsTable(honor));
+                }
+            }
+
+            // Cap each school's points in this event under each policy, then add them to the tournament
+            Fraction cap = Fraction.valueOf(ev.getMaxPoints());
+            Fraction zero = Fraction.valueOf(0);
+            for (Map.Entry<String, FractionAccumulator[]> y : event.entrySet()) {
+                FractionAccumulator[] row = null;
+                for (int p = 0; p < policies; p++) {
+                    Fraction points = y.getValue()[p].toFraction();
+                    if (points.equals(zero)) {
+                        continue; // as computeTotalSweepsCapped does
+                    }
+                    if (points.compareTo(cap) > 0) {
+                        points = cap;
+                    }
+
+                    if (row == null) {
+                        row = accumulators(tournament, y.getKey(), false);
+                    }
+                    if (row[p] == null) {
+                        row[p] = new FractionAccumulator();
+                    }
+                    row[p].add(points);
+                }
+            }
+        }
+
+        totals = new ArrayList<Map<String, Fraction>>(policies);
+        for (int p = 0; p < policies; p++) {
+            totals.add(new HashMap<String, Fraction>());
+        }
+        for (Map.Entry<String, FractionAccumulator[]> x : tournament.entrySet()) {
+            for (int p = 0; p < policies; p++) {
+                if (x.getValue()[p] != null) { // schools earning no points under a policy are excluded, as in TournamentSweepstakes
+                    totals.get(p).put(x.getKey(), x.getValue()[p].toFraction());
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the points for one facet of an event under every policy.
+     * 
+     * @param event the event's accumulators, from school names to points under each policy
+     * @param results the schools placing in the facet
+     * @param table the points awarded for each place in the facet
+     */
+    private static void addFacet (Map<String, FractionAccumulator[]> event, String[][] results, PointsTable table) {
+        int[] quantities = ArrayUtils.condensedLengthArray(results); // the tie structure, shared by every policy
+        int policies = POLICY_SWEEPS.length;
+
+        // Points for each tie group under each policy; entries are Fractions, so the traversal below does no division
+        Fraction[][] points = new Fraction[quantities.length][policies];
+        int[] groupTotals = new int[quantities.length];
+        int[] groupCounts = new int[quantities.length];
+        for (int p = 0; p < policies; p++) {
+            Sweepstakes.assignPoints(quantities, table, POLICY_TIES[p], POLICY_SWEEPS[p], groupTotals, groupCounts);
+            for (int g = 0; g < quantities.length; g++) {
+                points[g][p] = Fraction.valueOf(groupTotals[g], groupCounts[g]);
+            }
+        }
+
+        int g = 0; // ID of the current group, skipping empty sub-arrays as linkSweepstakes does
+        for (int r = 0; r < results.length && g < quantities.length; r++) {
+            if (results[r] == null || results[r].length == 0) {
+                continue;
+            }
+            for (String school : results[r]) {
+                FractionAccumulator[] row = accumulators(event, school, true);
+                for (int p = 0; p < policies; p++) {
+                    row[p].add(points[g][p]);
+                }
+            }
+            g++;
+        }
+    }
+
+    /**
+     * Returns the accumulators for a school, adding them if there are none.
+     * 
+     * @param map the accumulators, from school names to points under each policy
+     * @param school the name of the school
+     * @param fill true if a new array should be filled with new accumulators; if false, its entries are left null
+     * @return the school's accumulators, indexed by policy
+     */
+    private static FractionAccumulator[] accumulators (Map<String, FractionAccumulator[]> map, String school, boolean fill) {
+        FractionAccumulator[] row = map.get(school);
+        if (row == null) {
+            row = new FractionAccumulator[POLICY_SWEEPS.length];
+            if (fill) {
+                for (int p = 0; p < row.length; p++) {
+                    row[p] = new FractionAccumulator();
+                }
+            }
+            map.put(school, row);
+        }
+        return row;
+    }
+
+    /**
+     * Returns the sweepstakes totals under a given policy.
+     * 
+     * @param tieAssign the {@link TiePlaceAssignment} used to assign places in the event of a tie; only matters if <code>sweepsAssign</code> is {@link SweepstakesAssignment#TIE_PLACE}
+     * @param sweepsAssign the {@link SweepstakesAssignment} used to assign sweepstakes points in the event of a tie
+     * @return a new Map from school names to total points (schools earning no points in any event are excluded)
+     */
+    public Map<String, Fraction> getTotals (TiePlaceAssignment tieAssign, SweepstakesAssignment sweepsAssign) {
+        return new HashMap<String, Fraction>(totals.get(POLICY_INDEX[tieAssign.ordinal()][sweepsAssign.ordinal()]));
+    }
+
+    /**
+     * Returns the ranked sweepstakes standings under a given policy.
+     * 
+     * @param tieAssign the {@link TiePlaceAssignment} used to assign places in the event of a tie; only matters if <code>sweepsAssign</code> is {@link SweepstakesAssignment#TIE_PLACE}
+     * @param sweepsAssign the {@link SweepstakesAssignment} used to assign sweepstakes points in the event of a tie
+     * @param k the number of schools to rank, not counting schools tied with the last of them, as in {@link MapSortingUtils#topValues(Map, int, boolean, boolean)}
+     * @return the schools with the most points under the policy, highest first
+     */
+    public Standings<String, Fraction> getStandings (TiePlaceAssignment tieAssign, SweepstakesAssignment sweepsAssign, int k) {
+        return MapSortingUtils.topValues(totals.get(POLICY_INDEX[tieAssign.ordinal()][sweepsAssign.ordinal()]), k, true, true);
+    }
+
+    /**
+     * Returns the place of every school under every policy, so that a school's standing can be compared across policies.
+     * 
+     * @param k the number of schools to rank under each policy, as in {@link #getStandings(TiePlaceAssignment, SweepstakesAssignment, int)}
+     * @return a new Map from each school ranked under any policy to its places, indexed by <code>[tieAssign.ordinal()][sweepsAssign.ordinal()]</code>; a place is 0 if the school is not ranked under that policy
+     */
+    public Map<String, int[][]> getPlaces (int k) {
+        TiePlaceAssignment[] ties = TiePlaceAssignment.values();
+        SweepstakesAssignment[] sweeps = SweepstakesAssignment.values();
+        Map<String, int[][]> ret = new HashMap<String, int[][]>();
+        for (int p = 0; p < totals.size(); p++) {
+            Standings<String, Fraction> standings = MapSortingUtils.topValues(totals.get(p), k, true, true);
+            for (int i = 0; i < standings.size(); i++) {
+                int[][] places = ret.get(standings.getKey(i));
+                if (places == null) {
+                    places = new int[ties.length][sweeps.length];
+                    ret.put(standings.getKey(i), places);
+                }
+                for (TiePlaceAssignment t : ties) {
+                    for (SweepstakesAssignment s : sweeps) {
+                        if (POLICY_INDEX[t.ordinal()][s.ordinal()] == p) {
+                            places[t.ordinal()][s.ordinal()] = standings.getPlace(i);
+                        }
+                    }
+                }
+            }
+        }
+        return ret;
+    }
+}
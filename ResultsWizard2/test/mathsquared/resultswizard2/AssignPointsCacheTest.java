@@ -0,0 +1,82 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * @author MathSquared
+ * 
+ */
+public class AssignPointsCacheTest {
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.AssignPointsCache#assignPoints(int[], int[], mathsquared.resultswizard2.TiePlaceAssignment, mathsquared.resultswizard2.SweepstakesAssignment)}.
+     */
+    @Test
+    public void testAssignPoints () {
+        AssignPointsCache cache = new AssignPointsCache(8);
+        int[] spec = new int[]{243, 81, 27, 9, 3, 1};
+        int[] quantities = new int[]{2, 1, 3};
+
+        for (SweepstakesAssignment sa : SweepstakesAssignment.values()) {
+            assertArrayEquals("Miss " + sa, Sweepstakes.assignPoints(quantities, spec, TiePlaceAssignment.TOP, sa), cache.assignPoints(quantities, spec, TiePlaceAssignment.TOP, sa));
+            assertArrayEquals("Hit " + sa, Sweepstakes.assignPoints(quantities, spec, TiePlaceAssignment.TOP, sa), cache.assignPoints(quantities, spec, TiePlaceAssignment.TOP, sa));
+        }
+        assertEquals("Hits", SweepstakesAssignment.values().length, cache.getHits());
+        assertEquals("Misses", SweepstakesAssignment.values().length, cache.getMisses());
+
+        // Keys are compared by contents, and the caller's arrays are copied
+        int[] copy = new int[]{2, 1, 3};
+        cache.assignPoints(copy, spec, TiePlaceAssignment.TOP, SweepstakesAssignment.TOP);
+        assertEquals("Equal arrays hit", SweepstakesAssignment.values().length + 1, cache.getHits());
+        copy[0] = 1;
+        assertArrayEquals("Mutated argument", Sweepstakes.assignPoints(quantities, spec, TiePlaceAssignment.TOP, SweepstakesAssignment.TOP), cache.assignPoints(quantities, spec, TiePlaceAssignment.TOP, SweepstakesAssignment.TOP));
+
+        // Returned arrays are the caller's own
+        Fraction[] ret = cache.assignPoints(quantities, spec, TiePlaceAssignment.TOP, SweepstakesAssignment.TOP);
+        ret[0] = new Fraction(0);
+        assertEquals("Mutated result", new Fraction(243), cache.assignPoints(quantities, spec, TiePlaceAssignment.TOP, SweepstakesAssignment.TOP)[0]);
+
+        cache.clear();
+        assertEquals("Cleared", 0, cache.size());
+        assertEquals("Counters reset", 0, cache.getHits() + cache.getMisses());
+    }
+
+    /**
+     * Test that {@link mathsquared.resultswizard2.AssignPointsCache} evicts the least recently used combination.
+     */
+    @Test
+    public void testEviction () {
+        AssignPointsCache cache = new AssignPointsCache(2);
+        int[] spec = new int[]{3, 2, 1};
+        int[] a = new int[]{1, 1, 1};
+        int[] b = new int[]{2, 1};
+        int[] c = new int[]{3};
+
+        cache.assignPoints(a, spec, TiePlaceAssignment.TOP, SweepstakesAssignment.AVERAGE);
+        cache.assignPoints(b, spec, TiePlaceAssignment.TOP, SweepstakesAssignment.AVERAGE);
+        cache.assignPoints(a, spec, TiePlaceAssignment.TOP, SweepstakesAssignment.AVERAGE); // a is now more recent than b
+        cache.assignPoints(c, spec, TiePlaceAssignment.TOP, SweepstakesAssignment.AVERAGE); // evicts b
+        assertEquals("Bounded", 2, cache.size());
+        assertEquals("Misses before", 3, cache.getMisses());
+
+        cache.assignPoints(a, spec, TiePlaceAssignment.TOP, SweepstakesAssignment.AVERAGE);
+        assertEquals("Recently used kept", 3, cache.getMisses());
+        cache.assignPoints(b, spec, TiePlaceAssignment.TOP, SweepstakesAssignment.AVERAGE);
+        assertEquals("Least recently used evicted", 4, cache.getMisses());
+    }
+
+    /**
+     * Test that an average over no places is refused, as it is by {@link Sweepstakes#assignPoints(int[], int[], TiePlaceAssignment, SweepstakesAssignment)}.
+     */
+    @Test(expected = ArithmeticException.class)
+    public void testEmptyAverage () {
+        new AssignPointsCache(4).assignPoints(new int[]{1, 1}, new int[]{5}, TiePlaceAssignment.TOP, SweepstakesAssignment.AVERAGE_IGNORE);
+    }
+
+}
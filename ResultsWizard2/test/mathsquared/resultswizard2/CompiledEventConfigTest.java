@@ -0,0 +1,98 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * @author MathSquared
+ * 
+ */
+public class CompiledEventConfigTest {
+    private static final String CATALOG = "Math\n" + "Math`otherNames = \"Mathematics\" \"Calc\"\n" + "Math`indivPlaces = 3\n" + "Math`teamPlaces = 2\n" + "Math`specialHonors = \"Top Scorer\" \"1\"\n" + "Math`indivSweeps = 5 3 1\n" + "Math`teamSweeps = 4 2\n" + "Math`specialSweeps = \"Top Scorer\" \"2\"\n" + "Math`tieAssign = M\n" + "Math`sweepsAssign = A\n" + "Math`maxPoints = 12\n";
+
+    private static void assertSameEvent (String message, Event expected, Event actual) {
+        assertEquals(message + ": name", expected.getPrimaryName(), actual.getPrimaryName());
+        assertArrayEquals(message + ": other names", expected.getOtherNames(), actual.getOtherNames());
+        assertEquals(message + ": individual places", expected.getIndivPlaces(), actual.getIndivPlaces());
+        assertEquals(message + ": team places", expected.getTeamPlaces(), actual.getTeamPlaces());
+        assertArrayEquals(message + ": individual sweeps", expected.getIndivSweeps(), actual.getIndivSweeps());
+        assertArrayEquals(message + ": team sweeps", expected.getTeamSweeps(), actual.getTeamSweeps());
+        assertEquals(message + ": special honors", expected.getSpecialHonors(), actual.getSpecialHonors());
+        assertEquals(message + ": special sweeps", expected.getSpecialSweeps().keySet(), actual.getSpecialSweeps().keySet());
+        for (String x : expected.getSpecialSweeps().keySet()) {
+            assertArrayEquals(message + ": special sweeps for " + x, expected.getSpecialSweeps().get(x), actual.getSpecialSweeps().get(x));
+        }
+        assertEquals(message + ": tie assignment", expected.getTieAssign(), actual.getTieAssign());
+        assertEquals(message + ": sweepstakes assignment", expected.getSweepsAssign(), actual.getSweepsAssign());
+        assertEquals(message + ": max points", expected.getMaxPoints(), actual.getMaxPoints());
+    }
+
+    private static void writeFile (File file, String contents) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(contents.getBytes("ISO-8859-1"));
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.CompiledEventConfig#read(ByteBuffer, byte[])}.
+     */
+    @Test
+    public void testRoundTrip () throws IOException {
+        Map<String, Event> events = EventConfigParser.load(new StringReader(CATALOG));
+        byte[] hash = CompiledEventConfig.hash(ByteBuffer.wrap(CATALOG.getBytes("ISO-8859-1")));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CompiledEventConfig.write(new DataOutputStream(bytes), events, hash);
+
+        Map<String, Event> read = CompiledEventConfig.read(ByteBuffer.wrap(bytes.toByteArray()), hash);
+        assertEquals("Events", events.keySet(), read.keySet());
+        assertSameEvent("Math", events.get("Math"), read.get("Math"));
+
+        byte[] otherHash = CompiledEventConfig.hash(ByteBuffer.wrap(new byte[0]));
+        assertNull("Compiled from other contents", CompiledEventConfig.read(ByteBuffer.wrap(bytes.toByteArray()), otherHash));
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.EventConfigParser#loadCompiled(File)}.
+     */
+    @Test
+    public void testLoadCompiled () throws IOException {
+        File source = File.createTempFile("events", ".properties");
+        File compiled = CompiledEventConfig.compiledFileFor(source);
+        source.deleteOnExit();
+        compiled.deleteOnExit();
+        writeFile(source, CATALOG);
+
+        Map<String, Event> first = EventConfigParser.loadCompiled(source);
+        assertTrue("Compiled file written", compiled.isFile());
+        Map<String, Event> second = EventConfigParser.loadCompiled(source);
+        assertSameEvent("From compiled file", first.get("Math"), second.get("Math"));
+
+        // Changing the source invalidates the compiled file
+        writeFile(source, CATALOG.replace("Math`maxPoints = 12", "Math`maxPoints = 20"));
+        assertEquals("Recompiled", 20, EventConfigParser.loadCompiled(source).get("Math").getMaxPoints());
+        assertEquals("Compiled again", 20, EventConfigParser.loadCompiled(source).get("Math").getMaxPoints());
+
+        // A corrupt compiled file is ignored
+        writeFile(compiled, "garbage");
+        assertEquals("Corrupt compiled file", 20, EventConfigParser.loadCompiled(source).get("Math").getMaxPoints());
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * @author MathSquared
+ * 
+ */
+public class EventCatalogTest {
+
+    private static Event event (String primaryName, String... otherNames) {
+        return new Event(primaryName, otherNames, 1, 0, new HashMap<String, Integer>(), new int[]{1}, new int[0], new HashMap<String, int[]>(), TiePlaceAssignment.TOP, SweepstakesAssignment.AVERAGE, Integer.MAX_VALUE);
+    }
+
+    private static EventCatalog catalog (Event... events) {
+        Map<String, Event> map = new HashMap<String, Event>();
+        for (Event x : events) {
+            map.put(x.getPrimaryName(), x);
+        }
+        return new EventCatalog(map);
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.EventCatalog#normalize(String)}.
+     */
+    @Test
+    public void testNormalize () {
+        assertEquals("Case and spacing", "computer science", EventCatalog.normalize("  Computer \t SCIENCE "));
+        assertEquals("Compatibility forms", "math 2", EventCatalog.normalize("\uFF2D\uFF41\uFF54\uFF48\u00A0\u2461"));
+        assertEquals("Empty", "", EventCatalog.normalize(" "));
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.EventCatalog#resolve(String)}.
+     */
+    @Test
+    public void testResolve () {
+        Event chem = event("Chemistry", "Chem", "Chemistry Test");
+        Event math = event("Math", "Mathematics");
+        EventCatalog catalog = catalog(chem, math);
+
+        assertSame("Primary name", chem, catalog.resolve("Chemistry"));
+        assertSame("Other name", chem, catalog.resolve("chem"));
+        assertSame("Spacing", chem, catalog.resolve(" chemistry  test"));
+        assertSame("Other event", math, catalog.resolve("MATHEMATICS"));
+        assertNull("Unknown name", catalog.resolve("Physics"));
+        assertNull("Prefix only", catalog.resolve("Chemis"));
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.EventCatalog#EventCatalog(Map)}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testAmbiguous () {
+        catalog(event("Computer Science", "CS"), event("Current Summary", "cs"));
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.EventCatalog#complete(String, int)}.
+     */
+    @Test
+    public void testComplete () {
+        Event chem = event("Chemistry", "Chem", "Chemistry Test");
+        Event cs = event("Computer Science", "Comp Sci");
+        Event math = event("Math", "Mathematics");
+        EventCatalog catalog = catalog(chem, cs, math);
+
+        assertArrayEquals("Shared prefix", new String[]{"Chemistry", "Computer Science"}, EventCatalog.primaryNames(catalog.complete("c", 10)));
+        assertArrayEquals("One event through several names", new String[]{"Chemistry"}, EventCatalog.primaryNames(catalog.complete("CHEM", 10)));
+        assertArrayEquals("Other name", new String[]{"Computer Science"}, EventCatalog.primaryNames(catalog.complete("comp s", 10)));
+        assertArrayEquals("Trailing space", new String[]{"Chemistry"}, EventCatalog.primaryNames(catalog.complete("chemistry ", 10)));
+        assertArrayEquals("Limit", new String[]{"Chemistry"}, EventCatalog.primaryNames(catalog.complete("c", 1)));
+        assertArrayEquals("No match", new String[0], EventCatalog.primaryNames(catalog.complete("p", 10)));
+        assertEquals("Empty prefix matches everything", 3, catalog.complete("", 10).size());
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Test;
+
+/**
+ * @author MathSquared
+ * 
+ */
+public class EventConfigParserTest {
+    private static final String CATALOG = "# Test catalog\n" + "Math\n" + "Math`otherNames = \"Mathematics\" \"Calc\"\n" + "Math`indivPlaces = 3\n" + "Math`teamPlaces: 2\n" + "Math`specialHonors =\n" + "Math`indivSweeps = 5, 3, \\\n    1\n" + "Math`teamSweeps = 4 2\n" + "Math`specialSweeps =\n" + "Math`tieAssign = T\n" + "Math`sweepsAssign = A\n" + "Math`maxPoints = oo\n" + "! Another comment\n" + "Math`unused = ignored\n" + "Science\r\n" + "Science`otherNames \"Sci\"\r\n" + "Science`indivPlaces 2\r\n" + "Science`teamPlaces 1\r\n" + "Science`specialHonors\r\n" + "Science`indivSweeps 2 1\r\n" + "Science`teamSweeps 3\r\n" + "Science`specialSweeps\r\n" + "Science`tieAssign B\r\n" + "Science`sweepsAssign T\r\n" + "Science`maxPoints 10\r\n";
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.PropertiesScanner#next()}.
+     */
+    @Test
+    public void testScanner () throws IOException {
+        String raw = "a=1\n  b : 2\nc    3\n\\ d\\=e = \\u0041\\t\n# x=y\nf = one \\\n   two\\\r\n three\ng\nh=\\\\\ni\\:j:k\n\n\t\fl=m=n\nf=last";
+        Properties expected = new Properties();
+        expected.load(new StringReader(raw));
+
+        Map<String, String> scanned = new HashMap<String, String>();
+        PropertiesScanner scan = new PropertiesScanner(new StringReader(raw));
+        while (scan.next()) {
+            scanned.put(scan.key(), scan.value());
+        }
+        assertEquals("Same pairs as Properties", expected, scanned);
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.EventConfigParser#load(java.io.Reader)}.
+     */
+    @Test
+    public void testLoadReader () throws IOException {
+        Map<String, Event> events = EventConfigParser.load(new StringReader(CATALOG));
+        assertEquals("Events", 2, events.size());
+
+        Event math = events.get("Math");
+        assertArrayEquals("Other names", new String[] {"Mathematics", "Calc"}, math.getOtherNames());
+        assertEquals("Individual places", 3, math.getIndivPlaces());
+        assertEquals("Team places", 2, math.getTeamPlaces());
+        assertEquals("Unlimited points", Integer.MAX_VALUE, math.getMaxPoints());
+        assertEquals("Tie assignment", TiePlaceAssignment.TOP, math.getTieAssign());
+
+        Event science = events.get("Science");
+        assertEquals("CRLF and whitespace separators", 2, science.getIndivPlaces());
+        assertEquals("Max points", 10, science.getMaxPoints());
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.EventConfigParser#load(java.io.File)}.
+     */
+    @Test
+    public void testLoadFile () throws IOException {
+        File file = File.createTempFile("events", ".properties");
+        file.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(CATALOG.getBytes("ISO-8859-1"));
+        } finally {
+            out.close();
+        }
+
+        Map<String, Event> events = EventConfigParser.load(file);
+        assertEquals("Events", 2, events.size());
+        assertEquals("Same as Reader", 3, events.get("Math").getIndivPlaces());
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.EventConfigParser#load(java.io.Reader)}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testLoadMissingField () throws IOException {
+        EventConfigParser.load(new StringReader("Math\nMath`indivPlaces = 3\n"));
+    }
+}
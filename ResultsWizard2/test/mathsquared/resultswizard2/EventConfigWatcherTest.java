@@ -0,0 +1,201 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * @author MathSquared
+ * 
+ */
+public class EventConfigWatcherTest {
+    private static final String MATH = "Math\n" + "Math`otherNames = \n" + "Math`indivPlaces = 2\n" + "Math`teamPlaces = 1\n" + "Math`specialHonors = \n" + "Math`indivSweeps = 5 3\n" + "Math`teamSweeps = 4\n" + "Math`specialSweeps = \n" + "Math`tieAssign = T\n" + "Math`sweepsAssign = A\n" + "Math`maxPoints = oo\n";
+    private static final String SCIENCE = MATH.replace("Math", "Science");
+
+    private static File tempFile (String contents) throws IOException {
+        File ret = File.createTempFile("events", ".properties");
+        ret.deleteOnExit();
+        writeFile(ret, contents);
+        return ret;
+    }
+
+    private static void writeFile (File file, String contents) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(contents.getBytes("ISO-8859-1"));
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.EventConfigWatcher#reload()}.
+     */
+    @Test
+    public void testReload () throws IOException {
+        File file = tempFile(MATH + SCIENCE);
+        EventConfigWatcher watcher = new EventConfigWatcher(file);
+        try {
+            final List<EventConfigDelta> published = new ArrayList<EventConfigDelta>();
+            watcher.addListener(new EventConfigListener() {
+                public void eventsChanged (EventConfigDelta delta) {
+                    published.add(delta);
+                }
+            });
+            Event science = watcher.getEvents().get("Science");
+
+            assertTrue("Nothing changed", watcher.reload().isEmpty());
+            assertEquals("Empty deltas are not published", 0, published.size());
+
+            writeFile(file, MATH.replace("5 3", "6 3") + SCIENCE.replace("Science", "History"));
+            EventConfigDelta delta = watcher.reload();
+            assertEquals("Published", Collections.singletonList(delta), published);
+            assertEquals("Changed", Collections.singleton("Math"), delta.getChanged().keySet());
+            assertArrayEquals("New sweeps", new int[]{6, 3}, delta.getChanged().get("Math").getIndivSweeps());
+            assertEquals("Added", Collections.singleton("History"), delta.getAdded().keySet());
+            assertEquals("Removed", Collections.singleton("Science"), delta.getRemoved());
+            assertEquals("Current events", delta.getChanged().get("Math"), watcher.getEvents().get("Math"));
+            assertNull("Removed from current events", watcher.getEvents().get("Science"));
+            assertTrue("Science affected", delta.affects("Science"));
+            assertTrue("Unknown event not affected", !delta.affects("Art"));
+
+            // Untouched events are not parsed again
+            writeFile(file, MATH.replace("5 3", "6 3") + SCIENCE.replace("Science", "History") + SCIENCE);
+            Event math = watcher.getEvents().get("Math");
+            watcher.reload();
+            assertSame("Untouched event not reparsed", math, watcher.getEvents().get("Math"));
+            assertTrue("Re-added event parsed again", science != watcher.getEvents().get("Science"));
+        } finally {
+            watcher.close();
+        }
+    }
+
+    /**
+     * Test that a listener throwing an exception does not stop the others from being told, or the reload from finishing.
+     */
+    @Test
+    public void testReloadBrokenListener () throws IOException {
+        File file = tempFile(MATH);
+        final EventConfigWatcher watcher = new EventConfigWatcher(file);
+        try {
+            final List<EventConfigDelta> published = new ArrayList<EventConfigDelta>();
+            watcher.addListener(new EventConfigListener() {
+                public void eventsChanged (EventConfigDelta delta) {
+                    throw new IllegalStateException("Broken listener");
+                }
+            });
+            watcher.addListener(new EventConfigListener() {
+                public void eventsChanged (EventConfigDelta delta) {
+                    assertArrayEquals("New events in place", new int[]{6, 3}, watcher.getEvents().get("Math").getIndivSweeps());
+                    published.add(delta);
+                }
+            });
+
+            writeFile(file, MATH.replace("5 3", "6 3"));
+            EventConfigDelta delta = watcher.reload();
+            assertEquals("Later listener told", Collections.singletonList(delta), published);
+        } finally {
+            watcher.close();
+        }
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.EventConfigWatcher#reload()}.
+     */
+    @Test
+    public void testReloadInvalid () throws IOException {
+        File file = tempFile(MATH);
+        EventConfigWatcher watcher = new EventConfigWatcher(file);
+        try {
+            writeFile(file, MATH.replace("indivPlaces = 2", "indivPlaces = x"));
+            try {
+                watcher.reload();
+                fail("Invalid event loaded");
+            } catch (NumberFormatException e) {
+                // expected
+            }
+            assertArrayEquals("Last good load kept", new int[]{5, 3}, watcher.getEvents().get("Math").getIndivSweeps());
+
+            // The failed load is not remembered, so fixing the file reports the change
+            writeFile(file, MATH.replace("5 3", "7 3"));
+            assertEquals("Change after failed load", Collections.singleton("Math"), watcher.reload().getChanged().keySet());
+        } finally {
+            watcher.close();
+        }
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.EventConfigDelta#update(EventResults)}.
+     */
+    @Test
+    public void testUpdate () throws IOException {
+        File file = tempFile(MATH + SCIENCE);
+        EventConfigWatcher watcher = new EventConfigWatcher(file);
+        try {
+            NameDictionary names = new NameDictionary();
+            EventResults math = new EventResults(watcher.getEvents().get("Math"), new String[][]{{"Ann"}, {"Bob"}}, new String[][]{{"East"}, {"West"}}, new String[][]{{"East"}}, null, null, names);
+            EventResults science = new EventResults(watcher.getEvents().get("Science"), new String[][]{{"Cy"}, {"Di"}}, new String[][]{{"West"}, {"East"}}, new String[][]{{"West"}}, null, null, names);
+            assertEquals("Old points", new Fraction(5), math.computeIndivSweeps(false).get("East"));
+
+            writeFile(file, MATH.replace("5 3", "8 3"));
+            EventConfigDelta delta = watcher.reload();
+
+            EventResults updated = delta.update(math);
+            assertEquals("New points", new Fraction(8), updated.computeIndivSweeps(false).get("East"));
+            assertArrayEquals("Same results", math.getIndivHonorees(), updated.getIndivHonorees());
+            assertSame("Same dictionary", names, updated.getNameDictionary());
+            assertTrue("Newer version", updated.getVersion() > math.getVersion());
+            assertNull("Removed event", delta.update(science));
+
+            EventResults unaffected = new EventResults(watcher.getEvents().get("Math"), new String[][]{{"Ann"}, {"Bob"}}, new String[][]{{"East"}, {"West"}}, new String[][]{{"East"}}, null, null);
+            assertSame("Unaffected event", unaffected, new EventConfigDelta(Collections.<String, Event> emptyMap(), Collections.<String, Event> emptyMap(), Collections.<String> emptySet()).update(unaffected));
+        } finally {
+            watcher.close();
+        }
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.EventConfigWatcher#run()}.
+     */
+    @Test
+    public void testRun () throws IOException, InterruptedException {
+        File file = tempFile(MATH);
+        EventConfigWatcher watcher = new EventConfigWatcher(file);
+        final CountDownLatch changed = new CountDownLatch(1);
+        watcher.addListener(new EventConfigListener() {
+            public void eventsChanged (EventConfigDelta delta) {
+                if (delta.getChanged().containsKey("Math")) {
+                    changed.countDown();
+                }
+            }
+        });
+        Thread thread = new Thread(watcher);
+        thread.start();
+        try {
+            writeFile(file, MATH.replace("5 3", "9 3"));
+            assertTrue("Edit noticed", changed.await(30, TimeUnit.SECONDS));
+            assertArrayEquals("Reloaded", new int[]{9, 3}, watcher.getEvents().get("Math").getIndivSweeps());
+        } finally {
+            watcher.close();
+            thread.join(30000);
+        }
+        assertTrue("Stopped by close", !thread.isAlive());
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+
+/**
+ * @author MathSquared
+ * 
+ */
+public class EventResultsDeltaTest {
+
+    private static EventResults results () {
+        Event ev = new Event("Math", new String[0], 4, 2, new HashMap<String, Integer>(), new int[]{7, 5, 3, 1}, new int[]{4, 2}, new HashMap<String, int[]>(), TiePlaceAssignment.TOP, SweepstakesAssignment.AVERAGE, Integer.MAX_VALUE);
+        return new EventResults(ev, new String[][]{{"Ann", "Bob"}, {}, {"Cy"}, {"Di"}}, new String[][]{{"East", "West"}, {}, {"East"}, {"North"}}, new String[][]{{"West"}, {"East"}}, null, null);
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.EventResults#getVersion()}.
+     */
+    @Test
+    public void testVersion () {
+        EventResults evr = results();
+        long v = evr.getVersion();
+        evr.setTeamHonorees(new String[][]{{"East"}, {"West"}});
+        assertTrue("Increases", evr.getVersion() > v);
+        assertEquals("Carried by copies", evr.getVersion(), new EventResults(evr).getVersion());
+        assertEquals("Carried by snapshots", evr.getVersion(), evr.snapshot().toEventResults().getVersion());
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.EventResults#diff(EventResults)}.
+     */
+    @Test
+    public void testDiff () {
+        EventResults older = results();
+        EventResults newer = new EventResults(older);
+        assertTrue("No changes", newer.diff(older).isEmpty());
+
+        newer.setIndivResults(new String[][]{{"Ann", "Bob"}, {}, {"Cyd", "Di"}, {}}, new String[][]{{"East", "West"}, {}, {"East", "North"}, {}});
+        EventResultsDelta delta = newer.diff(older);
+        assertEquals("Only individual results touched", 1, delta.getChanges().size());
+        EventResultsDelta.FacetChange change = delta.getChanges().get(0);
+        assertEquals("Facet", Facet.INDIVIDUAL, change.getFacet());
+        assertEquals("Only changed places", 2, change.getPlaces().size());
+        assertEquals("Renamed place", 2, change.getPlaces().get(0).getPlace());
+        assertEquals("Renamed", EventResultsDelta.Kind.RENAMED, change.getPlaces().get(0).getKind());
+        assertArrayEquals("New name", new String[]{"Cyd", "Di"}, change.getPlaces().get(0).getHonorees());
+        assertEquals("Removed", EventResultsDelta.Kind.REMOVED, change.getPlaces().get(1).getKind());
+
+        // Setting the same results again touches nothing
+        EventResults same = new EventResults(older);
+        same.setTeamHonorees(older.getTeamHonorees());
+        assertTrue("Same results", same.diff(older).isEmpty());
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.EventResultsDelta#apply(EventResults)}.
+     */
+    @Test
+    public void testApply () {
+        EventResults older = results();
+        EventResults newer = new EventResults(older);
+        newer.setIndivResults(new String[][]{{"Ann"}, {"Bob", "Eve"}, {}, {"Di"}}, new String[][]{{"East"}, {"West", "South"}, {}, {"North"}});
+        newer.setTeamSweeps(new Fraction[][]{{new Fraction(10)}, {new Fraction(1, 2)}});
+
+        EventResults applied = newer.diff(older).apply(older);
+        assertArrayEquals("Honorees", newer.getIndivHonorees(), applied.getIndivHonorees());
+        assertArrayEquals("Schools", newer.getIndivSchools(), applied.getIndivSchools());
+        assertArrayEquals("Team", newer.getTeamHonorees(), applied.getTeamHonorees());
+        assertArrayEquals("Sweeps", newer.getTeamSweeps(), applied.getTeamSweeps());
+        assertEquals("Totals", newer.computeTotalSweeps(), applied.computeTotalSweeps());
+        assertEquals("Version", newer.getVersion(), applied.getVersion());
+        assertArrayEquals("Older untouched", results().getIndivHonorees(), older.getIndivHonorees());
+    }
+
+    /**
+     * Test that sweepstakes entered by hand for one facet do not carry computed sweepstakes along with the other facets, which have ties.
+     */
+    @Test
+    public void testCustomSweepsOneFacet () {
+        EventResults older = results();
+        older.setTeamSweeps(new Fraction[][]{{new Fraction(10)}, {new Fraction(1, 2)}});
+        EventResults newer = new EventResults(older);
+        newer.computeIndivSweeps(false); // computes the individual sweeps, which must stay computed
+        assertTrue("Computing sweeps changes nothing", newer.diff(older).isEmpty());
+        assertEquals("Individual sweeps not entered by hand", false, newer.snapshot().getIndivResults().hasCustomSweeps());
+        assertEquals("Team sweeps entered by hand", true, newer.snapshot().getTeamResults().hasCustomSweeps());
+
+        newer.setIndivResults(new String[][]{{"Ann", "Bob"}, {}, {"Cy", "Di"}, {}}, new String[][]{{"East", "West"}, {}, {"East", "North"}, {}});
+        EventResultsDelta delta = newer.diff(older);
+        assertEquals("Only individual results touched", 1, delta.getChanges().size());
+        assertEquals("No individual sweeps sent", null, delta.getChanges().get(0).getSweeps());
+
+        EventResults applied = delta.apply(older);
+        assertArrayEquals("Honorees", newer.getIndivHonorees(), applied.getIndivHonorees());
+        assertArrayEquals("Team sweeps kept", newer.getTeamSweeps(), applied.getTeamSweeps());
+        assertEquals("Totals", newer.computeTotalSweeps(), applied.computeTotalSweeps());
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.EventResults#diff(EventResults)}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testDiffDifferentDefinition () {
+        EventResults older = results();
+        Event ev = new Event("Math", new String[0], 5, 2, new HashMap<String, Integer>(), new int[]{7, 5, 3, 1, 1}, new int[]{4, 2}, new HashMap<String, int[]>(), TiePlaceAssignment.TOP, SweepstakesAssignment.AVERAGE, Integer.MAX_VALUE);
+        EventResults newer = new EventResults(ev, new String[][]{{"Ann", "Bob"}, {}, {"Cy"}, {"Di"}, {"Eve"}}, new String[][]{{"East", "West"}, {}, {"East"}, {"North"}, {"South"}}, new String[][]{{"West"}, {"East"}}, null, null);
+        newer.diff(older);
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.EventResultsDelta#apply(EventResults)}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testApplyWrongVersion () {
+        EventResults older = results();
+        EventResults newer = new EventResults(older);
+        newer.setTeamHonorees(new String[][]{{"East"}, {"West"}});
+        EventResultsDelta delta = newer.diff(older);
+        delta.apply(newer);
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.EventResultsDelta#apply(EventResults)}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testApplySiblingSameVersion () {
+        EventResults base = results();
+        EventResults older = new EventResults(base);
+        older.setTeamHonorees(new String[][]{{"East"}, {"West"}});
+        EventResults sibling = new EventResults(base);
+        sibling.setIndivResults(new String[][]{{"Ann"}, {"Bob"}, {"Cy"}, {"Di"}}, new String[][]{{"East"}, {"West"}, {"East"}, {"North"}});
+        assertEquals("Siblings share a version", older.getVersion(), sibling.getVersion());
+
+        EventResults newer = new EventResults(older);
+        newer.setTeamHonorees(new String[][]{{"West"}, {"North"}});
+        newer.diff(older).apply(sibling);
+    }
+}
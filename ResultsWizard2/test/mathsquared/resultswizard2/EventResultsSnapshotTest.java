@@ -0,0 +1,102 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import org.junit.Test;
+
+/**
+ * @author MathSquared
+ * 
+ */
+public class EventResultsSnapshotTest {
+
+    private static EventResults results () {
+        Event ev = new Event("Math", new String[0], 3, 2, new HashMap<String, Integer>(), new int[]{5, 3, 1}, new int[]{4, 2}, new HashMap<String, int[]>(), TiePlaceAssignment.TOP, SweepstakesAssignment.AVERAGE, Integer.MAX_VALUE);
+        return new EventResults(ev, new String[][]{{"Ann", "Bob"}, {}, {"Cy"}}, new String[][]{{"East", "West"}, {}, {"East"}}, new String[][]{{"West"}, {"East"}}, null, null);
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.EventResults#snapshot()}.
+     */
+    @Test
+    public void testSnapshot () {
+        EventResults evr = results();
+        EventResultsSnapshot snap = evr.snapshot();
+        assertEquals("Views", Arrays.asList(Arrays.asList("Ann", "Bob"), Arrays.<String> asList(), Arrays.asList("Cy")), snap.getIndivResults().getHonorees());
+        assertEquals("Tie size", 2, snap.getIndivResults().getTieSize(0));
+        assertEquals("Team schools", "East", snap.getTeamResults().getSchools().get(1).get(0));
+
+        // Changing the EventResults leaves the snapshot alone
+        evr.setTeamHonorees(new String[][]{{"North"}, {"South"}});
+        assertArrayEquals("Unchanged", new String[][]{{"West"}, {"East"}}, snap.getTeamResults().toHonoreeArray());
+
+        EventResults back = snap.toEventResults();
+        assertArrayEquals("Round trip", results().getIndivSchools(), back.getIndivSchools());
+        assertEquals("Same sweeps", results().computeTotalSweeps(), back.computeTotalSweeps());
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.EventResultsSnapshot#withIndivResults(java.lang.String[][], java.lang.String[][])}.
+     */
+    @Test
+    public void testWithIndivResults () {
+        EventResultsSnapshot snap = results().snapshot();
+        EventResultsSnapshot changed = snap.withIndivResults(new String[][]{{"Dee"}, {"Eve"}, {"Fay"}}, new String[][]{{"West"}, {"West"}, {"East"}});
+        assertSame("Untouched facet shared", snap.getTeamResults(), changed.getTeamResults());
+        assertEquals("Old version intact", "Ann", snap.getIndivResults().getHonorees().get(0).get(0));
+        assertEquals("New version", "Dee", changed.getIndivResults().getHonorees().get(0).get(0));
+        assertEquals("Sweeps of new version", new Fraction(5 + 3 + 4), changed.toEventResults().computeTotalSweeps().get("West"));
+    }
+
+    /**
+     * Test that sweepstakes entered by hand survive a {@link mathsquared.resultswizard2.EventResults#snapshot()} and {@link mathsquared.resultswizard2.EventResultsSnapshot#toEventResults()}.
+     */
+    @Test
+    public void testCustomSweeps () {
+        EventResults evr = results();
+        evr.setTeamSweeps(new Fraction[][]{{new Fraction(10)}, {new Fraction(1, 2)}});
+        EventResultsSnapshot snap = evr.snapshot();
+        assertEquals("Flagged", true, snap.getTeamResults().hasCustomSweeps());
+        assertEquals("Kept", evr.computeTotalSweeps(), snap.toEventResults().computeTotalSweeps());
+    }
+
+    /**
+     * Test that snapshots of changing results can be sent one after another over a single stream, as the admin sends slides to the display.
+     */
+    @Test
+    public void testSerialization () throws Exception {
+        EventResults evr = results();
+        evr.setTeamSweeps(new Fraction[][]{{new Fraction(10)}, {new Fraction(1, 2)}});
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        EventResultsSnapshot first = evr.snapshot();
+        out.writeObject(first);
+        evr.setIndivResults(new String[][]{{"Dee"}, {"Eve"}, {"Fay"}}, new String[][]{{"North"}, {"South"}, {"East"}}); // interns names after the first write
+        EventResultsSnapshot second = evr.snapshot();
+        out.writeObject(second);
+        out.close();
+
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        EventResultsSnapshot readFirst = (EventResultsSnapshot) in.readObject();
+        EventResultsSnapshot readSecond = (EventResultsSnapshot) in.readObject();
+        assertArrayEquals("First payload", first.getIndivResults().toHonoreeArray(), readFirst.getIndivResults().toHonoreeArray());
+        assertArrayEquals("Second payload", second.getIndivResults().toSchoolArray(), readSecond.getIndivResults().toSchoolArray());
+        assertEquals("Version", second.getVersion(), readSecond.getVersion());
+        assertEquals("Sweeps entered by hand", evr.computeTotalSweeps(), readSecond.toEventResults().computeTotalSweeps());
+        assertEquals("Only the names used are written", 7, readSecond.getNameDictionary().size()); // Dee, North, Eve, South, Fay, East, West
+    }
+
+}
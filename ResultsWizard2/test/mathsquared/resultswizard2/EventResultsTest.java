@@ -0,0 +1,120 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * @author MathSquared
+ * 
+ */
+public class EventResultsTest {
+
+    private static Event event (String name) {
+        return new Event(name, new String[0], 3, 0, new HashMap<String, Integer>(), new int[]{5, 3, 1}, new int[0], new HashMap<String, int[]>(), TiePlaceAssignment.TOP, SweepstakesAssignment.AVERAGE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Test that results stored in a shared {@link mathsquared.resultswizard2.NameDictionary} read back unchanged.
+     */
+    @Test
+    public void testNameDictionary () {
+        NameDictionary dict = new NameDictionary();
+        String[][] honorees = new String[][]{{"Ann", "Bob"}, null, {"Cy"}};
+        String[][] schools = new String[][]{{"East", null}, null, {"West"}};
+        EventResults math = new EventResults(event("Math"), honorees, schools, null, null, null, dict);
+        EventResults art = new EventResults(event("Art"), new String[][]{{"Dee"}, {"Ann"}, {"Eve"}}, new String[][]{{"West"}, {"East"}, {"East"}}, null, null, null, dict);
+
+        assertArrayEquals("Honorees", honorees, math.getIndivHonorees());
+        assertArrayEquals("Schools, including an independent", schools, math.getIndivSchools());
+        assertSame("Shared", dict, art.getNameDictionary());
+        assertSame("Shared by copies", dict, new EventResults(art).getNameDictionary());
+        assertEquals("Names stored once", 8, dict.size()); // Ann, Bob, Cy, East, null, West, Dee, Eve
+
+        Map<String, Fraction> expected = new HashMap<String, Fraction>();
+        expected.put("East", new Fraction(5 + 3, 2));
+        expected.put(null, new Fraction(5 + 3, 2));
+        expected.put("West", new Fraction(1));
+        assertEquals("Sweeps", expected, math.computeTotalSweeps());
+    }
+
+    /**
+     * Test that {@link mathsquared.resultswizard2.EventResults#computeTotalSweeps()} uses sweepstakes entered by hand.
+     */
+    @Test
+    public void testCustomSweeps () {
+        EventResults math = new EventResults(event("Math"), new String[][]{{"Ann"}, {"Bob"}, {"Cy"}}, new String[][]{{"East"}, {"West"}, {"East"}}, null, null, null);
+        math.setIndivSweeps(new Fraction[][]{{new Fraction(10)}, {new Fraction(7)}, {new Fraction(1, 2)}});
+        assertEquals("Custom East", new Fraction(21, 2), math.computeTotalSweeps().get("East"));
+        assertEquals("Custom West", new Fraction(7), math.computeTotalSweeps().get("West"));
+    }
+
+    /**
+     * Test that {@link mathsquared.resultswizard2.EventResults#computeTotalSweepsCapped()} and the per-facet methods are memoized until the results change.
+     */
+    @Test
+    public void testMemoization () {
+        EventResults math = new EventResults(event("Math"), new String[][]{{"Ann"}, {"Bob"}, {"Cy"}}, new String[][]{{"East"}, {"West"}, {"East"}}, null, null, null);
+        Map<String, Fraction> capped = math.computeTotalSweepsCapped();
+        Map<String, Fraction> indiv = math.computeIndivSweeps(true);
+        assertSame("Capped memoized", capped, math.computeTotalSweepsCapped());
+        assertSame("Facet memoized", indiv, math.computeIndivSweeps(true));
+        assertNotSame("Keyed by studentNames", indiv, math.computeIndivSweeps(false));
+
+        math.setIndivResults(new String[][]{{"Bob"}, {"Ann"}, {"Cy"}}, new String[][]{{"West"}, {"East"}, {"East"}});
+        assertEquals("Invalidated facet", new Fraction(5), math.computeIndivSweeps(true).get("Bob"));
+        assertEquals("Invalidated total", new Fraction(5), math.computeTotalSweepsCapped().get("West"));
+        assertEquals("Old map unchanged", new Fraction(3), capped.get("West"));
+
+        math.setIndivSweeps(new Fraction[][]{{new Fraction(1)}, {new Fraction(1)}, {new Fraction(1)}});
+        assertEquals("Invalidated by sweeps", new Fraction(2), math.computeTotalSweepsCapped().get("East"));
+    }
+
+    /**
+     * Test that the memoized maps cannot be modified.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testMemoizedUnmodifiable () {
+        EventResults math = new EventResults(event("Math"), new String[][]{{"Ann"}, {"Bob"}, {"Cy"}}, new String[][]{{"East"}, {"West"}, {"East"}}, null, null, null);
+        math.computeTotalSweeps().put("West", new Fraction(100));
+    }
+
+    /**
+     * Test that events sharing a {@link mathsquared.resultswizard2.NameDictionary} can be written one at a time to a single stream, though names are added to the dictionary between writes.
+     */
+    @Test
+    public void testSerialization () throws Exception {
+        NameDictionary dict = new NameDictionary();
+        EventResults math = new EventResults(event("Math"), new String[][]{{"Ann"}, {"Bob"}, {"Cy"}}, new String[][]{{"East"}, {"West"}, {"East"}}, null, null, null, dict);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(math);
+        EventResults art = new EventResults(event("Art"), new String[][]{{"Dee"}, {"Ann"}, {"Eve"}}, new String[][]{{"North"}, {"East"}, {"South"}}, null, null, null, dict);
+        out.writeObject(art);
+        out.close();
+
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        EventResults readMath = (EventResults) in.readObject();
+        EventResults readArt = (EventResults) in.readObject();
+        assertArrayEquals("First event", math.getIndivHonorees(), readMath.getIndivHonorees());
+        assertArrayEquals("Names added after the first write", art.getIndivSchools(), readArt.getIndivSchools());
+        assertEquals("Same sweeps", art.computeTotalSweeps(), readArt.computeTotalSweeps());
+        assertEquals("Only the names used are written", 6, readArt.getNameDictionary().size()); // Dee, North, Ann, East, Eve, South
+        assertNotSame("Own dictionary", readMath.getNameDictionary(), readArt.getNameDictionary());
+    }
+
+}
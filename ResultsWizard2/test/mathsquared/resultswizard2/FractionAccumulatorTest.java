@@ -0,0 +1,91 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * @author MathSquared
+ * 
+ */
+public class FractionAccumulatorTest {
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.FractionAccumulator#add(mathsquared.resultswizard2.Fraction)}.
+     */
+    @Test
+    public void testAddFraction () {
+        FractionAccumulator acc = new FractionAccumulator();
+        assertEquals("Empty", new Fraction(0), acc.toFraction());
+
+        acc.add(new Fraction(1, 2)).add(new Fraction(1, 3));
+        assertEquals("Different denominators", new Fraction(5, 6), acc.toFraction());
+
+        acc.add(new Fraction(1, 6));
+        assertEquals("Reduces to whole", new Fraction(1), acc.toFraction());
+
+        acc.add(new Fraction(-7, 4));
+        assertEquals("Negative", new Fraction(-3, 4), acc.toFraction());
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.FractionAccumulator#add(int)} and {@link mathsquared.resultswizard2.FractionAccumulator#add(mathsquared.resultswizard2.FractionAccumulator)}.
+     */
+    @Test
+    public void testAddIntAndAccumulator () {
+        FractionAccumulator one = new FractionAccumulator(new Fraction(2, 3)).add(4);
+        assertEquals("Integer", new Fraction(14, 3), one.toFraction());
+
+        FractionAccumulator two = new FractionAccumulator(new Fraction(1, 3));
+        two.add(one);
+        assertEquals("Accumulator", new Fraction(5), two.toFraction());
+        assertEquals("Augend unchanged", new Fraction(14, 3), one.toFraction());
+    }
+
+    /**
+     * Test that many additions agree with pairwise {@link Fraction#add(Fraction)} and that the sum is reduced before it overflows.
+     */
+    @Test
+    public void testManyAdditions () {
+        FractionAccumulator acc = new FractionAccumulator();
+        Fraction pairwise = new Fraction(0);
+        for (int i = 0; i < 10000; i++) {
+            Fraction x = new Fraction(i % 7, (i % 3) + 1);
+            acc.add(x);
+            pairwise = pairwise.add(x);
+        }
+        assertEquals("Matches pairwise", pairwise, acc.toFraction());
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.FractionAccumulator#reset()}.
+     */
+    @Test
+    public void testReset () {
+        FractionAccumulator acc = new FractionAccumulator(new Fraction(9, 4));
+        acc.reset();
+        assertEquals("Reset", new Fraction(0), acc.toFraction());
+        acc.add(new Fraction(1, 5));
+        assertEquals("Reusable", new Fraction(1, 5), acc.toFraction());
+    }
+
+    /**
+     * Test that a sum too large for a <code>long</code> stays exact.
+     */
+    @Test
+    public void testOverflow () {
+        FractionAccumulator acc = new FractionAccumulator();
+        Fraction pairwise = new Fraction(0);
+        Fraction x = new Fraction(Long.MAX_VALUE / 2, 3);
+        for (int i = 0; i < 10; i++) {
+            acc.add(x);
+            pairwise = pairwise.add(x);
+        }
+        assertEquals("Beyond long", pairwise, acc.toFraction());
+        assertEquals("Merge", pairwise.multiply(2), new FractionAccumulator().add(acc).add(acc).toFraction());
+    }
+
+}
@@ -4,8 +4,20 @@
 package mathsquared.resultswizard2;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.regex.Matcher;
+
 import org.junit.Test;
 
 /**
@@ -65,6 +77,115 @@ public class FractionTest {
         assertEquals("Works", new Fraction(new Fraction(5, 3)), new Fraction(5, 3));
     }
 
+    /**
+     * Test method for {@link mathsquared.resultswizard2.Fraction#valueOf(int)} and {@link mathsquared.resultswizard2.Fraction#valueOf(int, int)}.
+     */
+    @Test
+    public void testValueOf () {
+        assertEquals("Whole", new Fraction(12), Fraction.valueOf(12));
+        assertSame("Whole cached", Fraction.valueOf(12), Fraction.valueOf(12));
+        assertSame("Whole as quotient", Fraction.valueOf(3), Fraction.valueOf(-9, -3));
+        assertEquals("Half", new Fraction(7, 2), Fraction.valueOf(7, 2));
+        assertSame("Half cached", Fraction.valueOf(7, 2), Fraction.valueOf(14, 4));
+        assertSame("Negative third cached", Fraction.valueOf(-1, 3), Fraction.valueOf(2, -6));
+        assertEquals("Large", new Fraction(100000), Fraction.valueOf(100000));
+        assertEquals("Large denominator", new Fraction(1, 97), Fraction.valueOf(1, 97));
+        assertEquals("Extreme", new Fraction(Integer.MIN_VALUE, -1), Fraction.valueOf(Integer.MIN_VALUE, -1));
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.Fraction#parseFraction(String)}.
+     */
+    @Test
+    public void testParseFraction () {
+        assertEquals("Whole", new Fraction(42), Fraction.parseFraction("42"));
+        assertEquals("Fraction", new Fraction(3, 4), Fraction.parseFraction(" 3 / 4 "));
+        assertEquals("Mixed", new Fraction(7, 4), Fraction.parseFraction("1 3/4"));
+        assertEquals("Mixed with symbol", new Fraction(7, 4), Fraction.parseFraction("1 u 3/4"));
+        assertEquals("Mixed, no fraction", new Fraction(5), Fraction.parseFraction("2+3"));
+        assertEquals("Negative", new Fraction(-7, 4), Fraction.parseFraction("- 1U3/4"));
+        assertEquals("Underscores", new Fraction(1000, 3), Fraction.parseFraction("1_000/0_3"));
+        assertEquals("Decimal", new Fraction(-5, 4), Fraction.parseFraction("-001.2500"));
+        assertEquals("Bare point", new Fraction(0), Fraction.parseFraction("."));
+        assertEquals("Ten decimal places", new Fraction(1L, 10000000000L), Fraction.parseFraction("0.0000000001"));
+        assertEquals("Subsequence", new Fraction(1, 2), Fraction.parseFraction("x1/2x", 1, 4));
+    }
+
+    /**
+     * Test that {@link mathsquared.resultswizard2.Fraction#parseFraction(String)} accepts exactly the syntax described by {@link Fraction#PARSE_FRACTION}, and parses it the same way.
+     */
+    @Test
+    public void testParseFractionMatchesRegex () {
+        String[] tokens = {"0", "1", "7", "00", "12", "2147483647", "2147483648", "9999999999", "99999999999", " ", " ", "_", ".", "/", "u", "+", "-", "\t"};
+        Random rand = new Random(0);
+        for (int i = 0; i < 50000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int length = rand.nextInt(7);
+            for (int j = 0; j < length; j++) {
+                sb.append(tokens[rand.nextInt(tokens.length)]);
+            }
+            String input = sb.toString();
+
+            String expected;
+            try {
+                expected = describe(parseFractionRegex(input));
+            } catch (IllegalArgumentException e) {
+                expected = e.getClass().getName() + ": " + e.getMessage();
+            }
+            String actual;
+            try {
+                actual = describe(Fraction.parseFraction(input));
+            } catch (IllegalArgumentException e) {
+                actual = e.getClass().getName() + ": " + e.getMessage();
+            }
+            assertEquals("\"" + input + "\"", expected, actual);
+        }
+    }
+
+    /**
+     * The original, regex-based implementation of {@link Fraction#parseFraction(String)}, against which the scanner is checked.
+     */
+    private static Fraction parseFractionRegex (String toParse) {
+        String scrubbed = toParse.trim().replace("_", "");
+        if (scrubbed.isEmpty()) {
+            throw new IllegalArgumentException("String does not match required syntax");
+        }
+
+        boolean negative = scrubbed.charAt(0) == '-';
+        if (negative) {
+            scrubbed = scrubbed.substring(1).trim();
+        }
+
+        Matcher match = Fraction.PARSE_FRACTION.matcher(scrubbed);
+        if (!match.matches()) {
+            throw new IllegalArgumentException("String does not match required syntax");
+        } else if (match.group(Fraction.DECIMAL_GROUP) == null) {
+            int u = (match.group(Fraction.UNIT_GROUP) == null) ? 0 : parseIntLabeled(match.group(Fraction.UNIT_GROUP), "[unit]");
+            int n = parseIntLabeled(match.group(Fraction.NUMERATOR_GROUP), "[numerator]");
+            int d = (match.group(Fraction.DENOMINATOR_GROUP) == null) ? 1 : parseIntLabeled(match.group(Fraction.DENOMINATOR_GROUP), "[denominator]");
+            return negative ? new Fraction(-u, -n, d) : new Fraction(u, n, d);
+        } else {
+            String decimal = match.group(Fraction.DECIMAL_GROUP);
+            String decimalRemoved = decimal.replace(".", "");
+            int numerator = decimalRemoved.equals("") ? 0 : parseIntLabeled(decimalRemoved, "[decimal]");
+            long denominator = 1;
+            for (int i = decimal.indexOf(".") + 1; i < decimal.length(); i++, denominator *= 10);
+            return new Fraction(negative ? -numerator : numerator, denominator);
+        }
+    }
+
+    private static String describe (Fraction f) {
+        return f.getBigImproperNumerator() + "/" + f.getBigDenominator();
+    }
+
+    private static int parseIntLabeled (String s, String descriptor) {
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException(descriptor + " " + e.getMessage());
+        }
+    }
+
     /**
      * Test method for {@link mathsquared.resultswizard2.Fraction#getUnit()}.
      */
@@ -308,6 +429,28 @@ public class FractionTest {
         assertTrue("Improper pos+neg->neg", new Fraction(10, 7).subtract(4).equals(new Fraction(-18, 7)));
     }
 
+    /**
+     * Test method for {@link mathsquared.resultswizard2.Fraction#sum(Fraction...)} and {@link mathsquared.resultswizard2.Fraction#sum(Iterable)}.
+     */
+    @Test
+    public void testSum () {
+        assertEquals("Empty", new Fraction(0), Fraction.sum());
+        assertEquals("Mixed denominators", new Fraction(7, 4), Fraction.sum(new Fraction(1, 2), new Fraction(1, 3), new Fraction(11, 12)));
+        assertEquals("Range", new Fraction(5, 6), Fraction.sum(new Fraction[] {new Fraction(9), new Fraction(1, 2), new Fraction(1, 3), new Fraction(9)}, 1, 3));
+        assertEquals("Iterable", new Fraction(1), Fraction.sum(Arrays.asList(new Fraction(1, 3), new Fraction(2, 3))));
+
+        Fraction huge = new Fraction(Long.MAX_VALUE, 3);
+        assertEquals("Overflow", huge.add(huge).add(new Fraction(1, 7)), Fraction.sum(huge, huge, new Fraction(1, 7)));
+
+        Fraction pairwise = new Fraction(0);
+        Fraction[] many = new Fraction[500];
+        for (int i = 0; i < many.length; i++) {
+            many[i] = new Fraction(i, (i % 6) + 1);
+            pairwise = pairwise.add(many[i]);
+        }
+        assertEquals("Matches pairwise", pairwise, Fraction.sum(many));
+    }
+
     /**
      * Test method for {@link mathsquared.resultswizard2.Fraction#toDouble()}.
      */
@@ -320,6 +463,40 @@ public class FractionTest {
         assertTrue("5/3", fiveThirds.toDouble() == 5.0 / 3);
     }
 
+    /**
+     * Test method for {@link mathsquared.resultswizard2.Fraction#toDisplayString(int)}.
+     */
+    @Test
+    public void testToDisplayString () {
+        assertEquals("Whole", "3", new Fraction(3).toDisplayString(2));
+        assertEquals("Half", "3.50", new Fraction(7, 2).toDisplayString(2));
+        assertEquals("Third", "0.33", new Fraction(1, 3).toDisplayString(2));
+        assertEquals("Round half up", "0.13", new Fraction(1, 8).toDisplayString(2));
+        assertEquals("Round up to whole", "1", new Fraction(999, 1000).toDisplayString(2));
+        assertEquals("Negative", "-2.67", new Fraction(-8, 3).toDisplayString(2));
+        assertEquals("Negative rounds to zero", "0", new Fraction(-1, 1000).toDisplayString(2));
+        assertEquals("No decimals", "3", new Fraction(5, 2).toDisplayString(0));
+        assertEquals("Padding", "0.005", new Fraction(1, 200).toDisplayString(3));
+        assertEquals("Huge", "3074457345618258602.33", new Fraction(Long.MAX_VALUE, 3).toDisplayString(2));
+        assertEquals("Many decimals", "0.14285714285714285714", new Fraction(1, 7).toDisplayString(20));
+
+        Fraction f = new Fraction(17, 6);
+        assertSame("Cached", f.toDisplayString(2), f.toDisplayString(2));
+        assertEquals("Cache keyed by decimals", "2.833", f.toDisplayString(3));
+        for (int num = -300; num <= 300; num++) {
+            for (int den = 1; den <= 12; den++) {
+                String expected = String.format(Locale.US, "%.2f", (double) num / den); // the old way of formatting sweepstakes
+                if (expected.endsWith(".00")) {
+                    expected = expected.substring(0, expected.length() - ".00".length());
+                }
+                if (expected.equals("-0")) {
+                    expected = "0";
+                }
+                assertEquals(num + "/" + den, expected, new Fraction(num, den).toDisplayString(2));
+            }
+        }
+    }
+
     /**
      * Test method for {@link mathsquared.resultswizard2.Fraction#equals(java.lang.Object)}.
      */
@@ -365,4 +542,66 @@ public class FractionTest {
         assertTrue("Improper different denominator", fn4d3.compareTo(fn8d7) > 0);
     }
 
+    /**
+     * Test that arithmetic past the range of an <code>int</code> or <code>long</code> stays exact.
+     */
+    @Test
+    public void testOverflow () {
+        Fraction big = new Fraction(Integer.MAX_VALUE, 3);
+        Fraction sum = big.add(big);
+        assertEquals("Beyond int", BigInteger.valueOf(2L * Integer.MAX_VALUE), sum.getBigImproperNumerator());
+
+        Fraction huge = new Fraction(Long.MAX_VALUE, 3);
+        Fraction product = huge.multiply(huge);
+        assertEquals("Beyond long", BigInteger.valueOf(Long.MAX_VALUE).pow(2), product.getBigImproperNumerator());
+        assertEquals("Beyond long denominator", BigInteger.valueOf(9), product.getBigDenominator());
+        assertEquals("Back to long", huge, product.divide(huge));
+
+        Fraction oneSeventh = new Fraction(1, 7);
+        Fraction justUnder = new Fraction(Long.MAX_VALUE - 1, Long.MAX_VALUE);
+        assertTrue("Compare beyond long", justUnder.compareTo(new Fraction(1)) < 0);
+        assertTrue("Compare big", product.compareTo(product.add(oneSeventh)) < 0);
+        assertEquals("Subtract to small", oneSeventh, product.add(oneSeventh).subtract(product));
+    }
+
+    /**
+     * Test that the <code>int</code> accessors refuse to truncate large fractions.
+     */
+    @Test(expected = ArithmeticException.class)
+    public void testGetImproperNumeratorOverflow () {
+        new Fraction(Integer.MAX_VALUE).add(1).getImproperNumerator();
+    }
+
+    /**
+     * Test that Fractions survive serialization, and that compareTo agrees with equals without relying on it.
+     */
+    @Test
+    public void testSerialization () throws IOException, ClassNotFoundException {
+        Fraction[] fractions = {new Fraction(7, 3), new Fraction(Long.MAX_VALUE, 3).multiply(5)};
+        for (Fraction f : fractions) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream out = new ObjectOutputStream(bytes);
+            out.writeObject(f);
+            out.close();
+
+            Object read = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+            assertEquals("Round trip", f, read);
+            assertEquals("Hash", f.hashCode(), read.hashCode());
+            assertEquals("Compare", 0, f.compareTo((Fraction) read));
+        }
+
+        // Small Fractions take two bytes of data each, plus the stream's per-object overhead
+        Fraction[] many = new Fraction[1000];
+        for (int i = 0; i < many.length; i++) {
+            many[i] = new Fraction(i % 50, (i % 6) + 1);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(many);
+        out.close();
+        assertTrue("Compact: " + bytes.size(), bytes.size() < 12 * many.length);
+        Fraction[] read = (Fraction[]) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        assertEquals("Array round trip", Arrays.asList(many), Arrays.asList(read));
+    }
+
 }
@@ -23,6 +23,60 @@ public class GcdUtilsTest {
         assertEquals("Negative", 1, GcdUtils.gcd(1, -1));
     }
 
+    /**
+     * Test method for {@link mathsquared.resultswizard2.GcdUtils#gcd(long, long)}.
+     */
+    @Test
+    public void testGcdLong () {
+        assertEquals("Relatively prime", 1L, GcdUtils.gcd(17L, 3L));
+        assertEquals("Beyond int", 3000000000L, GcdUtils.gcd(6000000000L, -9000000000L));
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.GcdUtils#binaryGcd(int, int)} and {@link mathsquared.resultswizard2.GcdUtils#binaryGcd(long, long)}.
+     */
+    @Test
+    public void testBinaryGcd () {
+        assertEquals("Relatively prime", 1, GcdUtils.binaryGcd(17, 3));
+        assertEquals("Two evens", 2, GcdUtils.binaryGcd(18, 26));
+        assertEquals("Negative", 4, GcdUtils.binaryGcd(-12, 8));
+        assertEquals("Zero", 5, GcdUtils.binaryGcd(0, 5));
+        assertEquals("Beyond int", 3000000000L, GcdUtils.binaryGcd(6000000000L, -9000000000L));
+        for (int a = -50; a <= 50; a++) {
+            for (int b = -50; b <= 50; b++) {
+                assertEquals("Matches Euclid", GcdUtils.gcd(a, b), GcdUtils.binaryGcd(a, b));
+            }
+        }
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.GcdUtils#gcd(int[])} and {@link mathsquared.resultswizard2.GcdUtils#gcd(long[])}.
+     */
+    @Test
+    public void testGcdArray () {
+        assertEquals("Common factor", 6, GcdUtils.gcd(new int[] {12, -18, 30}));
+        assertEquals("Empty", 0, GcdUtils.gcd(new int[0]));
+        assertEquals("Long", 4000000000L, GcdUtils.gcd(new long[] {8000000000L, 12000000000L}));
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.GcdUtils#lcm(int[])} and {@link mathsquared.resultswizard2.GcdUtils#lcm(long[])}.
+     */
+    @Test
+    public void testLcmArray () {
+        assertEquals("Small", 60, GcdUtils.lcm(new int[] {2, 3, 4, 5, 6}));
+        assertEquals("Empty", 1, GcdUtils.lcm(new int[0]));
+        assertEquals("Long", 6000000000L, GcdUtils.lcm(new long[] {2000000000L, 3000000000L}));
+    }
+
+    /**
+     * Test that {@link mathsquared.resultswizard2.GcdUtils#lcm(long[])} refuses to overflow.
+     */
+    @Test(expected = ArithmeticException.class)
+    public void testLcmArrayOverflow () {
+        GcdUtils.lcm(new long[] {Long.MAX_VALUE, Long.MAX_VALUE - 1});
+    }
+
     /**
      * Test method for {@link mathsquared.resultswizard2.GcdUtils#lcm(int, int)}.
      */
@@ -0,0 +1,96 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author MathSquared
+ * 
+ */
+public class MapSortingUtilsTest {
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.MapSortingUtils#sortValue(java.util.Map, boolean, boolean)}.
+     */
+    @Test
+    public void testSortValue () {
+        Map<String, Fraction> sweeps = new HashMap<String, Fraction>();
+        sweeps.put("Bravo", new Fraction(5));
+        sweeps.put("Alpha", new Fraction(5));
+        sweeps.put("Charlie", new Fraction(21, 2));
+        sweeps.put("Delta", new Fraction(1, 3));
+
+        Map<String, Fraction> sorted = MapSortingUtils.sortValue(sweeps, true, true);
+        assertEquals("Descending", Arrays.asList("Charlie", "Bravo", "Alpha", "Delta"), new ArrayList<String>(sorted.keySet()));
+
+        sorted = MapSortingUtils.sortValue(sweeps, false, true);
+        assertEquals("Ascending", Arrays.asList("Delta", "Alpha", "Bravo", "Charlie"), new ArrayList<String>(sorted.keySet()));
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.MapSortingUtils#sortValue(java.util.Map, boolean, boolean, boolean)}.
+     */
+    @Test
+    public void testSortValueParallel () {
+        Map<String, Fraction> sweeps = new HashMap<String, Fraction>();
+        Random rand = new Random(0);
+        for (int i = 0; i < 20000; i++) { // large enough that the sort actually splits
+            sweeps.put("School " + i, Fraction.valueOf(rand.nextInt(300), rand.nextInt(6) + 1));
+        }
+
+        Map<String, Fraction> serial = MapSortingUtils.sortValue(sweeps, true, true, false);
+        Map<String, Fraction> parallel = MapSortingUtils.sortValue(sweeps, true, true, true);
+        assertEquals("Same order", new ArrayList<String>(serial.keySet()), new ArrayList<String>(parallel.keySet()));
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.MapSortingUtils#topValues(java.util.Map, int, boolean, boolean)}.
+     */
+    @Test
+    public void testTopValues () {
+        Map<String, Fraction> sweeps = new HashMap<String, Fraction>();
+        sweeps.put("Alpha", new Fraction(10));
+        sweeps.put("Bravo", new Fraction(10));
+        sweeps.put("Charlie", new Fraction(7));
+        sweeps.put("Delta", new Fraction(5));
+        sweeps.put("Echo", new Fraction(5));
+        sweeps.put("Foxtrot", new Fraction(5));
+        sweeps.put("Golf", new Fraction(1, 2));
+
+        Standings<String, Fraction> top = MapSortingUtils.topValues(sweeps, 4, true, true);
+        assertEquals("Keeps the whole tie at the cutoff", 6, top.size());
+        assertEquals("Same order as sortValue", new ArrayList<String>(MapSortingUtils.sortValue(sweeps, true, true).keySet()).subList(0, 6), new ArrayList<String>(top.toMap().keySet()));
+        assertEquals("Tied first", 1, top.getPlace(1));
+        assertEquals("Place after a tie", 3, top.getPlace(2));
+        assertEquals("Tie at the cutoff", 4, top.getPlace(5));
+        assertEquals("Tie length", 3, top.tieLength(3));
+        assertEquals("End of standings", 0, top.tieLength(6));
+
+        assertEquals("Ascending", "Golf", MapSortingUtils.topValues(sweeps, 1, false, true).getKey(0));
+        assertEquals("More than the map", 7, MapSortingUtils.topValues(sweeps, 25, true, true).size());
+        assertEquals("Nothing", 0, MapSortingUtils.topValues(sweeps, 0, true, true).size());
+
+        // Matches a full sort on a large map with many ties
+        sweeps.clear();
+        Random rand = new Random(1);
+        for (int i = 0; i < 2000; i++) {
+            sweeps.put("School " + i, Fraction.valueOf(rand.nextInt(100), rand.nextInt(3) + 1));
+        }
+        top = MapSortingUtils.topValues(sweeps, 25, true, true);
+        List<String> sorted = new ArrayList<String>(MapSortingUtils.sortValue(sweeps, true, true).keySet());
+        assertEquals("Large", sorted.subList(0, top.size()), new ArrayList<String>(top.toMap().keySet()));
+        assertEquals("Next is not tied", -1, sweeps.get(sorted.get(top.size())).compareTo(top.getValue(top.size() - 1)));
+    }
+
+}
@@ -0,0 +1,74 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.Test;
+
+/**
+ * @author MathSquared
+ * 
+ */
+public class NameDictionaryTest {
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.NameDictionary#intern(java.lang.String)}.
+     */
+    @Test
+    public void testIntern () {
+        NameDictionary dict = new NameDictionary();
+        assertEquals("First", 0, dict.intern("Alpha"));
+        assertEquals("Second", 1, dict.intern("Beta"));
+        assertEquals("Repeated", 0, dict.intern(new String("Alpha")));
+        assertEquals("Null", 2, dict.intern((String) null));
+        assertNull("Null name", dict.nameOf(2));
+        assertEquals("Size", 3, dict.size());
+
+        for (int i = 0; i < 100; i++) {
+            dict.intern("School " + i);
+        }
+        assertEquals("Grows", "School 99", dict.nameOf(dict.size() - 1));
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.NameDictionary#intern(java.lang.String[][])} and {@link mathsquared.resultswizard2.NameDictionary#nameOf(int[][])}.
+     */
+    @Test
+    public void testInternArray () {
+        NameDictionary dict = new NameDictionary();
+        String[][] results = new String[][]{{"A", "B"}, null, {"C"}, {}, {null, "A"}};
+        int[][] ids = dict.intern(results);
+        assertArrayEquals("IDs", new int[][]{{0, 1}, null, {2}, {}, {3, 0}}, ids);
+        assertArrayEquals("Round trip", results, dict.nameOf(ids));
+        assertNull("Null array", dict.intern((String[][]) null));
+    }
+
+    /**
+     * Test that a {@link mathsquared.resultswizard2.NameDictionary} keeps its IDs through serialization.
+     */
+    @Test
+    public void testSerialization () throws Exception {
+        NameDictionary dict = new NameDictionary();
+        dict.intern("A");
+        dict.intern("B");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(dict);
+        out.close();
+        NameDictionary read = (NameDictionary) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+
+        assertEquals("Same ID", 1, read.intern("B"));
+        assertEquals("Next ID", 2, read.intern("C"));
+    }
+
+}
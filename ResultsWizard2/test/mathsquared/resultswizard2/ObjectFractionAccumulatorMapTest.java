@@ -0,0 +1,67 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * @author MathSquared
+ * 
+ */
+public class ObjectFractionAccumulatorMapTest {
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.ObjectFractionAccumulatorMap#addTo(Object, Fraction)}.
+     */
+    @Test
+    public void testAddTo () {
+        ObjectFractionAccumulatorMap<String> map = new ObjectFractionAccumulatorMap<String>(0);
+        Map<String, Fraction> expected = new HashMap<String, Fraction>();
+        for (int i = 0; i < 500; i++) { // grows the table several times
+            String key = (i % 5 == 0) ? null : "k" + (i % 61);
+            Fraction val = new Fraction(i, i % 7 + 1);
+            map.addTo(key, val);
+            AdditiveMapUtils.addNumber(expected, key, val);
+        }
+        map.addTo("k1", 2);
+        AdditiveMapUtils.addNumber(expected, "k1", new Fraction(2));
+
+        assertEquals("Same as immutable sums", expected, map.toFractionMap());
+        assertEquals("Size", expected.size(), map.size());
+        assertEquals("Null key", expected.get(null), map.get(null));
+        assertEquals("Absent key", new Fraction(0), map.get("missing"));
+        assertTrue("Absent key not present", !map.containsKey("missing"));
+
+        Map<String, Fraction> seen = new HashMap<String, Fraction>();
+        for (int i = map.nextSlot(0); i >= 0; i = map.nextSlot(i + 1)) {
+            seen.put(map.keyAt(i), map.valueAt(i));
+        }
+        assertEquals("Every slot visited", expected, seen);
+
+        map.clear();
+        assertTrue("Cleared", map.isEmpty());
+        assertEquals("No sum after clearing", new Fraction(0), map.get("k1"));
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.AdditiveMapUtils#addAllNumbers(ObjectFractionAccumulatorMap, Map)}.
+     */
+    @Test
+    public void testAddAllNumbers () {
+        Map<String, Fraction> src = new HashMap<String, Fraction>();
+        src.put("a", new Fraction(1, 2));
+        src.put("b", new Fraction(2, 3));
+        ObjectFractionAccumulatorMap<String> dest = new ObjectFractionAccumulatorMap<String>();
+        dest.addTo("a", new Fraction(1, 3));
+        AdditiveMapUtils.addAllNumbers(dest, src);
+        assertEquals("Existing key", new Fraction(5, 6), dest.get("a"));
+        assertEquals("New key", new Fraction(2, 3), dest.get("b"));
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * @author MathSquared
+ * 
+ */
+public class ObjectIntAccumulatorMapTest {
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.ObjectIntAccumulatorMap#addTo(Object, int)}.
+     */
+    @Test
+    public void testAddTo () {
+        ObjectIntAccumulatorMap<String> map = new ObjectIntAccumulatorMap<String>(0);
+        Map<String, Integer> expected = new HashMap<String, Integer>();
+        for (int i = 0; i < 1000; i++) { // grows the table several times
+            String key = "k" + (i % 137);
+            map.addTo(key, i);
+            AdditiveMapUtils.addNumber(expected, key, i);
+        }
+        assertEquals("Size", 137, map.size());
+        assertEquals("Same as boxed map", expected, map.toMap());
+        assertEquals("Returns new sum", expected.get("k0") + 5, map.addTo("k0", 5));
+        assertEquals("Absent key", 0, map.get("missing"));
+        assertTrue("Absent key not present", !map.containsKey("missing"));
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.ObjectIntAccumulatorMap#addTo(Object, int)}.
+     */
+    @Test
+    public void testNullAndCollidingKeys () {
+        ObjectIntAccumulatorMap<String> map = new ObjectIntAccumulatorMap<String>();
+        map.addTo(null, 3);
+        map.addTo("Aa", 1); // "Aa" and "BB" have the same hash code
+        map.addTo("BB", 2);
+        map.addTo(null, 4);
+        assertEquals("Null key", 7, map.get(null));
+        assertEquals("Colliding key", 1, map.get("Aa"));
+        assertEquals("Other colliding key", 2, map.get("BB"));
+
+        Map<String, Integer> expected = new HashMap<String, Integer>();
+        expected.put(null, 7);
+        expected.put("Aa", 1);
+        expected.put("BB", 2);
+        assertEquals("Map with null key", expected, map.toMap());
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.ObjectIntAccumulatorMap#nextSlot(int)}.
+     */
+    @Test
+    public void testIteration () {
+        ObjectIntAccumulatorMap<String> map = new ObjectIntAccumulatorMap<String>();
+        map.addTo("a", 1);
+        map.addTo("b", 2);
+        map.addTo("c", 3);
+
+        Map<String, Integer> seen = new HashMap<String, Integer>();
+        for (int i = map.nextSlot(0); i >= 0; i = map.nextSlot(i + 1)) {
+            seen.put(map.keyAt(i), map.valueAt(i));
+        }
+        assertEquals("Every slot visited", map.toMap(), seen);
+
+        map.clear();
+        assertTrue("Cleared", map.isEmpty());
+        assertEquals("No slots after clearing", -1, map.nextSlot(0));
+        map.addTo("a", 5);
+        assertEquals("Reused after clearing", 5, map.get("a"));
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.AdditiveMapUtils#addAllNumbers(ObjectIntAccumulatorMap, Map)}.
+     */
+    @Test
+    public void testAddAllNumbers () {
+        Map<String, Integer> src = new HashMap<String, Integer>();
+        src.put("a", 1);
+        src.put("b", 2);
+        ObjectIntAccumulatorMap<Object> dest = new ObjectIntAccumulatorMap<Object>();
+        dest.addTo("a", 10);
+        AdditiveMapUtils.addAllNumbers(dest, src);
+        assertEquals("Existing key", 11, dest.get("a"));
+        assertEquals("New key", 2, dest.get("b"));
+    }
+}
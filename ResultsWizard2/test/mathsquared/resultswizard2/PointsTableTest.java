@@ -0,0 +1,96 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author MathSquared
+ * 
+ */
+public class PointsTableTest {
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.PointsTable#rangeSum(int, int)} and {@link mathsquared.resultswizard2.PointsTable#pointsAt(int)}.
+     */
+    @Test
+    public void testRangeSum () {
+        PointsTable table = new PointsTable(new int[]{243, 81, 27, 9, 3, 1});
+        assertEquals("Whole table", 364, table.rangeSum(0, 6));
+        assertEquals("Middle", 81 + 27 + 9, table.rangeSum(1, 4));
+        assertEquals("Empty", 0, table.rangeSum(3, 3));
+        assertEquals("Past the end", 3 + 1, table.rangeSum(4, 40));
+        assertEquals("Entirely past the end", 0, table.rangeSum(10, 20));
+        assertEquals("Place", 27, table.pointsAt(2));
+        assertEquals("Place past the end", 0, table.pointsAt(6));
+
+        PointsTable big = new PointsTable(new int[]{Integer.MAX_VALUE, Integer.MAX_VALUE});
+        assertEquals("No overflow", 2L * Integer.MAX_VALUE, big.rangeSum(0, 2));
+    }
+
+    /**
+     * Test that a {@link mathsquared.resultswizard2.PointsTable} does not share its specification with callers.
+     */
+    @Test
+    public void testCopies () {
+        int[] spec = new int[]{3, 2, 1};
+        PointsTable table = new PointsTable(spec);
+        spec[0] = 100;
+        assertEquals("Constructor copies", 3, table.pointsAt(0));
+        table.getSpec()[1] = 100;
+        assertArrayEquals("Accessor copies", new int[]{3, 2, 1}, table.getSpec());
+    }
+
+    /**
+     * Test that {@link mathsquared.resultswizard2.Sweepstakes#assignPoints(int[], PointsTable, TiePlaceAssignment, SweepstakesAssignment, int[], int[])} matches averaging each tie place by place.
+     */
+    @Test
+    public void testAveragesMatchLoops () {
+        Random rand = new Random(11);
+        for (int trial = 0; trial < 500; trial++) {
+            int[] spec = new int[rand.nextInt(12)];
+            for (int i = 0; i < spec.length; i++) {
+                spec[i] = rand.nextInt(50);
+            }
+            int[] quantities = new int[1 + rand.nextInt(6)];
+            for (int i = 0; i < quantities.length; i++) {
+                quantities[i] = 1 + (rand.nextBoolean() ? 0 : rand.nextInt(40));
+            }
+
+            int[] totals = new int[quantities.length];
+            int[] counts = new int[quantities.length];
+            PointsTable table = new PointsTable(spec);
+            SweepstakesAssignment[] averages = new SweepstakesAssignment[]{SweepstakesAssignment.AVERAGE, SweepstakesAssignment.AVERAGE_IGNORE, SweepstakesAssignment.AVERAGE_ADJUSTED};
+            for (SweepstakesAssignment sa : averages) {
+                Sweepstakes.assignPoints(quantities, table, TiePlaceAssignment.TOP, sa, totals, counts);
+                int place = 0;
+                for (int i = 0; i < quantities.length; i++) {
+                    int first = place;
+                    int last = place + quantities[i] - 1;
+                    if (sa == SweepstakesAssignment.AVERAGE_ADJUSTED && quantities[i] > 2) {
+                        first++;
+                        last--;
+                    }
+                    int total = 0;
+                    int count = 0;
+                    for (int j = first; j <= last; j++) {
+                        if (j < spec.length || sa != SweepstakesAssignment.AVERAGE_IGNORE) {
+                            total += table.pointsAt(j);
+                            count++;
+                        }
+                    }
+                    assertEquals(sa + " total", total, totals[i]);
+                    assertEquals(sa + " count", count, counts[i]);
+                    place += quantities[i];
+                }
+            }
+        }
+    }
+
+}
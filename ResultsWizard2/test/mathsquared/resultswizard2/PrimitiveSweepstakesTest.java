@@ -0,0 +1,153 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author MathSquared
+ * 
+ */
+public class PrimitiveSweepstakesTest {
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.PrimitiveSweepstakes#add(java.lang.String[][], int[], mathsquared.resultswizard2.TiePlaceAssignment, mathsquared.resultswizard2.SweepstakesAssignment)}.
+     */
+    @Test
+    public void testAdd () {
+        int[] spec = new int[]{243, 81, 27, 9, 3, 1};
+        String[][] results = new String[][]{{"A", "B"}, {}, {"C"}, {"A", "B", "D"}, {}, {}};
+
+        PrimitiveSweepstakes totals = new PrimitiveSweepstakes().add(results, spec, TiePlaceAssignment.TOP, SweepstakesAssignment.AVERAGE);
+        assertEquals("Shared denominator", 6, totals.getDenominator());
+        assertEquals("IDs in order of appearance", 2, totals.idOf("C"));
+        assertEquals("Name", "D", totals.nameOf(3));
+        assertEquals("Two-way tie plus three-way tie", new Fraction(243 + 81, 2).add(new Fraction(9 + 3 + 1, 3)), totals.getPoints(totals.idOf("A")));
+        assertEquals("Lone place", new Fraction(27), totals.getPoints(totals.idOf("C")));
+
+        totals.add(new String[][]{{"D"}, {"E"}}, new int[]{5}, TiePlaceAssignment.TOP, SweepstakesAssignment.TOP);
+        assertEquals("Second facet", new Fraction(9 + 3 + 1, 3).add(new Fraction(5)), totals.getPoints(totals.idOf("D")));
+        assertEquals("Past the specification", new Fraction(0), totals.getPoints(totals.idOf("E")));
+        assertEquals("Size", 5, totals.size());
+    }
+
+    /**
+     * Test that {@link mathsquared.resultswizard2.PrimitiveSweepstakes} agrees with the {@link Fraction}-based methods in {@link Sweepstakes} for every {@link SweepstakesAssignment}.
+     */
+    @Test
+    public void testMatchesFractions () {
+        Random rand = new Random(20141018);
+        int[] spec = new int[]{10, 8, 6, 5, 4, 3, 2, 1};
+        for (int trial = 0; trial < 200; trial++) {
+            String[][] first = randomResults(rand);
+            String[][] second = randomResults(rand);
+            for (SweepstakesAssignment sa : SweepstakesAssignment.values()) {
+                for (TiePlaceAssignment tpa : TiePlaceAssignment.values()) {
+                    Map<String, Fraction> expected;
+                    try {
+                        expected = Sweepstakes.linkSweepstakes(first, Sweepstakes.assignPoints(ArrayUtils.condensedLengthArray(first), spec, tpa, sa));
+                        AdditiveMapUtils.addAllNumbers(expected, Sweepstakes.linkSweepstakes(second, Sweepstakes.assignPoints(ArrayUtils.condensedLengthArray(second), spec, tpa, sa)), false);
+                    } catch (ArithmeticException e) {
+                        continue; // AVERAGE_IGNORE over no places; both methods refuse
+                    }
+                    Map<String, Fraction> actual = new PrimitiveSweepstakes().add(first, spec, tpa, sa).add(second, spec, tpa, sa).toMap();
+                    assertEquals(sa + " " + tpa, expected, actual);
+                }
+            }
+        }
+    }
+
+    /**
+     * Test that {@link mathsquared.resultswizard2.Sweepstakes#computeSweeps(java.lang.String[][], int[], mathsquared.resultswizard2.TiePlaceAssignment, mathsquared.resultswizard2.SweepstakesAssignment)} falls back to exact arithmetic when a <code>long</code> would overflow.
+     */
+    @Test
+    public void testOverflowFallback () {
+        int[] spec = new int[]{Integer.MAX_VALUE};
+        String[][] results = new String[][]{{"A"}};
+        PrimitiveSweepstakes totals = new PrimitiveSweepstakes();
+        Fraction expected = new Fraction(0);
+        try {
+            for (int i = 0; i < 10; i++) {
+                totals.add(results, spec, TiePlaceAssignment.TOP, SweepstakesAssignment.TOP);
+                expected = expected.add(new Fraction(Integer.MAX_VALUE));
+            }
+        } catch (ArithmeticException e) {
+            throw new AssertionError("Ten maximal ints fit in a long");
+        }
+        assertEquals("Large but fits", expected, totals.getPoints(0));
+
+        // Tie groups of many different sizes force a denominator beyond a long
+        List<String[]> groups = new ArrayList<String[]>();
+        int[] bigSpec = new int[1000];
+        for (int i = 0; i < bigSpec.length; i++) {
+            bigSpec[i] = Integer.MAX_VALUE / 64;
+        }
+        int places = 0;
+        for (int size = 2; places + size <= bigSpec.length; size++) {
+            String[] group = new String[size];
+            for (int j = 0; j < size; j++) {
+                group[j] = "A";
+            }
+            groups.add(group);
+            for (int j = 1; j < size; j++) {
+                groups.add(new String[0]);
+            }
+            places += size;
+        }
+        String[][] manyTies = groups.toArray(new String[groups.size()][]);
+        Fraction exact = Sweepstakes.linkSweepstakes(manyTies, Sweepstakes.assignPoints(ArrayUtils.condensedLengthArray(manyTies), bigSpec, TiePlaceAssignment.TOP, SweepstakesAssignment.AVERAGE)).get("A");
+        assertEquals("Falls back", exact, Sweepstakes.computeSweeps(manyTies, bigSpec, TiePlaceAssignment.TOP, SweepstakesAssignment.AVERAGE).get("A"));
+    }
+
+    /**
+     * Test that totals computed against a large shared dictionary only track the schools they see.
+     */
+    @Test
+    public void testSharedDictionary () {
+        NameDictionary dictionary = new NameDictionary();
+        for (int i = 0; i < 10000; i++) {
+            dictionary.intern("Other " + i);
+        }
+        PrimitiveSweepstakes totals = new PrimitiveSweepstakes(dictionary);
+        for (int i = 0; i < 100; i++) { // enough to grow the slot table several times
+            totals.add(new String[][]{{"School " + i}, {"School " + (i + 1)}}, new int[]{3, 1}, TiePlaceAssignment.TOP, SweepstakesAssignment.AVERAGE);
+        }
+        assertEquals("Only schools seen", 101, totals.size());
+        assertEquals("First school", Fraction.valueOf(3), totals.getPoints(dictionary.intern("School 0")));
+        assertEquals("Middle school", Fraction.valueOf(4), totals.getPoints(dictionary.intern("School 50")));
+        assertEquals("Last school", Fraction.valueOf(1), totals.getPoints(dictionary.intern("School 100")));
+        assertEquals("Map", Fraction.valueOf(4), totals.toMap().get("School 99"));
+        try {
+            totals.getPoints(dictionary.intern("Other 5000"));
+            fail("School never seen");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    private static String[][] randomResults (Random rand) {
+        List<String[]> ret = new ArrayList<String[]>();
+        int places = 1 + rand.nextInt(12);
+        while (ret.size() < places) {
+            int size = 1 + (rand.nextInt(3) == 0 ? rand.nextInt(4) : 0);
+            String[] group = new String[size];
+            for (int j = 0; j < size; j++) {
+                group[j] = "School " + rand.nextInt(6);
+            }
+            ret.add(group);
+            for (int j = 1; j < size && ret.size() < places; j++) {
+                ret.add(new String[0]);
+            }
+        }
+        return ret.toArray(new String[ret.size()][]);
+    }
+}
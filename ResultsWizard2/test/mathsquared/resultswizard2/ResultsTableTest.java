@@ -0,0 +1,84 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * @author MathSquared
+ * 
+ */
+public class ResultsTableTest {
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.ResultsTable#of(NameDictionary, String[][], String[][])}.
+     */
+    @Test
+    public void testOf () {
+        NameDictionary names = new NameDictionary();
+        ResultsTable table = ResultsTable.of(names, new String[][]{{"a", "b"}, null, {"c"}, {"d", "e", "f"}, null, null}, new String[][]{{"X", "Y"}, null, {"X"}, {"Z", null, "Y"}, null, null});
+
+        assertEquals("Places", 6, table.getPlaces());
+        assertEquals("Groups", 3, table.getGroups());
+        assertArrayEquals("Offsets are places", new int[]{0, 2, 3, 6}, table.offsets());
+        assertArrayEquals("Condensed lengths", ArrayUtils.condensedLengthArray(new int[]{2, 0, 1, 3, 0, 0}), table.condensedLengths());
+        assertEquals("Tie size", 3, table.getTieSize(3));
+        assertEquals("Skipped place", 0, table.getTieSize(4));
+        assertEquals("View of a tie", Arrays.asList("d", "e", "f"), table.getHonorees().get(3));
+        assertEquals("View of a skipped place", Arrays.<String> asList(), table.getHonorees().get(1));
+        assertEquals("Null school", null, table.getSchools().get(3).get(1));
+        assertArrayEquals("Round trip, with skipped places null", new String[][]{{"a", "b"}, null, {"c"}, {"d", "e", "f"}, null, null}, table.toHonoreeArray());
+        assertArrayEquals("Schools round trip", new String[][]{{"X", "Y"}, null, {"X"}, {"Z", null, "Y"}, null, null}, table.toSchoolArray());
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.ResultsTable#of(NameDictionary, String[][], String[][])}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testOfBadTies () {
+        ResultsTable.of(new NameDictionary(), new String[][]{{"a", "b"}, {"c"}}, null);
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.Sweepstakes#linkSweepstakes(int[], int[], Fraction[][], NameDictionary)}.
+     */
+    @Test
+    public void testLinkSweepstakes () {
+        NameDictionary names = new NameDictionary();
+        String[][] results = new String[][]{{"a", "b", "c"}, null, null, {"b", "d"}, null};
+        Fraction[][] sweeps = new Fraction[][]{{new Fraction(5), new Fraction(4), new Fraction(3)}, {new Fraction(2), new Fraction(1)}};
+        ResultsTable table = ResultsTable.of(names, results, null);
+
+        Map<String, Fraction> expected = new HashMap<String, Fraction>();
+        expected.put("a", new Fraction(5));
+        expected.put("b", new Fraction(6));
+        expected.put("c", new Fraction(3));
+        expected.put("d", new Fraction(1));
+        assertEquals("Same as jagged", expected, Sweepstakes.linkSweepstakes(table.honoreeIds(), table.offsets(), sweeps, names));
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.PrimitiveSweepstakes#add(int[], int[], PointsTable, TiePlaceAssignment, SweepstakesAssignment)}.
+     */
+    @Test
+    public void testPrimitiveAdd () {
+        NameDictionary names = new NameDictionary();
+        String[][] results = new String[][]{{"X", "Y"}, null, {"X"}, {"Z", "Y", "Z"}, null, null};
+        PointsTable points = new PointsTable(new int[]{6, 5, 4, 3, 2, 1});
+        ResultsTable table = ResultsTable.of(names, results, null);
+
+        for (SweepstakesAssignment s : SweepstakesAssignment.values()) {
+            Map<String, Fraction> flat = new PrimitiveSweepstakes(names).add(table.honoreeIds(), table.offsets(), points, TiePlaceAssignment.TOP, s).toMap();
+            Map<String, Fraction> jagged = new PrimitiveSweepstakes(names).add(results, points, TiePlaceAssignment.TOP, s).toMap();
+            assertEquals("Same as jagged for " + s, jagged, flat);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * @author MathSquared
+ * 
+ */
+public class SweepstakesLedgerTest {
+
+    private static Event event (String name, int maxPoints) {
+        return new Event(name, new String[0], 3, 0, new HashMap<String, Integer>(), new int[]{5, 3, 1}, new int[0], new HashMap<String, int[]>(), TiePlaceAssignment.TOP, SweepstakesAssignment.AVERAGE, maxPoints);
+    }
+
+    private static EventResults results (Event ev, String first, String second, String third) {
+        return new EventResults(ev, new String[][]{{"a"}, {"b"}, {"c"}}, new String[][]{{first}, {second}, {third}}, null, null, null);
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.SweepstakesLedger#put(mathsquared.resultswizard2.EventResults)}.
+     */
+    @Test
+    public void testPut () {
+        Event math = event("Math", Integer.MAX_VALUE);
+        Event art = event("Art", 6); // capped
+        SweepstakesLedger ledger = new SweepstakesLedger();
+
+        assertNull("New event", ledger.put(results(math, "X", "Y", "X")));
+        ledger.put(results(art, "X", "X", "Z"));
+        assertEquals("Capped per event", new Fraction(5 + 1 + 6), ledger.getTotal("X"));
+        assertEquals("Uncapped", new Fraction(3), ledger.getTotal("Y"));
+        assertEquals("Unknown school", new Fraction(0), ledger.getTotal("W"));
+
+        // Correcting one event replaces only its contribution
+        Map<String, Fraction> old = ledger.put(results(math, "Y", "Z", "Y"));
+        assertEquals("Old contribution", new Fraction(6), old.get("X"));
+        assertEquals("Corrected X", new Fraction(6), ledger.getTotal("X"));
+        assertEquals("Corrected Y", new Fraction(6), ledger.getTotal("Y"));
+        assertEquals("Corrected Z", new Fraction(1 + 3), ledger.getTotal("Z"));
+
+        Map<String, Fraction> expected = new HashMap<String, Fraction>();
+        AdditiveMapUtils.addAllNumbers(expected, results(math, "Y", "Z", "Y").computeTotalSweepsCapped(), false);
+        AdditiveMapUtils.addAllNumbers(expected, results(art, "X", "X", "Z").computeTotalSweepsCapped(), false);
+        assertEquals("Matches full recompute", expected, ledger.getTotals());
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.SweepstakesLedger#remove(java.lang.String)}.
+     */
+    @Test
+    public void testRemove () {
+        SweepstakesLedger ledger = new SweepstakesLedger();
+        ledger.put(results(event("Math", Integer.MAX_VALUE), "X", "Y", "Y"));
+        ledger.put(results(event("Art", Integer.MAX_VALUE), "Y", "Z", "Z"));
+
+        ledger.remove("Math");
+        assertEquals("Events", 1, ledger.getEventNames().size());
+        assertNull("Removed contribution", ledger.getContribution("Math"));
+        assertFalse("Only in removed event", ledger.getTotals().containsKey("X"));
+        assertEquals("In both events", new Fraction(5), ledger.getTotal("Y"));
+        assertNull("Unknown event", ledger.remove("Music"));
+    }
+
+}
@@ -50,6 +50,18 @@ public class SyntaxParserTest {
         int[] parsed2 = SyntaxParser.parseIntegerList("1, 2: 3, ");
         assertArrayEquals("integer list: five integers, various separators, trailing", parsed, new int[] {1, 2, 3, 4, 5});
         assertArrayEquals("integer list: various multiple-character separators, trailing", parsed2, new int[] {1, 2, 3});
+        assertArrayEquals("integer list: leading separator", SyntaxParser.parseIntegerList(" -4 5"), new int[] {0, 4, 5});
+        assertArrayEquals("integer list: empty", SyntaxParser.parseIntegerList(""), new int[] {0});
+        assertArrayEquals("integer list: no digits", SyntaxParser.parseIntegerList(", "), new int[] {});
+        assertArrayEquals("integer list: maximum", SyntaxParser.parseIntegerList("2147483647"), new int[] {Integer.MAX_VALUE});
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.SyntaxParser#parseIntegerList(java.lang.String)}.
+     */
+    @Test(expected = NumberFormatException.class)
+    public void testParseIntegerListOverflow () {
+        SyntaxParser.parseIntegerList("1 2147483648");
     }
 
 }
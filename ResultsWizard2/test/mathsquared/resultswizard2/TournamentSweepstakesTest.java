@@ -0,0 +1,53 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author MathSquared
+ * 
+ */
+public class TournamentSweepstakesTest {
+
+    /**
+     * Test that {@link mathsquared.resultswizard2.TournamentSweepstakes#computeParallel(java.util.Collection, int)} matches {@link mathsquared.resultswizard2.TournamentSweepstakes#computeSerial(java.util.Collection)} and a map-by-map sum.
+     */
+    @Test
+    public void testComputeParallel () {
+        Random rand = new Random(13);
+        List<EventResults> events = new ArrayList<EventResults>();
+        Map<String, Fraction> expected = new HashMap<String, Fraction>();
+        for (int i = 0; i < 101; i++) {
+            int[] spec = new int[]{7, 5, 3, 2, 1};
+            Event ev = new Event("Event " + i, new String[0], spec.length, 0, new HashMap<String, Integer>(), spec, new int[0], new HashMap<String, int[]>(), TiePlaceAssignment.TOP, SweepstakesAssignment.AVERAGE, 3 + rand.nextInt(10));
+
+            // A two-way tie for first, so that totals are not all whole numbers
+            String[][] names = new String[][]{{"a", "b"}, {}, {"c"}, {"d"}, {"e"}};
+            String[][] schools = new String[][]{{school(rand), school(rand)}, {}, {school(rand)}, {school(rand)}, {school(rand)}};
+            EventResults results = new EventResults(ev, names, schools, null, null, null);
+            events.add(results);
+            AdditiveMapUtils.addAllNumbers(expected, results.computeTotalSweepsCapped(), false);
+        }
+
+        assertEquals("Serial", expected, TournamentSweepstakes.computeSerial(events));
+        assertEquals("One thread", expected, TournamentSweepstakes.computeParallel(events, 1));
+        assertEquals("Four threads", expected, TournamentSweepstakes.computeParallel(events, 4));
+        assertEquals("Default", expected, TournamentSweepstakes.computeParallel(events));
+        assertEquals("Empty", new HashMap<String, Fraction>(), TournamentSweepstakes.computeParallel(new ArrayList<EventResults>(), 2));
+    }
+
+    private static String school (Random rand) {
+        return "School " + rand.nextInt(20);
+    }
+
+}
@@ -0,0 +1,74 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * @author MathSquared
+ * 
+ */
+public class VarIntUtilsTest {
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.VarIntUtils#writeVarLong(java.io.DataOutput, long)} and {@link mathsquared.resultswizard2.VarIntUtils#readVarLong(java.io.DataInput)}.
+     */
+    @Test
+    public void testVarLong () throws IOException {
+        long[] values = {0, 1, 127, 128, 300, Integer.MAX_VALUE, Long.MAX_VALUE, -1, Long.MIN_VALUE};
+        int[] lengths = {1, 1, 1, 2, 2, 5, 9, 10, 10};
+        for (int i = 0; i < values.length; i++) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            VarIntUtils.writeVarLong(new DataOutputStream(bytes), values[i]);
+            assertEquals("Length of " + values[i], lengths[i], bytes.size());
+            assertEquals("Round trip", values[i], VarIntUtils.readVarLong(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+        }
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.VarIntUtils#writeSignedVarLong(java.io.DataOutput, long)} and {@link mathsquared.resultswizard2.VarIntUtils#readSignedVarLong(java.io.DataInput)}.
+     */
+    @Test
+    public void testSignedVarLong () throws IOException {
+        long[] values = {0, -1, 1, -64, 63, -65, Long.MAX_VALUE, Long.MIN_VALUE};
+        int[] lengths = {1, 1, 1, 1, 1, 2, 10, 10};
+        for (int i = 0; i < values.length; i++) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            VarIntUtils.writeSignedVarLong(new DataOutputStream(bytes), values[i]);
+            assertEquals("Length of " + values[i], lengths[i], bytes.size());
+            assertEquals("Round trip", values[i], VarIntUtils.readSignedVarLong(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+        }
+    }
+
+    /**
+     * Test that {@link mathsquared.resultswizard2.VarIntUtils#readVarLong(java.io.DataInput)} rejects overlong input.
+     */
+    @Test(expected = StreamCorruptedException.class)
+    public void testReadVarLongTooLong () throws IOException {
+        byte[] bytes = new byte[11];
+        Arrays.fill(bytes, (byte) 0x80);
+        VarIntUtils.readVarLong(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    /**
+     * Test that {@link mathsquared.resultswizard2.VarIntUtils#readVarInt(java.io.DataInput)} rejects numbers that don't fit.
+     */
+    @Test(expected = StreamCorruptedException.class)
+    public void testReadVarIntOutOfRange () throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        VarIntUtils.writeVarLong(new DataOutputStream(bytes), 1L << 40);
+        VarIntUtils.readVarInt(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+}
@@ -0,0 +1,67 @@
+/**
+ * 
+ */
+package mathsquared.resultswizard2;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * @author MathSquared
+ * 
+ */
+public class WhatIfSweepstakesTest {
+
+    private static List<EventResults> events (TiePlaceAssignment tieAssign, SweepstakesAssignment sweepsAssign) {
+        List<EventResults> ret = new ArrayList<EventResults>();
+        // A three-way tie for second, and a two-way tie for fifth
+        Event math = new Event("Math", new String[0], 6, 2, new HashMap<String, Integer>(), new int[]{10, 7, 5, 3, 2, 1}, new int[]{6, 3}, new HashMap<String, int[]>(), tieAssign, sweepsAssign, 12);
+        String[][] names = new String[][]{{"a"}, {"b", "c", "d"}, {}, {}, {"e", "f"}, {}};
+        String[][] schools = new String[][]{{"X"}, {"Y", "X", "Z"}, {}, {}, {"Z", "W"}, {}};
+        ret.add(new EventResults(math, names, schools, new String[][]{{"Y"}, {"X"}}, null, null));
+
+        Event art = new Event("Art", new String[0], 4, 0, new HashMap<String, Integer>(), new int[]{9, 4, 1, 0}, new int[0], new HashMap<String, int[]>(), tieAssign, sweepsAssign, Integer.MAX_VALUE);
+        ret.add(new EventResults(art, new String[][]{{"g", "h"}, {}, {"i", "j"}, {}}, new String[][]{{"W", "Y"}, {}, {"X", "X"}, {}}, null, null, null));
+        return ret;
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.WhatIfSweepstakes#getTotals(mathsquared.resultswizard2.TiePlaceAssignment, mathsquared.resultswizard2.SweepstakesAssignment)}.
+     */
+    @Test
+    public void testGetTotals () {
+        WhatIfSweepstakes whatIf = new WhatIfSweepstakes(events(TiePlaceAssignment.TOP, SweepstakesAssignment.AVERAGE));
+        for (TiePlaceAssignment t : TiePlaceAssignment.values()) {
+            for (SweepstakesAssignment s : SweepstakesAssignment.values()) {
+                assertEquals(t + " " + s, TournamentSweepstakes.computeSerial(events(t, s)), whatIf.getTotals(t, s));
+            }
+        }
+
+        // Math: 10 + 7 individual and 3 team, capped at 12; Art: 1 twice for the tie for third
+        assertEquals("By hand", new Fraction(12 + 2), whatIf.getTotals(TiePlaceAssignment.TOP, SweepstakesAssignment.TOP).get("X"));
+    }
+
+    /**
+     * Test method for {@link mathsquared.resultswizard2.WhatIfSweepstakes#getPlaces(int)}.
+     */
+    @Test
+    public void testGetPlaces () {
+        WhatIfSweepstakes whatIf = new WhatIfSweepstakes(events(TiePlaceAssignment.TOP, SweepstakesAssignment.TIE_PLACE));
+        Map<String, int[][]> places = whatIf.getPlaces(10);
+        for (TiePlaceAssignment t : TiePlaceAssignment.values()) {
+            for (SweepstakesAssignment s : SweepstakesAssignment.values()) {
+                Standings<String, Fraction> standings = whatIf.getStandings(t, s, 10);
+                for (int i = 0; i < standings.size(); i++) {
+                    assertEquals(t + " " + s, standings.getPlace(i), places.get(standings.getKey(i))[t.ordinal()][s.ordinal()]);
+                }
+            }
+        }
+    }
+
+}